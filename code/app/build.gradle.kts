@@ -3,6 +3,9 @@ plugins {
     id("com.google.gms.google-services")
 }
 
+val joinBurstLoadTestClass = "com.example.aurora.JoinBurstLoadTest"
+val runJoinBurstLoadTest = gradle.startParameter.taskNames.any { it.endsWith("joinBurstLoadTest") }
+
 android {
     namespace = "com.example.aurora"
     compileSdk = 36
@@ -14,6 +17,19 @@ android {
         versionCode = 1
         versionName = "1.0"
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+
+        // JoinBurstLoadTest needs the Firestore emulator, so it only runs through
+        // :app:joinBurstLoadTest; -PloadTest.<arg>=... is passed on as runner arguments
+        if (runJoinBurstLoadTest) {
+            testInstrumentationRunnerArguments["class"] = joinBurstLoadTestClass
+            listOf("entrants", "maxSpots", "emulatorHost", "emulatorPort").forEach { arg ->
+                project.findProperty("loadTest.$arg")?.let {
+                    testInstrumentationRunnerArguments[arg] = it.toString()
+                }
+            }
+        } else {
+            testInstrumentationRunnerArguments["notClass"] = joinBurstLoadTestClass
+        }
     }
 
     buildTypes {
@@ -34,6 +50,13 @@ android {
         isCoreLibraryDesugaringEnabled = true
     }
 }
+
+// Start the emulator first: firebase emulators:start --only firestore --project demo-aurora
+tasks.register("joinBurstLoadTest") {
+    group = "verification"
+    description = "Runs JoinBurstLoadTest on a connected device against the local Firestore emulator."
+    dependsOn("connectedDebugAndroidTest")
+}
 //
 dependencies {
     //implementation(files("C:\\Users\\omara\\AppData\\Local\\Android\\Sdk\\platforms\\android-36\\android.jar"))
@@ -52,6 +75,9 @@ dependencies {
         implementation(libs.activity)
         implementation(libs.constraintlayout)
 
+        // --- Background work (lottery runs) ---
+        implementation("androidx.work:work-runtime:2.9.1")
+
         // --- Maps & location ---
         implementation("com.google.android.gms:play-services-maps:18.2.0")
         implementation("com.google.android.gms:play-services-location:21.0.1")
@@ -3,9 +3,9 @@ package com.example.aurora;
 import android.content.Context;
 import android.view.LayoutInflater;
 import android.view.View;
-import android.widget.LinearLayout;
 import android.widget.TextView;
 
+import androidx.recyclerview.widget.RecyclerView;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.platform.app.InstrumentationRegistry;
 
@@ -21,7 +21,7 @@ import static org.junit.Assert.assertTrue;
  * <p>
  * This test inflates {@code fragment_alerts} without launching an activity
  * and verifies that the default "empty state" is wired correctly:
- * the message view is visible and the alerts container has no children.
+ * the message view is visible and the alerts list has no items.
  */
 @RunWith(AndroidJUnit4.class)
 public class AlertsLayoutInstrumentedTest {
@@ -32,7 +32,7 @@ public class AlertsLayoutInstrumentedTest {
      * The test checks that:
      * <ul>
      *     <li>{@code alertsMessage} exists and is visible,</li>
-     *     <li>{@code alertsContainer} exists and starts with zero children, and</li>
+     *     <li>{@code alertsRecycler} exists and starts with zero items, and</li>
      *     <li>the empty-state message text is non-empty.</li>
      * </ul>
      * This confirms that the UI communicates clearly when the user has no alerts yet.
@@ -45,11 +45,11 @@ public class AlertsLayoutInstrumentedTest {
         assertNotNull(root);
 
         TextView alertsMessage = root.findViewById(R.id.alertsMessage);
-        LinearLayout alertsContainer = root.findViewById(R.id.alertsContainer);
+        RecyclerView alertsRecycler = root.findViewById(R.id.alertsRecycler);
         assertNotNull(alertsMessage);
-        assertNotNull(alertsContainer);
+        assertNotNull(alertsRecycler);
         assertEquals(View.VISIBLE, alertsMessage.getVisibility());
-        assertEquals(0, alertsContainer.getChildCount());
+        assertEquals(0, alertsRecycler.getChildCount());
 
         CharSequence text = alertsMessage.getText();
         assertNotNull(text);
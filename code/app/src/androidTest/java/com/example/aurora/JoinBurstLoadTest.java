@@ -0,0 +1,363 @@
+/*
+ * source: Firebase docs - "Connect your app to the Cloud Firestore Emulator".
+ * url: https://firebase.google.com/docs/emulator-suite/connect_firestore#android
+ * note: The load test talks to the local emulator through useEmulator() on a separate FirebaseApp,
+ *       so it can never write to the real project.
+ *
+ * source: AndroidX Test - "AndroidJUnitRunner" (instrumentation arguments).
+ * url: https://developer.android.com/training/testing/instrumented-tests/androidx-test-libraries/runner#filter-tests
+ * note: Burst size and emulator address are read from InstrumentationRegistry.getArguments(),
+ *       which :app:joinBurstLoadTest fills from -PloadTest.* Gradle properties.
+ */
+
+package com.example.aurora;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.os.Bundle;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.aurora.data.EntrantCounts;
+import com.example.aurora.data.EntrantRepository;
+import com.example.aurora.data.EntrantStatus;
+import com.example.aurora.data.JoinMetrics;
+import com.example.aurora.map.JoinLocation;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.FirebaseFirestoreSettings;
+import com.google.firebase.firestore.MemoryCacheSettings;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * JoinBurstLoadTest
+ *
+ * Load test for the join / leave / accept paths used by EventsAdapter,
+ * run against the local Firestore emulator.
+ *
+ * Phases, all on one fresh event with maxSpots set:
+ *  1. burst     : every virtual entrant joins at once (half with a join location)
+ *  2. select    : the first joined entrants are moved to "selected" (setup, not measured)
+ *  3. mixed     : selected entrants accept, some waiting entrants leave, and the
+ *                 entrants rejected in phase 1 try to join again, all at once
+ *
+ * Reported per operation: p50/p99 latency, outcomes, and estimated document
+ * reads/writes (from the transaction shapes in EntrantRepository; join reads
+ * are multiplied by the attempts JoinMetrics observed). Join retries and
+ * contention come from EntrantRepository.joinMetrics().
+ *
+ * Asserted: the waiting list never ends above maxSpots, the counter shards
+ * agree with the entrant documents, and every entrant has at most one
+ * join location.
+ *
+ * Excluded from connectedAndroidTest; run with
+ *  firebase emulators:start --only firestore --project demo-aurora
+ *  ./gradlew :app:joinBurstLoadTest -PloadTest.entrants=2000 -PloadTest.maxSpots=500
+ * and read the report with: adb logcat -s JoinBurstLoadTest
+ */
+@RunWith(AndroidJUnit4.class)
+public class JoinBurstLoadTest {
+
+    private static final String TAG = "JoinBurstLoadTest";
+    private static final String APP_NAME = "join-burst-load-test";
+
+    /** Threads issuing requests; the SDK queues the rest internally. */
+    private static final int CALLER_THREADS = 32;
+    private static final long PHASE_TIMEOUT_MIN = 10;
+
+    private FirebaseFirestore db;
+    private EntrantRepository entrants;
+    private String eventId;
+
+    private int entrantCount;
+    private long maxSpots;
+
+    @Before
+    public void setUp() throws Exception {
+        Bundle args = InstrumentationRegistry.getArguments();
+        entrantCount = Integer.parseInt(args.getString("entrants", "2000"));
+        maxSpots = Long.parseLong(args.getString("maxSpots", "500"));
+        String host = args.getString("emulatorHost", "10.0.2.2");
+        int port = Integer.parseInt(args.getString("emulatorPort", "8080"));
+
+        // a separate app instance so useEmulator() never affects the default one
+        FirebaseApp app;
+        try {
+            app = FirebaseApp.getInstance(APP_NAME);
+        } catch (IllegalStateException notCreated) {
+            app = FirebaseApp.initializeApp(
+                    InstrumentationRegistry.getInstrumentation().getTargetContext(),
+                    FirebaseApp.getInstance().getOptions(),
+                    APP_NAME);
+        }
+        db = FirebaseFirestore.getInstance(app);
+        db.useEmulator(host, port);
+        db.setFirestoreSettings(new FirebaseFirestoreSettings.Builder()
+                .setLocalCacheSettings(MemoryCacheSettings.newBuilder().build())
+                .build());
+
+        entrants = new EntrantRepository(db);
+        EntrantRepository.joinMetrics().reset();
+
+        eventId = "load-" + System.currentTimeMillis();
+        Map<String, Object> event = new HashMap<>();
+        event.put("title", "Join burst " + eventId);
+        event.put("maxSpots", maxSpots);
+        event.put("geoRequired", false);
+        event.put(EntrantRepository.SCHEMA_FIELD, EntrantRepository.SCHEMA_VERSION);
+        Tasks.await(db.collection("events").document(eventId).set(event), 30, TimeUnit.SECONDS);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (db != null) Tasks.await(db.terminate(), 30, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void joinBurst() throws Exception {
+        List<String> users = new ArrayList<>();
+        for (int i = 0; i < entrantCount; i++) users.add("load" + i + "@test.com");
+
+        // 1. burst
+        OpStats join = new OpStats("join");
+        List<String> outcomes = runAll(users.size(), i -> {
+            String user = users.get(i);
+            JoinLocation location = i % 2 == 0 ? new JoinLocation(user, 53.5, -113.5) : null;
+            return entrants.join(eventId, user, location);
+        }, join);
+        JoinMetrics burstMetrics = EntrantRepository.joinMetrics().copy();
+
+        List<String> joined = new ArrayList<>();
+        List<String> rejected = new ArrayList<>();
+        for (int i = 0; i < users.size(); i++) {
+            ("ok".equals(outcomes.get(i)) ? joined : rejected).add(users.get(i));
+        }
+
+        // 2. select the first quarter of the joined entrants
+        List<String> selected = new ArrayList<>(joined.subList(0, joined.size() / 4));
+        List<String> remaining = new ArrayList<>(joined.subList(selected.size(), joined.size()));
+        List<String> leaving = new ArrayList<>(remaining.subList(0, remaining.size() / 4));
+        for (String user : selected) {
+            Tasks.await(entrants.setStatus(eventId, user, EntrantStatus.SELECTED), 30, TimeUnit.SECONDS);
+        }
+
+        // 3. accept, leave and re-join at the same time
+        EntrantRepository.joinMetrics().reset();
+        OpStats accept = new OpStats("accept");
+        OpStats leave = new OpStats("leave");
+        OpStats rejoin = new OpStats("rejoin");
+
+        List<Runnable> mixed = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(selected.size() + leaving.size() + rejected.size());
+        for (String user : selected) {
+            mixed.add(() -> timed(accept, () -> entrants.setStatus(eventId, user, EntrantStatus.ACCEPTED), done));
+        }
+        for (String user : leaving) {
+            mixed.add(() -> timed(leave, () -> entrants.leave(eventId, user), done));
+        }
+        for (String user : rejected) {
+            mixed.add(() -> timed(rejoin, () -> entrants.join(eventId, user, null), done));
+        }
+        Collections.shuffle(mixed);
+        fire(mixed, done);
+        JoinMetrics mixedMetrics = EntrantRepository.joinMetrics().copy();
+
+        // reads/writes per call from the transaction shapes in EntrantRepository
+        int capacityReads = EntrantCounts.NUM_SHARDS;
+        join.estimateCost(burstMetrics.getAttempts() * (2L + capacityReads), 2.5);
+        rejoin.estimateCost(mixedMetrics.getAttempts() * (2L + capacityReads), 2.0);
+        accept.estimateCost(accept.calls(), 2.0);
+        leave.estimateCost(leave.calls(), 3.0);
+
+        report("burst", burstMetrics, join);
+        report("mixed", mixedMetrics, accept, leave, rejoin);
+
+        assertConsistent(selected.size());
+    }
+
+    /**
+     * Checks the final state: capacity respected, counters match documents,
+     * no duplicate join locations.
+     */
+    private void assertConsistent(int selectedCount) throws Exception {
+        QuerySnapshot docs = Tasks.await(entrants.listAll(eventId), 60, TimeUnit.SECONDS);
+        Map<String, Long> actual = new HashMap<>();
+        Set<String> members = new HashSet<>();
+        for (DocumentSnapshot doc : docs.getDocuments()) {
+            actual.merge(EntrantRepository.statusOf(doc), 1L, Long::sum);
+            members.add(doc.getId());
+        }
+        EntrantCounts counted = Tasks.await(entrants.counts(eventId), 60, TimeUnit.SECONDS);
+
+        long waiting = actual.getOrDefault(EntrantStatus.WAITING, 0L);
+        Log.i(TAG, String.format(Locale.US,
+                "final: waiting=%d accepted=%d maxSpots=%d entrantDocs=%d",
+                waiting, actual.getOrDefault(EntrantStatus.ACCEPTED, 0L),
+                maxSpots, docs.size()));
+
+        assertTrue("waiting list overshot maxSpots", waiting <= maxSpots);
+        assertEquals(selectedCount, (long) actual.getOrDefault(EntrantStatus.ACCEPTED, 0L));
+        for (String status : EntrantStatus.ALL) {
+            assertEquals("counter drift for " + status,
+                    (long) actual.getOrDefault(status, 0L), counted.get(status));
+        }
+
+        QuerySnapshot locations = Tasks.await(
+                db.collection("events").document(eventId)
+                        .collection(EntrantRepository.LOCATIONS).get(),
+                60, TimeUnit.SECONDS);
+        Map<String, Integer> perUser = new HashMap<>();
+        for (DocumentSnapshot doc : locations.getDocuments()) {
+            perUser.merge(doc.getString("userKey"), 1, Integer::sum);
+            assertTrue("location left behind by " + doc.getId(), members.contains(doc.getId()));
+        }
+        for (Map.Entry<String, Integer> e : perUser.entrySet()) {
+            assertEquals("duplicate join location for " + e.getKey(), 1, (int) e.getValue());
+        }
+    }
+
+    /**
+     * Starts calls 0..count-1 at the same moment and waits for all of them.
+     *
+     * @return "ok", or the error code name, per call in index order
+     */
+    private List<String> runAll(int count, IntFunction<Task<Void>> call, OpStats stats)
+            throws InterruptedException {
+        String[] outcomes = new String[count];
+        CountDownLatch done = new CountDownLatch(count);
+        List<Runnable> calls = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            calls.add(() -> {
+                long start = System.nanoTime();
+                call.apply(index).addOnCompleteListener(task -> {
+                    outcomes[index] = stats.record(start, task);
+                    done.countDown();
+                });
+            });
+        }
+        fire(calls, done);
+        List<String> result = new ArrayList<>();
+        Collections.addAll(result, outcomes);
+        return result;
+    }
+
+    private static void timed(OpStats stats, Supplier<Task<Void>> call, CountDownLatch done) {
+        long start = System.nanoTime();
+        call.get().addOnCompleteListener(task -> {
+            stats.record(start, task);
+            done.countDown();
+        });
+    }
+
+    /** Releases every call from a start gate so they hit the emulator together. */
+    private static void fire(List<Runnable> calls, CountDownLatch done) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(CALLER_THREADS);
+        CountDownLatch gate = new CountDownLatch(1);
+        for (Runnable call : calls) {
+            pool.execute(() -> {
+                try {
+                    gate.await();
+                    call.run();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        gate.countDown();
+        assertTrue("phase timed out", done.await(PHASE_TIMEOUT_MIN, TimeUnit.MINUTES));
+        pool.shutdown();
+    }
+
+    private static void report(String phase, JoinMetrics metrics, OpStats... ops) {
+        Log.i(TAG, "=== " + phase + " === retries=" + metrics.getRetries()
+                + " contention=" + metrics.getContention()
+                + " attempts=" + metrics.getAttempts());
+        for (OpStats op : ops) Log.i(TAG, op.toString());
+    }
+
+    /**
+     * Latencies, outcomes and estimated document operations of one operation type.
+     */
+    private static class OpStats {
+        private final String name;
+        private final List<Long> latenciesMillis = new ArrayList<>();
+        private final Map<String, Integer> outcomes = new HashMap<>();
+        private long reads;
+        private long writes;
+
+        OpStats(String name) {
+            this.name = name;
+        }
+
+        synchronized String record(long startNanos, Task<Void> task) {
+            latenciesMillis.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            String outcome = "ok";
+            if (!task.isSuccessful()) {
+                Exception e = task.getException();
+                outcome = e instanceof FirebaseFirestoreException
+                        ? ((FirebaseFirestoreException) e).getCode().name() : String.valueOf(e);
+            }
+            outcomes.merge(outcome, 1, Integer::sum);
+            return outcome;
+        }
+
+        synchronized long calls() {
+            return latenciesMillis.size();
+        }
+
+        /**
+         * @param readCount       document reads across all attempts
+         * @param writesPerCommit average writes of one successful call
+         */
+        synchronized void estimateCost(long readCount, double writesPerCommit) {
+            reads = readCount;
+            writes = Math.round(outcomes.getOrDefault("ok", 0) * writesPerCommit);
+        }
+
+        synchronized long percentile(double p) {
+            if (latenciesMillis.isEmpty()) return 0L;
+            List<Long> sorted = new ArrayList<>(latenciesMillis);
+            Collections.sort(sorted);
+            int rank = (int) Math.ceil(p / 100.0 * sorted.size());
+            return sorted.get(Math.max(0, rank - 1));
+        }
+
+        @Override
+        public synchronized String toString() {
+            long calls = calls();
+            return String.format(Locale.US,
+                    "%-7s calls=%d p50=%dms p99=%dms outcomes=%s reads=%d (%.1f/call) writes=%d (%.1f/call)",
+                    name, calls, percentile(50), percentile(99), outcomes,
+                    reads, calls == 0 ? 0.0 : (double) reads / calls,
+                    writes, calls == 0 ? 0.0 : (double) writes / calls);
+        }
+    }
+}
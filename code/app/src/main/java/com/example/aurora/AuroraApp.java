@@ -7,6 +7,8 @@
 // 2. Android Developers — "Application class"
 //    https://developer.android.com/reference/android/app/Application
 //    Used for extending Application to initialize app-wide resources in onCreate().
+//    Also starts NotificationRepository, the shared notifications listener,
+//    and OutboundQueue, the offline queue for notification and log writes.
 
 
 package com.example.aurora;
@@ -15,11 +17,17 @@ import android.app.Application;
 import android.app.NotificationChannel;
 import android.app.NotificationManager;
 import android.os.Build;
+
+import com.example.aurora.data.OutboundQueue;
+import com.example.aurora.notifications.NotificationRepository;
+
 /**
  * Application class for the Aurora app.
  *
  * <p>Used to initialize global settings and create the notification
- * channel for sending lottery result updates to users.</p>
+ * channel for sending lottery result updates to users. Also starts the
+ * app-scoped NotificationRepository shared by the notification screens
+ * and the OutboundQueue that holds writes made while offline.</p>
  */
 
 public class AuroraApp extends Application {
@@ -37,5 +45,7 @@ public class AuroraApp extends Application {
             NotificationManager nm = getSystemService(NotificationManager.class);
             if (nm != null) nm.createNotificationChannel(ch);
         }
+        OutboundQueue.start(this);
+        NotificationRepository.start(this);
     }
 }
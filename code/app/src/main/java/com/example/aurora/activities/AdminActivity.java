@@ -75,15 +75,26 @@ import androidx.appcompat.app.AppCompatActivity;
 
 import com.bumptech.glide.Glide;
 import com.example.aurora.R;
+import com.example.aurora.data.EntrantCounterStore;
+import com.example.aurora.data.EntrantRepository;
+import com.example.aurora.data.EntrantStatus;
+import com.example.aurora.data.EventCardStore;
 import com.example.aurora.models.AdminImage;
 import com.example.aurora.utils.ActivityLogger;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.AggregateQuerySnapshot;
+import com.google.firebase.firestore.AggregateSource;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.Query;
 import com.google.firebase.storage.FirebaseStorage;
 import com.google.firebase.storage.StorageReference;
+import com.example.aurora.notifications.CompactionWorker;
 import com.example.aurora.notifications.FirestoreNotificationHelper;
+import com.example.aurora.notifications.NotificationTemplates;
+import com.example.aurora.notifications.UnreadCounter;
 
 import java.util.ArrayList;
 import java.util.Date;
@@ -175,6 +186,9 @@ public class AdminActivity extends AppCompatActivity {
         // Initial Load
         switchMode(Mode.EVENTS);
         refreshCounts();
+
+        // daily retention job for notifications and logs, run from admin devices only
+        CompactionWorker.schedule(this);
     }
 
     @Override
@@ -229,32 +243,42 @@ public class AdminActivity extends AppCompatActivity {
      *   Total events
      *   Total users
      *   Total images (events with posterUrl)
-     *   Total notification log entries
+     *   Total notification log entries (live entries counted with count(),
+     *   plus those CompactionWorker has rolled up)
      *
-     * Uses lightweight collection reads without ordering to minimize cost.
+     * Events and images are counted with count() over eventCards, so no
+     * documents are downloaded for them.
      */
     private void refreshCounts() {
-        db.collection("events").get().addOnSuccessListener(snap -> countEvents.setText(String.valueOf(snap.size())));
+        db.collection(EventCardStore.COLLECTION).count().get(AggregateSource.SERVER)
+                .addOnSuccessListener(snap -> countEvents.setText(String.valueOf(snap.getCount())));
         db.collection("users").get().addOnSuccessListener(snap -> countUsers.setText(String.valueOf(snap.size())));
-        db.collection("notificationLogs").get().addOnSuccessListener(snap -> countLogs.setText(String.valueOf(snap.size())));
 
-        db.collection("events").get().addOnSuccessListener(snap -> {
-            int imgCount = 0;
-            for(DocumentSnapshot doc : snap) {
-                String url = doc.getString("posterUrl");
-                if (url != null && !url.isEmpty()) imgCount++;
-            }
-            countImages.setText(String.valueOf(imgCount));
+        Task<AggregateQuerySnapshot> liveLogs = db.collection("notificationLogs").count().get(AggregateSource.SERVER);
+        Task<DocumentSnapshot> compacted = db.collection(CompactionWorker.STATE_COLLECTION)
+                .document(CompactionWorker.STATE_DOC).get();
+        Tasks.whenAllComplete(liveLogs, compacted).addOnSuccessListener(done -> {
+            if (!liveLogs.isSuccessful()) return;
+            long total = liveLogs.getResult().getCount();
+            Long archived = compacted.isSuccessful() ? compacted.getResult().getLong("archivedNotificationLogs") : null;
+            if (archived != null) total += archived;
+            countLogs.setText(String.valueOf(total));
         });
+
+        // non-empty strings only; null or missing posterUrl is not matched
+        db.collection(EventCardStore.COLLECTION).whereGreaterThan("posterUrl", "").count()
+                .get(AggregateSource.SERVER)
+                .addOnSuccessListener(snap -> countImages.setText(String.valueOf(snap.getCount())));
     }
 
 
     /**
-     * Fetches all events sorted by date and displays them as event cards.
-     * Each card shows title, date, organizer, waiting count, and a remove button.
+     * Fetches all event cards (eventCards, not the full events) sorted by date
+     * and displays them. Each card shows title, date, organizer, waiting count,
+     * and a remove button.
      */
     private void loadEvents() {
-        db.collection("events").orderBy("date", Query.Direction.ASCENDING).get()
+        db.collection(EventCardStore.COLLECTION).orderBy("date", Query.Direction.ASCENDING).get()
                 .addOnSuccessListener(querySnapshot -> {
                     eventDocs = new ArrayList<>(querySnapshot.getDocuments());
                     renderEventList(eventDocs);
@@ -304,12 +328,11 @@ public class AdminActivity extends AppCompatActivity {
         String date = nz(doc.getString("date"));
         if (date.isEmpty()) date = nz(doc.getString("dateDisplay"));
 
-        List<String> waiting = (List<String>) doc.get("waitingList");
-        int entrants = waiting == null ? 0 : waiting.size();
-
         titleView.setText(title);
         dateView.setText(date);
-        entrantsView.setText(String.valueOf(entrants));
+        entrantsView.setText(String.valueOf(EventCardStore.countsOf(doc).getWaiting()));
+        new EventCardStore(db).countsFor(doc).addOnSuccessListener(counts ->
+                entrantsView.setText(String.valueOf(counts.getWaiting())));
         statusView.setText("Active");
 
 
@@ -356,7 +379,7 @@ public class AdminActivity extends AppCompatActivity {
     }
 
     private void deleteEvent(String eventId, String title) {
-        db.collection("events").document(eventId).delete().addOnSuccessListener(v -> {
+        new EventCardStore(db).delete(eventId).addOnSuccessListener(v -> {
             Toast.makeText(this, "Event removed", Toast.LENGTH_SHORT).show();
             ActivityLogger.logEventRemoved(title);
             refreshCounts();
@@ -483,12 +506,12 @@ public class AdminActivity extends AppCompatActivity {
 
 
     /**
-     * Loads all event posters by scanning the events collection for non-null posterUrl fields.
+     * Loads all event posters by scanning the event cards for non-null posterUrl fields.
      * The result is turned into AdminImage objects and rendered as image cards.
      */
     private void loadImages() {
         listContainer.removeAllViews();
-        db.collection("events").get().addOnSuccessListener(query -> {
+        db.collection(EventCardStore.COLLECTION).get().addOnSuccessListener(query -> {
             imageList.clear();
             for (DocumentSnapshot doc : query) {
                 String posterUrl = doc.getString("posterUrl");
@@ -534,7 +557,7 @@ public class AdminActivity extends AppCompatActivity {
     private void deleteImage(AdminImage img) {
         StorageReference ref = FirebaseStorage.getInstance().getReferenceFromUrl(img.posterUrl);
         ref.delete().addOnSuccessListener(aVoid ->
-                db.collection("events").document(img.eventId).update("posterUrl", null)
+                new EventCardStore(db).update(img.eventId, "posterUrl", null)
                         .addOnSuccessListener(v -> {
                             Toast.makeText(this, "Image removed.", Toast.LENGTH_SHORT).show();
                             loadImages();
@@ -578,7 +601,8 @@ public class AdminActivity extends AppCompatActivity {
 
         String eventName = nz(doc.getString("eventName"));
         String type = nz(doc.getString("notificationType"));
-        String message = nz(doc.getString("message"));
+        String message = NotificationTemplates.renderLog(doc.getString("message"),
+                doc.getString("template"), NotificationTemplates.params(doc.get("params")));
 
         titleView.setText(eventName + " (" + type + ")");
         subtitleView.setText(message);
@@ -681,7 +705,8 @@ public class AdminActivity extends AppCompatActivity {
      *  Events where the user is on the waiting list
      *  Events the user has been selected for
      *
-     * Uses arrayContains queries on events collection.
+     * Uses one collection-group query on the entrants subcollections,
+     * then reads the matching events for their titles.
      *
      * @param userDoc Firestore document of the user.
      */
@@ -706,25 +731,44 @@ public class AdminActivity extends AppCompatActivity {
         TextView tvWaiting = dialogView.findViewById(R.id.dossierWaitingList);
         dialogView.findViewById(R.id.btnCloseDossier).setOnClickListener(v -> dossierDialog.dismiss());
 
-        db.collection("events").whereArrayContains("waitingList", userId).get().addOnSuccessListener(snap -> {
-            if (snap.isEmpty()) tvWaiting.setText("No active waiting lists.");
-            else {
-                StringBuilder sb = new StringBuilder();
-                for (DocumentSnapshot doc : snap) sb.append("• ").append(nz(doc.getString("title"))).append("\n");
-                tvWaiting.setText(sb.toString());
+        // entrant documents are keyed by email (ANDROID_ID for users without one)
+        String userKey = nz(userDoc.getString("email"));
+        if (userKey.isEmpty()) userKey = userId;
+
+        new EntrantRepository(db).forUser(userKey).addOnSuccessListener(snap -> {
+            List<Task<DocumentSnapshot>> waiting = new ArrayList<>();
+            List<Task<DocumentSnapshot>> selected = new ArrayList<>();
+            for (DocumentSnapshot entrant : snap) {
+                String status = EntrantRepository.statusOf(entrant);
+                Task<DocumentSnapshot> event = db.collection("events")
+                        .document(EntrantRepository.eventIdOf(entrant)).get();
+                if (EntrantStatus.WAITING.equals(status)) waiting.add(event);
+                else if (EntrantStatus.SELECTED.equals(status)) selected.add(event);
             }
+            showEventTitles(tvWaiting, waiting, "• ", "No active waiting lists.");
+            showEventTitles(tvSelected, selected, "🏆 ", "No active wins yet.");
         });
 
-        db.collection("events").whereArrayContains("selectedEntrants", userId).get().addOnSuccessListener(snap -> {
-            if (snap.isEmpty()) tvSelected.setText("No active wins yet.");
-            else {
-                StringBuilder sb = new StringBuilder();
-                for (DocumentSnapshot doc : snap) sb.append("🏆 ").append(nz(doc.getString("title"))).append("\n");
-                tvSelected.setText(sb.toString());
+        dossierDialog.show();
+    }
+
+
+    /**
+     * Waits for the given event reads and lists their titles in the TextView.
+     */
+    private void showEventTitles(TextView target, List<Task<DocumentSnapshot>> events,
+                                 String bullet, String emptyText) {
+        if (events.isEmpty()) {
+            target.setText(emptyText);
+            return;
+        }
+        Tasks.whenAllSuccess(events).addOnSuccessListener(docs -> {
+            StringBuilder sb = new StringBuilder();
+            for (Object doc : docs) {
+                sb.append(bullet).append(nz(((DocumentSnapshot) doc).getString("title"))).append("\n");
             }
+            target.setText(sb.toString());
         });
-
-        dossierDialog.show();
     }
 
 
@@ -758,21 +802,15 @@ public class AdminActivity extends AppCompatActivity {
 
         labelSelected.setText("Counts");
 
-        List<String> w = (List<String>) eventDoc.get("waitingList");
-        List<String> s = (List<String>) eventDoc.get("selectedEntrants");
-        List<String> c = (List<String>) eventDoc.get("cancelledEntrants");
-
-        int wCount = w != null ? w.size() : 0;
-        int sCount = s != null ? s.size() : 0;
-        int cCount = c != null ? c.size() : 0;
         Long max = eventDoc.getLong("maxSpots");
 
-        valSelected.setText(
-                "Waiting: " + wCount + "\n" +
-                        "Selected: " + sCount + "\n" +
-                        "Cancelled: " + cCount + "\n" +
-                        "Capacity: " + (max != null ? max : "Unlimited")
-        );
+        new EntrantRepository(db).counts(eventDoc.getId()).addOnSuccessListener(counts ->
+                valSelected.setText(
+                        "Waiting: " + counts.getWaiting() + "\n" +
+                                "Selected: " + counts.getSelected() + "\n" +
+                                "Cancelled: " + counts.getCancelled() + "\n" +
+                                "Capacity: " + (max != null ? max : "Unlimited")
+                ));
 
         labelWaiting.setVisibility(View.GONE);
         valWaiting.setVisibility(View.GONE);
@@ -835,9 +873,10 @@ public class AdminActivity extends AppCompatActivity {
      * Deletes a single event and all its associated Firestore data.
      *
      * This performs a multi-step cleanup:
-     *  1. Deletes all documents in the event's "waitingLocations" subcollection.
+     *  1. Deletes all documents in the event's "waitingLocations", "entrants" and "counterShards" subcollections.
+     *     Each entrant's membership index entry is deleted with it.
      *  2. Deletes all notification documents referencing this event (via eventId).
-     *  3. Finally deletes the event document itself from the "events" collection.
+     *  3. Finally deletes the event document itself from the "events" collection, with its event card.
      *
      * The deletions are chained using success listeners to ensure ordering:
      * subcollections → notifications → parent event.
@@ -857,17 +896,31 @@ public class AdminActivity extends AppCompatActivity {
                         d.getReference().delete();
                     }
 
+                    String[] subcollections = { EntrantRepository.COLLECTION, EntrantCounterStore.COLLECTION };
+                    EntrantRepository entrants = new EntrantRepository(db);
+                    for (String sub : subcollections) {
+                        db.collection("events").document(eventId)
+                                .collection(sub)
+                                .get()
+                                .addOnSuccessListener(subSnap -> {
+                                    for (DocumentSnapshot d : subSnap.getDocuments()) {
+                                        d.getReference().delete();
+                                        if (EntrantRepository.COLLECTION.equals(sub)) {
+                                            // the entrant's membership index entry goes with it
+                                            entrants.membership(EntrantRepository.userKeyOf(d), eventId).delete();
+                                        }
+                                    }
+                                });
+                    }
+
                     db.collection("notifications")
                             .whereEqualTo("eventId", eventId)
                             .get()
                             .addOnSuccessListener(notifSnap -> {
 
-                                for (DocumentSnapshot d : notifSnap.getDocuments()) {
-                                    d.getReference().delete();
-                                }
+                                UnreadCounter.deleteAll(db, notifSnap.getDocuments());
 
-                                db.collection("events").document(eventId)
-                                        .delete();
+                                new EventCardStore(db).delete(eventId);
                             });
                 });
     }
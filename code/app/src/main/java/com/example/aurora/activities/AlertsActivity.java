@@ -1,23 +1,32 @@
 /*
  * source: Firebase docs — "Get realtime updates with Cloud Firestore".
  * url: https://firebase.google.com/docs/firestore/query-data/listen
- * note: Used as reference for addSnapshotListener to listen for real-time changes to the notifications collection.
+ * note: Broadcasts are followed with addSnapshotListener; personal notifications come from the shared
+ *       NotificationRepository listener.
  *
- * source: Firebase docs — "Update elements in an array".
- * url: https://firebase.google.com/docs/firestore/manage-data/add-data#update_elements_in_an_array
- * note: Used for FieldValue.arrayUnion() and FieldValue.arrayRemove() when accepting or declining event invitations.
+ * source: Firebase docs — "Transactions and batched writes".
+ * url: https://firebase.google.com/docs/firestore/manage-data/transactions
+ * note: acceptEvent() moves the entrant document to "accepted" through EntrantRepository in one transaction,
+ *       which also deletes the notification and decrements the unread counter.
  *
- * source: Android Developers — "DateUtils".
- * url: https://developer.android.com/reference/android/text/format/DateUtils#getRelativeTimeSpanString(long,%20long,%20long)
- * note: Used for getRelativeTimeSpanString to format timestamps into "X minutes ago".
+ * source: Firebase docs — "Paginate data with query cursors".
+ * url: https://firebase.google.com/docs/firestore/query-data/query-cursors
+ * note: Only the newest PAGE_SIZE notifications are listened to; older pages are fetched with
+ *       startAfter() on the last loaded document as the list is scrolled.
  *
- * source: Stack Overflow user — "How to sort a List of objects by a date field".
- * url: https://stackoverflow.com/questions/5927109/sort-objects-in-arraylist-by-date
- * note: Referenced for the Comparator logic used in docs.sort() to order notifications newest-first.
+ * source: Firebase docs — "Get realtime updates with Cloud Firestore" (view changes between snapshots).
+ * url: https://firebase.google.com/docs/firestore/query-data/listen#view_changes_between_snapshots
+ * note: getDocumentChanges() is applied to the loaded alerts instead of rebuilding the list.
  *
- * source: Android Developers — "LayoutInflater".
- * url: https://developer.android.com/reference/android/view/LayoutInflater
- * note: Used to inflate "item_notification_card" dynamically for each alert.
+ * source: Firebase docs — "Transactions and batched writes".
+ * url: https://firebase.google.com/docs/firestore/manage-data/transactions
+ * note: declineEvent() runs through DrawOrderStore so the decline, the replacement draw and the notification
+ *       delete are one atomic write.
+ *
+ * source: Firebase docs — "Choose a data structure".
+ * url: https://firebase.google.com/docs/firestore/manage-data/structure-data
+ * note: Organizer broadcasts are expanded here through the user's memberships (BroadcastStore) and
+ *       merged with the personal notifications; dismissing one only writes the user's receipt.
  * source: ChatGPT (OpenAI assistant).
  * note: Helped tighten up JavaDoc wording, method names and overall code format to look readable
  */
@@ -32,42 +41,69 @@
 package com.example.aurora.activities;
 
 import android.os.Bundle;
-import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.ImageButton;
-import android.widget.LinearLayout;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.aurora.adapters.AlertsAdapter;
+import com.example.aurora.data.EntrantRepository;
+import com.example.aurora.data.EntrantStatus;
+import com.example.aurora.lottery.DrawOrderStore;
 import com.example.aurora.models.NotificationModel;
 import com.example.aurora.R;
-import com.google.firebase.Timestamp;
+import com.example.aurora.notifications.AlertList;
+import com.example.aurora.notifications.BroadcastStore;
+import com.example.aurora.notifications.FirestoreNotificationHelper;
+import com.example.aurora.notifications.NotificationRepository;
+import com.example.aurora.notifications.NotificationTemplates;
+import com.example.aurora.notifications.UnreadCounter;
+import com.google.firebase.firestore.DocumentChange;
 import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.ListenerRegistration;
 
+import java.util.ArrayList;
 import java.util.HashMap;
-
 import java.util.List;
 import java.util.Map;
 
 
 /**
  * Displays real-time notifications for the logged-in user.
- * Listens to Firestore for new notifications, sorts them by time,
- * and shows actionable buttons such as Accept, Decline, or Dismiss.
+ * The newest page is followed live and applied change by change; older
+ * pages are loaded while scrolling. Cards show actionable buttons such as
+ * Accept, Decline, or Dismiss.
  */
 public class AlertsActivity extends AppCompatActivity {
 
-    private LinearLayout alertsContainer;
+    /** Notifications per page; the first page is the shared live window. */
+    static final int PAGE_SIZE = NotificationRepository.WINDOW_SIZE;
+
+    /** Start loading the next page when this close to the end of the list. */
+    private static final int PREFETCH_DISTANCE = 5;
+
+    private RecyclerView alertsRecycler;
+    private AlertsAdapter adapter;
     private TextView emptyMsg;
     private FirebaseFirestore db;
     private String userEmail;
 
     private ListenerRegistration notifListener;
+    private ListenerRegistration broadcastListener;
+
+    /** Personal notifications loaded so far plus the current broadcasts. */
+    private final AlertList<AlertsAdapter.Alert> alerts = new AlertList<>();
+
+    /** Last document of the oldest loaded page; null until the first page arrives. */
+    private DocumentSnapshot pageCursor;
+    private boolean loadingOlder;
+    private boolean reachedEnd;
 
     /**
      * Initializes the Alerts screen, binds UI components, loads the user's email,
@@ -83,8 +119,36 @@ public class AlertsActivity extends AppCompatActivity {
         userEmail = getSharedPreferences("aurora_prefs", MODE_PRIVATE)
                 .getString("user_email", "");
 
-        alertsContainer = findViewById(R.id.alertsContainer);
         emptyMsg = findViewById(R.id.alertsMessage);
+        alertsRecycler = findViewById(R.id.alertsRecycler);
+
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        alertsRecycler.setLayoutManager(layoutManager);
+        adapter = new AlertsAdapter(new AlertsAdapter.Actions() {
+            @Override
+            public void onAccept(AlertsAdapter.Alert alert) {
+                acceptEvent(alert.getEventId(), alert.getId());
+            }
+
+            @Override
+            public void onDecline(AlertsAdapter.Alert alert) {
+                declineEvent(alert.getEventId(), alert.getId());
+            }
+
+            @Override
+            public void onDismiss(AlertsAdapter.Alert alert) {
+                dismiss(alert);
+            }
+        });
+        alertsRecycler.setAdapter(adapter);
+        alertsRecycler.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy <= 0) return;
+                int last = layoutManager.findLastVisibleItemPosition();
+                if (last >= adapter.getItemCount() - PREFETCH_DISTANCE) loadOlderPage();
+            }
+        });
 
         ImageButton back = findViewById(R.id.backButtonAlerts);
         if (back != null) back.setOnClickListener(v -> onBackPressed());
@@ -92,11 +156,10 @@ public class AlertsActivity extends AppCompatActivity {
         listenNotifications();
     }
 
-
     /**
-     * Sets a real-time Firestore listener on the user's notifications.
-     * Automatically refreshes the UI whenever notifications are added, removed,
-     * or updated. Sorts notifications by timestamp (newest first).
+     * Subscribes to the newest page of the user's notifications through the
+     * shared NotificationRepository, and listens to the broadcasts addressed
+     * to them. Each update only adds, replaces or removes the documents that changed.
      */
     private void listenNotifications() {
 
@@ -107,150 +170,127 @@ public class AlertsActivity extends AppCompatActivity {
         }
 
         if (notifListener != null) notifListener.remove();
+        if (broadcastListener != null) broadcastListener.remove();
 
-        notifListener = db.collection("notifications")
-                .whereEqualTo("userId", userEmail)
-                .addSnapshotListener((snapshot, error) -> {
+        notifListener = NotificationRepository.getInstance().observe((window, changes) -> {
+            boolean windowFull = window.size() == PAGE_SIZE;
+            long oldest = window.isEmpty()
+                    ? 0L : AlertsAdapter.Alert.timeOf(window.get(window.size() - 1));
 
-                    if (error != null || snapshot == null) return;
-
-                    alertsContainer.removeAllViews();
-
-                    if (snapshot.isEmpty()) {
-                        emptyMsg.setVisibility(View.VISIBLE);
-                        return;
+            if (changes == null) {
+                // replay of an already-loaded window
+                for (DocumentSnapshot doc : window) upsert(doc);
+            } else {
+                for (DocumentChange change : changes) {
+                    DocumentSnapshot doc = change.getDocument();
+                    if (change.getType() == DocumentChange.Type.REMOVED) {
+                        alerts.removeFromWindow(doc.getId(), windowFull, oldest);
+                    } else {
+                        upsert(doc);
                     }
+                }
+            }
 
-                    emptyMsg.setVisibility(View.GONE);
+            // older pages continue from the end of the first window
+            if (pageCursor == null) {
+                if (!window.isEmpty()) pageCursor = window.get(window.size() - 1);
+                reachedEnd = !windowFull;
+            }
 
-                    List<DocumentSnapshot> docs = snapshot.getDocuments();
-                    docs.sort((a, b) -> {
-                        long t1 = getDocTime(a);
-                        long t2 = getDocTime(b);
-                        return Long.compare(t2, t1);
-                    });
+            renderAlerts();
+        });
 
-                    for (DocumentSnapshot doc : docs) {
-                        addNotificationCard(doc);
-                    }
-                });
-    }
+        // broadcasts respect the same opt-out as personal notifications
+        boolean enabled = getSharedPreferences("aurora_prefs", MODE_PRIVATE)
+                .getBoolean("entrant_notifications_enabled", true);
+        if (!enabled) return;
 
-    /**
-     * Extracts a timestamp from a notification document.
-     * Supports both 'createdAt' and 'timestamp' fields for compatibility.
-     *
-     * @return time in milliseconds, or 0 if missing.
-     */
-    private long getDocTime(DocumentSnapshot doc) {
-        Long createdAt = doc.getLong("createdAt");
-        if (createdAt != null) return createdAt;
+        broadcastListener = BroadcastStore.listenForUser(db, userEmail, (broadcasts, readIds) -> {
+            Map<String, AlertsAdapter.Alert> values = new HashMap<>();
+            Map<String, Long> times = new HashMap<>();
+            List<String> unread = new ArrayList<>();
+
+            for (DocumentSnapshot doc : broadcasts) {
+                AlertsAdapter.Alert alert = AlertsAdapter.Alert.from(doc, true);
+                values.put(alert.getId(), alert);
+                times.put(alert.getId(), alert.getTime());
+                if (!readIds.contains(doc.getId())) unread.add(doc.getId());
+            }
 
-        Long ts = doc.getLong("timestamp");
-        if (ts != null) return ts;
+            alerts.setBroadcasts(values, times);
+            renderAlerts();
 
-        return 0L;
+            if (!unread.isEmpty()) BroadcastStore.markRead(db, userEmail, unread);
+        });
     }
 
     /**
-     * Inflates a notification card into the list and populates it with title,
-     * message, timestamp, and action buttons. Decides which action buttons to show
-     * based on notification type (winner, waiting info, custom message, etc.).
+     * Fetches the next page of older notifications once, after the oldest
+     * one loaded so far. These are not listened to; dismissing one removes it locally.
      */
-    private void addNotificationCard(DocumentSnapshot doc) {
-
-        View card = LayoutInflater.from(this)
-                .inflate(R.layout.item_notification_card, alertsContainer, false);
-
-        TextView title = card.findViewById(R.id.notifTitle);
-        TextView msg = card.findViewById(R.id.notifMessage);
-        TextView time = card.findViewById(R.id.notifTime);
-
-        View btnAccept = card.findViewById(R.id.btnAccept);
-        View btnDecline = card.findViewById(R.id.btnDecline);
-
-        View btnDismiss = card.findViewById(R.id.btnDismiss);
-
-        String notifId = doc.getId();
-        String eventId = doc.getString("eventId");
-        String notifType = doc.getString("type");
-
-        title.setText(doc.getString("title"));
-        msg.setText(doc.getString("message"));
-
-            Object t = doc.get("createdAt");
-            if (t == null) t = doc.get("timestamp");
-
-            if (t instanceof Long) {
-                time.setText(getRelativeTime((Long) t));
-            } else if (t instanceof com.google.firebase.Timestamp) {
-                long ms = ((com.google.firebase.Timestamp) t).toDate().getTime();
-                time.setText(getRelativeTime(ms));
-            } else {
-                time.setVisibility(View.GONE);
-            }
-
-        if ("waiting_list_info".equals(notifType)
-                || "selected_list_info".equals(notifType)
-                || "cancelled_list_info".equals(notifType)) {
+    private void loadOlderPage() {
+        if (loadingOlder || reachedEnd || pageCursor == null) return;
+        loadingOlder = true;
 
-            btnAccept.setVisibility(View.GONE);
-            btnDecline.setVisibility(View.GONE);
+        NotificationRepository.query(db, userEmail)
+                .startAfter(pageCursor)
+                .limit(PAGE_SIZE)
+                .get()
+                .addOnSuccessListener(page -> {
+                    loadingOlder = false;
 
-            btnDismiss.setVisibility(View.VISIBLE);
-            btnDismiss.setOnClickListener(v -> deleteNotification(notifId));
-        }
-        else if ("not_selected".equals(notifType)) {
+                    List<DocumentSnapshot> docs = page.getDocuments();
+                    for (DocumentSnapshot doc : docs) upsert(doc);
 
-            btnAccept.setVisibility(View.GONE);
-            btnDecline.setVisibility(View.GONE);
-            btnDismiss.setVisibility(View.VISIBLE);
-            btnDismiss.setOnClickListener(v -> deleteNotification(notifId));
-
-        }
-        else if ("custom_message".equals(notifType)) {
+                    if (!docs.isEmpty()) pageCursor = docs.get(docs.size() - 1);
+                    reachedEnd = docs.size() < PAGE_SIZE;
 
-            btnAccept.setVisibility(View.GONE);
-            btnDecline.setVisibility(View.GONE);
-            btnDismiss.setVisibility(View.VISIBLE);
-            btnDismiss.setOnClickListener(v -> deleteNotification(notifId));
-        }
-        else if ("winner_selected".equals(notifType)){
-
-            btnDismiss.setVisibility(View.GONE);
-
-            btnAccept.setVisibility(View.VISIBLE);
-            btnDecline.setVisibility(View.VISIBLE);
+                    renderAlerts();
+                })
+                .addOnFailureListener(e -> loadingOlder = false);
+    }
 
-            btnAccept.setOnClickListener(v -> acceptEvent(eventId, notifId));
-            btnDecline.setOnClickListener(v -> declineEvent(eventId, notifId));
-        }
-        else {
+    /** Adds or replaces a personal notification. */
+    private void upsert(DocumentSnapshot doc) {
+        AlertsAdapter.Alert alert = AlertsAdapter.Alert.from(doc, false);
+        alerts.upsert(alert.getId(), alert.getTime(), alert);
+    }
 
-            btnAccept.setVisibility(View.GONE);
-            btnDecline.setVisibility(View.GONE);
-            btnDismiss.setVisibility(View.VISIBLE);
+    /**
+     * Shows personal notifications and broadcasts as one list, newest first.
+     * The adapter diffs it against what is on screen, so only changed cards rebind.
+     */
+    private void renderAlerts() {
+        List<AlertsAdapter.Alert> items = alerts.sorted();
+        emptyMsg.setVisibility(items.isEmpty() ? View.VISIBLE : View.GONE);
+        adapter.submitList(items);
+    }
 
-            btnDismiss.setOnClickListener(v -> deleteNotification(notifId));
+    /**
+     * Dismisses a card. Personal notifications are deleted; broadcasts are
+     * hidden for this user only.
+     */
+    private void dismiss(AlertsAdapter.Alert alert) {
+        if (alert.isBroadcast()) {
+            alerts.remove(alert.getId());
+            renderAlerts();
+            BroadcastStore.dismiss(db, userEmail, alert.getId());
+        } else {
+            deleteNotification(alert.getId());
         }
-
-        alertsContainer.addView(card);
     }
 
-
     /**
-     * Marks the user as having accepted their selected event spot.
-     * Updates Firestore and removes the corresponding notification.
+     * Marks the user as having accepted their selected event spot. The
+     * status change, the notification delete and the unread counter
+     * decrement are one transaction.
      */
     private void acceptEvent(String eventId, String notifId) {
 
-        db.collection("events").document(eventId)
-                .update(
-                        "acceptedEntrants", FieldValue.arrayUnion(userEmail)
-                )
+        new EntrantRepository(db).setStatus(eventId, userEmail, EntrantStatus.ACCEPTED, notifId)
                 .addOnSuccessListener(v -> {
 
-                    deleteNotification(notifId);
+                    removeAlert(notifId);
                     Toast.makeText(this,
                             "You've accepted your spot! Tap Sign Up on the event.",
                             Toast.LENGTH_SHORT
@@ -264,20 +304,18 @@ public class AlertsActivity extends AppCompatActivity {
     }
 
     /**
-     * Marks the user as having declined the event spot. Removes them from the
-     * selected list, logs the decline, notifies the organizer, and deletes the notification.
+     * Marks the user as having declined the event spot. In one transaction
+     * cancels their entrant document and promotes the next entrant from
+     * the persisted draw order and deletes the notification, then notifies
+     * whoever was promoted.
      */
     private void declineEvent(String eventId, String notifId) {
 
-        db.collection("events").document(eventId)
-                .update(
-                        "cancelledEntrants", FieldValue.arrayUnion(userEmail),
-                        "selectedEntrants", FieldValue.arrayRemove(userEmail)
-                )
-                .addOnSuccessListener(v -> {
-
-                    deleteNotification(notifId);
+        DrawOrderStore.declineAndPromote(db, eventId, userEmail, notifId)
+                .addOnSuccessListener(promotion -> {
 
+                    removeAlert(notifId);
+                    notifyPromotedEntrant(eventId, promotion);
 
                     Toast.makeText(
                             this,
@@ -292,35 +330,62 @@ public class AlertsActivity extends AppCompatActivity {
                 ).show());
     }
 
+    /**
+     * Sends the usual "You've Been Selected!" notification to the entrant who
+     * took over a declined spot, if anyone was left in the draw order.
+     */
+    private void notifyPromotedEntrant(String eventId, DrawOrderStore.Promotion promotion) {
+        String promoted = promotion.getPromotedEmail();
+        if (promoted == null) return;
+
+        NotificationModel notif = NotificationModel.templated(
+                "winner_selected",
+                NotificationTemplates.WINNER_PROMOTED,
+                null,
+                eventId,
+                promoted,
+                System.currentTimeMillis()
+        );
+        FirestoreNotificationHelper.sendIfAllowed(db, promoted, notif);
+
+        FirestoreNotificationHelper.logTemplated(
+                db,
+                promotion.getOrganizerEmail(),
+                eventId,
+                promotion.getEventTitle(),
+                promoted,
+                NotificationTemplates.WINNER_PROMOTED,
+                "winner_selected"
+        );
+    }
+
 
     /**
-     * Removes a notification from Firestore permanently.
+     * Removes a notification from Firestore permanently and decrements the
+     * user's unread counter in the same transaction.
      */
     private void deleteNotification(String notifId) {
-        db.collection("notifications")
-                .document(notifId)
-                .delete();
+        removeAlert(notifId);
+        UnreadCounter.delete(db, notifId);
     }
 
     /**
-     * Stops the Firestore real-time listener to prevent memory leaks.
+     * Drops a card whose notification was deleted, without waiting for the
+     * listener to report it.
      */
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (notifListener != null) notifListener.remove();
+    private void removeAlert(String notifId) {
+        alerts.remove(notifId);
+        renderAlerts();
     }
 
     /**
-     * Formats a timestamp into a human-readable relative time string
-     * (e.g., "5 minutes ago", "Yesterday").
+     * Releases the shared notifications listener and stops the broadcast listeners.
      */
-    private String getRelativeTime(long millis) {
-        return android.text.format.DateUtils.getRelativeTimeSpanString(
-                millis,
-                System.currentTimeMillis(),
-                android.text.format.DateUtils.MINUTE_IN_MILLIS
-        ).toString();
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (notifListener != null) notifListener.remove();
+        if (broadcastListener != null) broadcastListener.remove();
     }
 
 }
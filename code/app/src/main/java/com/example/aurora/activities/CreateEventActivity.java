@@ -34,8 +34,8 @@
  * source: Firebase docs - "Add data to Cloud Firestore".
  * url: https://firebase.google.com/docs/firestore/manage-data/add-data
  * note: Used for building a Map<String,Object> and calling
- *       db.collection("events").add(event) to create the event document with fields
- *       like title, description, dates, and posterUrl.
+ *       EventCardStore.create() to write the event document (fields like title, description,
+ *       dates and posterUrl) together with its eventCards copy.
  *
  * source: Firebase developers article - "The secrets of Firestore's FieldValue.serverTimestamp()".
  * url: https://medium.com/firebase-developers/the-secrets-of-firestores-fieldvalue-servertimestamp-revealed-29dd7a38a82b
@@ -118,13 +118,17 @@ import androidx.appcompat.app.AppCompatActivity;
 import com.bumptech.glide.Glide;
 import com.example.aurora.map.MapPickerActivity;
 import com.example.aurora.R;
+import com.example.aurora.data.EntrantRepository;
+import com.example.aurora.data.EventCardStore;
 import com.example.aurora.utils.ActivityLogger;
+import com.example.aurora.utils.EventTimes;
 import com.google.android.libraries.places.api.Places;
 import com.google.android.libraries.places.api.model.AutocompletePrediction;
 import com.google.android.libraries.places.api.model.Place;
 import com.google.android.libraries.places.api.net.FetchPlaceRequest;
 import com.google.android.libraries.places.api.net.FindAutocompletePredictionsRequest;
 import com.google.android.libraries.places.api.net.PlacesClient;
+import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.storage.FirebaseStorage;
@@ -137,6 +141,7 @@ import java.util.Arrays;
 import java.util.Calendar;
 import java.util.HashMap;
 import java.util.Locale;
+import java.util.TimeZone;
 import java.util.Map;
 import java.util.List;
 
@@ -713,6 +718,10 @@ public class CreateEventActivity extends AppCompatActivity {
         event.put("registrationStart", regStart);
         event.put("registrationEnd", regEnd);
 
+        // the same times as Timestamps plus a weekday/time-slot mask, so readers never parse the strings
+        event.putAll(EventTimes.fields(startDate, endDate, regStart, regEnd,
+                TimeZone.getDefault(), Locale.getDefault()));
+
         event.put("maxSpots", maxSpots);
 
         event.put("geoRequired", geoRequired);
@@ -723,23 +732,22 @@ public class CreateEventActivity extends AppCompatActivity {
                 .getString("user_email", null);
         event.put("organizerEmail", organizerEmail);
 
-        event.put("waitingList", new ArrayList<String>());
-        event.put("selectedEntrants", new ArrayList<String>());
-        event.put("finalEntrants", new ArrayList<String>());
-        event.put("cancelledEntrants", new ArrayList<String>());
+        // members go to events/{id}/entrants, counters to events/{id}/counterShards
+        event.put(EntrantRepository.SCHEMA_FIELD, EntrantRepository.SCHEMA_VERSION);
 
         event.put("createdAt", FieldValue.serverTimestamp());
 
         event.put("eventLat", eventLat);
         event.put("eventLng", eventLng);
 
-        db.collection("events")
-                .add(event)
-                .addOnSuccessListener(ref -> {
-                    String eventId = ref.getId();
-                    String deepLink = "aurora://event/" + eventId;
-                    ref.update("deepLink", deepLink);
+        // the ID is generated up front so the deep link goes into the first write
+        DocumentReference ref = db.collection("events").document();
+        String eventId = ref.getId();
+        String deepLink = "aurora://event/" + eventId;
+        event.put("deepLink", deepLink);
 
+        new EventCardStore(db).create(ref, event)
+                .addOnSuccessListener(unused -> {
                     ActivityLogger.logEventCreated(eventId, title);
 
                     if (posterUri != null) {
@@ -775,9 +783,7 @@ public class CreateEventActivity extends AppCompatActivity {
                             .centerCrop()
                             .into(imgPosterPreview);
 
-                    db.collection("events")
-                            .document(eventId)
-                            .update("posterUrl", downloadUri.toString())
+                    new EventCardStore(db).update(eventId, "posterUrl", downloadUri.toString())
                             .addOnSuccessListener(unused -> goBackToOrganizerHome());
                 })
                 .addOnFailureListener(err -> {
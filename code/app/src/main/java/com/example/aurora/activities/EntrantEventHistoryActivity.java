@@ -1,11 +1,7 @@
 /*
- * source: Firebase docs — "Get data with Cloud Firestore".
- * url: https://firebase.google.com/docs/firestore/query-data/get-data#get_all_documents_in_a_collection
- * note: Used for db.collection("events").get() to retrieve all event documents before filtering them client-side.
- *
- * source: Stack Overflow user — "Check if a value exists in an ArrayList".
- * url: https://stackoverflow.com/questions/1128723/in-java-how-can-i-test-if-an-array-contains-a-certain-value
- * note: Logic adapted for listContainsUser() to check if the user's email exists in the raw generic Lists returned by Firestore.
+ * source: Firebase docs — "Choose a data structure".
+ * url: https://firebase.google.com/docs/firestore/manage-data/structure-data
+ * note: EntrantRepository.forUser() reads the user's membership index, so only the events the user belongs to are read.
  *
  * source: Android Developers — "LayoutInflater".
  * url: https://developer.android.com/reference/android/view/LayoutInflater
@@ -13,7 +9,7 @@
  *
  * source: Firebase docs — "QueryDocumentSnapshot".
  * url: https://firebase.google.com/docs/reference/android/com/google/firebase/firestore/QueryDocumentSnapshot
- * note: Used to access specific fields (like "waitingList") safely from the document snapshot.
+ * note: Used to access specific fields (like "status") safely from the document snapshot.
  *
  * source: ChatGPT (OpenAI assistant).
  * note: Helped tighten up JavaDoc wording, method names and overall code format to look readable
@@ -24,16 +20,15 @@
  * EntrantEventHistoryActivity
  *
  * Shows the user's full history with all events they interacted with.
- * It checks every event and displays:
+ * It looks up the user's entrant documents and displays:
  *  events where the user was on the waiting list
  *  events where the user was selected
  *  events they declined
  *  events they accepted (final entrants)
  *  events where they were not selected
  *
- * Reads lists directly from Firestore ("waitingList", "selectedEntrants",
- * "cancelledEntrants", "finalEntrants", "losersEntrants") and builds
- * a card for each matching event.
+ * Reads events/{eventId}/entrants/{email} through a collection-group
+ * query and builds a card for each matching event.
  */
 
 package com.example.aurora.activities;
@@ -48,9 +43,14 @@ import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.aurora.R;
+import com.example.aurora.data.EntrantRepository;
+import com.example.aurora.data.EntrantStatus;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class EntrantEventHistoryActivity extends AppCompatActivity {
@@ -83,69 +83,51 @@ public class EntrantEventHistoryActivity extends AppCompatActivity {
     }
 
     /**
-     * Loads all events from Firestore,
-     * checks which ones the user interacted with,
-     * determines their status, and displays a card for each.
+     * Loads the user's membership index (one small document per event),
+     * reads the matching events, and displays a card for each.
      */
     private void loadEventHistory() {
-        db.collection("events")
-                .get()
+        new EntrantRepository(db).forUser(userEmail)
                 .addOnSuccessListener(snap -> {
 
                     historyContainer.removeAllViews();
 
                     if (snap.isEmpty()) {
-                        addCard("No events found", "", "");
+                        addCard("No event history yet", "", "");
                         return;
                     }
 
-                    boolean found = false;
-
-                    for (QueryDocumentSnapshot doc : snap) {
-
-                        List<?> waiting = (List<?>) doc.get("waitingList");
-                        List<?> selected = (List<?>) doc.get("selectedEntrants");
-                        List<?> cancelled = (List<?>) doc.get("cancelledEntrants");
-                        List<?> finalEntrants = (List<?>) doc.get("finalEntrants");
-                        List<?> losers = (List<?>) doc.get("losersEntrants");
+                    List<DocumentSnapshot> entrants = snap.getDocuments();
+                    List<Task<DocumentSnapshot>> events = new ArrayList<>();
+                    for (DocumentSnapshot entrant : entrants) {
+                        events.add(db.collection("events")
+                                .document(EntrantRepository.eventIdOf(entrant)).get());
+                    }
 
-                        boolean inWaiting = listContainsUser(waiting, userEmail);
-                        boolean inSelected = listContainsUser(selected, userEmail);
-                        boolean inCancelled = listContainsUser(cancelled, userEmail);
-                        boolean inFinal = listContainsUser(finalEntrants, userEmail);
-                        boolean inLosers = listContainsUser(losers, userEmail);
+                    Tasks.whenAllSuccess(events).addOnSuccessListener(results -> {
+                        boolean found = false;
 
-                        if (!inWaiting && !inSelected && !inCancelled && !inFinal && !inLosers)
-                            continue;
+                        for (int i = 0; i < results.size(); i++) {
+                            DocumentSnapshot doc = (DocumentSnapshot) results.get(i);
+                            if (!doc.exists()) continue;
 
-                        found = true;
+                            String status = statusLabel(entrants.get(i));
+                            if (status.isEmpty()) continue;
 
-                        String title = doc.getString("title");
-                        if (title == null) title = "Untitled Event";
+                            found = true;
 
-                        String date = doc.getString("date");
-                        if (date == null) date = "";
+                            String title = doc.getString("title");
+                            if (title == null) title = "Untitled Event";
 
-                        String status;
+                            String date = doc.getString("date");
+                            if (date == null) date = "";
 
-                        if (inLosers) {
-                            status = "Not Selected This Round";
-                        } else if (inFinal) {
-                            status = "Accepted!";
-                        } else if (inSelected) {
-                            status = "Selected, Awaiting Response";
-                        } else if (inCancelled) {
-                            status = "Declined";
-                        } else if (inWaiting) {
-                            status = "In Waiting List";
-                        } else {
-                            status = "";
+                            addCard(title, date, status);
                         }
-                        addCard(title, date, status);
-                    }
-                    if (!found) {
-                        addCard("No event history yet", "", "");
-                    }
+                        if (!found) {
+                            addCard("No event history yet", "", "");
+                        }
+                    });
                 })
                 .addOnFailureListener(e ->
                         Toast.makeText(this, "Error loading history: " + e.getMessage(),
@@ -153,19 +135,30 @@ public class EntrantEventHistoryActivity extends AppCompatActivity {
     }
 
     /**
-     * Checks if a Firestore List contains the user's email.
+     * Maps an entrant document to the status text shown on the card.
      *
-     * @param list  the Firestore list (waiting, selected, etc.)
-     * @param email the user's email
-     * @return true if the email is found
+     * @param entrant the user's entrant document for one event
+     * @return the label, or "" if the document has no known status
      */
-    private boolean listContainsUser(List<?> list, String email) {
-        if (list == null) return false;
-        for (Object o : list) {
-            if (o != null && o.toString().equalsIgnoreCase(email))
-                return true;
+    private String statusLabel(DocumentSnapshot entrant) {
+        Long lostRounds = entrant.getLong("lostRounds");
+
+        switch (EntrantRepository.statusOf(entrant)) {
+            case EntrantStatus.FINAL:
+                return "Accepted!";
+            case EntrantStatus.ACCEPTED:
+                return "Accepted, Sign Up Pending";
+            case EntrantStatus.SELECTED:
+                return "Selected, Awaiting Response";
+            case EntrantStatus.CANCELLED:
+                return "Declined";
+            case EntrantStatus.WAITING:
+                return lostRounds != null && lostRounds > 0
+                        ? "Not Selected This Round"
+                        : "In Waiting List";
+            default:
+                return "";
         }
-        return false;
     }
 
     /**
@@ -45,20 +45,20 @@ import android.widget.Toast;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.example.aurora.data.EntrantRepository;
+import com.example.aurora.data.EntrantStatus;
 import com.example.aurora.map.JoinLocation;
 import com.example.aurora.utils.LocationUtils;
 import com.example.aurora.R;
 import com.example.aurora.utils.DeepLinkUtil;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.QRCodeWriter;
 import com.bumptech.glide.Glide;
 
-import java.util.List;
 
 /**
  * Shows details for a single event.
@@ -225,26 +225,13 @@ public class EventDetailsActivity extends AppCompatActivity {
             capacity = 0L;
         }
 
-        List<String> waiting = (List<String>) doc.get("waitingList");
-        int joinedCount = waiting == null ? 0 : waiting.size();
-
-        List<String> accepted = (List<String>) doc.get("acceptedEntrants");
-        boolean isAccepted = accepted != null && accepted.contains(userId);
-
-        List<String> finalEntrants = (List<String>) doc.get("finalEntrants");
-        boolean isFinal = finalEntrants != null && finalEntrants.contains(userId);
-
-
-        if (isFinal) {
-            btnSignUp.setVisibility(View.GONE);
-        }
-        else if (isAccepted) {
-            btnSignUp.setVisibility(View.VISIBLE);
-        }
-        else {
-            btnSignUp.setVisibility(View.GONE);
-        }
-        isJoined = waiting != null && waiting.contains(userId);
+        btnSignUp.setVisibility(View.GONE);
+        new EntrantRepository(db).getStatus(doc.getId(), userId)
+                .addOnSuccessListener(status -> {
+                    // only accepted entrants still need to sign up
+                    btnSignUp.setVisibility(EntrantStatus.ACCEPTED.equals(status) ? View.VISIBLE : View.GONE);
+                    isJoined = EntrantStatus.WAITING.equals(status);
+                });
 
         currentDeepLink = doc.getString("deepLink");
 
@@ -252,7 +239,10 @@ public class EventDetailsActivity extends AppCompatActivity {
         txtTime.setText(date == null ? "" : date);
         txtLocation.setText(location == null ? "" : location);
         txtAbout.setText(description == null ? "" : description);
-        txtStats.setText("Spots: " + capacity + " • Joined: " + joinedCount);
+        long spots = capacity;
+        txtStats.setText("Spots: " + spots);
+        new EntrantRepository(db).counts(doc.getId()).addOnSuccessListener(counts ->
+                txtStats.setText("Spots: " + spots + " • Joined: " + counts.getWaiting()));
 
         if (regStart != null || regEnd != null) {
             String rs = regStart == null ? "?" : regStart;
@@ -314,16 +304,12 @@ public class EventDetailsActivity extends AppCompatActivity {
     }
 
     /**
-     * Moves the entrant from acceptedEntrants → finalEntrants.
+     * Moves the entrant from accepted → final.
      * Called when they press "Sign Up".
      */
     private void signUpForEvent(String eventId) {
 
-        db.collection("events").document(eventId)
-                .update(
-                        "finalEntrants", FieldValue.arrayUnion(userId),
-                        "acceptedEntrants", FieldValue.arrayRemove(userId)
-                )
+        new EntrantRepository(db).setStatus(eventId, userId, EntrantStatus.FINAL)
                 .addOnSuccessListener(unused -> {
                     Toast.makeText(this, "You are signed up!", Toast.LENGTH_SHORT).show();
                     btnSignUp.setVisibility(View.GONE);
@@ -1,16 +1,18 @@
 /*
- * source: Android Developers - "Create a Notification".
- * url: https://developer.android.com/develop/ui/views/notifications/build-notification
- * note: Used in showLocalNotification() to trigger a system tray notification when a new Firestore alert arrives.
- *
  * source: Oracle Java Docs - "SimpleDateFormat".
  * url: https://docs.oracle.com/javase/7/docs/api/java/text/SimpleDateFormat.html
- * note: Used in parseDateBestEffort() to handle various date string formats for the availability filter.
+ * note: Date strings are parsed once when events are written (utils/EventTimes); the date range
+ *       and availability filters query the stored startAt and availabilityKeys instead.
  *
  * source: Stack Overflow user - "Filtering a RecyclerView with a SearchView".
  * url: https://stackoverflow.com/questions/30398247/how-to-filter-a-recyclerview-with-a-searchview
  * note: Logic adapted for applyFiltersAndRefresh() to filter the local event list based on the search query and selected chips.
  *
+ * source: Android Developers - "DiffUtil".
+ * url: https://developer.android.com/reference/androidx/recyclerview/widget/DiffUtil
+ * note: Search results are diffed against the shown list off the main thread and applied with
+ *       dispatchUpdatesTo(), instead of notifyDataSetChanged() on every keystroke.
+ *
  * source: Android Developers - "ExtendedFloatingActionButton".
  * url: https://developer.android.com/reference/com/google/android/material/floatingactionbutton/ExtendedFloatingActionButton
  * note: Reference for the "Entrant Mode" FAB that expands/collapses or handles role switching.
@@ -23,6 +25,13 @@
  * url: https://developer.android.com/reference/android/text/TextWatcher
  * note: Used to trigger real-time filtering updates as the user types in the search bar.
  *
+ * source: Firebase docs - "Paginate data with query cursors".
+ * url: https://firebase.google.com/docs/firestore/query-data/query-cursors
+ * note: The feed is read PAGE_SIZE event cards (eventCards, see EventCardStore.feed()) at a time
+ *       with startAfter(last document); the next page is requested as the last visible card nears
+ *       the end of the list. Category, date range, day and time slot are part of the query, so
+ *       cards that do not match are never downloaded.
+ *
  * source: ChatGPT (OpenAI assistant).
  * note: Helped tighten up JavaDoc wording, method names and overall code format to look readable
  */
@@ -30,15 +39,16 @@
 
 package com.example.aurora.activities;
 
-import android.app.PendingIntent;
 import android.content.Intent;
 import android.content.SharedPreferences;
 import android.graphics.Color;
 import android.net.Uri;
+import android.app.DatePickerDialog;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.Editable;
 import android.text.TextWatcher;
-import android.util.Log;
 import android.widget.Button;
 import android.widget.EditText;
 import android.widget.ImageButton;
@@ -47,20 +57,28 @@ import android.widget.LinearLayout;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.aurora.adapters.EventsAdapter;
-import com.example.aurora.notifications.NotificationHelper;
-import com.example.aurora.models.NotificationModel;
+import com.example.aurora.data.EventCardStore;
+import com.example.aurora.data.EventFeedCache;
+import com.example.aurora.data.EventFeedFilter;
+import com.example.aurora.data.EventSearchIndex;
+import com.example.aurora.notifications.NotificationRepository;
+import com.example.aurora.notifications.UnreadBadge;
+import com.example.aurora.notifications.UnreadCounter;
 import com.example.aurora.R;
 import com.example.aurora.models.Event;
+import com.example.aurora.utils.EventTimes;
 import com.google.android.material.floatingactionbutton.ExtendedFloatingActionButton;
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.ListenerRegistration;
 import com.google.firebase.firestore.Query;
@@ -74,13 +92,13 @@ import android.view.ViewGroup;
 import android.graphics.drawable.ColorDrawable;
 import com.google.android.material.button.MaterialButton;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.text.DateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Date;
 import java.util.List;
-import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * EventsActivity
@@ -92,6 +110,8 @@ import java.util.Locale;
 public class EventsActivity extends AppCompatActivity {
 
     private ListenerRegistration notifListener;
+    private ListenerRegistration badgeListener;
+    private TextView alertsBadge;
 
     private EditText searchEvents;
     private ImageButton logoutButton;
@@ -105,12 +125,30 @@ public class EventsActivity extends AppCompatActivity {
     private final FirebaseFirestore db = FirebaseFirestore.getInstance();
 
     private final List<Event> baseEvents = new ArrayList<>();
+    private final EventFeedCache<DocumentSnapshot, Event> feedCache = new EventFeedCache<>();
+    private EventFeedCache.Feed<DocumentSnapshot, Event> currentFeed;
     private final List<Event> eventList = new ArrayList<>();
-    private String currentCategory = null;
+    private EventFeedFilter feedFilter = EventFeedFilter.ALL;
     private final boolean[] daySelected = new boolean[7];
     private boolean slotMorning = false;
     private boolean slotAfternoon = false;
     private boolean slotEvening = false;
+    /** Date range filter: first day's start (inclusive) and the day after the last one (exclusive). */
+    private Long dateFrom = null;
+    private Long dateTo = null;
+
+    /** Wait after the last keystroke before searching. */
+    private static final long SEARCH_DEBOUNCE_MILLIS = 150L;
+
+    private final EventSearchIndex<Event> searchIndex = new EventSearchIndex<>();
+    private final ExecutorService searchExecutor = Executors.newSingleThreadExecutor();
+    private final Handler searchHandler = new Handler(Looper.getMainLooper());
+    private final Runnable searchRunnable = this::applyFiltersAndRefresh;
+    /** Bumped by every refresh; results of older refreshes are dropped. */
+    private int searchGeneration;
+    /** Query the fill pages below were counted for, and how many were loaded for it. */
+    private String fillQuery;
+    private int fillPages;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -127,6 +165,7 @@ public class EventsActivity extends AppCompatActivity {
         navEvents = findViewById(R.id.navEvents);
         navProfile = findViewById(R.id.navProfile);
         navAlerts = findViewById(R.id.navAlerts);
+        alertsBadge = findViewById(R.id.alertsBadge);
 
         btnFilter = findViewById(R.id.btnFilter);
 
@@ -226,6 +265,12 @@ public class EventsActivity extends AppCompatActivity {
         recyclerEvents.setLayoutManager(new LinearLayoutManager(this));
         adapter = new EventsAdapter(this, eventList);
         recyclerEvents.setAdapter(adapter);
+        recyclerEvents.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy > 0) maybeLoadNextPage();
+            }
+        });
 
         logoutButton.setOnClickListener(v -> logoutUser());
 
@@ -243,7 +288,9 @@ public class EventsActivity extends AppCompatActivity {
         searchEvents.addTextChangedListener(new TextWatcher() {
             @Override public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
             @Override public void onTextChanged(CharSequence s, int start, int before, int count) {
-                applyFiltersAndRefresh();
+                // only the last keystroke of a burst runs the search
+                searchHandler.removeCallbacks(searchRunnable);
+                searchHandler.postDelayed(searchRunnable, SEARCH_DEBOUNCE_MILLIS);
             }
             @Override public void afterTextChanged(Editable s) {}
         });
@@ -253,61 +300,40 @@ public class EventsActivity extends AppCompatActivity {
         listenForNotifications();
     }
 
-    /** Listens for Firestore notifications targeted at this entrant. */
+    /**
+     * Subscribes to the shared notifications listener while this screen
+     * exists (NotificationRepository posts new pending notifications to the
+     * system tray) and shows the unread count on the alerts tab.
+     */
     private void listenForNotifications() {
+        notifListener = NotificationRepository.getInstance()
+                .observe((window, changes) -> { });
 
         String email = getSharedPreferences("aurora_prefs", MODE_PRIVATE)
                 .getString("user_email", null);
-
-        Log.d("DEBUG_EMAIL", "Entrant email from prefs: " + email);
-
         if (email == null || email.isEmpty()) return;
 
-        notifListener = db.collection("notifications")
-                .whereEqualTo("userId", email)
-                .whereEqualTo("status", "pending")
-                .addSnapshotListener((snap, err) -> {
-
-                    if (err != null || snap == null) return;
-
-                    for (DocumentChange dc : snap.getDocumentChanges()) {
-
-                        if (dc.getType() == DocumentChange.Type.ADDED) {
-
-                            NotificationModel notif =
-                                    dc.getDocument().toObject(NotificationModel.class);
-
-                            showLocalNotification(notif);
-                        }
-                    }
-                });
-    }
-
-    /** Displays a local Android notification triggering AlertsActivity. */
-    private void showLocalNotification(NotificationModel notif) {
-
-        NotificationHelper helper = new NotificationHelper(this);
-
-        Intent intent = new Intent(this, AlertsActivity.class);
-        intent.putExtra("eventId", notif.getEventId());
-
-        PendingIntent pIntent = PendingIntent.getActivity(
-                this,
-                (int) System.currentTimeMillis(),
-                intent,
-                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
-        );
-        helper.getManager().notify(
-                (int) System.currentTimeMillis(),
-                helper.getNotification(notif.getTitle(), notif.getMessage(), pIntent).build()
-        );
+        // one counter document instead of reading every notification
+        badgeListener = UnreadCounter.listen(db, email, count -> {
+            String label = UnreadBadge.label(count);
+            alertsBadge.setVisibility(label == null ? View.GONE : View.VISIBLE);
+            alertsBadge.setText(label);
+        });
     }
 
-    /** Removes Firestore listener to prevent leaks. */
+    /**
+     * Releases the shared notifications listener and the badge listener,
+     * and stops pending searches.
+     */
     @Override
     protected void onDestroy() {
         super.onDestroy();
         if (notifListener != null) notifListener.remove();
+        if (badgeListener != null) badgeListener.remove();
+        searchHandler.removeCallbacks(searchRunnable);
+        searchExecutor.shutdownNow();
+        // recycles the rows, which releases their status listeners
+        if (recyclerEvents != null) recyclerEvents.setAdapter(null);
     }
 
     /** Signs out user and clears SharedPreferences. */
@@ -325,30 +351,102 @@ public class EventsActivity extends AppCompatActivity {
     }
 
     /**
-     * Loads events from Firestore.
-     * If category != null → loads filtered category.
+     * Shows the events of a category (null = all) with the current filters.
      */
     private void loadEvents(@Nullable String category) {
-        currentCategory = category;
-        Query q = db.collection("events");
-        if (category != null) {
-            q = q.whereEqualTo("category", category);
+        feedFilter = feedFilter.withCategory(category);
+        showFeed();
+    }
+
+    /**
+     * Shows feedFilter's events, one page at a time. A filter that was
+     * shown recently comes from EventFeedCache without reading it again.
+     */
+    private void showFeed() {
+        currentFeed = feedCache.open(feedFilter.key(), System.currentTimeMillis());
+        fillQuery = null;
+
+        baseEvents.clear();
+        baseEvents.addAll(currentFeed.getItems());
+        searchIndex.clear();
+        index(baseEvents);
+        applyFiltersAndRefresh();
+        recyclerEvents.scrollToPosition(0);
+
+        if (currentFeed.getItems().isEmpty()) loadNextPage();
+    }
+
+    /**
+     * Requests the current feed's next page (after the last one loaded),
+     * unless one is in flight or none is left.
+     */
+    private void loadNextPage() {
+        EventFeedCache.Feed<DocumentSnapshot, Event> feed = currentFeed;
+        if (feed == null || !feedCache.beginLoad(feed)) return;
+
+        // cards only; the full event is read when one is opened
+        Query q = new EventCardStore(db).feed(feedFilter).limit(EventFeedCache.PAGE_SIZE);
+        if (feed.getCursor() != null) {
+            q = q.startAfter(feed.getCursor());
         }
+
+        // scoped to the activity: a page landing after onDestroy() must not touch searchExecutor
         q.get()
-                .addOnSuccessListener(query -> {
-                    baseEvents.clear();
+                .addOnSuccessListener(this, query -> {
+                    List<Event> page = new ArrayList<>();
                     for (QueryDocumentSnapshot doc : query) {
                         Event event = doc.toObject(Event.class);
                         event.setEventId(doc.getId());
-                        baseEvents.add(event);
+                        page.add(event);
                     }
+                    List<DocumentSnapshot> docs = query.getDocuments();
+                    feedCache.addPage(feed, page, docs.isEmpty() ? null : docs.get(docs.size() - 1));
+
+                    // the user may have switched filters meanwhile; the page stays cached
+                    if (feed != currentFeed) return;
+                    baseEvents.addAll(page);
+                    index(page);
                     applyFiltersAndRefresh();
                 })
-                .addOnFailureListener(e ->
-                        Toast.makeText(this, "Error loading events", Toast.LENGTH_SHORT).show());
+                .addOnFailureListener(this, e -> {
+                    feedCache.failLoad(feed);
+                    Toast.makeText(this, "Error loading events", Toast.LENGTH_SHORT).show();
+                });
     }
 
-    /** Shows availability filter dialog (days + morning/afternoon/evening). */
+    /**
+     * Loads the next page once the last visible card is near the end of the list.
+     *
+     * @return true if a page was requested
+     */
+    private boolean maybeLoadNextPage() {
+        if (currentFeed == null || currentFeed.isLoading() || currentFeed.isExhausted()) return false;
+
+        LinearLayoutManager layout = (LinearLayoutManager) recyclerEvents.getLayoutManager();
+        int lastVisible = layout == null ? -1 : layout.findLastVisibleItemPosition();
+        if (EventFeedCache.shouldPrefetch(lastVisible, eventList.size(), EventFeedCache.PREFETCH_DISTANCE)) {
+            loadNextPage();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * After a refresh, loads more pages while the results do not fill the
+     * screen, but at most EventFeedCache.MAX_FILL_PAGES per query: a search
+     * with few or no hits must not pull the whole feed. Further pages come
+     * from scrolling.
+     */
+    private void maybeFillScreen(String query) {
+        if (!query.equals(fillQuery)) {
+            fillQuery = query;
+            fillPages = 0;
+        }
+        if (fillPages >= EventFeedCache.MAX_FILL_PAGES) return;
+        if (maybeLoadNextPage()) fillPages++;
+    }
+
+    /** Shows availability filter dialog (date range, days, morning/afternoon/evening). */
     private void showFilterDialog() {
         android.view.View view = getLayoutInflater()
                 .inflate(R.layout.dialog_filter_availability, null);
@@ -365,6 +463,21 @@ public class EventsActivity extends AppCompatActivity {
         final android.widget.CheckBox cbAfternoon = view.findViewById(R.id.cbAfternoon);
         final android.widget.CheckBox cbEvening = view.findViewById(R.id.cbEvening);
 
+        final Button btnDateFrom = view.findViewById(R.id.btnDateFrom);
+        final Button btnDateTo = view.findViewById(R.id.btnDateTo);
+        // picked in the dialog; kept only when Apply is pressed
+        final Long[] range = {dateFrom, dateTo};
+        showDate(btnDateFrom, range[0], false);
+        showDate(btnDateTo, range[1], true);
+        btnDateFrom.setOnClickListener(v -> pickDate(range[0], false, millis -> {
+            range[0] = millis;
+            showDate(btnDateFrom, millis, false);
+        }));
+        btnDateTo.setOnClickListener(v -> pickDate(range[1], true, millis -> {
+            range[1] = millis;
+            showDate(btnDateTo, millis, true);
+        }));
+
         cbMon.setChecked(daySelected[0]);
         cbTue.setChecked(daySelected[1]);
         cbWed.setChecked(daySelected[2]);
@@ -404,9 +517,14 @@ public class EventsActivity extends AppCompatActivity {
             cbAfternoon.setChecked(false);
             cbEvening.setChecked(false);
 
+            dateFrom = dateTo = null;
+            range[0] = range[1] = null;
+            showDate(btnDateFrom, null, false);
+            showDate(btnDateTo, null, true);
+
             dialog.dismiss();
             dialog.show();
-            applyFiltersAndRefresh();
+            applyFeedFilter();
         });
 
         btnApply.setOnClickListener(v -> {
@@ -422,121 +540,121 @@ public class EventsActivity extends AppCompatActivity {
             slotAfternoon = cbAfternoon.isChecked();
             slotEvening = cbEvening.isChecked();
 
+            dateFrom = range[0];
+            dateTo = range[1];
+
             dialog.dismiss();
-            applyFiltersAndRefresh();
+            applyFeedFilter();
         });
 
         dialog.show();
     }
 
+    /** Re-queries the feed with the dialog's date range, days and time slots. */
+    private void applyFeedFilter() {
+        long availability = EventTimes.dayFilter(daySelected)
+                | EventTimes.slotFilter(slotMorning, slotAfternoon, slotEvening);
+        feedFilter = feedFilter.withAvailability(availability).withDateRange(dateFrom, dateTo);
+        showFeed();
+    }
+
     /**
-     * Applies search + availability filters
-     * and refreshes the RecyclerView list.
+     * Lets the user pick a day of the date range.
+     *
+     * @param current  the range end shown now, or null
+     * @param end      true for the end of the range (stored as the next day's start)
+     * @param onPicked receives the start of the picked day (or of the day after, for the end)
      */
-    private void applyFiltersAndRefresh() {
-        String q = searchEvents.getText() == null
-                ? ""
-                : searchEvents.getText().toString().trim().toLowerCase(Locale.getDefault());
-
-        eventList.clear();
-        for (Event e : baseEvents) {
-            if (!matchesSearch(e, q)) continue;
-            if (!matchesAvailability(e)) continue;
-            eventList.add(e);
+    private void pickDate(@Nullable Long current, boolean end, Consumer<Long> onPicked) {
+        Calendar calendar = Calendar.getInstance();
+        if (current != null) {
+            calendar.setTimeInMillis(current);
+            if (end) calendar.add(Calendar.DAY_OF_MONTH, -1);
         }
-        adapter.notifyDataSetChanged();
+        new DatePickerDialog(this, (view, year, month, day) -> {
+            Calendar picked = Calendar.getInstance();
+            picked.clear();
+            picked.set(year, month, day);
+            if (end) picked.add(Calendar.DAY_OF_MONTH, 1);
+            onPicked.accept(picked.getTimeInMillis());
+        }, calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH), calendar.get(Calendar.DAY_OF_MONTH)).show();
     }
 
-    /** Returns true if event matches search text. */
-    private boolean matchesSearch(Event e, String query) {
-        if (query.isEmpty()) return true;
-
-        String title = e.getTitle() == null ? "" : e.getTitle();
-        String location = e.getLocation() == null ? "" : e.getLocation();
-        String description = e.getDescription() == null ? "" : e.getDescription();
-
-        title = title.toLowerCase(Locale.getDefault());
-        location = location.toLowerCase(Locale.getDefault());
-        description = description.toLowerCase(Locale.getDefault());
-
-        return title.contains(query) || location.contains(query) || description.contains(query);
+    /** Shows a date range end on its button (the end is stored exclusive, so it shows the day before). */
+    private void showDate(Button button, @Nullable Long millis, boolean end) {
+        if (millis == null) {
+            button.setText("Any");
+            return;
+        }
+        Calendar day = Calendar.getInstance();
+        day.setTimeInMillis(millis);
+        if (end) day.add(Calendar.DAY_OF_MONTH, -1);
+        button.setText(DateFormat.getDateInstance(DateFormat.MEDIUM).format(day.getTime()));
     }
 
-    /** Returns true if event fits availability filters. */
-    private boolean matchesAvailability(Event e) {
-        if (!isAvailabilityFilterActive()) return true;
+    /**
+     * Applies the search query to the loaded feed and refreshes the RecyclerView list.
+     * (Category, date and availability filters are part of the feed's query.)
+     *
+     * The search index lookup and the diff against the shown list run on searchExecutor; the result is applied on the main
+     * thread unless a newer refresh started meanwhile (its snapshot of the
+     * shown list would then be out of date).
+     */
+    private void applyFiltersAndRefresh() {
+        if (isDestroyed() || searchExecutor.isShutdown()) return;
+        String q = searchEvents.getText() == null ? "" : searchEvents.getText().toString();
+
+        int generation = ++searchGeneration;
+        List<Event> shown = new ArrayList<>(eventList);
+
+        searchExecutor.execute(() -> {
+            List<Event> result = searchIndex.search(q);
+            DiffUtil.DiffResult diff = DiffUtil.calculateDiff(new EventDiff(shown, result));
+
+            runOnUiThread(() -> {
+                if (generation != searchGeneration || isDestroyed()) return;
+                eventList.clear();
+                eventList.addAll(result);
+                diff.dispatchUpdatesTo(adapter);
+                // a search may hide most of the loaded events; load a few more pages to fill the screen
+                recyclerEvents.post(() -> maybeFillScreen(q));
+            });
+        });
+    }
 
-        String dateStr = e.getDate();
-        if (dateStr == null || dateStr.trim().isEmpty()) {
-            return true;
+    /** Adds events to the search index (title, then location, then description). */
+    private void index(List<Event> events) {
+        for (Event e : events) {
+            searchIndex.add(e, e.getTitle(), e.getLocation(), e.getDescription());
         }
+    }
 
-        Date date = parseDateBestEffort(dateStr.trim());
-        if (date == null) return true;
-
-        Calendar cal = Calendar.getInstance();
-        cal.setTime(date);
-
-        int calDay = cal.get(Calendar.DAY_OF_WEEK);
-        int idx = dayIndexFromCalendar(calDay);
-
-        boolean anyDay = anyDaySelected();
-        boolean dayOk = !anyDay || (idx >= 0 && daySelected[idx]);
+    /**
+     * Same events = same event ID; same contents = same instance (events
+     * come from the feed cache and are never modified in place).
+     */
+    private static final class EventDiff extends DiffUtil.Callback {
+        private final List<Event> before;
+        private final List<Event> after;
 
-        int hour = cal.get(Calendar.HOUR_OF_DAY);
-        boolean inMorning = hour >= 6 && hour < 12;
-        boolean inAfternoon = hour >= 12 && hour < 18;
-        boolean inEvening = hour >= 18 || hour < 6;
+        EventDiff(List<Event> before, List<Event> after) {
+            this.before = before;
+            this.after = after;
+        }
 
-        boolean anySlot = slotMorning || slotAfternoon || slotEvening;
-        boolean slotOk = !anySlot
-                || (slotMorning && inMorning)
-                || (slotAfternoon && inAfternoon)
-                || (slotEvening && inEvening);
+        @Override public int getOldListSize() { return before.size(); }
+        @Override public int getNewListSize() { return after.size(); }
 
-        return dayOk && slotOk;
-    }
-    private boolean isAvailabilityFilterActive() {
-        return anyDaySelected() || slotMorning || slotAfternoon || slotEvening;
-    }
-    private boolean anyDaySelected() {
-        for (boolean b : daySelected) {
-            if (b) return true;
+        @Override
+        public boolean areItemsTheSame(int oldPosition, int newPosition) {
+            String id = before.get(oldPosition).getEventId();
+            return id != null && id.equals(after.get(newPosition).getEventId());
         }
-        return false;
-    }
-    private int dayIndexFromCalendar(int calDay) {
-        switch (calDay) {
-            case Calendar.MONDAY: return 0;
-            case Calendar.TUESDAY: return 1;
-            case Calendar.WEDNESDAY: return 2;
-            case Calendar.THURSDAY: return 3;
-            case Calendar.FRIDAY: return 4;
-            case Calendar.SATURDAY: return 5;
-            case Calendar.SUNDAY: return 6;
-            default: return -1;
-        }
-    }
 
-    private Date parseDateBestEffort(String s) {
-        String[] patterns = new String[]{
-                "MMMM d, yyyy • h:mm a",
-                "MMMM d, yyyy h:mm a",
-                "MMMM d, yyyy",
-                "yyyy-MM-dd HH:mm",
-                "yyyy-MM-dd'T'HH:mm",
-                "yyyy-MM-dd"
-        };
-
-        for (String p : patterns) {
-            try {
-                SimpleDateFormat sdf = new SimpleDateFormat(p, Locale.getDefault());
-                sdf.setLenient(true);
-                Date d = sdf.parse(s);
-                if (d != null) return d;
-            } catch (ParseException ignored) {}
+        @Override
+        public boolean areContentsTheSame(int oldPosition, int newPosition) {
+            return before.get(oldPosition) == after.get(newPosition);
         }
-        return null;
     }
 
     /** Starts QR code scanner for entering/joining events. */
@@ -5,19 +5,23 @@
  *
  * source: Firebase docs - "Delete data from Cloud Firestore".
  * url: https://firebase.google.com/docs/firestore/manage-data/delete-data#collections
- * note: Referenced for the logic in deleteEvent(), specifically manually deleting documents within subcollections (waitingLocations) before deleting the parent.
+ * note: Referenced for the logic in deleteEvent(), specifically manually deleting documents within subcollections (waitingLocations, drawOrder, entrants, counterShards) before deleting the parent.
  *
- * source: Java Documentation - "Collections.shuffle".
- * url: https://docs.oracle.com/javase/8/docs/api/java/util/Collections.html#shuffle-java.util.List-
- * note: Used in runLottery() to randomize the list of entrants before selecting winners.
+ * source: Wikipedia - "Reservoir sampling".
+ * url: https://en.wikipedia.org/wiki/Reservoir_sampling
+ * note: runLottery() hands the draw to LotteryWorker / LotteryEngine, which samples winners in one pass.
  *
  * source: Firebase docs - "Perform simple and compound queries in Cloud Firestore".
  * url: https://firebase.google.com/docs/firestore/query-data/queries
  * note: Used for loading events where "organizerEmail" matches the current user.
  *
- * source: Firebase docs - "Update elements in an array".
- * url: https://firebase.google.com/docs/firestore/manage-data/add-data#update_elements_in_an_array
- * note: Used in runLottery() to move users between "waitingList", "selectedEntrants", and "losersEntrants" using FieldValue.arrayUnion/Remove.
+ * source: Firebase docs - "Choose a data structure" (subcollections).
+ * url: https://firebase.google.com/docs/firestore/manage-data/structure-data#subcollections
+ * note: Entrants live in events/{eventId}/entrants; the cards read the counter shards instead of the member lists.
+ *
+ * source: Android Developers - "Observing intermediate worker progress".
+ * url: https://developer.android.com/develop/background-work/background-tasks/persistent/how-to/observe
+ * note: runLottery() observes the LotteryWorker's WorkInfo to show winners when the run finishes.
  *
  * source: Stack Overflow user - "FLAG_ACTIVITY_NEW_TASK clarification needed".
  * url: https://stackoverflow.com/questions/9772927/flag-activity-new-task-clarification-needed
@@ -60,6 +64,7 @@ import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.Button;
+import android.widget.CheckBox;
 import android.widget.EditText;
 import android.widget.ImageButton;
 import android.widget.ImageView;
@@ -69,24 +74,29 @@ import android.widget.Toast;
 import androidx.appcompat.app.AlertDialog;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkInfo;
+import androidx.work.WorkManager;
 
+import com.example.aurora.notifications.UnreadCounter;
 import com.example.aurora.R;
+import com.example.aurora.data.EntrantCounterStore;
+import com.example.aurora.data.EntrantRepository;
+import com.example.aurora.data.EntrantStatus;
+import com.example.aurora.data.EventCardStore;
+import com.example.aurora.lottery.DrawOrderStore;
+import com.example.aurora.lottery.LotteryWorker;
 import com.example.aurora.map.EventMapActivity;
-import com.example.aurora.models.NotificationModel;
-import com.example.aurora.notifications.FirestoreNotificationHelper;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.floatingactionbutton.ExtendedFloatingActionButton;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.QRCodeWriter;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 public class OrganizerActivity extends AppCompatActivity {
@@ -181,11 +191,11 @@ public class OrganizerActivity extends AppCompatActivity {
     }
 
 
-    /** Loads all events created by this organizer from Firestore. */
+    /** Loads the cards (eventCards) of all events created by this organizer. */
     private void loadEventsFromFirebase() {
         eventListContainer.removeAllViews();
 
-        db.collection("events")
+        db.collection(EventCardStore.COLLECTION)
                 .whereEqualTo("organizerEmail", organizerEmail)
                 .get()
                 .addOnSuccessListener(querySnapshot -> {
@@ -229,12 +239,10 @@ public class OrganizerActivity extends AppCompatActivity {
         ImageButton btnDelete = eventView.findViewById(R.id.btnDeleteEvent);
 
 
-        List<String> selected = (List<String>) doc.get("selectedEntrants");
-        if (selected != null && !selected.isEmpty()) {
-            btnLottery.setText("Re-roll");
-        } else {
-            btnLottery.setText("Lottery");
-        }
+        btnLottery.setText("Lottery");
+        new EventCardStore(db).countsFor(doc).addOnSuccessListener(counts -> {
+            if (counts.getSelected() > 0) btnLottery.setText("Re-roll");
+        });
         String eventId = doc.getId();
 
         String titleText = doc.getString("title");
@@ -281,7 +289,8 @@ public class OrganizerActivity extends AppCompatActivity {
     }
 
     /**
-     * Shows "Run Lottery" input dialog where organizer enters amount to draw.
+     * Shows "Run Lottery" input dialog where organizer enters amount to draw
+     * and can switch on second-chance weighting.
      */
     private void runLotteryDialog(String eventId) {
 
@@ -299,6 +308,7 @@ public class OrganizerActivity extends AppCompatActivity {
         EditText input = view.findViewById(R.id.inputNumber);
         Button btnCancel = view.findViewById(R.id.btnCancelLottery);
         Button btnRun = view.findViewById(R.id.btnRunLottery);
+        CheckBox checkSecondChance = view.findViewById(R.id.checkSecondChance);
 
         btnCancel.setOnClickListener(v -> dialog.dismiss());
 
@@ -309,7 +319,7 @@ public class OrganizerActivity extends AppCompatActivity {
                 return;
             }
 
-            runLottery(eventId, Integer.parseInt(s));
+            runLottery(eventId, Integer.parseInt(s), checkSecondChance.isChecked());
             dialog.dismiss();
         });
 
@@ -317,122 +327,51 @@ public class OrganizerActivity extends AppCompatActivity {
     }
 
     /**
-     * Performs the actual lottery:
-     *  shuffles waitingList
-     *  picks N winners
-     *  marks the rest as losers
-     *  updates Firestore fields
-     *  sends notifications
+     * Starts the lottery in the background (LotteryWorker), which:
+     *  draws N winners with LotteryEngine (single pass, seeded)
+     *  optionally weights entrants by how many earlier rounds they lost
+     *  stores the seeded replacement order so declines can promote the next entrant
+     *  updates Firestore fields (including the seed used)
+     *  sends notifications in batches, checkpointing as it goes
+     *
+     * The run keeps going if this screen is closed; while it is open we
+     * show the winners (or the error) once the worker finishes.
+     *
+     * @param secondChance true to use the weighted "second chance" draw
      */
-    private void runLottery(String eventId, int n) {
-        db.collection("events").document(eventId)
-                .get()
-                .addOnSuccessListener(doc -> {
-
-                    List<String> waiting = (List<String>) doc.get("waitingList");
-                    if (waiting == null || waiting.isEmpty()) {
-                        Toast.makeText(this, "Waiting list is empty.", Toast.LENGTH_SHORT).show();
-                        return;
+    private void runLottery(String eventId, int n, boolean secondChance) {
+        OneTimeWorkRequest request =
+                LotteryWorker.enqueue(this, eventId, n, secondChance, organizerEmail);
+
+        Toast.makeText(this, "Lottery started…", Toast.LENGTH_SHORT).show();
+
+        WorkManager.getInstance(this)
+                .getWorkInfoByIdLiveData(request.getId())
+                .observe(this, info -> {
+                    if (info == null || !info.getState().isFinished()) return;
+
+                    if (info.getState() == WorkInfo.State.SUCCEEDED) {
+                        int failed = info.getOutputData().getInt(LotteryWorker.KEY_FAILED_COUNT, 0);
+                        if (failed > 0) {
+                            Toast.makeText(this, failed + " entrants could not be notified.",
+                                    Toast.LENGTH_LONG).show();
+                        }
+                        showLotteryWinners(eventId);
+                    } else {
+                        String error = info.getOutputData().getString(LotteryWorker.KEY_ERROR);
+                        Toast.makeText(this, error != null ? error : "Lottery failed.",
+                                Toast.LENGTH_SHORT).show();
                     }
-
-                    List<String> emailsOnly = new ArrayList<>();
-                    for (String w : waiting)
-                        if (w.contains("@")) emailsOnly.add(w);
-
-                    if (emailsOnly.isEmpty()) {
-                        Toast.makeText(this, "No valid email entrants.", Toast.LENGTH_SHORT).show();
-                        return;
-                    }
-
-                    if (n > emailsOnly.size()) {
-                        Toast.makeText(this, "Not enough entrants.", Toast.LENGTH_SHORT).show();
-                        return;
-                    }
-
-                    Collections.shuffle(emailsOnly);
-                    List<String> winners = emailsOnly.subList(0, n);
-
-                    List<String> losers = new ArrayList<>();
-                    for (String email : emailsOnly)
-                        if (!winners.contains(email))
-                            losers.add(email);
-
-                    db.collection("events").document(eventId)
-                            .update(
-                                    "selectedEntrants", winners,
-                                    "losersEntrants", FieldValue.arrayUnion(losers.toArray()),
-                                    "waitingList", FieldValue.arrayRemove(winners.toArray())
-                            )
-                            .addOnSuccessListener(x -> {
-
-                                sendWinnerNotifications(eventId, winners);
-                                sendNotSelectedNotifications(eventId, emailsOnly, winners);
-                                showWinnersDialog(winners);
-                                loadEventsFromFirebase();
-                            });
-
+                    loadEventsFromFirebase();
                 });
     }
 
     /**
-     * Sends notifications to entrants who were *not selected*.
-     */
-    private void sendNotSelectedNotifications(String eventId, List<String> allEntrants, List<String> winners) {
-
-        for (String email : allEntrants) {
-
-            if (winners.contains(email)) continue;
-
-            NotificationModel notif = new NotificationModel(
-                    "not_selected",
-                    "Lottery Result",
-                    "Unfortunately, you were not selected for this event.",
-                    eventId,
-                    email,
-                    System.currentTimeMillis()
-            );
-
-            FirestoreNotificationHelper.sendIfAllowed(db, email, notif);
-
-            FirestoreNotificationHelper.logNotification(
-                    db,
-                    organizerEmail,
-                    eventId,
-                    "Lottery Result",
-                    email,
-                    "Unfortunately, you were not selected for this event.",
-                    "not_selected"
-            );
-        }
-    }
-
-    /**
-     * Sends notification to entrants who *won* the lottery.
+     * Reads the freshly drawn winners back from the entrants and shows them.
      */
-    private void sendWinnerNotifications(String eventId, List<String> winners) {
-        for (String email : winners) {
-
-            NotificationModel notif = new NotificationModel(
-                    "winner_selected",
-                    "You've Been Selected!",
-                    "You won the lottery! Accept or decline your spot.",
-                    eventId,
-                    email,
-                    System.currentTimeMillis()
-            );
-
-            FirestoreNotificationHelper.sendIfAllowed(db, email, notif);
-
-            FirestoreNotificationHelper.logNotification(
-                    db,
-                    organizerEmail,
-                    eventId,
-                    "Winner Selected",
-                    email,
-                    "You won the lottery! Accept or decline your spot.",
-                    "winner_selected"
-            );
-        }
+    private void showLotteryWinners(String eventId) {
+        new EntrantRepository(db).listByStatus(eventId, EntrantStatus.SELECTED)
+                .addOnSuccessListener(this::showWinnersDialog);
     }
 
     /**
@@ -512,8 +451,9 @@ public class OrganizerActivity extends AppCompatActivity {
     /**
      * Deletes:
      *  waitingLocations subcollection
+     *  drawOrder, entrants (with each entrant's membership index entry) and counterShards
      *  notifications for this event
-     *  the event document itself
+     *  the event document itself and its event card
      */
     private void deleteEvent(String eventId) {
 
@@ -527,17 +467,36 @@ public class OrganizerActivity extends AppCompatActivity {
                         d.getReference().delete();
                     }
 
+                    String[] subcollections = {
+                            DrawOrderStore.COLLECTION,
+                            DrawOrderStore.WINNERS_COLLECTION,
+                            EntrantRepository.COLLECTION,
+                            EntrantCounterStore.COLLECTION
+                    };
+                    EntrantRepository entrants = new EntrantRepository(db);
+                    for (String sub : subcollections) {
+                        db.collection("events").document(eventId)
+                                .collection(sub)
+                                .get()
+                                .addOnSuccessListener(subSnap -> {
+                                    for (DocumentSnapshot d : subSnap.getDocuments()) {
+                                        d.getReference().delete();
+                                        if (EntrantRepository.COLLECTION.equals(sub)) {
+                                            // the entrant's membership index entry goes with it
+                                            entrants.membership(EntrantRepository.userKeyOf(d), eventId).delete();
+                                        }
+                                    }
+                                });
+                    }
+
                     db.collection("notifications")
                             .whereEqualTo("eventId", eventId)
                             .get()
                             .addOnSuccessListener(notifSnap -> {
 
-                                for (DocumentSnapshot d : notifSnap.getDocuments()) {
-                                    d.getReference().delete();
-                                }
+                                UnreadCounter.deleteAll(db, notifSnap.getDocuments());
 
-                                db.collection("events").document(eventId)
-                                        .delete()
+                                new EventCardStore(db).delete(eventId)
                                         .addOnSuccessListener(v -> {
                                             Toast.makeText(this, "Event deleted.", Toast.LENGTH_SHORT).show();
                                             loadEventsFromFirebase(); // refresh UI
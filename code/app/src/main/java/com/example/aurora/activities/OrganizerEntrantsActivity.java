@@ -7,9 +7,9 @@
  * url: https://stackoverflow.com/questions/5963554/how-to-write-csv-file-in-android
  * note: Logic adapted for constructing the comma-separated string builder and using FileOutputStream.
  *
- * source: Firebase docs — "Cloud Firestore: arrays".
- * url: https://firebase.google.com/docs/firestore/manage-data/add-data#update_elements_in_an_array
- * note: Used for FieldValue.arrayRemove() when the organizer deletes an entrant from the "Selected" tab.
+ * source: Firebase docs — "Transactions and batched writes".
+ * url: https://firebase.google.com/docs/firestore/manage-data/transactions
+ * note: Removing an entrant from the "Selected" tab cancels their entrant document through EntrantRepository.
  *
  * source: Android Developers — "ActivityResultContracts".
  * url: https://developer.android.com/training/basics/intents/result#register
@@ -49,10 +49,17 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.aurora.R;
 import com.example.aurora.adapters.EntrantsAdapter;
+import com.example.aurora.data.EntrantRepository;
+import com.example.aurora.data.EntrantStatus;
+import com.example.aurora.data.EventCardStore;
+import com.example.aurora.data.UserDirectory;
+import com.example.aurora.data.UserInfo;
+import com.example.aurora.notifications.BatchNotificationDispatcher;
+import com.example.aurora.notifications.BroadcastStore;
 import com.example.aurora.notifications.FirestoreNotificationHelper;
 import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
 
 import java.io.FileOutputStream;
 import java.util.ArrayList;
@@ -88,6 +95,9 @@ import com.google.firebase.storage.StorageReference;
 
 public class OrganizerEntrantsActivity extends AppCompatActivity {
     private FirebaseFirestore db;
+    private EntrantRepository entrants;
+    private UserDirectory users;
+    private ListenerRegistration userWatch;
     private ImageButton btnBack;
     private TextView tvEventTitle;
     private TextView tvEventSubtitle;
@@ -124,6 +134,8 @@ public class OrganizerEntrantsActivity extends AppCompatActivity {
         setContentView(R.layout.activity_organizer_entrants);
 
         db = FirebaseFirestore.getInstance();
+        entrants = new EntrantRepository(db);
+        users = UserDirectory.getInstance(db);
         organizerEmail = getSharedPreferences("aurora_prefs", MODE_PRIVATE)
                 .getString("user_email", null);
 
@@ -183,13 +195,10 @@ public class OrganizerEntrantsActivity extends AppCompatActivity {
         recyclerEntrants.setAdapter(entrantsAdapter);
         entrantsAdapter.setSelectionListener(() -> updateNotifyButtonMode());
         entrantsAdapter.setDeleteListener(email -> {
-            db.collection("events")
-                    .document(eventId)
-                    .update("selectedEntrants", FieldValue.arrayRemove(email))
+            entrants.setStatus(eventId, email, EntrantStatus.CANCELLED)
                     .addOnSuccessListener(v -> {
                         entrantsAdapter.removeByEmail(email);
-                        selectedEmails.remove(email);
-                        tvSelectedCount.setText(String.valueOf(selectedEmails.size()));
+                        moveToCancelled(email);
                         Toast.makeText(this, "Entrant removed", Toast.LENGTH_SHORT).show();
                     });
         });
@@ -239,19 +248,7 @@ public class OrganizerEntrantsActivity extends AppCompatActivity {
             return;
         }
 
-        db.collection("events").document(eventId).get()
-                .addOnSuccessListener(doc -> {
-                    String eventName = doc.getString("title");
-                    if (eventName == null) eventName = "Event";
-
-                    for (String email : waitingEmails) {
-                        FirestoreNotificationHelper.sendCustomNotification(
-                                db, email, eventName, eventId, msg, organizerEmail
-                        );
-                    }
-
-                    Toast.makeText(this, "Notified all waiting entrants.", Toast.LENGTH_SHORT).show();
-                });
+        broadcastToAudience(EntrantStatus.WAITING, msg, "Notified all waiting entrants.");
     }
 
 
@@ -284,21 +281,7 @@ public class OrganizerEntrantsActivity extends AppCompatActivity {
             return;
         }
 
-        db.collection("events").document(eventId).get()
-                .addOnSuccessListener(doc -> {
-
-                    String eventName = doc.getString("title");
-
-                    for (String email : selectedEmails) {
-                        FirestoreNotificationHelper.sendCustomNotification(
-                                db, email, eventName, eventId, msg, organizerEmail
-                        );
-                    }
-
-                    Toast.makeText(this,
-                            "Notified all selected entrants.",
-                            Toast.LENGTH_SHORT).show();
-                });
+        broadcastToAudience(EntrantStatus.SELECTED, msg, "Notified all selected entrants.");
     }
 
 
@@ -330,20 +313,28 @@ public class OrganizerEntrantsActivity extends AppCompatActivity {
             return;
         }
 
-        db.collection("events").document(eventId).get()
-                .addOnSuccessListener(doc -> {
+        broadcastToAudience(EntrantStatus.CANCELLED, msg, "Notified all cancelled entrants.");
+    }
 
-                    String eventName = doc.getString("title");
 
-                    for (String email : cancelledEmails) {
-                        FirestoreNotificationHelper.sendCustomNotification(
-                                db, email, eventName, eventId, msg, organizerEmail
-                        );
-                    }
-                    Toast.makeText(this,
-                            "Notified all cancelled entrants.",
-                            Toast.LENGTH_SHORT).show();
-                });
+    /**
+     * Writes one broadcast for everyone in the given audience of this event,
+     * instead of one notification per entrant. Entrants pick it up in their
+     * alerts through their own entrant document.
+     */
+    private void broadcastToAudience(String audience, String msg, String doneMessage) {
+        db.collection("events").document(eventId).get()
+                .continueWithTask(task -> {
+                    String eventName = task.getResult().getString("title");
+                    if (eventName == null) eventName = "Event";
+
+                    return BroadcastStore.send(db, audience, new BatchNotificationDispatcher.Payload(
+                            "custom_message", eventName, msg, eventId, eventName, organizerEmail));
+                })
+                .addOnSuccessListener(v ->
+                        Toast.makeText(this, doneMessage, Toast.LENGTH_SHORT).show())
+                .addOnFailureListener(e ->
+                        Toast.makeText(this, "Failed to send: " + e.getMessage(), Toast.LENGTH_SHORT).show());
     }
 
 
@@ -430,8 +421,8 @@ public class OrganizerEntrantsActivity extends AppCompatActivity {
     }
 
     /**
-     * Reads event data (title, lists, poster, stats) and updates the UI.
-     * Also loads entrant lists.
+     * Reads event data (title, poster, stats) and updates the UI.
+     * Stats come from the event's counter shards; the entrant lists are loaded after.
      */
     private void bindEventData(DocumentSnapshot doc) {
         if (!doc.exists()) {
@@ -467,28 +458,52 @@ public class OrganizerEntrantsActivity extends AppCompatActivity {
                     .into(imgEventPoster);
         }
 
-        waitingEmails = (List<String>) doc.get("waitingList");
-        if (waitingEmails == null) waitingEmails = new ArrayList<>();
+        Long max = doc.getLong("maxSpots");
+        if (max == null) max = 0L;
+        maxSpots = max;
 
-        selectedEmails = (List<String>) doc.get("selectedEntrants");
-        if (selectedEmails == null) selectedEmails = new ArrayList<>();
+        tvTotalSpots.setText(String.valueOf(maxSpots));
+        entrants.counts(eventId).addOnSuccessListener(counts -> {
+            tvWaitingCount.setText(String.valueOf(counts.getWaiting()));
+            tvSelectedCount.setText(String.valueOf(counts.getSelected()));
+            tvCancelledCount.setText(String.valueOf(counts.getCancelled()));
+        });
 
-        cancelledEmails = (List<String>) doc.get("cancelledEntrants");
-        if (cancelledEmails == null) cancelledEmails = new ArrayList<>();
+        loadEntrantLists();
+    }
 
-        finalEmails = (List<String>) doc.get("finalEntrants");
-        if (finalEmails == null) finalEmails = new ArrayList<>();
+    /**
+     * Reads the entrants subcollection once and splits it into the tab lists.
+     */
+    private void loadEntrantLists() {
+        entrants.listAll(eventId)
+                .addOnSuccessListener(snap -> {
+                    waitingEmails = new ArrayList<>();
+                    selectedEmails = new ArrayList<>();
+                    cancelledEmails = new ArrayList<>();
+                    finalEmails = new ArrayList<>();
+
+                    for (DocumentSnapshot d : snap.getDocuments()) {
+                        String status = EntrantRepository.statusOf(d);
+                        if (EntrantStatus.WAITING.equals(status)) waitingEmails.add(d.getId());
+                        else if (EntrantStatus.SELECTED.equals(status)) selectedEmails.add(d.getId());
+                        else if (EntrantStatus.CANCELLED.equals(status)) cancelledEmails.add(d.getId());
+                        else if (EntrantStatus.FINAL.equals(status)) finalEmails.add(d.getId());
+                    }
 
-        Long max = doc.getLong("maxSpots");
-        if (max == null) max = 0L;
-        maxSpots = max;
+                    setActiveTab(Tab.WAITING);
+                })
+                .addOnFailureListener(e ->
+                        Toast.makeText(this, "Failed to load entrants: " + e.getMessage(), Toast.LENGTH_SHORT).show()
+                );
+    }
 
-        tvWaitingCount.setText(String.valueOf(waitingEmails.size()));
+    /** Moves an entrant from the local selected list to the cancelled list and refreshes the stats. */
+    private void moveToCancelled(String email) {
+        selectedEmails.remove(email);
+        if (!cancelledEmails.contains(email)) cancelledEmails.add(email);
         tvSelectedCount.setText(String.valueOf(selectedEmails.size()));
         tvCancelledCount.setText(String.valueOf(cancelledEmails.size()));
-        tvTotalSpots.setText(String.valueOf(maxSpots));
-
-        setActiveTab(Tab.WAITING);
     }
 
     /**
@@ -559,43 +574,49 @@ public class OrganizerEntrantsActivity extends AppCompatActivity {
 
     /**
      * Loads entrant data for a list of emails.
-     * Looks up name from users collection and adds to the RecyclerView.
+     * Names come from the shared UserDirectory (one whereIn read per 30 uncached users),
+     * which is kept fresh for the shown entrants while the screen is open.
      */
     private void loadEntrantsForEmails(List<String> emails, String statusLabel) {
         entrantsAdapter.clearItems();
+        watchUsers(emails);
 
         if (emails == null || emails.isEmpty()) {
             Toast.makeText(this, "No entrants in this list yet.", Toast.LENGTH_SHORT).show();
             return;
         }
 
-        for (String email : emails) {
-            if (email == null || email.isEmpty()) continue;
-
-            db.collection("users")
-                    .whereEqualTo("email", email)
-                    .limit(1)
-                    .get()
-                    .addOnSuccessListener(snap -> {
-                        String name = email;
-
-                        if (!snap.isEmpty() && snap.getDocuments().get(0) != null) {
-                            DocumentSnapshot u = snap.getDocuments().get(0);
-                            String n = u.getString("name");
-                            if (n != null && !n.isEmpty()) {
-                                name = n;
-                            }
-                        }
-                        EntrantsAdapter.EntrantItem item =
-                                new EntrantsAdapter.EntrantItem(name, email, statusLabel);
-
-                        entrantsAdapter.addItem(item);
-                    })
-                    .addOnFailureListener(e ->
-                            Toast.makeText(this,
-                                    "Failed to load user for " + email,
-                                    Toast.LENGTH_SHORT).show());
-        }
+        Tab tab = currentTab;
+        users.resolve(emails)
+                .addOnSuccessListener(found -> {
+                    // the user switched tabs while this list was loading
+                    if (tab != currentTab) return;
+
+                    for (String email : emails) {
+                        if (email == null || email.isEmpty()) continue;
+
+                        UserInfo u = found.get(email);
+                        String name = u != null ? u.getDisplayName() : email;
+
+                        entrantsAdapter.addItem(new EntrantsAdapter.EntrantItem(name, email, statusLabel));
+                    }
+                })
+                .addOnFailureListener(e ->
+                        Toast.makeText(this,
+                                "Failed to load entrants: " + e.getMessage(),
+                                Toast.LENGTH_SHORT).show());
+    }
+
+    /** Replaces the UserDirectory listener with one for the given users. */
+    private void watchUsers(List<String> emails) {
+        if (userWatch != null) userWatch.remove();
+        userWatch = emails == null || emails.isEmpty() ? null : users.listen(emails);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (userWatch != null) userWatch.remove();
     }
 
     /** Sets up ActivityResultLauncher for poster image picking. */
@@ -636,9 +657,7 @@ public class OrganizerEntrantsActivity extends AppCompatActivity {
         ref.putFile(newPosterUri)
                 .continueWithTask(task -> ref.getDownloadUrl())
                 .addOnSuccessListener(downloadUrl -> {
-                    db.collection("events")
-                            .document(eventId)
-                            .update("posterUrl", downloadUrl.toString())
+                    new EventCardStore(db).update(eventId, "posterUrl", downloadUrl.toString())
                             .addOnSuccessListener(unused -> {
                                 Toast.makeText(this, "Poster Updated!", Toast.LENGTH_SHORT).show();
 
@@ -694,15 +713,9 @@ public class OrganizerEntrantsActivity extends AppCompatActivity {
      * Exports the FINAL entrants list as a CSV file.
      */
     private void exportFinalListAsCsv() {
-        db.collection("events").document(eventId).get()
-                .addOnSuccessListener(doc -> {
-                    if (!doc.exists()) {
-                        Toast.makeText(this, "Event not found", Toast.LENGTH_SHORT).show();
-                        return;
-                    }
-
-                    List<String> finalEntrants = (List<String>) doc.get("finalEntrants");
-                    if (finalEntrants == null || finalEntrants.isEmpty()) {
+        entrants.listByStatus(eventId, EntrantStatus.FINAL)
+                .addOnSuccessListener(finalEntrants -> {
+                    if (finalEntrants.isEmpty()) {
                         Toast.makeText(this, "No final entrants to export", Toast.LENGTH_SHORT).show();
                         return;
                     }
@@ -713,42 +726,27 @@ public class OrganizerEntrantsActivity extends AppCompatActivity {
 
     /**
      * Fetches name/phone for each email in final list
-     * and builds CSV string.
+     * (batched through UserDirectory) and builds CSV string.
      */
     private void fetchEntrantDetails(List<String> emails) {
-        StringBuilder csv = new StringBuilder("Name,Email,Phone\n");
-
-        final int total = emails.size();
-        final int[] count = {0};
-
-        for (String email : emails) {
-            db.collection("users")
-                    .whereEqualTo("email", email)
-                    .limit(1)
-                    .get()
-                    .addOnSuccessListener(snap -> {
-                        String name = "";
-                        String phone = "";
-
-                        if (!snap.isEmpty()) {
-                            DocumentSnapshot user = snap.getDocuments().get(0);
-                            name = user.getString("name");
-                            phone = user.getString("phone");
-                        }
+        users.resolve(emails)
+                .addOnSuccessListener(found -> {
+                    StringBuilder csv = new StringBuilder("Name,Email,Phone\n");
 
-                        if (name == null) name = "";
-                        if (phone == null) phone = "";
+                    for (String email : emails) {
+                        UserInfo user = found.get(email);
+                        String name = user != null && user.getName() != null ? user.getName() : "";
+                        String phone = user != null && user.getPhone() != null ? user.getPhone() : "";
 
                         csv.append(name).append(",")
                                 .append(email).append(",")
                                 .append(phone).append("\n");
+                    }
 
-                        count[0]++;
-                        if (count[0] == total) {
-                            saveCsvToFile(csv.toString());
-                        }
-                    });
-        }
+                    saveCsvToFile(csv.toString());
+                })
+                .addOnFailureListener(e ->
+                        Toast.makeText(this, "Failed to load entrants: " + e.getMessage(), Toast.LENGTH_SHORT).show());
     }
 
     /**
@@ -776,12 +774,9 @@ public class OrganizerEntrantsActivity extends AppCompatActivity {
             return;
         }
 
-        selectedEmails.remove(email);
-
-        db.collection("events")
-                .document(eventId)
-                .update("selectedEntrants", selectedEmails)
+        entrants.setStatus(eventId, email, EntrantStatus.CANCELLED)
                 .addOnSuccessListener(unused -> {
+                    moveToCancelled(email);
                     Toast.makeText(this, "Entrant removed", Toast.LENGTH_SHORT).show();
                     setActiveTab(Tab.SELECTED);
                 })
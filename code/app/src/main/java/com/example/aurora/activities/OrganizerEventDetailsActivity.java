@@ -32,11 +32,16 @@ import android.widget.Button;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.aurora.R;
-import com.example.aurora.notifications.FirestoreNotificationHelper;
+import com.example.aurora.data.EntrantCounts;
+import com.example.aurora.data.EntrantRepository;
+import com.example.aurora.data.EntrantStatus;
+import com.example.aurora.notifications.BatchNotificationDispatcher;
+import com.example.aurora.notifications.BroadcastStore;
+import com.example.aurora.notifications.NotificationTemplates;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 
-import java.util.List;
 
 /**
  * OrganizerEventDetailsActivity.java
@@ -175,16 +180,19 @@ public class OrganizerEventDetailsActivity extends AppCompatActivity {
 
         waitingListContainer.removeAllViews();
 
-        List<String> waitingList = (List<String>) doc.get("waitingList");
-        if (waitingList == null || waitingList.isEmpty()) {
-            TextView tv = buildWaitingRow("No one on the waiting list yet.");
-            waitingListContainer.addView(tv);
-        } else {
-            for (String idOrEmail : waitingList) {
-                TextView tv = buildWaitingRow(idOrEmail);
-                waitingListContainer.addView(tv);
-            }
-        }
+        new EntrantRepository(db).listByStatus(eventId, EntrantStatus.WAITING)
+                .addOnSuccessListener(waitingList -> {
+                    waitingListContainer.removeAllViews();
+                    if (waitingList.isEmpty()) {
+                        TextView tv = buildWaitingRow("No one on the waiting list yet.");
+                        waitingListContainer.addView(tv);
+                    } else {
+                        for (String idOrEmail : waitingList) {
+                            TextView tv = buildWaitingRow(idOrEmail);
+                            waitingListContainer.addView(tv);
+                        }
+                    }
+                });
     }
 
     /**
@@ -203,16 +211,22 @@ public class OrganizerEventDetailsActivity extends AppCompatActivity {
 
     /**
      * Sends a notification to everyone in the event's waiting list.
-     * Uses FirestoreNotificationHelper to send one message per entrant.
+     * Writes a single broadcast (BroadcastStore) instead of one message per entrant;
+     * the counter shards tell whether anyone is waiting at all.
      */
     private void notifyWaitingList() {
 
-        db.collection("events").document(eventId).get()
-                .addOnSuccessListener(doc -> {
+        EntrantRepository entrants = new EntrantRepository(db);
 
-                    List<String> waitingList = (List<String>) doc.get("waitingList");
+        Tasks.whenAllSuccess(
+                        db.collection("events").document(eventId).get(),
+                        entrants.counts(eventId))
+                .addOnSuccessListener(results -> {
 
-                    if (waitingList == null || waitingList.isEmpty()) {
+                    DocumentSnapshot doc = (DocumentSnapshot) results.get(0);
+                    EntrantCounts counts = (EntrantCounts) results.get(1);
+
+                    if (counts.getWaiting() == 0) {
                         Toast.makeText(this, "Waiting list is empty.", Toast.LENGTH_SHORT).show();
                         return;
                     }
@@ -220,18 +234,17 @@ public class OrganizerEventDetailsActivity extends AppCompatActivity {
                     String eventName = doc.getString("title");
                     if (eventName == null) eventName = "Event";
 
-                    for (String userIdOrEmail : waitingList) {
-                        FirestoreNotificationHelper.sendWaitingListNotification(
-                                db,
-                                userIdOrEmail,
-                                eventName,
-                                eventId,
-                                myEmail
-                        );
-                    }
-
-                    Toast.makeText(this, "Waiting list notified!", Toast.LENGTH_SHORT).show();
-
+                    BroadcastStore.send(db, EntrantStatus.WAITING, BatchNotificationDispatcher.Payload.templated(
+                                    "waiting_list_info",
+                                    NotificationTemplates.WAITING_LIST,
+                                    NotificationTemplates.event(eventName),
+                                    eventId,
+                                    eventName,
+                                    myEmail))
+                            .addOnSuccessListener(v ->
+                                    Toast.makeText(this, "Waiting list notified!", Toast.LENGTH_SHORT).show())
+                            .addOnFailureListener(e ->
+                                    Toast.makeText(this, "Failed to notify waiting list.", Toast.LENGTH_SHORT).show());
                 })
                 .addOnFailureListener(e ->
                         Toast.makeText(this, "Failed to notify waiting list.", Toast.LENGTH_SHORT).show()
@@ -31,6 +31,7 @@ import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.aurora.R;
+import com.example.aurora.data.EventCardStore;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.DocumentSnapshot;
@@ -167,10 +168,9 @@ public class OrganizerProfileActivity extends AppCompatActivity {
                 .get()
                 .addOnSuccessListener(eventQuery -> {
 
+                    EventCardStore cards = new EventCardStore(db);
                     for (DocumentSnapshot eventDoc : eventQuery) {
-                        db.collection("events")
-                                .document(eventDoc.getId())
-                                .delete();
+                        cards.delete(eventDoc.getId());
                     }
 
                     db.collection("users").document(userDocId)
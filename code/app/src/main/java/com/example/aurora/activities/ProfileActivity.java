@@ -30,6 +30,11 @@ import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.aurora.R;
+import com.example.aurora.data.EntrantRepository;
+import com.example.aurora.data.EntrantStatus;
+import com.example.aurora.data.UserDirectory;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.FirebaseFirestore;
@@ -37,6 +42,7 @@ import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.SetOptions;
 import com.google.firebase.firestore.DocumentSnapshot;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
@@ -198,25 +204,20 @@ public class ProfileActivity extends AppCompatActivity {
      * Helper to count events where the user is joined or has won.
      */
     private void calculateStats(String email) {
-        db.collection("events").get().addOnSuccessListener(snap -> {
+        new EntrantRepository(db).forUser(email).addOnSuccessListener(snap -> {
             int joined = 0;
             int wins = 0;
 
-            for (DocumentSnapshot event : snap) {
-                List<String> waiting = (List<String>) event.get("waitingList");
-                List<String> selected = (List<String>) event.get("selectedEntrants");
-                List<String> finalEntrants = (List<String>) event.get("finalEntrants");
-                List<String> accepted = (List<String>) event.get("acceptedEntrants");
+            for (DocumentSnapshot entrant : snap) {
+                String status = EntrantRepository.statusOf(entrant);
 
-
-                if (waiting != null && waiting.contains(email)) {
+                if (EntrantStatus.WAITING.equals(status)) {
                     joined++;
                 }
 
-
-                if ((selected != null && selected.contains(email)) ||
-                        (accepted != null && accepted.contains(email)) ||
-                        (finalEntrants != null && finalEntrants.contains(email))) {
+                if (EntrantStatus.SELECTED.equals(status)
+                        || EntrantStatus.ACCEPTED.equals(status)
+                        || EntrantStatus.FINAL.equals(status)) {
                     wins++;
                 }
             }
@@ -251,6 +252,7 @@ public class ProfileActivity extends AppCompatActivity {
 
         userRef.set(upd, SetOptions.merge())
                 .addOnSuccessListener(v -> {
+                    UserDirectory.getInstance(db).invalidate(userRef.getId());
                     headerName.setText(TextUtils.isEmpty(n) ? "Entrant" : n);
                     setAvatarInitials(n);
                     setEditing(false);
@@ -350,6 +352,7 @@ public class ProfileActivity extends AppCompatActivity {
             // Save to Firestore
             if (userRef != null) {
                 userRef.update("entrant_notifications_enabled", newValue);
+                UserDirectory.getInstance(db).invalidate(userRef.getId());
             }
 
             Toast.makeText(this,
@@ -376,7 +379,7 @@ public class ProfileActivity extends AppCompatActivity {
     /**
      * Fully deletes an entrant account.
      * Steps:
-     *  Removes entrant email from all event lists.
+     *  Removes the entrant from every event they joined (entrant documents and counters).
      *  Deletes the entrant's Firestore user document.
      *  Signs out and clears session data.
      *  Returns user to LoginActivity.
@@ -390,51 +393,22 @@ public class ProfileActivity extends AppCompatActivity {
 
         final String emailValue = email.getText().toString().trim();
 
-        db.collection("events")
-                .get()
-                .addOnSuccessListener(allEventsQuery -> {
-
-                    for (DocumentSnapshot eventDoc : allEventsQuery.getDocuments()) {
-                        boolean updated = false;
-                        Map<String, Object> updates = new HashMap<>();
-
-                        List<String> waitingList = (List<String>) eventDoc.get("waitingList");
-                        if (waitingList != null && waitingList.contains(emailValue)) {
-                            waitingList.remove(emailValue);
-                            updates.put("waitingList", waitingList);
-                            updated = true;
-                        }
-
-                        List<String> selected = (List<String>) eventDoc.get("selectedEntrants");
-                        if (selected != null && selected.contains(emailValue)) {
-                            selected.remove(emailValue);
-                            updates.put("selectedEntrants", selected);
-                            updated = true;
-                        }
-
-                        List<String> cancelled = (List<String>) eventDoc.get("cancelledEntrants");
-                        if (cancelled != null && cancelled.contains(emailValue)) {
-                            cancelled.remove(emailValue);
-                            updates.put("cancelledEntrants", cancelled);
-                            updated = true;
-                        }
-
-                        List<String> finalEntrants = (List<String>) eventDoc.get("finalEntrants");
-                        if (finalEntrants != null && finalEntrants.contains(emailValue)) {
-                            finalEntrants.remove(emailValue);
-                            updates.put("finalEntrants", finalEntrants);
-                            updated = true;
-                        }
-
-                        if (updated) {
-                            db.collection("events")
-                                    .document(eventDoc.getId())
-                                    .update(updates);
-                        }
+        EntrantRepository entrants = new EntrantRepository(db);
+
+        entrants.forUser(emailValue)
+                .onSuccessTask(memberships -> {
+                    // leave() also moves each event's counters down
+                    List<Task<Void>> leaves = new ArrayList<>();
+                    for (DocumentSnapshot entrant : memberships.getDocuments()) {
+                        leaves.add(entrants.leave(EntrantRepository.eventIdOf(entrant), emailValue));
                     }
+                    return Tasks.whenAll(leaves);
+                })
+                .addOnSuccessListener(unused -> {
 
                     userRef.delete()
                             .addOnSuccessListener(v -> {
+                                UserDirectory.getInstance(db).invalidate(userRef.getId());
                                 FirebaseAuth.getInstance().signOut();
                                 getSharedPreferences("aurora_prefs", MODE_PRIVATE)
                                         .edit()
@@ -36,6 +36,9 @@ import android.net.Uri;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.aurora.R;
+import com.example.aurora.data.EntrantMigrationWorker;
+import com.example.aurora.data.EventCardBackfillWorker;
+import com.example.aurora.data.EventTimesBackfillWorker;
 import com.google.firebase.auth.FirebaseAuth;
 
 public class WelcomeActivity extends AppCompatActivity {
@@ -52,6 +55,9 @@ public class WelcomeActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_welcome);
         FirebaseAuth.getInstance().signOut();
+        EntrantMigrationWorker.enqueueOnce(this);
+        EventCardBackfillWorker.enqueueOnce(this);
+        EventTimesBackfillWorker.enqueueOnce(this);
         root = findViewById(R.id.welcomeRoot);
         tapAnywhere = findViewById(R.id.tapAnywhere);
 
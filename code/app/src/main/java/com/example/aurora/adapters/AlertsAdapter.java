@@ -0,0 +1,205 @@
+/*
+ * source: Android Developers — "ListAdapter".
+ * url: https://developer.android.com/reference/androidx/recyclerview/widget/ListAdapter
+ * note: submitList() diffs the new alert list against the old one with DiffUtil on a background thread,
+ *       so only changed cards are rebound.
+ *
+ * source: Android Developers — "DateUtils".
+ * url: https://developer.android.com/reference/android/text/format/DateUtils#getRelativeTimeSpanString(long,%20long,%20long)
+ * note: Used for getRelativeTimeSpanString to format timestamps into "X minutes ago".
+ */
+
+package com.example.aurora.adapters;
+
+import android.text.TextUtils;
+import android.text.format.DateUtils;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.aurora.R;
+import com.example.aurora.notifications.NotificationCoalescer;
+import com.example.aurora.notifications.NotificationTemplates;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentSnapshot;
+
+import java.util.Objects;
+
+/**
+ * RecyclerView adapter for the alerts screen.
+ * Shows personal notifications and broadcasts with the same card:
+ * - "winner_selected" gets Accept / Decline
+ * - everything else gets Dismiss
+ */
+public class AlertsAdapter extends ListAdapter<AlertsAdapter.Alert, AlertsAdapter.AlertViewHolder> {
+
+    /**
+     * Card actions, handled by the screen.
+     */
+    public interface Actions {
+        void onAccept(Alert alert);
+        void onDecline(Alert alert);
+        void onDismiss(Alert alert);
+    }
+
+    /**
+     * Immutable copy of the fields a card shows, taken from a notifications
+     * or broadcasts document.
+     */
+    public static class Alert {
+        final String id;
+        final boolean broadcast;
+        final String type;
+        final String title;
+        final String message;
+        final String eventId;
+        final long time;
+
+        Alert(String id, boolean broadcast, String type, String title,
+              String message, String eventId, long time) {
+            this.id = id;
+            this.broadcast = broadcast;
+            this.type = type;
+            this.title = title;
+            this.message = message;
+            this.eventId = eventId;
+            this.time = time;
+        }
+
+        /**
+         * @param broadcast true for broadcasts/{id} documents
+         */
+        public static Alert from(DocumentSnapshot doc, boolean broadcast) {
+            NotificationTemplates.Rendered text = NotificationTemplates.render(
+                    doc.getString("title"), doc.getString("message"),
+                    doc.getString("template"), NotificationTemplates.params(doc.get("params")));
+            // a coalesced notification lists every merged message, newest first
+            String message = NotificationCoalescer.count(doc.getData()) > 1
+                    ? TextUtils.join("\n", NotificationCoalescer.lines(doc.getData()))
+                    : text.getMessage();
+            return new Alert(doc.getId(), broadcast, doc.getString("type"), text.getTitle(),
+                    message, doc.getString("eventId"), timeOf(doc));
+        }
+
+        /**
+         * Extracts a timestamp from a notification document.
+         * Supports both 'createdAt' and 'timestamp' fields for compatibility.
+         *
+         * @return time in milliseconds, or 0 if missing.
+         */
+        public static long timeOf(DocumentSnapshot doc) {
+            Object t = doc.get("createdAt");
+            if (t == null) t = doc.get("timestamp");
+
+            if (t instanceof Long) return (Long) t;
+            if (t instanceof Timestamp) return ((Timestamp) t).toDate().getTime();
+            return 0L;
+        }
+
+        public String getId() { return id; }
+        public boolean isBroadcast() { return broadcast; }
+        public String getEventId() { return eventId; }
+        public long getTime() { return time; }
+
+        boolean sameContent(Alert other) {
+            return broadcast == other.broadcast
+                    && time == other.time
+                    && Objects.equals(type, other.type)
+                    && Objects.equals(title, other.title)
+                    && Objects.equals(message, other.message)
+                    && Objects.equals(eventId, other.eventId);
+        }
+    }
+
+    private static final DiffUtil.ItemCallback<Alert> DIFF = new DiffUtil.ItemCallback<Alert>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Alert a, @NonNull Alert b) {
+            return a.id.equals(b.id) && a.broadcast == b.broadcast;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Alert a, @NonNull Alert b) {
+            return a.sameContent(b);
+        }
+    };
+
+    private final Actions actions;
+
+    public AlertsAdapter(Actions actions) {
+        super(DIFF);
+        this.actions = actions;
+    }
+
+    @NonNull
+    @Override
+    public AlertViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View card = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_notification_card, parent, false);
+        return new AlertViewHolder(card);
+    }
+
+    /**
+     * Populates a card with title, message, timestamp, and action buttons.
+     * Decides which action buttons to show based on notification type.
+     */
+    @Override
+    public void onBindViewHolder(@NonNull AlertViewHolder holder, int position) {
+        Alert alert = getItem(position);
+
+        holder.title.setText(alert.title);
+        holder.msg.setText(alert.message);
+
+        if (alert.time > 0) {
+            holder.time.setVisibility(View.VISIBLE);
+            holder.time.setText(DateUtils.getRelativeTimeSpanString(
+                    alert.time,
+                    System.currentTimeMillis(),
+                    DateUtils.MINUTE_IN_MILLIS
+            ));
+        } else {
+            holder.time.setVisibility(View.GONE);
+        }
+
+        if ("winner_selected".equals(alert.type)) {
+
+            holder.btnDismiss.setVisibility(View.GONE);
+
+            holder.btnAccept.setVisibility(View.VISIBLE);
+            holder.btnDecline.setVisibility(View.VISIBLE);
+
+            holder.btnAccept.setOnClickListener(v -> actions.onAccept(alert));
+            holder.btnDecline.setOnClickListener(v -> actions.onDecline(alert));
+        } else {
+
+            holder.btnAccept.setVisibility(View.GONE);
+            holder.btnDecline.setVisibility(View.GONE);
+            holder.btnDismiss.setVisibility(View.VISIBLE);
+
+            holder.btnDismiss.setOnClickListener(v -> actions.onDismiss(alert));
+        }
+    }
+
+    /**
+     * Holds the views of one notification card.
+     */
+    static class AlertViewHolder extends RecyclerView.ViewHolder {
+        final TextView title, msg, time;
+        final View btnAccept, btnDecline, btnDismiss;
+
+        AlertViewHolder(@NonNull View itemView) {
+            super(itemView);
+            title = itemView.findViewById(R.id.notifTitle);
+            msg = itemView.findViewById(R.id.notifMessage);
+            time = itemView.findViewById(R.id.notifTime);
+            btnAccept = itemView.findViewById(R.id.btnAccept);
+            btnDecline = itemView.findViewById(R.id.btnDecline);
+            btnDismiss = itemView.findViewById(R.id.btnDismiss);
+        }
+    }
+}
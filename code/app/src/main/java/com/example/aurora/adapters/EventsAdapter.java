@@ -9,7 +9,13 @@
  *
  * source: Firebase docs — "Listen to a document".
  * url: https://firebase.google.com/docs/firestore/query-data/listen
- * note: Used for the live snapshot listener on each event card to update the "Join/Leave" button text in real-time.
+ * note: Used for the live listener on the user's entrant document of each visible card (shared through
+ *       EventStatusRepository) to update the "Join/Leave" button text in real-time.
+ *
+ * source: Android Developers — "RecyclerView.Adapter".
+ * url: https://developer.android.com/reference/androidx/recyclerview/widget/RecyclerView.Adapter
+ * note: Status listeners are attached in onViewAttachedToWindow() and removed in onViewRecycled(),
+ *       so only rows that are (or were just) on screen hold one.
  *
  * source: Stack Overflow user — "How to open Android Location Settings programmatically?".
  * url: https://stackoverflow.com/questions/10311834/how-to-check-if-location-services-are-enabled
@@ -46,15 +52,21 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.bumptech.glide.Glide;
 import com.example.aurora.R;
 import com.example.aurora.activities.EventDetailsActivity;
+import com.example.aurora.data.EntrantRepository;
+import com.example.aurora.data.EntrantStatus;
+import com.example.aurora.data.EventStatusRepository;
 import com.example.aurora.map.JoinLocation;
 import com.example.aurora.models.Event;
 import com.example.aurora.utils.LocationUtils;
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.ListenerRegistration;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 /**
  * RecyclerView adapter for displaying event cards in the Entrant view.
  * Handles:
@@ -69,12 +81,19 @@ public class EventsAdapter extends RecyclerView.Adapter<EventsAdapter.EventViewH
     private final Context context;
     private final List<Event> events;
     private final FirebaseFirestore db;
+    private final EntrantRepository entrants;
     private final String userKey;
+    private final EventStatusRepository statusRepository;
+
+    /** Holders currently holding a status listener. */
+    private final Set<EventViewHolder> watching = new HashSet<>();
 
     public EventsAdapter(Context context, List<Event> events) {
         this.context = context;
         this.events = events;
         this.db = FirebaseFirestore.getInstance();
+        this.entrants = new EntrantRepository(db);
+        this.statusRepository = EventStatusRepository.getInstance(db);
 
         String email = context.getSharedPreferences("aurora_prefs", Context.MODE_PRIVATE)
                 .getString("user_email", null);
@@ -99,24 +118,7 @@ public class EventsAdapter extends RecyclerView.Adapter<EventsAdapter.EventViewH
      * @return one of: "final", "accepted", "selected", "cancelled", "waiting", "none"
      */
     private String getUserStatus(Event e) {
-
-        if (e.getFinalEntrants() != null && e.getFinalEntrants().contains(userKey)) {
-            return "final";
-        }
-        if (e.getAcceptedEntrants() != null && e.getAcceptedEntrants().contains(userKey)) {
-            return "accepted";
-        }
-        if (e.getSelectedEntrants() != null && e.getSelectedEntrants().contains(userKey)) {
-            return "selected";
-        }
-        if (e.getCancelledEntrants() != null && e.getCancelledEntrants().contains(userKey)) {
-            return "cancelled";
-        }
-        if (e.getWaitingList() != null && e.getWaitingList().contains(userKey)) {
-            return "waiting";
-        }
-
-        return "none";
+        return statusRepository.getStatus(e.getEventId(), userKey);
     }
 
     /**
@@ -163,125 +165,87 @@ public class EventsAdapter extends RecyclerView.Adapter<EventsAdapter.EventViewH
      * Handles all cases:
      * - geoRequired false → optionally store location
      * - geoRequired true → require permission + GPS
+     * Capacity is checked by the join transaction itself, so nothing is read up front.
      */
     private void joinWaitingList(Event e, Button button) {
 
         String eventId = e.getEventId();
 
-        db.collection("events")
-                .document(eventId)
-                .get()
-                .addOnSuccessListener(doc -> {
+        if (!EntrantStatus.NONE.equals(getUserStatus(e))) {
+            Toast.makeText(context, "Already joined", Toast.LENGTH_SHORT).show();
+            return;
+        }
 
-                    Boolean geoRequired = doc.getBoolean("geoRequired");
-                    if (geoRequired == null) geoRequired = false;
+        boolean hasPermission = LocationUtils.isLocationPermissionGranted(context);
+        boolean gpsOn = LocationUtils.isGpsEnabled(context);
 
-                    List<String> list = (List<String>) doc.get("waitingList");
-                    if (list == null) list = new ArrayList<>();
+        if (!e.getGeoRequired()) {
 
-                    Long maxSpots = doc.getLong("maxSpots");
-                    if (maxSpots != null && list.size() >= maxSpots) {
-                        Toast.makeText(context, "Waiting list full", Toast.LENGTH_SHORT).show();
-                        return;
-                    }
+            if (!hasPermission || !gpsOn) {
+                addToWaitingList(eventId, null, button);
+                return;
+            }
 
-                    if (list.contains(userKey)) {
-                        Toast.makeText(context, "Already joined", Toast.LENGTH_SHORT).show();
-                        return;
-                    }
+            LocationUtils.getUserLocation(context, (lat, lng) -> {
 
-                    if (!geoRequired) {
-
-                        boolean hasPermission = LocationUtils.isLocationPermissionGranted(context);
-                        boolean gpsOn = LocationUtils.isGpsEnabled(context);
-
-                        if (!hasPermission || !gpsOn) {
-
-                            db.collection("events")
-                                    .document(eventId)
-                                    .update("waitingList", FieldValue.arrayUnion(userKey))
-                                    .addOnSuccessListener(v -> {
-                                        Toast.makeText(context, "Joined waiting list", Toast.LENGTH_SHORT).show();
-                                        updateJoinButton(button, "waiting");
-                                    });
-
-                            return;
-                        }
-
-
-                        LocationUtils.getUserLocation(context, (lat, lng) -> {
-
-                            if (Double.isNaN(lat) || Double.isNaN(lng)) {
-                                // fallback: join without location
-                                db.collection("events")
-                                        .document(eventId)
-                                        .update("waitingList", FieldValue.arrayUnion(userKey))
-                                        .addOnSuccessListener(v -> {
-                                            Toast.makeText(context, "Joined waiting list", Toast.LENGTH_SHORT).show();
-                                            updateJoinButton(button, "waiting");
-                                        });
-                                return;
-                            }
-                            // Save location
-                            db.collection("events")
-                                    .document(eventId)
-                                    .collection("waitingLocations")
-                                    .add(new JoinLocation(userKey, lat, lng))
-                                    .addOnSuccessListener(s -> {
-
-                                        db.collection("events")
-                                                .document(eventId)
-                                                .update("waitingList", FieldValue.arrayUnion(userKey))
-                                                .addOnSuccessListener(x -> {
-                                                    Toast.makeText(context, "Joined waiting list", Toast.LENGTH_SHORT).show();
-                                                    updateJoinButton(button, "waiting");
-                                                });
-                                    });
-                        });
-
-                        return;
-                    }
+                if (Double.isNaN(lat) || Double.isNaN(lng)) {
+                    // fallback: join without location
+                    addToWaitingList(eventId, null, button);
+                    return;
+                }
+                addToWaitingList(eventId, new JoinLocation(userKey, lat, lng), button);
+            });
 
-                    boolean hasPermission = LocationUtils.isLocationPermissionGranted(context);
-                    boolean gpsOn = LocationUtils.isGpsEnabled(context);
+            return;
+        }
 
-                    if (!hasPermission) {
-                        Toast.makeText(context, "This event requires location to join.", Toast.LENGTH_LONG).show();
-                        LocationUtils.requestLocationPermission(context);
-                        return;
-                    }
+        if (!hasPermission) {
+            Toast.makeText(context, "This event requires location to join.", Toast.LENGTH_LONG).show();
+            LocationUtils.requestLocationPermission(context);
+            return;
+        }
 
-                    if (!gpsOn) {
-                        Toast.makeText(context,
-                                "Please enable GPS to join this event.",
-                                Toast.LENGTH_LONG).show();
+        if (!gpsOn) {
+            Toast.makeText(context,
+                    "Please enable GPS to join this event.",
+                    Toast.LENGTH_LONG).show();
 
-                        context.startActivity(new Intent(Settings.ACTION_LOCATION_SOURCE_SETTINGS));
-                        return;
-                    }
+            context.startActivity(new Intent(Settings.ACTION_LOCATION_SOURCE_SETTINGS));
+            return;
+        }
 
-                    LocationUtils.getUserLocation(context, (lat, lng) -> {
-
-                        if (Double.isNaN(lat) || Double.isNaN(lng)) {
-                            Toast.makeText(context, "Unable to fetch location. Ensure GPS is ON.", Toast.LENGTH_LONG).show();
-                            return;
-                        }
-
-                        db.collection("events")
-                                .document(eventId)
-                                .collection("waitingLocations")
-                                .add(new JoinLocation(userKey, lat, lng))
-                                .addOnSuccessListener(s -> {
-
-                                    db.collection("events")
-                                            .document(eventId)
-                                            .update("waitingList", FieldValue.arrayUnion(userKey))
-                                            .addOnSuccessListener(x -> {
-                                                Toast.makeText(context, "Joined waiting list", Toast.LENGTH_SHORT).show();
-                                                updateJoinButton(button, "waiting");
-                                            });
-                                });
-                    });
+        LocationUtils.getUserLocation(context, (lat, lng) -> {
+
+            if (Double.isNaN(lat) || Double.isNaN(lng)) {
+                Toast.makeText(context, "Unable to fetch location. Ensure GPS is ON.", Toast.LENGTH_LONG).show();
+                return;
+            }
+            addToWaitingList(eventId, new JoinLocation(userKey, lat, lng), button);
+        });
+    }
+
+    /**
+     * Creates the user's entrant document (status "waiting") and, if given,
+     * their join location in one transaction.
+     */
+    private void addToWaitingList(String eventId, JoinLocation location, Button button) {
+        entrants.join(eventId, userKey, location)
+                .addOnSuccessListener(v -> {
+                    Toast.makeText(context, "Joined waiting list", Toast.LENGTH_SHORT).show();
+                    statusRepository.update(eventId, userKey, EntrantStatus.WAITING);
+                    updateJoinButton(button, EntrantStatus.WAITING);
+                })
+                .addOnFailureListener(err -> {
+                    FirebaseFirestoreException.Code code = err instanceof FirebaseFirestoreException
+                            ? ((FirebaseFirestoreException) err).getCode() : null;
+
+                    if (code == FirebaseFirestoreException.Code.ALREADY_EXISTS) {
+                        Toast.makeText(context, "Already joined", Toast.LENGTH_SHORT).show();
+                    } else if (code == FirebaseFirestoreException.Code.RESOURCE_EXHAUSTED) {
+                        Toast.makeText(context, "Waiting list full", Toast.LENGTH_SHORT).show();
+                    } else {
+                        Toast.makeText(context, "Failed to join", Toast.LENGTH_SHORT).show();
+                    }
                 });
     }
 
@@ -292,15 +256,14 @@ public class EventsAdapter extends RecyclerView.Adapter<EventsAdapter.EventViewH
 
         String eventId = e.getEventId();
 
-        db.collection("events")
-                .document(eventId)
-                .update("waitingList", FieldValue.arrayRemove(userKey))
+        entrants.leave(eventId, userKey)
                 .addOnSuccessListener(unused -> {
 
-                    // REMOVE LOCATION ENTRY
+                    // the transaction removed waitingLocations/{userKey}; this clears
+                    // entries written with random ids before joins were transactional
                     db.collection("events")
                             .document(eventId)
-                            .collection("waitingLocations")
+                            .collection(EntrantRepository.LOCATIONS)
                             .whereEqualTo("userKey", userKey)
                             .get()
                             .addOnSuccessListener(snap -> {
@@ -310,6 +273,7 @@ public class EventsAdapter extends RecyclerView.Adapter<EventsAdapter.EventViewH
                                 }
 
                                 Toast.makeText(context, "Left waiting list", Toast.LENGTH_SHORT).show();
+                                statusRepository.update(eventId, userKey, EntrantStatus.NONE);
                                 updateJoinButton(button, "none");
                             });
                 });
@@ -322,14 +286,10 @@ public class EventsAdapter extends RecyclerView.Adapter<EventsAdapter.EventViewH
 
         String eventId = e.getEventId();
 
-        db.collection("events")
-                .document(eventId)
-                .update(
-                        "finalEntrants", FieldValue.arrayUnion(userKey),
-                        "acceptedEntrants", FieldValue.arrayRemove(userKey)
-                )
+        entrants.setStatus(eventId, userKey, EntrantStatus.FINAL)
                 .addOnSuccessListener(unused -> {
                     Toast.makeText(context, "You are signed up!", Toast.LENGTH_SHORT).show();
+                    statusRepository.update(eventId, userKey, EntrantStatus.FINAL);
                     updateJoinButton(button, "final");
                 })
                 .addOnFailureListener(err -> {
@@ -346,13 +306,15 @@ public class EventsAdapter extends RecyclerView.Adapter<EventsAdapter.EventViewH
     }
 
     /**
-     * Binds event data, loads poster, sets up real-time Firestore listener,
+     * Binds event data, loads poster, shows the cached status,
      * handles join/leave/sign-up logic, and opens details screen.
+     * The live status listener itself is managed by the attach / recycle callbacks.
      */
     @Override
     public void onBindViewHolder(@NonNull EventViewHolder holder, int position) {
 
         Event e = events.get(position);
+        holder.eventId = e.getEventId();
 
         holder.eventTitle.setText(e.getTitle());
         holder.eventDate.setText(e.getDate());
@@ -369,20 +331,12 @@ public class EventsAdapter extends RecyclerView.Adapter<EventsAdapter.EventViewH
         }
 
         // LIVE STATUS UPDATES
-        db.collection("events")
-                .document(e.getEventId())
-                .addSnapshotListener((doc, error) -> {
-
-                    if (doc == null || !doc.exists()) return;
-
-                    e.setWaitingList((List<String>) doc.get("waitingList"));
-                    e.setSelectedEntrants((List<String>) doc.get("selectedEntrants"));
-                    e.setCancelledEntrants((List<String>) doc.get("cancelledEntrants"));
-                    e.setAcceptedEntrants((List<String>) doc.get("acceptedEntrants"));
-                    e.setFinalEntrants((List<String>) doc.get("finalEntrants"));
-
-                    updateJoinButton(holder.btnJoin, getUserStatus(e));
-                });
+        updateJoinButton(holder.btnJoin, getUserStatus(e));
+        if (holder.statusRegistration != null && !holder.eventId.equals(holder.watchedEventId)) {
+            // rebound to another event while on screen
+            unwatch(holder);
+            if (holder.itemView.isAttachedToWindow()) watch(holder);
+        }
 
         holder.btnJoin.setOnClickListener(v -> {
 
@@ -409,6 +363,43 @@ public class EventsAdapter extends RecyclerView.Adapter<EventsAdapter.EventViewH
         return events.size();
     }
 
+    @Override
+    public void onViewAttachedToWindow(@NonNull EventViewHolder holder) {
+        super.onViewAttachedToWindow(holder);
+        watch(holder);
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull EventViewHolder holder) {
+        super.onViewRecycled(holder);
+        unwatch(holder);
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        for (EventViewHolder holder : new ArrayList<>(watching)) unwatch(holder);
+    }
+
+    /** Starts following the status of the holder's event, unless it already does. */
+    private void watch(EventViewHolder holder) {
+        if (holder.statusRegistration != null || holder.eventId == null) return;
+
+        String eventId = holder.eventId;
+        holder.watchedEventId = eventId;
+        holder.statusRegistration = statusRepository.watch(eventId, userKey, status -> {
+            if (eventId.equals(holder.eventId)) updateJoinButton(holder.btnJoin, status);
+        });
+        watching.add(holder);
+    }
+
+    private void unwatch(EventViewHolder holder) {
+        if (holder.statusRegistration != null) holder.statusRegistration.remove();
+        holder.statusRegistration = null;
+        holder.watchedEventId = null;
+        watching.remove(holder);
+    }
+
     /**
      * Holds references to event title, date, location, poster,
      * join button, and details button.
@@ -419,6 +410,10 @@ public class EventsAdapter extends RecyclerView.Adapter<EventsAdapter.EventViewH
         TextView eventTitle, eventDate, eventLocation;
         Button btnViewDetails, btnJoin;
 
+        String eventId;
+        String watchedEventId;
+        ListenerRegistration statusRegistration;
+
         public EventViewHolder(@NonNull View itemView) {
             super(itemView);
             eventImage = itemView.findViewById(R.id.eventImage);
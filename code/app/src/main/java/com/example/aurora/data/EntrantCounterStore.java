@@ -0,0 +1,115 @@
+/*
+ * source: Firebase docs - "Distributed counters".
+ * url: https://firebase.google.com/docs/firestore/solutions/counters
+ * note: Counters are split over NUM_SHARDS shard documents; writes pick one shard at random
+ *       and reads add all shards up.
+ *
+ * source: Firebase docs - "Increment a numeric value".
+ * url: https://firebase.google.com/docs/firestore/manage-data/add-data#increment_a_numeric_value
+ * note: Shards are bumped with FieldValue.increment() inside the caller's transaction, so they
+ *       never need to be read before a write.
+ */
+
+package com.example.aurora.data;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Transaction;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * EntrantCounterStore
+ *
+ * Reads and writes the per-event counter shards behind EntrantCounts.
+ *
+ * Layout:
+ *  events/{eventId}/counterShards/{0..9} : { waiting, selected, accepted, final, cancelled }
+ *
+ * Shards are created on first increment, so new events need no setup.
+ */
+public class EntrantCounterStore {
+
+    public static final String COLLECTION = "counterShards";
+
+    private final FirebaseFirestore db;
+
+    public EntrantCounterStore(FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    public CollectionReference shards(String eventId) {
+        return db.collection("events").document(eventId).collection(COLLECTION);
+    }
+
+    public DocumentReference shard(String eventId, int index) {
+        return shards(eventId).document(String.valueOf(index));
+    }
+
+    /**
+     * Reads every shard of the event and adds them up.
+     */
+    public Task<EntrantCounts> read(String eventId) {
+        return shards(eventId).get().continueWith(task -> {
+            List<Map<String, Object>> raw = new ArrayList<>();
+            for (DocumentSnapshot doc : task.getResult().getDocuments()) {
+                raw.add(doc.getData());
+            }
+            return EntrantCounts.sum(raw);
+        });
+    }
+
+    /**
+     * Reads every shard inside a transaction, e.g. to enforce capacity
+     * together with the membership write. Costs NUM_SHARDS document reads.
+     */
+    public EntrantCounts read(Transaction transaction, String eventId) throws FirebaseFirestoreException {
+        List<Map<String, Object>> raw = new ArrayList<>();
+        for (int i = 0; i < EntrantCounts.NUM_SHARDS; i++) {
+            DocumentSnapshot doc = transaction.get(shard(eventId, i));
+            if (doc.exists()) raw.add(doc.getData());
+        }
+        return EntrantCounts.sum(raw);
+    }
+
+    /**
+     * Applies a counter delta (status -> change) to one random shard
+     * inside the caller's transaction. Does nothing for an empty delta.
+     */
+    public void increment(Transaction transaction, String eventId, Map<String, Long> delta) {
+        Map<String, Object> updates = incrementUpdates(delta);
+        if (updates.isEmpty()) return;
+        transaction.set(randomShard(eventId), updates, SetOptions.merge());
+    }
+
+    /** Same as increment(Transaction, ...) for batched writes. */
+    public void increment(WriteBatch batch, String eventId, Map<String, Long> delta) {
+        Map<String, Object> updates = incrementUpdates(delta);
+        if (updates.isEmpty()) return;
+        batch.set(randomShard(eventId), updates, SetOptions.merge());
+    }
+
+    private DocumentReference randomShard(String eventId) {
+        return shard(eventId, EntrantCounts.shardFor(ThreadLocalRandom.current().nextInt()));
+    }
+
+    private static Map<String, Object> incrementUpdates(Map<String, Long> delta) {
+        Map<String, Object> updates = new HashMap<>();
+        for (Map.Entry<String, Long> e : delta.entrySet()) {
+            if (e.getValue() == 0L || !EntrantStatus.isValid(e.getKey())) continue;
+            updates.put(e.getKey(), FieldValue.increment(e.getValue()));
+        }
+        return updates;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.aurora.data;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * EntrantCounts
+ *
+ * Number of entrants per state for one event, summed from the event's
+ * counter shards (events/{eventId}/counterShards/{0..NUM_SHARDS-1}).
+ *
+ * Each membership change increments one randomly picked shard instead of
+ * the event document, so a burst of joins spreads its writes over
+ * NUM_SHARDS documents. Reading the totals is always NUM_SHARDS small
+ * reads, no matter how many entrants the event has.
+ */
+public class EntrantCounts {
+
+    /** Shards per event; each Firestore document sustains roughly one write per second. */
+    public static final int NUM_SHARDS = 10;
+
+    private final long[] values = new long[EntrantStatus.ALL.size()];
+
+    /** @return all-zero counts */
+    public static EntrantCounts empty() {
+        return new EntrantCounts();
+    }
+
+    /**
+     * Adds up raw shard documents (status -> number). Missing shards and
+     * unknown fields are ignored.
+     */
+    public static EntrantCounts sum(Iterable<? extends Map<String, ?>> shards) {
+        EntrantCounts counts = new EntrantCounts();
+        for (Map<String, ?> shard : shards) {
+            if (shard == null) continue;
+            for (int i = 0; i < EntrantStatus.ALL.size(); i++) {
+                Object value = shard.get(EntrantStatus.ALL.get(i));
+                if (value instanceof Number) counts.values[i] += ((Number) value).longValue();
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Maps a random number to a shard index in [0, NUM_SHARDS).
+     */
+    public static int shardFor(int random) {
+        return Math.floorMod(random, NUM_SHARDS);
+    }
+
+    /** @return entrants in the given state, never negative */
+    public long get(String status) {
+        int index = EntrantStatus.ALL.indexOf(status);
+        return index < 0 ? 0L : Math.max(0L, values[index]);
+    }
+
+    public long getWaiting() { return get(EntrantStatus.WAITING); }
+    public long getSelected() { return get(EntrantStatus.SELECTED); }
+    public long getAccepted() { return get(EntrantStatus.ACCEPTED); }
+    public long getFinal() { return get(EntrantStatus.FINAL); }
+    public long getCancelled() { return get(EntrantStatus.CANCELLED); }
+
+    /** @return status -> count for every state, in the shard document layout */
+    public Map<String, Long> toMap() {
+        Map<String, Long> map = new HashMap<>();
+        for (String status : EntrantStatus.ALL) map.put(status, get(status));
+        return map;
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * source: Android Developers - "Managing work" (unique work).
+ * url: https://developer.android.com/develop/background-work/background-tasks/persistent/how-to/manage-work#unique-work
+ * note: enqueueOnce() uses one unique work name, so the migration never runs twice in parallel on a device.
+ *
+ * source: Firebase docs - "Transactions and batched writes".
+ * url: https://firebase.google.com/docs/firestore/manage-data/transactions
+ * note: Entrant documents are written in WriteBatches of at most 500; the event is switched over in a
+ *       transaction that re-checks the schema marker, so two devices cannot both publish counters.
+ */
+
+package com.example.aurora.data;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * EntrantMigrationWorker
+ *
+ * One-off move of events created before the entrants subcollection existed.
+ *
+ * For every event without entrantsSchema = 2:
+ *  1. writes events/{id}/entrants/{userKey} for everyone in the old arrays
+ *     (waitingList, selectedEntrants, acceptedEntrants, finalEntrants,
+ *     cancelledEntrants); losersEntrants / lossCounts become lostRounds, and
+ *     the matching memberships/{userKey}/events/{eventId} index entries
+ *  2. in one transaction adds the counts to counter shard 0 (joins made through
+ *     EntrantRepository before the migration may already have counted there),
+ *     deletes the arrays and marks the event as migrated, unless another
+ *     device got there first
+ *
+ * Events are read a page at a time (EventMigrations). Each device runs it
+ * once, tracked in the migration preferences that logout leaves alone;
+ * events that are already migrated are skipped, so a rerun only costs the
+ * event reads.
+ */
+public class EntrantMigrationWorker extends Worker {
+
+    private static final String TAG = "EntrantMigration";
+    private static final String UNIQUE_NAME = "entrant-migration";
+    private static final String PREF_DONE = "entrants_migrated";
+    private static final String PREF_CURSOR = "entrants_migrated_after";
+
+    /** Firestore caps a WriteBatch at 500 operations. */
+    private static final int MAX_BATCH_WRITES = 500;
+
+    private static final String[] LEGACY_FIELDS = {
+            "waitingList", "selectedEntrants", "acceptedEntrants", "finalEntrants",
+            "cancelledEntrants", "losersEntrants", "lossCounts"
+    };
+
+    private final FirebaseFirestore db = FirebaseFirestore.getInstance();
+    private final EntrantCounterStore counters = new EntrantCounterStore(db);
+    private final EntrantRepository entrants = new EntrantRepository(db);
+
+    public EntrantMigrationWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Queues the migration unless this device already finished it.
+     */
+    public static void enqueueOnce(Context context) {
+        if (EventMigrations.prefs(context).getBoolean(PREF_DONE, false)) return;
+
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(EntrantMigrationWorker.class)
+                .setConstraints(new Constraints.Builder()
+                        .setRequiredNetworkType(NetworkType.CONNECTED)
+                        .build())
+                .build();
+
+        WorkManager.getInstance(context)
+                .enqueueUniqueWork(UNIQUE_NAME, ExistingWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        try {
+            SharedPreferences prefs = EventMigrations.prefs(getApplicationContext());
+            EventMigrations.forEachPage(db, prefs, PREF_CURSOR, (events, after) -> {
+                for (DocumentSnapshot event : events) {
+                    if (isMigrated(event)) continue;
+                    migrate(event);
+                }
+            });
+
+            prefs.edit().putBoolean(PREF_DONE, true).apply();
+            return Result.success();
+
+        } catch (ExecutionException e) {
+            Log.e(TAG, "Migration failed, will retry", e);
+            return Result.retry();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.retry();
+        }
+    }
+
+    private static boolean isMigrated(DocumentSnapshot event) {
+        Long schema = event.getLong(EntrantRepository.SCHEMA_FIELD);
+        return schema != null && schema >= EntrantRepository.SCHEMA_VERSION;
+    }
+
+    /**
+     * Writes the entrant documents of one event, then switches the event over.
+     */
+    @SuppressWarnings("unchecked")
+    private void migrate(DocumentSnapshot event) throws ExecutionException, InterruptedException {
+        DocumentReference eventRef = event.getReference();
+
+        List<String> waiting = (List<String>) event.get("waitingList");
+        List<String> selected = (List<String>) event.get("selectedEntrants");
+        List<String> accepted = (List<String>) event.get("acceptedEntrants");
+        List<String> finalEntrants = (List<String>) event.get("finalEntrants");
+        List<String> cancelled = (List<String>) event.get("cancelledEntrants");
+        List<String> loserList = (List<String>) event.get("losersEntrants");
+        Set<String> losers = loserList == null ? Collections.emptySet() : new HashSet<>(loserList);
+        Map<String, Object> lossCounts = (Map<String, Object>) event.get("lossCounts");
+
+        Set<String> everyone = new LinkedHashSet<>();
+        addAll(everyone, waiting);
+        addAll(everyone, selected);
+        addAll(everyone, accepted);
+        addAll(everyone, finalEntrants);
+        addAll(everyone, cancelled);
+
+        Map<String, Long> counts = new HashMap<>();
+        List<Task<Void>> commits = new ArrayList<>();
+        WriteBatch batch = db.batch();
+        int pending = 0;
+
+        for (String userKey : everyone) {
+            if (userKey == null || userKey.isEmpty()) continue;
+
+            String status = EntrantStatus.fromLegacyLists(
+                    userKey, waiting, selected, accepted, finalEntrants, cancelled);
+            if (status == null) continue;
+            counts.merge(status, 1L, Long::sum);
+
+            Map<String, Object> data = new HashMap<>();
+            data.put("userKey", userKey);
+            data.put("eventId", eventRef.getId());
+            data.put("status", status);
+            data.put("lostRounds", lostRounds(userKey, lossCounts, losers));
+            data.put("joinedAt", FieldValue.serverTimestamp());
+            data.put("updatedAt", FieldValue.serverTimestamp());
+            batch.set(eventRef.collection(EntrantRepository.COLLECTION).document(userKey),
+                    data, SetOptions.merge());
+            batch.set(entrants.membership(userKey, eventRef.getId()),
+                    EntrantRepository.membershipData(eventRef.getId(), status, FieldValue.serverTimestamp()),
+                    SetOptions.merge());
+
+            // two writes per entrant: the entrant document and its membership index entry
+            pending += 2;
+            if (pending >= MAX_BATCH_WRITES - 1) {
+                commits.add(batch.commit());
+                batch = db.batch();
+                pending = 0;
+            }
+        }
+        if (pending > 0) commits.add(batch.commit());
+        Tasks.await(Tasks.whenAll(commits));
+
+        Tasks.await(db.runTransaction(transaction -> {
+            DocumentSnapshot current = transaction.get(eventRef);
+            if (!current.exists() || isMigrated(current)) return null;
+
+            // joins through EntrantRepository may already have counted on the shards; add to them
+            Map<String, Object> increments = new HashMap<>();
+            for (Map.Entry<String, Long> count : counts.entrySet()) {
+                increments.put(count.getKey(), FieldValue.increment(count.getValue()));
+            }
+            transaction.set(counters.shard(eventRef.getId(), 0), increments, SetOptions.merge());
+
+            Map<String, Object> updates = new HashMap<>();
+            updates.put(EntrantRepository.SCHEMA_FIELD, EntrantRepository.SCHEMA_VERSION);
+            for (String field : LEGACY_FIELDS) updates.put(field, FieldValue.delete());
+            transaction.update(eventRef, updates);
+            return null;
+        }));
+    }
+
+    /** Rounds lost, from lossCounts if present, else 1 for anyone in losersEntrants. */
+    private static long lostRounds(String userKey, Map<String, Object> lossCounts, Set<String> losers) {
+        if (lossCounts != null && lossCounts.get(userKey) instanceof Number) {
+            return ((Number) lossCounts.get(userKey)).longValue();
+        }
+        return losers.contains(userKey) ? 1L : 0L;
+    }
+
+    private static void addAll(Set<String> into, Collection<String> list) {
+        if (list != null) into.addAll(list);
+    }
+}
@@ -0,0 +1,488 @@
+/*
+ * source: Firebase docs - "Choose a data structure" (subcollections).
+ * url: https://firebase.google.com/docs/firestore/manage-data/structure-data#subcollections
+ * note: Entrants live in events/{eventId}/entrants/{userKey} instead of arrays on the event,
+ *       so joins no longer rewrite the event document and events are not capped at 1 MiB.
+ *
+ * source: Firebase docs - "Distributed counters".
+ * url: https://firebase.google.com/docs/firestore/solutions/counters
+ * note: Status counters live in EntrantCounterStore shards and move in the same transaction as the entrant document.
+ *
+ * source: Firebase docs - "Collection group queries".
+ * url: https://firebase.google.com/docs/firestore/query-data/queries#collection-group-query
+ * note: Only used once per user, to backfill the membership index from collectionGroup("entrants").
+ *
+ * source: Firebase docs - "Cloud Firestore data model" / "Choose a data structure" (denormalization).
+ * url: https://firebase.google.com/docs/firestore/manage-data/structure-data
+ * note: memberships/{userKey}/events/{eventId} mirrors the user's status in each event and is written
+ *       in the same transaction as the entrant document, so forUser() reads one small document per event.
+ *
+ * source: Firebase docs - "Transactions and batched writes" / "Transaction contention".
+ * url: https://firebase.google.com/docs/firestore/transaction-data-contention
+ * note: join() checks capacity, adds the entrant and stores the join location in one transaction.
+ *       The SDK's own retries are switched off (TransactionOptions.setMaxAttempts(1)) so aborted
+ *       joins are retried here with jittered backoff (utils/Backoff) and counted in JoinMetrics.
+ */
+
+package com.example.aurora.data;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.example.aurora.map.JoinLocation;
+import com.example.aurora.notifications.UnreadCounter;
+import com.example.aurora.utils.Backoff;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Transaction;
+import com.google.firebase.firestore.TransactionOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EntrantRepository
+ *
+ * Single place that reads and writes event membership.
+ *
+ * Layout:
+ *  events/{eventId}/entrants/{userKey}    : { userKey, eventId, status, lostRounds, joinedAt, updatedAt }
+ *  events/{eventId}/counterShards/{n}     : entrants per status, see EntrantCounterStore
+ *  events/{eventId}/waitingLocations/{userKey} : where the user joined (JoinLocation)
+ *  memberships/{userKey}/events/{eventId} : { eventId, status, joinedAt, updatedAt }, the user's side
+ *  memberships/{userKey}                  : { indexedAt } once older memberships were backfilled
+ *
+ * Every state change goes through a transaction that reads the entrant's
+ * current status, writes the new one and bumps one counter shard in the
+ * same commit, so the counts never drift from the documents and joins
+ * never write the event document itself. The membership index is written
+ * (or deleted) in that same commit, so a user's events and statuses are
+ * read from their own index instead of from every event.
+ */
+public class EntrantRepository {
+
+    public static final String COLLECTION = "entrants";
+
+    /** Event field marking events whose members live in the subcollection. */
+    public static final String SCHEMA_FIELD = "entrantsSchema";
+    public static final long SCHEMA_VERSION = 2L;
+
+    public static final String LOCATIONS = "waitingLocations";
+
+    public static final String MEMBERSHIPS = "memberships";
+    public static final String MEMBERSHIP_EVENTS = "events";
+
+    /** Writes per backfill batch; Firestore allows 500 and the marker takes one. */
+    private static final int BACKFILL_BATCH = 450;
+
+    private static final String TAG = "EntrantRepository";
+
+    /** 6 tries, waiting up to 50, 100, 200, 400, 800 ms (jittered) in between. */
+    private static final Backoff JOIN_BACKOFF = new Backoff(50L, 2000L, 6);
+    private static final TransactionOptions SINGLE_ATTEMPT =
+            new TransactionOptions.Builder().setMaxAttempts(1).build();
+    private static final ScheduledExecutorService RETRY_TIMER =
+            Executors.newSingleThreadScheduledExecutor();
+    private static final Random JITTER = new Random();
+    private static final JoinMetrics JOIN_METRICS = new JoinMetrics();
+
+    private final FirebaseFirestore db;
+    private final EntrantCounterStore counters;
+
+    public EntrantRepository(FirebaseFirestore db) {
+        this.db = db;
+        this.counters = new EntrantCounterStore(db);
+    }
+
+    public EntrantCounterStore counters() {
+        return counters;
+    }
+
+    /** @return the event's entrant counts, summed from its counter shards */
+    public Task<EntrantCounts> counts(String eventId) {
+        return counters.read(eventId);
+    }
+
+    /** @return process-wide counters of join attempts, retries and contention */
+    public static JoinMetrics joinMetrics() {
+        return JOIN_METRICS;
+    }
+
+    public CollectionReference entrants(String eventId) {
+        return db.collection("events").document(eventId).collection(COLLECTION);
+    }
+
+    public DocumentReference entrant(String eventId, String userKey) {
+        return entrants(eventId).document(userKey);
+    }
+
+    /**
+     * Reads a user's status in one event.
+     *
+     * @return one of EntrantStatus.ALL, or EntrantStatus.NONE
+     */
+    public Task<String> getStatus(String eventId, String userKey) {
+        return entrant(eventId, userKey).get()
+                .continueWith(task -> statusOf(task.getResult()));
+    }
+
+    /**
+     * Listens to a user's status in one event. Only the single entrant
+     * document is watched, not the whole member list.
+     */
+    public ListenerRegistration listenStatus(String eventId, String userKey, StatusListener listener) {
+        return entrant(eventId, userKey).addSnapshotListener((doc, error) -> {
+            if (error != null) return;
+            listener.onStatus(statusOf(doc));
+        });
+    }
+
+    /** @return userKeys of everyone in the given status */
+    public Task<List<String>> listByStatus(String eventId, String status) {
+        return entrants(eventId)
+                .whereEqualTo("status", status)
+                .get()
+                .continueWith(task -> userKeys(task.getResult()));
+    }
+
+    /** @return every entrant document of the event */
+    public Task<QuerySnapshot> listAll(String eventId) {
+        return entrants(eventId).get();
+    }
+
+    /** @return the user's membership index, one document per event (ID = eventId) */
+    public CollectionReference memberships(String userKey) {
+        return db.collection(MEMBERSHIPS).document(userKey).collection(MEMBERSHIP_EVENTS);
+    }
+
+    public DocumentReference membership(String userKey, String eventId) {
+        return memberships(userKey).document(eventId);
+    }
+
+    /**
+     * Reads the user's memberships across all events from their index.
+     * Each document has eventId, status and joinedAt, like the entrant
+     * documents it mirrors; use eventIdOf() and statusOf() on them.
+     *
+     * Users whose index was never backfilled (memberships written before
+     * the index existed) are backfilled once from the entrant documents first.
+     */
+    public Task<QuerySnapshot> forUser(String userKey) {
+        DocumentReference marker = db.collection(MEMBERSHIPS).document(userKey);
+        return marker.get().onSuccessTask(doc -> {
+            if (doc.exists()) return memberships(userKey).get();
+            return backfill(userKey, marker).onSuccessTask(v -> memberships(userKey).get());
+        });
+    }
+
+    /**
+     * Copies the user's entrant documents into their membership index and
+     * sets the marker, so this runs once per user.
+     */
+    private Task<Void> backfill(String userKey, DocumentReference marker) {
+        return db.collectionGroup(COLLECTION)
+                .whereEqualTo("userKey", userKey)
+                .get()
+                .onSuccessTask(snap -> {
+                    List<Task<Void>> commits = new ArrayList<>();
+                    WriteBatch batch = db.batch();
+                    int pending = 0;
+                    for (DocumentSnapshot entrant : snap.getDocuments()) {
+                        String eventId = eventIdOf(entrant);
+                        Map<String, Object> data = membershipData(eventId, statusOf(entrant), null);
+                        if (entrant.get("joinedAt") != null) data.put("joinedAt", entrant.get("joinedAt"));
+                        if (entrant.get("updatedAt") != null) data.put("updatedAt", entrant.get("updatedAt"));
+                        batch.set(membership(userKey, eventId), data, SetOptions.merge());
+
+                        if (++pending == BACKFILL_BATCH) {
+                            commits.add(batch.commit());
+                            batch = db.batch();
+                            pending = 0;
+                        }
+                    }
+                    // the marker goes in the last batch, after every membership is written
+                    Map<String, Object> done = new HashMap<>();
+                    done.put("indexedAt", FieldValue.serverTimestamp());
+                    batch.set(marker, done, SetOptions.merge());
+                    WriteBatch last = batch;
+                    return Tasks.whenAll(commits).onSuccessTask(v -> last.commit());
+                });
+    }
+
+    /**
+     * Adds the user to the waiting list without a join location.
+     *
+     * @see #join(String, String, JoinLocation)
+     */
+    public Task<Void> join(String eventId, String userKey) {
+        return join(eventId, userKey, null);
+    }
+
+    /**
+     * Adds the user to the waiting list in a single transaction that
+     * 1. reads the event (maxSpots) and the user's entrant document
+     * 2. for capped events, reads the counter shards and rejects the join if
+     *    the waiting list is full
+     * 3. writes the entrant document, one counter shard and the join location
+     *    (at waitingLocations/{userKey}, so a retry overwrites instead of duplicating)
+     *
+     * Aborted or unavailable commits are retried with jittered backoff.
+     *
+     * @param location where the user joined, or null if it is unknown / not needed
+     * @throws FirebaseFirestoreException ALREADY_EXISTS if the user is already an entrant,
+     *         RESOURCE_EXHAUSTED if the waiting list is full, NOT_FOUND if the event is gone
+     */
+    public Task<Void> join(String eventId, String userKey, @Nullable JoinLocation location) {
+        TaskCompletionSource<Void> result = new TaskCompletionSource<>();
+        attemptJoin(eventId, userKey, location, 0, System.currentTimeMillis(), result);
+        return result.getTask();
+    }
+
+    private void attemptJoin(String eventId, String userKey, JoinLocation location,
+                             int attempt, long startedAt, TaskCompletionSource<Void> result) {
+        JOIN_METRICS.onAttempt();
+
+        db.runTransaction(SINGLE_ATTEMPT, transaction -> {
+            joinIn(transaction, eventId, userKey, location);
+            return null;
+        }).addOnCompleteListener(task -> {
+            long elapsed = System.currentTimeMillis() - startedAt;
+            if (task.isSuccessful()) {
+                JOIN_METRICS.onJoined(elapsed);
+                result.setResult(null);
+                return;
+            }
+
+            Exception error = task.getException();
+            FirebaseFirestoreException.Code code = error instanceof FirebaseFirestoreException
+                    ? ((FirebaseFirestoreException) error).getCode() : null;
+
+            if (code == FirebaseFirestoreException.Code.ALREADY_EXISTS) {
+                JOIN_METRICS.onDuplicate(elapsed);
+                result.setException(error);
+                return;
+            }
+            if (code == FirebaseFirestoreException.Code.RESOURCE_EXHAUSTED) {
+                JOIN_METRICS.onFull(elapsed);
+                result.setException(error);
+                return;
+            }
+
+            boolean contended = isContention(code);
+            if ((contended || isTransient(code)) && JOIN_BACKOFF.canRetry(attempt)) {
+                JOIN_METRICS.onRetry(contended);
+                RETRY_TIMER.schedule(
+                        () -> attemptJoin(eventId, userKey, location, attempt + 1, startedAt, result),
+                        JOIN_BACKOFF.delayMillis(attempt, JITTER),
+                        TimeUnit.MILLISECONDS);
+                return;
+            }
+
+            JOIN_METRICS.onFailed(elapsed, contended);
+            Log.w(TAG, "Join failed after " + (attempt + 1) + " attempts ("
+                    + JOIN_METRICS.summary() + ")", error);
+            result.setException(error);
+        });
+    }
+
+    /** Body of the join transaction; see join(). */
+    private void joinIn(Transaction transaction, String eventId, String userKey, JoinLocation location)
+            throws FirebaseFirestoreException {
+        DocumentSnapshot event = transaction.get(db.collection("events").document(eventId));
+        if (!event.exists()) {
+            throw new FirebaseFirestoreException("Event not found",
+                    FirebaseFirestoreException.Code.NOT_FOUND);
+        }
+
+        DocumentSnapshot current = transaction.get(entrant(eventId, userKey));
+        if (current.exists() && EntrantStatus.isValid(current.getString("status"))) {
+            throw new FirebaseFirestoreException("Already joined",
+                    FirebaseFirestoreException.Code.ALREADY_EXISTS);
+        }
+
+        // only capped events read the shards; uncapped joins never conflict with each other
+        Long maxSpots = event.getLong("maxSpots");
+        if (maxSpots != null && counters.read(transaction, eventId).getWaiting() >= maxSpots) {
+            throw new FirebaseFirestoreException("Waiting list full",
+                    FirebaseFirestoreException.Code.RESOURCE_EXHAUSTED);
+        }
+
+        write(transaction, eventId, userKey, null, EntrantStatus.WAITING);
+        if (location != null) transaction.set(location(eventId, userKey), location);
+    }
+
+    /** Commit lost against a concurrent write to a document the transaction read. */
+    private static boolean isContention(FirebaseFirestoreException.Code code) {
+        return code == FirebaseFirestoreException.Code.ABORTED
+                || code == FirebaseFirestoreException.Code.FAILED_PRECONDITION;
+    }
+
+    private static boolean isTransient(FirebaseFirestoreException.Code code) {
+        return code == FirebaseFirestoreException.Code.UNAVAILABLE
+                || code == FirebaseFirestoreException.Code.DEADLINE_EXCEEDED;
+    }
+
+    public DocumentReference location(String eventId, String userKey) {
+        return db.collection("events").document(eventId).collection(LOCATIONS).document(userKey);
+    }
+
+    /**
+     * Removes the user's entrant document, membership index entry and join
+     * location, e.g. when leaving the waiting list.
+     */
+    public Task<Void> leave(String eventId, String userKey) {
+        return db.runTransaction(transaction -> {
+            DocumentReference ref = entrant(eventId, userKey);
+            DocumentSnapshot current = transaction.get(ref);
+            if (!current.exists()) return null;
+
+            applyCounters(transaction, eventId, current.getString("status"), null);
+            transaction.delete(ref);
+            transaction.delete(location(eventId, userKey));
+            transaction.delete(membership(userKey, eventId));
+            return null;
+        });
+    }
+
+    /**
+     * Moves the user to a new status (accept, sign up, cancel, ...).
+     * Does nothing if the user is not an entrant of the event.
+     */
+    public Task<Void> setStatus(String eventId, String userKey, String status) {
+        return setStatus(eventId, userKey, status, null);
+    }
+
+    /**
+     * Moves the user to a new status and, in the same transaction, deletes
+     * the notification that offered the change (e.g. the accept button of a
+     * "You've Been Selected!" alert) and decrements the unread counter.
+     *
+     * @param notificationId notification to delete, or null for none
+     */
+    public Task<Void> setStatus(String eventId, String userKey, String status, @Nullable String notificationId) {
+        return db.runTransaction(transaction -> {
+            DocumentSnapshot current = transaction.get(entrant(eventId, userKey));
+            UnreadCounter.Removal notification = UnreadCounter.readForDelete(transaction, db, notificationId);
+
+            notification.delete(transaction);
+            if (!current.exists()) return null;
+
+            write(transaction, eventId, userKey, current.getString("status"), status);
+            return null;
+        });
+    }
+
+    /**
+     * Writes a status change inside a caller's transaction. The caller must
+     * already have read the entrant document to know {@code from}.
+     *
+     * @param from current status, or null if the entrant document does not exist
+     */
+    public void write(Transaction transaction, String eventId, String userKey, String from, String to) {
+        writeEntrant(transaction, eventId, userKey, from, to);
+        applyCounters(transaction, eventId, EntrantStatus.counterDelta(from, to));
+    }
+
+    /**
+     * Writes only the entrant document and its membership index entry; the
+     * caller moves the counters, e.g. once for several entrants with
+     * counters().increment(transaction, eventId, delta).
+     */
+    public void writeEntrant(Transaction transaction, String eventId, String userKey, String from, String to) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("userKey", userKey);
+        data.put("eventId", eventId);
+        data.put("status", to);
+        data.put("updatedAt", FieldValue.serverTimestamp());
+        if (from == null) {
+            data.put("joinedAt", FieldValue.serverTimestamp());
+            data.put("lostRounds", 0L);
+        }
+        transaction.set(entrant(eventId, userKey), data, SetOptions.merge());
+        transaction.set(membership(userKey, eventId),
+                membershipData(eventId, to, from == null ? FieldValue.serverTimestamp() : null),
+                SetOptions.merge());
+    }
+
+    /**
+     * Fields of a membership index document.
+     *
+     * @param joinedAt join time to store, or null to leave it unchanged
+     */
+    public static Map<String, Object> membershipData(String eventId, String status, @Nullable Object joinedAt) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("eventId", eventId);
+        data.put("status", status);
+        data.put("updatedAt", FieldValue.serverTimestamp());
+        if (joinedAt != null) data.put("joinedAt", joinedAt);
+        return data;
+    }
+
+    /** Moves the event's counters for one entrant changing state. */
+    public void applyCounters(Transaction transaction, String eventId, String from, String to) {
+        counters.increment(transaction, eventId, EntrantStatus.counterDelta(from, to));
+    }
+
+    /** Moves the event's counters by an accumulated delta (status -> change). */
+    public void applyCounters(Transaction transaction, String eventId, Map<String, Long> delta) {
+        counters.increment(transaction, eventId, delta);
+    }
+
+    /** @return status stored in an entrant document, or NONE if there is none */
+    public static String statusOf(DocumentSnapshot doc) {
+        if (doc == null || !doc.exists()) return EntrantStatus.NONE;
+        String status = doc.getString("status");
+        return EntrantStatus.isValid(status) ? status : EntrantStatus.NONE;
+    }
+
+    /** @return the userKey of every entrant document in a query result */
+    public static List<String> userKeys(QuerySnapshot snapshot) {
+        List<String> keys = new ArrayList<>();
+        for (DocumentSnapshot doc : snapshot.getDocuments()) {
+            keys.add(userKeyOf(doc));
+        }
+        return keys;
+    }
+
+    /** @return the userKey of an entrant document (its ID if the field is missing) */
+    public static String userKeyOf(DocumentSnapshot entrant) {
+        String key = entrant.getString("userKey");
+        return key != null ? key : entrant.getId();
+    }
+
+    /**
+     * @return the event of an entrant or membership document; membership
+     *         documents are keyed by eventId, entrant documents sit under the event
+     */
+    public static String eventIdOf(DocumentSnapshot doc) {
+        String eventId = doc.getString("eventId");
+        if (eventId != null) return eventId;
+        if (MEMBERSHIP_EVENTS.equals(doc.getReference().getParent().getId())) return doc.getId();
+        return doc.getReference().getParent().getParent().getId();
+    }
+
+    /**
+     * Callback for listenStatus().
+     */
+    public interface StatusListener {
+        void onStatus(String status);
+    }
+}
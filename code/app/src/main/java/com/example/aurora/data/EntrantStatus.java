@@ -0,0 +1,88 @@
+package com.example.aurora.data;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * EntrantStatus
+ *
+ * The states an entrant document (events/{eventId}/entrants/{userKey}) can be in,
+ * plus the pure rules around them.
+ *
+ * States:
+ *  waiting   : on the waiting list (lostRounds > 0 means they lost earlier draws)
+ *  selected  : drawn by the lottery, invitation pending
+ *  accepted  : accepted the invitation, not signed up yet
+ *  final     : signed up
+ *  cancelled : declined or was removed by the organizer
+ *
+ * Each state has a matching counter (EntrantCounts), adjusted in the same
+ * write as the state change.
+ */
+public class EntrantStatus {
+
+    public static final String WAITING = "waiting";
+    public static final String SELECTED = "selected";
+    public static final String ACCEPTED = "accepted";
+    public static final String FINAL = "final";
+    public static final String CANCELLED = "cancelled";
+
+    /** Returned by lookups when the user has no entrant document. */
+    public static final String NONE = "none";
+
+    public static final List<String> ALL = Collections.unmodifiableList(
+            Arrays.asList(WAITING, SELECTED, ACCEPTED, FINAL, CANCELLED));
+
+    public static boolean isValid(String status) {
+        return status != null && ALL.contains(status);
+    }
+
+    /**
+     * Counter changes for moving one entrant between states. A null state
+     * means "no document" (joining or leaving).
+     */
+    public static Map<String, Long> counterDelta(String from, String to) {
+        Map<String, Long> delta = new HashMap<>();
+        accumulate(delta, from, to);
+        return delta;
+    }
+
+    /**
+     * Adds one entrant's state change to a running counter delta, so several
+     * changes in one write can move each counter once.
+     */
+    public static void accumulate(Map<String, Long> delta, String from, String to) {
+        if (from != null && from.equals(to)) return;
+        if (isValid(from)) delta.merge(from, -1L, Long::sum);
+        if (isValid(to)) delta.merge(to, 1L, Long::sum);
+    }
+
+    /**
+     * Works out an entrant's single state from the old per-event arrays.
+     * An entrant could sit in several arrays at once (e.g. accepted and still
+     * selected), so the furthest state wins.
+     *
+     * @return the state, or null if the user is in none of the lists
+     */
+    public static String fromLegacyLists(String userKey,
+                                         Collection<String> waiting,
+                                         Collection<String> selected,
+                                         Collection<String> accepted,
+                                         Collection<String> finalEntrants,
+                                         Collection<String> cancelled) {
+        if (contains(finalEntrants, userKey)) return FINAL;
+        if (contains(accepted, userKey)) return ACCEPTED;
+        if (contains(cancelled, userKey)) return CANCELLED;
+        if (contains(selected, userKey)) return SELECTED;
+        if (contains(waiting, userKey)) return WAITING;
+        return null;
+    }
+
+    private static boolean contains(Collection<String> list, String userKey) {
+        return list != null && list.contains(userKey);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * source: Android Developers - "Managing work" (unique work).
+ * url: https://developer.android.com/develop/background-work/background-tasks/persistent/how-to/manage-work#unique-work
+ * note: enqueueOnce() uses one unique work name, so the backfill never runs twice in parallel on a device.
+ *
+ * source: Firebase docs - "Transactions and batched writes".
+ * url: https://firebase.google.com/docs/firestore/manage-data/transactions#batched-writes
+ * note: Missing cards are written in one WriteBatch per page of events (EventMigrations.PAGE_SIZE,
+ *       under the 500 writes a batch allows).
+ */
+
+package com.example.aurora.data;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * EventCardBackfillWorker
+ *
+ * One-off creation of eventCards for events written before the projection
+ * existed. Events that already have a card are skipped, so a rerun only
+ * costs the reads. New events get their card from EventCardStore.create().
+ *
+ * Events are read a page at a time, with the cards in the same ID range
+ * (EventMigrations). Each device runs it once, tracked in the migration
+ * preferences that logout leaves alone.
+ */
+public class EventCardBackfillWorker extends Worker {
+
+    private static final String TAG = "EventCardBackfill";
+    private static final String UNIQUE_NAME = "event-card-backfill";
+    private static final String PREF_DONE = "event_cards_backfilled";
+    private static final String PREF_CURSOR = "event_cards_backfilled_after";
+
+    private final FirebaseFirestore db = FirebaseFirestore.getInstance();
+    private final EventCardStore cards = new EventCardStore(db);
+
+    public EventCardBackfillWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Queues the backfill unless this device already finished it.
+     */
+    public static void enqueueOnce(Context context) {
+        if (EventMigrations.prefs(context).getBoolean(PREF_DONE, false)) return;
+
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(EventCardBackfillWorker.class)
+                .setConstraints(new Constraints.Builder()
+                        .setRequiredNetworkType(NetworkType.CONNECTED)
+                        .build())
+                .build();
+
+        WorkManager.getInstance(context)
+                .enqueueUniqueWork(UNIQUE_NAME, ExistingWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        try {
+            SharedPreferences prefs = EventMigrations.prefs(getApplicationContext());
+            EventMigrations.forEachPage(db, prefs, PREF_CURSOR, (events, after) -> {
+                // cards share their event's ID, so the page's cards are the same ID range
+                Query range = cards.cards().orderBy(FieldPath.documentId())
+                        .endAt(events.get(events.size() - 1).getId());
+                if (after != null) range = range.startAfter(after);
+                Set<String> carded = new HashSet<>();
+                for (DocumentSnapshot card : Tasks.await(range.get()).getDocuments()) {
+                    carded.add(card.getId());
+                }
+
+                WriteBatch batch = db.batch();
+                int pending = 0;
+                for (DocumentSnapshot event : events) {
+                    if (carded.contains(event.getId())) continue;
+                    cards.write(batch, event);
+                    pending++;
+                }
+                if (pending > 0) Tasks.await(batch.commit());
+            });
+
+            prefs.edit().putBoolean(PREF_DONE, true).apply();
+            return Result.success();
+
+        } catch (ExecutionException e) {
+            Log.e(TAG, "Backfill failed, will retry", e);
+            return Result.retry();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.retry();
+        }
+    }
+}
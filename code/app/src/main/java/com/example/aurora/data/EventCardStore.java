@@ -0,0 +1,178 @@
+/*
+ * source: Firebase docs - "Cloud Firestore data model" / "Choose a data structure".
+ * url: https://firebase.google.com/docs/firestore/manage-data/structure-data
+ * note: Queries return whole documents, so list screens read a small eventCards/{eventId}
+ *       copy of each event instead of the event document itself.
+ *
+ * source: Firebase docs - "Transactions and batched writes".
+ * url: https://firebase.google.com/docs/firestore/manage-data/transactions#batched-writes
+ * note: The event and its card are written (and deleted) in one WriteBatch, so a card
+ *       never shows a field the event does not have.
+ *
+ * source: Firebase docs - "Query limitations" / "Manage indexes".
+ * url: https://firebase.google.com/docs/firestore/query-data/queries#query_limitations
+ * note: feed() uses at most one array-contains-any (30 values) and one range field, which must
+ *       also be the first orderBy; the composite indexes are in firestore.indexes.json.
+ */
+
+package com.example.aurora.data;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * EventCardStore
+ *
+ * Reads and writes the eventCards projection (see EventCards for the fields).
+ *
+ * Layout:
+ *  eventCards/{eventId} : card fields + counts { status -> n } + countsAt
+ *
+ * Every event write that touches a card field goes through create(),
+ * update() or delete() here, which write the event and the card together.
+ *
+ * Counts are not bumped on every join (that would turn the card into the
+ * hot document the counter shards exist to avoid). Instead countsFor()
+ * re-reads the shards when a shown card's counts are older than
+ * EventCards.COUNTS_MAX_AGE_MILLIS and publishes them back to the card,
+ * and the lottery publishes them after a draw.
+ */
+public class EventCardStore {
+
+    public static final String COLLECTION = "eventCards";
+
+    private final FirebaseFirestore db;
+    private final EntrantCounterStore counters;
+
+    public EventCardStore(FirebaseFirestore db) {
+        this.db = db;
+        this.counters = new EntrantCounterStore(db);
+    }
+
+    public CollectionReference cards() {
+        return db.collection(COLLECTION);
+    }
+
+    public DocumentReference card(String eventId) {
+        return cards().document(eventId);
+    }
+
+    /**
+     * The entrant feed's query for a filter, ordered so startAfter() on the
+     * last document of a page continues it. Add limit() and the cursor.
+     */
+    public Query feed(EventFeedFilter filter) {
+        Query q = cards();
+        if (filter.getCategory() != null) {
+            q = q.whereEqualTo("category", filter.getCategory());
+        }
+        List<String> keys = filter.availabilityKeys();
+        if (!keys.isEmpty()) {
+            q = q.whereArrayContainsAny("availabilityKeys", keys);
+        }
+        if (filter.hasDateRange()) {
+            if (filter.getFromMillis() != null) {
+                q = q.whereGreaterThanOrEqualTo("startAt", new Date(filter.getFromMillis()));
+            }
+            if (filter.getToMillis() != null) {
+                q = q.whereLessThan("startAt", new Date(filter.getToMillis()));
+            }
+            q = q.orderBy("startAt");
+        }
+        return q.orderBy(FieldPath.documentId());
+    }
+
+    /**
+     * Writes a new event document and its card in one batch.
+     *
+     * @param eventRef e.g. db.collection("events").document() for a generated ID
+     */
+    public Task<Void> create(DocumentReference eventRef, Map<String, Object> event) {
+        WriteBatch batch = db.batch();
+        batch.set(eventRef, event);
+        batch.set(card(eventRef.getId()), EventCards.project(event));
+        return batch.commit();
+    }
+
+    public Task<Void> update(String eventId, String field, Object value) {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(field, value);
+        return update(eventId, updates);
+    }
+
+    /**
+     * Updates the event and, if any card field changed, the card in the same batch.
+     */
+    public Task<Void> update(String eventId, Map<String, Object> updates) {
+        WriteBatch batch = db.batch();
+        batch.update(db.collection("events").document(eventId), updates);
+        Map<String, Object> card = EventCards.changes(updates);
+        if (!card.isEmpty()) batch.set(card(eventId), card, SetOptions.merge());
+        return batch.commit();
+    }
+
+    /** Deletes the event document and its card together. */
+    public Task<Void> delete(String eventId) {
+        WriteBatch batch = db.batch();
+        batch.delete(db.collection("events").document(eventId));
+        batch.delete(card(eventId));
+        return batch.commit();
+    }
+
+    /** (Re)builds the card of an existing event, e.g. for events created before cards existed. */
+    public void write(WriteBatch batch, DocumentSnapshot event) {
+        Map<String, Object> data = event.getData();
+        write(batch, event.getId(), data != null ? data : Collections.emptyMap());
+    }
+
+    /** (Re)builds a card from the event's fields. */
+    public void write(WriteBatch batch, String eventId, Map<String, Object> event) {
+        batch.set(card(eventId), EventCards.project(event), SetOptions.merge());
+    }
+
+    /** Copies freshly summed shard totals onto the card. */
+    public Task<Void> publishCounts(String eventId, EntrantCounts counts) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("counts", counts.toMap());
+        data.put("countsAt", FieldValue.serverTimestamp());
+        return card(eventId).set(data, SetOptions.merge());
+    }
+
+    /**
+     * Counts to show on a card: the card's own copy while it is fresh,
+     * otherwise the summed shards (which are then published to the card).
+     */
+    public Task<EntrantCounts> countsFor(DocumentSnapshot card) {
+        Timestamp countsAt = card.getTimestamp("countsAt");
+        Long countsAtMillis = countsAt == null ? null : countsAt.toDate().getTime();
+        if (!EventCards.isStale(countsAtMillis, System.currentTimeMillis())) {
+            return Tasks.forResult(countsOf(card));
+        }
+        return counters.read(card.getId()).onSuccessTask(counts ->
+                publishCounts(card.getId(), counts).continueWith(task -> counts));
+    }
+
+    /** @return the counts stored on a card, all zero if it has none */
+    @SuppressWarnings("unchecked")
+    public static EntrantCounts countsOf(DocumentSnapshot card) {
+        Object counts = card.get("counts");
+        if (!(counts instanceof Map)) return EntrantCounts.empty();
+        return EntrantCounts.sum(Collections.singletonList((Map<String, Object>) counts));
+    }
+}
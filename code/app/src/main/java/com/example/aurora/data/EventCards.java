@@ -0,0 +1,87 @@
+package com.example.aurora.data;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * EventCards
+ *
+ * What an event looks like in a list: the fields the entrant feed, the
+ * organizer home and the admin list show, copied out of the event document
+ * into eventCards/{eventId} so a page of cards does not download whole events.
+ *
+ * Card fields:
+ *  title, date, location, category, posterUrl, maxSpots and the few others in FIELDS
+ *  startAt / availability(Keys) and the other stored times (see EventTimes), for filtering
+ *  description, cut to DESCRIPTION_MAX characters (enough for search and a preview)
+ *  counts / countsAt : entrants per status, published from the counter shards (see isStale)
+ *
+ * Kept free of Android and Firebase so it can be unit tested; EventCardStore
+ * does the writes.
+ */
+public final class EventCards {
+
+    /** Event fields copied to the card as they are. */
+    public static final List<String> FIELDS = Collections.unmodifiableList(Arrays.asList(
+            "title", "date", "startDate", "endDate", "location", "category", "description",
+            "posterUrl", "maxSpots", "geoRequired", "registrationStart", "registrationEnd",
+            "deepLink", "organizerEmail", "organizerName", "organizer", "createdAt",
+            "startAt", "endAt", "registrationStartAt", "registrationEndAt", "availability",
+            "availabilityKeys"));
+
+    public static final int DESCRIPTION_MAX = 300;
+
+    /** Counts older than this are re-read from the shards when a card is shown. */
+    public static final long COUNTS_MAX_AGE_MILLIS = 60 * 1000L;
+
+    private EventCards() { }
+
+    /**
+     * Builds a whole card from an event document's fields. Older events
+     * without a title or date fall back to name / startDate / dateDisplay.
+     */
+    public static Map<String, Object> project(Map<String, Object> event) {
+        Map<String, Object> card = changes(event);
+        if (card.get("title") == null && event.get("name") != null) card.put("title", event.get("name"));
+        if (card.get("date") == null) {
+            Object date = event.get("startDate") != null ? event.get("startDate") : event.get("dateDisplay");
+            if (date != null) card.put("date", date);
+        }
+        return card;
+    }
+
+    /**
+     * Picks the card fields out of an event update.
+     *
+     * @param updates fields being written to the event (dotted paths such as
+     *                "lotteryRun.stage" are never card fields)
+     * @return what to write to the card; empty if the update does not touch it
+     */
+    public static Map<String, Object> changes(Map<String, Object> updates) {
+        Map<String, Object> card = new HashMap<>();
+        for (String field : FIELDS) {
+            if (!updates.containsKey(field)) continue;
+            Object value = updates.get(field);
+            if ("description".equals(field)) value = truncate(value);
+            card.put(field, value);
+        }
+        return card;
+    }
+
+    /**
+     * @param countsAt when the card's counts were last published, or null if never
+     * @return true if the card's counts should be re-read from the shards
+     */
+    public static boolean isStale(Long countsAt, long now) {
+        return countsAt == null || now - countsAt > COUNTS_MAX_AGE_MILLIS;
+    }
+
+    private static Object truncate(Object value) {
+        if (!(value instanceof String)) return value;
+        String text = (String) value;
+        return text.length() <= DESCRIPTION_MAX ? text : text.substring(0, DESCRIPTION_MAX);
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.aurora.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * EventFeedCache
+ *
+ * Pages of the entrant event feed, kept per filter (category, availability,
+ * date range; see EventFeedFilter.key()) so switching back to a filter
+ * shows what was already loaded without another read.
+ * Each feed remembers its cursor (the last document of its last page),
+ * whether a page is in flight and whether the end was reached.
+ *
+ * Feeds older than ttlMillis are dropped on the next open(), so new
+ * events show up without a manual refresh.
+ *
+ * Kept free of Android and Firebase (C is the cursor type) so it can be
+ * unit tested. Not thread-safe; used on the main thread.
+ */
+public class EventFeedCache<C, T> {
+
+    /** Events per page; also what the first screen costs in reads. */
+    public static final int PAGE_SIZE = 20;
+
+    /** Start the next page when the last visible row is this close to the end. */
+    public static final int PREFETCH_DISTANCE = 5;
+
+    /**
+     * Pages loaded per search query just to fill the screen; after that only
+     * scrolling loads more, so a query with no hits does not read the whole feed.
+     */
+    public static final int MAX_FILL_PAGES = 2;
+
+    public static final long DEFAULT_TTL_MILLIS = 5 * 60 * 1000L;
+
+    /**
+     * The loaded pages of one filter.
+     */
+    public static class Feed<C, T> {
+        private final List<T> items = new ArrayList<>();
+        private final long openedAt;
+        private C cursor;
+        private boolean loading;
+        private boolean exhausted;
+
+        Feed(long openedAt) {
+            this.openedAt = openedAt;
+        }
+
+        public List<T> getItems() { return Collections.unmodifiableList(items); }
+        public C getCursor() { return cursor; }
+        public boolean isLoading() { return loading; }
+        public boolean isExhausted() { return exhausted; }
+    }
+
+    private final long ttlMillis;
+    private final Map<String, Feed<C, T>> feeds = new HashMap<>();
+
+    public EventFeedCache() {
+        this(DEFAULT_TTL_MILLIS);
+    }
+
+    public EventFeedCache(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * @param key the feed's filter key (e.g. EventFeedFilter.key()), or null for all events
+     * @return the feed; a new empty one if it was never opened or expired
+     */
+    public Feed<C, T> open(String key, long now) {
+        if (key == null) key = "";
+        Feed<C, T> feed = feeds.get(key);
+        if (feed == null || now - feed.openedAt > ttlMillis) {
+            feed = new Feed<>(now);
+            feeds.put(key, feed);
+        }
+        return feed;
+    }
+
+    /**
+     * Marks a page request as started.
+     *
+     * @return false if one is already in flight or the feed has no more pages
+     */
+    public boolean beginLoad(Feed<C, T> feed) {
+        if (feed.loading || feed.exhausted) return false;
+        feed.loading = true;
+        return true;
+    }
+
+    /**
+     * Appends a loaded page.
+     *
+     * @param page   the page's items, in query order
+     * @param cursor the page's last document, for startAfter()
+     */
+    public void addPage(Feed<C, T> feed, List<T> page, C cursor) {
+        feed.items.addAll(page);
+        if (cursor != null) feed.cursor = cursor;
+        feed.exhausted = page.size() < PAGE_SIZE;
+        feed.loading = false;
+    }
+
+    /** A page request failed; it may be retried. */
+    public void failLoad(Feed<C, T> feed) {
+        feed.loading = false;
+    }
+
+    /** Drops every feed, e.g. after the user created an event. */
+    public void clear() {
+        feeds.clear();
+    }
+
+    /**
+     * @param lastVisible adapter position of the last visible row, or -1
+     * @param itemCount   rows currently shown
+     * @return true if the next page should be requested now
+     */
+    public static boolean shouldPrefetch(int lastVisible, int itemCount, int distance) {
+        return lastVisible >= itemCount - 1 - distance;
+    }
+}
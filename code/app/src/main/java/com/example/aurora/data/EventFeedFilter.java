@@ -0,0 +1,94 @@
+package com.example.aurora.data;
+
+import com.example.aurora.utils.EventTimes;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * EventFeedFilter
+ *
+ * The filters of the entrant feed, in the form EventCardStore.feed() turns
+ * into a Firestore query, so only matching cards are read:
+ *  category      : whereEqualTo("category", ...)
+ *  days / slots  : whereArrayContainsAny("availabilityKeys", EventTimes.filterKeys(...))
+ *  from / to     : startAt >= from and < to, ordered by startAt then document ID
+ *
+ * Without a date range the feed is ordered by document ID alone, which also
+ * keeps events that have no startAt yet. Each filter gets its own feed in
+ * EventFeedCache (key()), so cursors of different queries never mix.
+ *
+ * Immutable; kept free of Android and Firebase so it can be unit tested.
+ */
+public final class EventFeedFilter {
+
+    public static final EventFeedFilter ALL = new EventFeedFilter(null, 0L, null, null);
+
+    private final String category;
+    private final long availability;
+    private final Long fromMillis;
+    private final Long toMillis;
+
+    /**
+     * @param category     category name, or null for all
+     * @param availability EventTimes.dayFilter() | slotFilter(), 0 for any time
+     * @param fromMillis   earliest start (inclusive), or null
+     * @param toMillis     latest start (exclusive), or null
+     */
+    public EventFeedFilter(String category, long availability, Long fromMillis, Long toMillis) {
+        this.category = category;
+        this.availability = availability;
+        this.fromMillis = fromMillis;
+        this.toMillis = toMillis;
+    }
+
+    public EventFeedFilter withCategory(String category) {
+        return new EventFeedFilter(category, availability, fromMillis, toMillis);
+    }
+
+    public EventFeedFilter withAvailability(long availability) {
+        return new EventFeedFilter(category, availability, fromMillis, toMillis);
+    }
+
+    public EventFeedFilter withDateRange(Long fromMillis, Long toMillis) {
+        return new EventFeedFilter(category, availability, fromMillis, toMillis);
+    }
+
+    public String getCategory() { return category; }
+    public long getAvailability() { return availability; }
+    public Long getFromMillis() { return fromMillis; }
+    public Long getToMillis() { return toMillis; }
+
+    /** @return values for whereArrayContainsAny("availabilityKeys", ...); empty for any time */
+    public List<String> availabilityKeys() {
+        return EventTimes.filterKeys(availability);
+    }
+
+    public boolean hasDateRange() {
+        return fromMillis != null || toMillis != null;
+    }
+
+    /** @return the EventFeedCache key of this filter's feed */
+    public String key() {
+        return (category == null ? "" : category)
+                + "|" + availability
+                + "|" + (fromMillis == null ? "" : fromMillis)
+                + "|" + (toMillis == null ? "" : toMillis);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof EventFeedFilter)) return false;
+        EventFeedFilter other = (EventFeedFilter) o;
+        return availability == other.availability
+                && Objects.equals(category, other.category)
+                && Objects.equals(fromMillis, other.fromMillis)
+                && Objects.equals(toMillis, other.toMillis);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(category, availability, fromMillis, toMillis);
+    }
+}
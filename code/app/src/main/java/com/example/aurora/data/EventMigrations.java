@@ -0,0 +1,73 @@
+/*
+ * source: Firebase docs - "Paginate data with query cursors".
+ * url: https://firebase.google.com/docs/firestore/query-data/query-cursors
+ * note: forEachPage() reads events PAGE_SIZE at a time with orderBy(documentId) + startAfter(id),
+ *       and saves the last ID so a retried run continues where it stopped.
+ */
+
+package com.example.aurora.data;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * EventMigrations
+ *
+ * What the one-off event workers (EntrantMigrationWorker,
+ * EventCardBackfillWorker, EventTimesBackfillWorker) share:
+ *  their done flags and cursors live in their own preferences file, which
+ *  logging out (it clears aurora_prefs) does not touch
+ *  events are read a page at a time instead of the whole collection at once
+ */
+final class EventMigrations {
+
+    /** Not "aurora_prefs": logout clears that one, and the migrations would run again. */
+    static final String PREFS = "aurora_migrations";
+
+    static final int PAGE_SIZE = 200;
+
+    /** Handles one page of events. */
+    interface Page {
+        /**
+         * @param events the page, in document ID order
+         * @param after  ID the page starts after, or null for the first page
+         */
+        void handle(List<DocumentSnapshot> events, String after)
+                throws ExecutionException, InterruptedException;
+    }
+
+    private EventMigrations() { }
+
+    static SharedPreferences prefs(Context context) {
+        return context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * Runs the handler on every page of events, starting after the cursor
+     * saved under cursorKey. The cursor is saved after each page.
+     */
+    static void forEachPage(FirebaseFirestore db, SharedPreferences prefs, String cursorKey, Page page)
+            throws ExecutionException, InterruptedException {
+        String cursor = prefs.getString(cursorKey, null);
+        while (true) {
+            Query q = db.collection("events").orderBy(FieldPath.documentId()).limit(PAGE_SIZE);
+            if (cursor != null) q = q.startAfter(cursor);
+            List<DocumentSnapshot> events = Tasks.await(q.get()).getDocuments();
+            if (events.isEmpty()) return;
+
+            page.handle(events, cursor);
+            cursor = events.get(events.size() - 1).getId();
+            prefs.edit().putString(cursorKey, cursor).apply();
+            if (events.size() < PAGE_SIZE) return;
+        }
+    }
+}
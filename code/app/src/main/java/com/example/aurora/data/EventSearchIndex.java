@@ -0,0 +1,279 @@
+package com.example.aurora.data;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * EventSearchIndex
+ *
+ * In-memory inverted index over the events loaded into the feed, so a
+ * keystroke in the search box looks up a few posting lists instead of
+ * lowercasing and scanning every event.
+ *
+ * Two levels:
+ *  words  : every distinct token (normalized: accents stripped, Locale.ROOT lowercase)
+ *           -> the items containing it, with the weight of the best field it is in
+ *  grams  : every trigram of a word, plus its 1- and 2-character prefixes -> word ids
+ *
+ * A query term finds its words through the gram index (intersecting trigram
+ * postings and checking only those few words), then reads their item lists.
+ * Each term's hits are gathered from its words' postings into a sorted
+ * list and intersected with the previous terms' list, so only items that
+ * are hit are ever touched. So the work per keystroke grows with the number of
+ * distinct words and hits, not with the number of items or the amount of
+ * text loaded. Items and words get increasing ids in
+ * add() order, so every posting list stays sorted without sorting.
+ *
+ * Matching and ranking:
+ *  every query term must occur inside some word of the item (terms of 1-2
+ *  characters: at the start of a word)
+ *  an item scores, per term, its best hit: field weight (title, location,
+ *  description), doubled when the term starts the word
+ *  higher scores first; equal scores keep add() order, so the ranking is
+ *  stable between keystrokes
+ *
+ * add() and search() are synchronized: pages are added on the main thread
+ * while queries run on a background thread.
+ */
+public class EventSearchIndex<T> {
+
+    public static final int GRAM = 3;
+
+    /** Weight of a hit per field position (title, location, description); later fields use the last. */
+    private static final int[] FIELD_WEIGHTS = {4, 2, 1};
+
+    private final List<T> items = new ArrayList<>();
+    private final Map<String, Integer> wordIds = new HashMap<>();
+    private final List<String> words = new ArrayList<>();
+    /** word id -> items containing it (and the best field weight in each) */
+    private final List<Postings> wordItems = new ArrayList<>();
+    /** gram -> word ids */
+    private final Map<String, Postings> grams = new HashMap<>();
+
+    /**
+     * Indexes one item. Fields may be null.
+     *
+     * @param fields searchable text, most important first
+     */
+    public synchronized void add(T item, String... fields) {
+        int id = items.size();
+        items.add(item);
+
+        for (int f = 0; f < fields.length; f++) {
+            int weight = FIELD_WEIGHTS[Math.min(f, FIELD_WEIGHTS.length - 1)];
+            for (String token : tokenize(fields[f])) {
+                wordItems.get(wordId(token)).add(id, weight);
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        items.clear();
+        wordIds.clear();
+        words.clear();
+        wordItems.clear();
+        grams.clear();
+    }
+
+    public synchronized int size() {
+        return items.size();
+    }
+
+    /** @return total posting entries (word and gram lists), a rough measure of the index's memory */
+    public synchronized long getPostingCount() {
+        long total = 0;
+        for (Postings list : wordItems) total += list.size;
+        for (Postings list : grams.values()) total += list.size;
+        return total;
+    }
+
+    /**
+     * @return matching items, best first; every item in add() order for a blank query
+     */
+    public synchronized List<T> search(String query) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (terms.isEmpty()) return new ArrayList<>(items);
+
+        // items hit by every term so far, sorted by id, with their scores
+        int[] hits = null;
+        int[] scores = null;
+        for (String term : terms) {
+            long[] termHits = termHits(term);
+            if (termHits.length == 0) return new ArrayList<>();
+
+            int[] ids = new int[termHits.length];
+            int[] best = new int[termHits.length];
+            for (int i = 0; i < termHits.length; i++) {
+                ids[i] = (int) (termHits[i] >>> 32);
+                best[i] = (int) termHits[i];
+            }
+            if (hits == null) {
+                hits = ids;
+                scores = best;
+                continue;
+            }
+
+            // intersect the sorted lists, adding up the scores
+            int[] keptIds = new int[Math.min(hits.length, ids.length)];
+            int[] keptScores = new int[keptIds.length];
+            int a = 0, b = 0, n = 0;
+            while (a < hits.length && b < ids.length) {
+                if (hits[a] < ids[b]) a++;
+                else if (hits[a] > ids[b]) b++;
+                else {
+                    keptIds[n] = hits[a];
+                    keptScores[n++] = scores[a++] + best[b++];
+                }
+            }
+            if (n == 0) return new ArrayList<>();
+            hits = Arrays.copyOf(keptIds, n);
+            scores = Arrays.copyOf(keptScores, n);
+        }
+
+        // higher score first, then lower id (add() order): one primitive sort
+        long[] ranked = new long[hits.length];
+        for (int i = 0; i < hits.length; i++) {
+            ranked[i] = ((long) (Integer.MAX_VALUE - scores[i]) << 32) | hits[i];
+        }
+        Arrays.sort(ranked);
+
+        List<T> result = new ArrayList<>(ranked.length);
+        for (long hit : ranked) result.add(items.get((int) hit));
+        return result;
+    }
+
+    /**
+     * @return the items a term hits, sorted by id, as (id << 32 | best hit
+     *         weight); only their postings are read
+     */
+    private long[] termHits(String term) {
+        int total = 0;
+        int[] matching = matchingWords(term);
+        for (int word : matching) total += wordItems.get(word).size;
+
+        long[] packed = new long[total];
+        int n = 0;
+        for (int word : matching) {
+            int factor = words.get(word).startsWith(term) ? 2 : 1;
+            Postings list = wordItems.get(word);
+            for (int i = 0; i < list.size; i++) {
+                packed[n++] = ((long) list.ids[i] << 32) | (list.weights[i] * factor);
+            }
+        }
+        Arrays.sort(packed);
+
+        // one entry per id: sorted ascending, so the last of a run has the best weight
+        int kept = 0;
+        for (int i = 0; i < n; i++) {
+            if (i + 1 < n && (packed[i + 1] >>> 32) == (packed[i] >>> 32)) continue;
+            packed[kept++] = packed[i];
+        }
+        return Arrays.copyOf(packed, kept);
+    }
+
+    /** @return lowercase, accent-free tokens of the text (letters and digits only) */
+    public static List<String> tokenize(String text) {
+        List<String> out = new ArrayList<>();
+        if (text == null || text.isEmpty()) return out;
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT);
+        for (String token : normalized.split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) out.add(token);
+        }
+        return out;
+    }
+
+    /** @return the word's id, adding it (and its grams) the first time it is seen */
+    private int wordId(String word) {
+        Integer id = wordIds.get(word);
+        if (id != null) return id;
+
+        int newId = words.size();
+        wordIds.put(word, newId);
+        words.add(word);
+        wordItems.add(new Postings());
+        for (String key : keys(word)) {
+            Postings list = grams.get(key);
+            if (list == null) {
+                list = new Postings();
+                grams.put(key, list);
+            }
+            list.add(newId, 0);
+        }
+        return newId;
+    }
+
+    /** Index keys of one word: "^" + 1-2 char prefixes, and every trigram. */
+    private static Set<String> keys(String word) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (int len = 1; len < GRAM && len <= word.length(); len++) keys.add("^" + word.substring(0, len));
+        for (int i = 0; i + GRAM <= word.length(); i++) keys.add(word.substring(i, i + GRAM));
+        return keys;
+    }
+
+    /** @return ids of the words containing the term (starting with it, for short terms) */
+    private int[] matchingWords(String term) {
+        if (term.length() < GRAM) return ids(grams.get("^" + term));
+
+        int[] candidates = null;
+        for (int i = 0; i + GRAM <= term.length(); i++) {
+            int[] ids = ids(grams.get(term.substring(i, i + GRAM)));
+            candidates = candidates == null ? ids : intersect(candidates, ids);
+            if (candidates.length == 0) return candidates;
+        }
+        // words sharing all trigrams may still not contain the term ("ninging" vs "learning")
+        int n = 0;
+        for (int word : candidates) {
+            if (term.length() == GRAM || words.get(word).contains(term)) candidates[n++] = word;
+        }
+        return Arrays.copyOf(candidates, n);
+    }
+
+    private static int[] ids(Postings list) {
+        return list == null ? new int[0] : Arrays.copyOf(list.ids, list.size);
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /** Growable sorted id list with a weight per id; ids arrive in increasing order. */
+    private static final class Postings {
+        int[] ids = new int[4];
+        int[] weights = new int[4];
+        int size;
+
+        /** Adds the id, or keeps the higher weight if it is already the last one. */
+        void add(int id, int weight) {
+            if (size > 0 && ids[size - 1] == id) {
+                if (weight > weights[size - 1]) weights[size - 1] = weight;
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            ids[size] = id;
+            weights[size++] = weight;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * source: Firebase docs - "Get realtime updates with Cloud Firestore" (detach a listener).
+ * url: https://firebase.google.com/docs/firestore/query-data/listen#detach_a_listener
+ * note: Each entrant document is watched by at most one listener however many rows or screens show
+ *       it, and the listener is removed as soon as the last of them lets go.
+ */
+
+package com.example.aurora.data;
+
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+
+/**
+ * EventStatusRepository
+ *
+ * App-wide source of "what is my status in this event" for event lists.
+ * Rows watch a (event, user) pair while they are on screen; every watcher
+ * of the same pair shares one listener on the user's entrant document
+ * (SharedListeners), and the last known status is kept while the pair is
+ * watched, so another row showing it gets the status at once.
+ *
+ * getActiveListenerCount() is the number of Firestore listeners open,
+ * which should stay near the number of visible rows.
+ *
+ * Called on the main thread.
+ */
+public class EventStatusRepository {
+
+    private static EventStatusRepository instance;
+
+    private final SharedListeners<String, String> listeners;
+
+    private EventStatusRepository(FirebaseFirestore db) {
+        EntrantRepository entrants = new EntrantRepository(db);
+        this.listeners = new SharedListeners<>((key, sink) -> {
+            ListenerRegistration registration = entrants.listenStatus(
+                    eventOf(key), userOf(key), sink::onValue);
+            return registration::remove;
+        });
+    }
+
+    /** @return the app-wide repository for the default Firestore instance */
+    public static synchronized EventStatusRepository getInstance() {
+        return getInstance(FirebaseFirestore.getInstance());
+    }
+
+    /** @return the app-wide repository; the first caller decides the Firestore instance */
+    public static synchronized EventStatusRepository getInstance(FirebaseFirestore db) {
+        if (instance == null) instance = new EventStatusRepository(db);
+        return instance;
+    }
+
+    /**
+     * Follows the user's status in one event. The listener gets the cached
+     * status right away if there is one.
+     *
+     * @return registration to remove when the row is recycled
+     */
+    public ListenerRegistration watch(String eventId, String userKey,
+                                      EntrantRepository.StatusListener listener) {
+        SharedListeners.Handle handle = listeners.subscribe(key(eventId, userKey), listener::onStatus);
+        return handle::remove;
+    }
+
+    /**
+     * @return the last known status, or EntrantStatus.NONE if the pair is not
+     *         watched or its listener has not answered yet
+     */
+    public String getStatus(String eventId, String userKey) {
+        String status = listeners.get(key(eventId, userKey));
+        return status != null ? status : EntrantStatus.NONE;
+    }
+
+    /**
+     * Records a status the app just wrote (join, leave, sign up) so every
+     * row showing the event updates before the listener echoes it back.
+     * Not kept if no row is watching the event.
+     */
+    public void update(String eventId, String userKey, String status) {
+        listeners.put(key(eventId, userKey), status);
+    }
+
+    /** @return number of Firestore listeners currently open */
+    public int getActiveListenerCount() {
+        return listeners.getActiveCount();
+    }
+
+    // event IDs never contain '/', so it separates the two parts safely
+    private static String key(String eventId, String userKey) {
+        return eventId + "/" + userKey;
+    }
+
+    private static String eventOf(String key) {
+        return key.substring(0, key.indexOf('/'));
+    }
+
+    private static String userOf(String key) {
+        return key.substring(key.indexOf('/') + 1);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * source: Android Developers - "Managing work" (unique work).
+ * url: https://developer.android.com/develop/background-work/background-tasks/persistent/how-to/manage-work#unique-work
+ * note: enqueueOnce() uses one unique work name, so the backfill never runs twice in parallel on a device.
+ *
+ * source: Firebase docs - "Supported data types" (Date and time).
+ * url: https://firebase.google.com/docs/firestore/manage-data/data-types
+ * note: java.util.Date values are stored as Timestamps, which sort and compare without parsing.
+ */
+
+package com.example.aurora.data;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.example.aurora.utils.EventTimes;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * EventTimesBackfillWorker
+ *
+ * One-off conversion of events created before EventTimes: parses their
+ * startDate (or date), endDate, registrationStart and registrationEnd
+ * strings and stores the Timestamps and availability mask on the event and
+ * its card, in WriteBatches. Events that already have availabilityKeys (the
+ * last field added), or whose dates cannot be parsed, are skipped.
+ *
+ * Dates are read in the device's time zone, as the feed did when it parsed them.
+ * Events are read a page at a time (EventMigrations). Each device runs it
+ * once, tracked in the migration preferences that logout leaves alone.
+ */
+public class EventTimesBackfillWorker extends Worker {
+
+    private static final String TAG = "EventTimesBackfill";
+    /** v2 adds availabilityKeys, so devices that ran the first version run it again. */
+    private static final String UNIQUE_NAME = "event-times-backfill-v2";
+    private static final String PREF_DONE = "event_times_backfilled_v2";
+    private static final String PREF_CURSOR = "event_times_backfilled_v2_after";
+
+    private final FirebaseFirestore db = FirebaseFirestore.getInstance();
+    private final EventCardStore cards = new EventCardStore(db);
+
+    public EventTimesBackfillWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Queues the backfill unless this device already finished it.
+     */
+    public static void enqueueOnce(Context context) {
+        if (EventMigrations.prefs(context).getBoolean(PREF_DONE, false)) return;
+
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(EventTimesBackfillWorker.class)
+                .setConstraints(new Constraints.Builder()
+                        .setRequiredNetworkType(NetworkType.CONNECTED)
+                        .build())
+                .build();
+
+        WorkManager.getInstance(context)
+                .enqueueUniqueWork(UNIQUE_NAME, ExistingWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        try {
+            TimeZone zone = TimeZone.getDefault();
+            Locale locale = Locale.getDefault();
+            SharedPreferences prefs = EventMigrations.prefs(getApplicationContext());
+
+            // a page takes at most two writes per event (event + card), under the 500 a batch allows
+            EventMigrations.forEachPage(db, prefs, PREF_CURSOR, (events, after) -> {
+                WriteBatch batch = db.batch();
+                int pending = 0;
+                for (DocumentSnapshot event : events) {
+                    if (event.get("availabilityKeys") != null) continue;
+
+                    String start = event.getString("startDate");
+                    if (start == null) start = event.getString("date");
+                    Map<String, Object> times = EventTimes.fields(start,
+                            event.getString("endDate"),
+                            event.getString("registrationStart"),
+                            event.getString("registrationEnd"),
+                            zone, locale);
+                    if (times.isEmpty()) continue;
+
+                    batch.update(event.getReference(), times);
+                    // the whole card, in case this runs before EventCardBackfillWorker created it
+                    Map<String, Object> data = new HashMap<>(event.getData());
+                    data.putAll(times);
+                    cards.write(batch, event.getId(), data);
+                    pending += 2;
+                }
+                if (pending > 0) Tasks.await(batch.commit());
+            });
+
+            prefs.edit().putBoolean(PREF_DONE, true).apply();
+            return Result.success();
+
+        } catch (ExecutionException e) {
+            Log.e(TAG, "Backfill failed, will retry", e);
+            return Result.retry();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.retry();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.aurora.data;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * JoinMetrics
+ *
+ * Counters for the transactional join path, so behaviour under a join
+ * burst (many people scanning the same QR code) can be observed.
+ *
+ * Tracked:
+ *  attempts    : transaction runs, including retries
+ *  retries     : runs that were repeated after a retriable failure
+ *  contention  : runs aborted because another write touched the same documents
+ *  joined      : joins that committed
+ *  full        : joins rejected because the waiting list was at maxSpots
+ *  duplicate   : joins rejected because the user was already an entrant
+ *  failed      : joins that gave up (non-retriable error or out of attempts)
+ *  latencies   : end-to-end time of the last MAX_LATENCIES finished joins,
+ *                including backoff (a ring buffer, so an app-wide instance
+ *                stays the same size however many joins it sees)
+ *
+ * All methods are synchronized; Firestore callbacks and a load test may
+ * record from several threads.
+ */
+public class JoinMetrics {
+
+    private long attempts;
+    private long retries;
+    private long contention;
+    private long joined;
+    private long full;
+    private long duplicate;
+    private long failed;
+    /** Enough for a whole default load test burst (2000 joins). */
+    public static final int MAX_LATENCIES = 4096;
+
+    private final long[] latenciesMillis = new long[MAX_LATENCIES];
+    /** Latencies recorded so far, up to MAX_LATENCIES. */
+    private int latencyCount;
+    /** Slot the next latency goes into (overwriting the oldest once full). */
+    private int nextLatency;
+
+    public synchronized void onAttempt() { attempts++; }
+
+    /**
+     * @param contended true if the run was aborted by a conflicting write
+     */
+    public synchronized void onRetry(boolean contended) {
+        retries++;
+        if (contended) contention++;
+    }
+
+    public synchronized void onJoined(long latencyMillis) {
+        joined++;
+        recordLatency(latencyMillis);
+    }
+
+    public synchronized void onFull(long latencyMillis) {
+        full++;
+        recordLatency(latencyMillis);
+    }
+
+    public synchronized void onDuplicate(long latencyMillis) {
+        duplicate++;
+        recordLatency(latencyMillis);
+    }
+
+    /**
+     * @param contended true if the last run was aborted by a conflicting write
+     */
+    public synchronized void onFailed(long latencyMillis, boolean contended) {
+        failed++;
+        if (contended) contention++;
+        recordLatency(latencyMillis);
+    }
+
+    public synchronized long getAttempts() { return attempts; }
+    public synchronized long getRetries() { return retries; }
+    public synchronized long getContention() { return contention; }
+    public synchronized long getJoined() { return joined; }
+    public synchronized long getFull() { return full; }
+    public synchronized long getDuplicate() { return duplicate; }
+    public synchronized long getFailed() { return failed; }
+
+    /**
+     * Nearest-rank percentile of the recorded (last MAX_LATENCIES) join latencies.
+     *
+     * @param p percentile in (0, 100]
+     * @return latency in ms, or 0 if nothing was recorded
+     */
+    public synchronized long percentileMillis(double p) {
+        if (p <= 0 || p > 100) throw new IllegalArgumentException("Percentile out of range: " + p);
+        if (latencyCount == 0) return 0L;
+
+        long[] sorted = Arrays.copyOf(latenciesMillis, latencyCount);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    /** @return an independent copy, e.g. to keep one phase's numbers before reset() */
+    public synchronized JoinMetrics copy() {
+        JoinMetrics copy = new JoinMetrics();
+        copy.attempts = attempts;
+        copy.retries = retries;
+        copy.contention = contention;
+        copy.joined = joined;
+        copy.full = full;
+        copy.duplicate = duplicate;
+        copy.failed = failed;
+        System.arraycopy(latenciesMillis, 0, copy.latenciesMillis, 0, MAX_LATENCIES);
+        copy.latencyCount = latencyCount;
+        copy.nextLatency = nextLatency;
+        return copy;
+    }
+
+    public synchronized void reset() {
+        attempts = retries = contention = joined = full = duplicate = failed = 0;
+        latencyCount = nextLatency = 0;
+    }
+
+    private void recordLatency(long latencyMillis) {
+        latenciesMillis[nextLatency] = latencyMillis;
+        nextLatency = (nextLatency + 1) % MAX_LATENCIES;
+        if (latencyCount < MAX_LATENCIES) latencyCount++;
+    }
+
+    /** One-line summary for logs, e.g. "joined=480 full=20 ... p50=120ms p99=900ms". */
+    public synchronized String summary() {
+        return String.format(Locale.US,
+                "attempts=%d retries=%d contention=%d joined=%d full=%d duplicate=%d failed=%d p50=%dms p99=%dms",
+                attempts, retries, contention, joined, full, duplicate, failed,
+                percentileMillis(50), percentileMillis(99));
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.aurora.data;
+
+/**
+ * OutboundEntry
+ *
+ * One queued Firestore write waiting in the local outbound table.
+ *
+ * The idempotency key doubles as the Firestore document ID, so flushing
+ * the same entry twice rewrites one document instead of adding two.
+ * Entries with a counterEmail are notifications: they are merged into the
+ * user's coalesced document (NotificationCoalescer) instead, and bump the
+ * unread counter only if that document did not exist yet.
+ */
+public class OutboundEntry {
+
+    private final String key;
+    private final String collection;
+    private final String data;
+    private final String counterEmail;
+    private final long createdAt;
+    private final int attempts;
+    private final long nextAttemptAt;
+
+    /**
+     * @param key           idempotency key, also the document ID (except for notifications)
+     * @param collection    target top-level collection
+     * @param data          document fields, encoded by OutboundQueue
+     * @param counterEmail  recipient whose unread counter the write bumps, or null
+     */
+    public OutboundEntry(String key, String collection, String data, String counterEmail,
+                         long createdAt, int attempts, long nextAttemptAt) {
+        this.key = key;
+        this.collection = collection;
+        this.data = data;
+        this.counterEmail = counterEmail;
+        this.createdAt = createdAt;
+        this.attempts = attempts;
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    /** @return Firestore writes this entry costs in a batch */
+    public int writes() {
+        return counterEmail == null ? 1 : 2;
+    }
+
+    public String getKey() { return key; }
+    public String getCollection() { return collection; }
+    public String getData() { return data; }
+    public String getCounterEmail() { return counterEmail; }
+    public long getCreatedAt() { return createdAt; }
+    public int getAttempts() { return attempts; }
+    public long getNextAttemptAt() { return nextAttemptAt; }
+}
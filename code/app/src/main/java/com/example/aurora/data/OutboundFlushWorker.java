@@ -0,0 +1,186 @@
+/*
+ * source: Firebase docs - "Transactions and batched writes".
+ * url: https://firebase.google.com/docs/firestore/manage-data/transactions
+ * note: Each chunk is committed in one transaction that first reads the coalesced notification
+ *       documents it writes to, so a chunk replayed after a lost acknowledgement neither repeats a
+ *       notification nor bumps counters twice.
+ *
+ * source: AWS Architecture Blog - "Exponential Backoff And Jitter".
+ * url: https://aws.amazon.com/blogs/architecture/exponential-backoff-and-jitter/
+ * note: A failed chunk's rows are pushed back with OutboundPolicy.nextAttemptAt() (full jitter).
+ */
+
+package com.example.aurora.data;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.example.aurora.notifications.UnreadCounter;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * OutboundFlushWorker
+ *
+ * Drains OutboundQueue: reads due rows oldest first, commits them in
+ * chunks of at most OutboundPolicy.MAX_CHUNK_WRITES writes and deletes the
+ * rows of each committed chunk. A failed chunk is rescheduled with backoff
+ * and the worker asks WorkManager to run again while rows remain.
+ */
+public class OutboundFlushWorker extends Worker {
+
+    private static final String TAG = "OutboundFlush";
+
+    /** Rows read from SQLite per pass. */
+    private static final int READ_LIMIT = 1000;
+
+    private final FirebaseFirestore db = FirebaseFirestore.getInstance();
+    private final Random random = new Random();
+
+    public OutboundFlushWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        OutboundQueue.start(getApplicationContext());
+        OutboundStore store = OutboundQueue.getInstance().store();
+
+        try {
+            while (!isStopped()) {
+                List<OutboundEntry> due = store.due(System.currentTimeMillis(), READ_LIMIT);
+                if (due.isEmpty()) break;
+
+                boolean anyFailed = false;
+                for (List<OutboundEntry> chunk : OutboundPolicy.chunks(due, OutboundPolicy.MAX_CHUNK_WRITES)) {
+                    if (isStopped()) break;
+                    anyFailed |= !commit(store, chunk);
+                }
+                // failed rows are not due again yet; stop and let WorkManager come back
+                if (anyFailed) break;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.retry();
+        }
+
+        return store.size() > 0 ? Result.retry() : Result.success();
+    }
+
+    /**
+     * Commits one chunk; on failure reschedules (or drops) its rows.
+     *
+     * @return true if the chunk was committed
+     */
+    private boolean commit(OutboundStore store, List<OutboundEntry> chunk) throws InterruptedException {
+        List<String> keys = new ArrayList<>();
+        List<String> undecodable = new ArrayList<>();
+        List<Prepared> writes = new ArrayList<>();
+
+        for (OutboundEntry entry : chunk) {
+            try {
+                Map<String, Object> data = OutboundQueue.decode(new JSONObject(entry.getData()));
+                // notifications land on their coalesced document, everything else on its key
+                DocumentReference ref = entry.getCounterEmail() != null
+                        ? UnreadCounter.coalescedRef(db, entry.getCounterEmail(), data)
+                        : db.collection(entry.getCollection()).document(entry.getKey());
+                writes.add(new Prepared(entry, ref, data));
+                keys.add(entry.getKey());
+            } catch (JSONException e) {
+                Log.e(TAG, "Dropping unreadable row " + entry.getKey(), e);
+                undecodable.add(entry.getKey());
+            }
+        }
+        if (!undecodable.isEmpty()) store.delete(undecodable);
+        if (writes.isEmpty()) return true;
+
+        try {
+            Tasks.await(db.runTransaction(tx -> {
+                // reads first; a notification already merged by an earlier try is skipped
+                Map<String, Map<String, Object>> current = new HashMap<>();
+                for (Prepared p : writes) {
+                    String path = p.ref.getPath();
+                    if (p.entry.getCounterEmail() != null && !current.containsKey(path)) {
+                        DocumentSnapshot doc = tx.get(p.ref);
+                        current.put(path, doc.exists() ? doc.getData() : null);
+                    }
+                }
+
+                for (Prepared p : writes) {
+                    String email = p.entry.getCounterEmail();
+                    if (email == null) {
+                        tx.set(p.ref, p.data);
+                    } else {
+                        // several rows of one chunk may share a document; merge them in order
+                        String path = p.ref.getPath();
+                        current.put(path, UnreadCounter.coalesce(tx, db, email, p.ref,
+                                current.get(path), p.data));
+                    }
+                }
+                return null;
+            }));
+            store.delete(keys);
+            return true;
+
+        } catch (ExecutionException e) {
+            boolean permanent = isPermanent(e.getCause());
+            Log.w(TAG, "Chunk of " + writes.size() + " failed" + (permanent ? " (rejected)" : ""), e.getCause());
+
+            long now = System.currentTimeMillis();
+            List<String> dropped = new ArrayList<>();
+            for (Prepared p : writes) {
+                int attempt = p.entry.getAttempts();
+                if (OutboundPolicy.shouldDrop(attempt, permanent)) {
+                    dropped.add(p.entry.getKey());
+                } else {
+                    store.reschedule(p.entry.getKey(), attempt + 1,
+                            OutboundPolicy.nextAttemptAt(now, attempt, random));
+                }
+            }
+            if (!dropped.isEmpty()) {
+                Log.e(TAG, "Giving up on " + dropped.size() + " rejected writes");
+                store.delete(dropped);
+            }
+            return false;
+        }
+    }
+
+    /** The server will never accept these, however often they are retried. */
+    private static boolean isPermanent(Throwable error) {
+        if (!(error instanceof FirebaseFirestoreException)) return false;
+        FirebaseFirestoreException.Code code = ((FirebaseFirestoreException) error).getCode();
+        return code == FirebaseFirestoreException.Code.INVALID_ARGUMENT
+                || code == FirebaseFirestoreException.Code.PERMISSION_DENIED;
+    }
+
+    /** A decoded row ready to write. */
+    private static class Prepared {
+        final OutboundEntry entry;
+        final DocumentReference ref;
+        final Map<String, Object> data;
+
+        Prepared(OutboundEntry entry, DocumentReference ref, Map<String, Object> data) {
+            this.entry = entry;
+            this.ref = ref;
+            this.data = data;
+        }
+    }
+}
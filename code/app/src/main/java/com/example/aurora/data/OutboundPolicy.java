@@ -0,0 +1,64 @@
+package com.example.aurora.data;
+
+import com.example.aurora.utils.Backoff;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * OutboundPolicy
+ *
+ * Flush rules for the outbound queue, kept free of Android and Firebase
+ * so they can be unit tested:
+ *  chunks()         splits due entries into commits under the write limit
+ *  nextAttemptAt()  spaces out retries of a failed chunk (Backoff, full jitter)
+ *  shouldDrop()     gives up only on permanent errors after every attempt is used
+ */
+public class OutboundPolicy {
+
+    /** Writes per flushed chunk; leaves headroom under Firestore's 500. */
+    public static final int MAX_CHUNK_WRITES = 400;
+
+    /** 2 s, doubling up to 10 min; permanent failures are dropped after 8 tries. */
+    public static final Backoff BACKOFF = new Backoff(2_000, 10 * 60 * 1000L, 8);
+
+    /**
+     * Groups entries in order so no chunk exceeds maxWrites.
+     */
+    public static List<List<OutboundEntry>> chunks(List<OutboundEntry> entries, int maxWrites) {
+        List<List<OutboundEntry>> out = new ArrayList<>();
+        List<OutboundEntry> current = new ArrayList<>();
+        int writes = 0;
+
+        for (OutboundEntry entry : entries) {
+            if (!current.isEmpty() && writes + entry.writes() > maxWrites) {
+                out.add(current);
+                current = new ArrayList<>();
+                writes = 0;
+            }
+            current.add(entry);
+            writes += entry.writes();
+        }
+        if (!current.isEmpty()) out.add(current);
+        return out;
+    }
+
+    /**
+     * @param failedAttempt 0-based attempt that just failed
+     * @return when the entry may be tried again
+     */
+    public static long nextAttemptAt(long now, int failedAttempt, Random random) {
+        return now + BACKOFF.delayMillis(failedAttempt, random);
+    }
+
+    /**
+     * Transient failures (offline, contention) are retried forever; a write
+     * the server rejects outright is dropped once its attempts run out.
+     *
+     * @param failedAttempt 0-based attempt that just failed
+     */
+    public static boolean shouldDrop(int failedAttempt, boolean permanent) {
+        return permanent && !BACKOFF.canRetry(failedAttempt);
+    }
+}
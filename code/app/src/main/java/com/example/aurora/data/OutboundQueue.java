@@ -0,0 +1,206 @@
+/*
+ * source: Android Developers - "Managing work" (unique work).
+ * url: https://developer.android.com/develop/background-work/background-tasks/persistent/how-to/manage-work#unique-work
+ * note: Every enqueue asks for one unique flush job that only runs with a network connection,
+ *       so writes made offline go out as soon as connectivity returns.
+ *
+ * source: Android Developers - "JSONObject".
+ * url: https://developer.android.com/reference/org/json/JSONObject
+ * note: Document fields are stored as JSON text in SQLite; Firestore Timestamps are tagged so they
+ *       round-trip as Timestamps.
+ */
+
+package com.example.aurora.data;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+
+import com.google.firebase.Timestamp;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OutboundQueue
+ *
+ * Durable local queue for the app's fire-and-forget writes (notifications,
+ * notificationLogs, logs, broadcasts). enqueue() returns immediately; the
+ * row is stored in SQLite (OutboundStore) off the main thread and
+ * OutboundFlushWorker commits due rows in chunks once the device is online.
+ *
+ * Each write gets a client-generated idempotency key that is also its
+ * document ID, so a chunk that is retried after an unacknowledged commit
+ * rewrites the same documents instead of duplicating them.
+ *
+ * Started from AuroraApp; callers fall back to writing directly when it
+ * is not (e.g. in instrumented tests that skip the Application class).
+ */
+public class OutboundQueue {
+
+    private static final String TAG = "OutboundQueue";
+    private static final String FLUSH_WORK = "outbound-flush";
+    private static final String TIMESTAMP_TAG = "$ts";
+
+    private static OutboundQueue instance;
+
+    private final Context context;
+    private final OutboundStore store;
+    private final ExecutorService io = Executors.newSingleThreadExecutor();
+
+    private OutboundQueue(Context context) {
+        this.context = context.getApplicationContext();
+        this.store = new OutboundStore(this.context);
+    }
+
+    /**
+     * Opens the queue and flushes anything left from a previous run.
+     * Called once from AuroraApp.onCreate().
+     */
+    public static synchronized void start(Context context) {
+        if (instance != null) return;
+        instance = new OutboundQueue(context);
+        instance.scheduleFlush();
+    }
+
+    /** @return the queue, or null if AuroraApp has not started it */
+    public static synchronized OutboundQueue getInstance() {
+        return instance;
+    }
+
+    OutboundStore store() {
+        return store;
+    }
+
+    /**
+     * Queues a new document in a top-level collection.
+     *
+     * @return the idempotency key, which will be the document ID
+     */
+    public String enqueue(String collection, Map<String, Object> data) {
+        return enqueue(UUID.randomUUID().toString(), collection, data, null);
+    }
+
+    /**
+     * Queues a notification for a user. The flush merges it into the user's
+     * coalesced document for its event (NotificationCoalescer) and bumps
+     * their unread counter (UnreadCounter) if that document is new.
+     *
+     * @return the idempotency key
+     */
+    public String enqueueNotification(String email, Map<String, Object> notification) {
+        return enqueue(UUID.randomUUID().toString(), "notifications", notification, email);
+    }
+
+    /**
+     * Queues a write under a caller-chosen key. Queuing the same key twice
+     * keeps the first write.
+     */
+    public String enqueue(String key, String collection, Map<String, Object> data, String counterEmail) {
+        String json;
+        try {
+            json = encode(data).toString();
+        } catch (JSONException e) {
+            throw new IllegalArgumentException("Unsupported field value in " + collection, e);
+        }
+
+        OutboundEntry entry = new OutboundEntry(key, collection, json, counterEmail,
+                System.currentTimeMillis(), 0, 0L);
+        io.execute(() -> {
+            if (!store.insert(entry)) Log.d(TAG, "Duplicate key ignored: " + key);
+            scheduleFlush();
+        });
+        return key;
+    }
+
+    /**
+     * Starts the flush job when the device is online, unless one is
+     * already queued or running.
+     */
+    public void scheduleFlush() {
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(OutboundFlushWorker.class)
+                .setConstraints(new Constraints.Builder()
+                        .setRequiredNetworkType(NetworkType.CONNECTED)
+                        .build())
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 30, TimeUnit.SECONDS)
+                .build();
+
+        WorkManager.getInstance(context)
+                .enqueueUniqueWork(FLUSH_WORK, ExistingWorkPolicy.KEEP, request);
+    }
+
+    // ---- encoding ---------------------------------------------------------------------------
+
+    @SuppressWarnings("unchecked")
+    static Object encodeValue(Object value) throws JSONException {
+        if (value == null) return JSONObject.NULL;
+        if (value instanceof Timestamp) {
+            return new JSONObject().put(TIMESTAMP_TAG, ((Timestamp) value).toDate().getTime());
+        }
+        if (value instanceof Date) {
+            return new JSONObject().put(TIMESTAMP_TAG, ((Date) value).getTime());
+        }
+        if (value instanceof Map) return encode((Map<String, Object>) value);
+        if (value instanceof List) {
+            JSONArray array = new JSONArray();
+            for (Object item : (List<Object>) value) array.put(encodeValue(item));
+            return array;
+        }
+        if (value instanceof String || value instanceof Number || value instanceof Boolean) return value;
+        throw new JSONException("Cannot queue value of type " + value.getClass().getName());
+    }
+
+    static JSONObject encode(Map<String, Object> data) throws JSONException {
+        JSONObject json = new JSONObject();
+        for (Map.Entry<String, Object> e : data.entrySet()) {
+            json.put(e.getKey(), encodeValue(e.getValue()));
+        }
+        return json;
+    }
+
+    static Object decodeValue(Object value) throws JSONException {
+        if (value == JSONObject.NULL) return null;
+        if (value instanceof JSONObject) {
+            JSONObject obj = (JSONObject) value;
+            if (obj.length() == 1 && obj.has(TIMESTAMP_TAG)) {
+                return new Timestamp(new Date(obj.getLong(TIMESTAMP_TAG)));
+            }
+            return decode(obj);
+        }
+        if (value instanceof JSONArray) {
+            JSONArray array = (JSONArray) value;
+            List<Object> list = new ArrayList<>();
+            for (int i = 0; i < array.length(); i++) list.add(decodeValue(array.get(i)));
+            return list;
+        }
+        return value;
+    }
+
+    static Map<String, Object> decode(JSONObject json) throws JSONException {
+        Map<String, Object> data = new HashMap<>();
+        Iterator<String> keys = json.keys();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            data.put(key, decodeValue(json.get(key)));
+        }
+        return data;
+    }
+}
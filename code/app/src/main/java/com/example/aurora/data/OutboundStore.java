@@ -0,0 +1,120 @@
+/*
+ * source: Android Developers - "Save data using SQLite".
+ * url: https://developer.android.com/training/data-storage/sqlite
+ * note: SQLiteOpenHelper owns the on-device outbound table; inserts use CONFLICT_IGNORE on the
+ *       idempotency key so enqueuing the same write twice keeps one row.
+ */
+
+package com.example.aurora.data;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * OutboundStore
+ *
+ * SQLite table behind OutboundQueue:
+ *  outbound(key PK, collection, data, counter_email, created_at, attempts, next_attempt_at)
+ *
+ * Rows stay until their write is committed, so queued notifications and
+ * logs survive the app being killed while offline.
+ */
+public class OutboundStore extends SQLiteOpenHelper {
+
+    private static final String DB_NAME = "aurora_outbound.db";
+    private static final int DB_VERSION = 1;
+    private static final String TABLE = "outbound";
+
+    public OutboundStore(Context context) {
+        super(context.getApplicationContext(), DB_NAME, null, DB_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE + " ("
+                + "key TEXT PRIMARY KEY, "
+                + "collection TEXT NOT NULL, "
+                + "data TEXT NOT NULL, "
+                + "counter_email TEXT, "
+                + "created_at INTEGER NOT NULL, "
+                + "attempts INTEGER NOT NULL DEFAULT 0, "
+                + "next_attempt_at INTEGER NOT NULL DEFAULT 0)");
+        db.execSQL("CREATE INDEX outbound_due ON " + TABLE + " (next_attempt_at, created_at)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // only one version so far
+    }
+
+    /**
+     * @return false if an entry with the same key is already queued
+     */
+    public boolean insert(OutboundEntry entry) {
+        ContentValues values = new ContentValues();
+        values.put("key", entry.getKey());
+        values.put("collection", entry.getCollection());
+        values.put("data", entry.getData());
+        values.put("counter_email", entry.getCounterEmail());
+        values.put("created_at", entry.getCreatedAt());
+        values.put("attempts", entry.getAttempts());
+        values.put("next_attempt_at", entry.getNextAttemptAt());
+        return getWritableDatabase().insertWithOnConflict(
+                TABLE, null, values, SQLiteDatabase.CONFLICT_IGNORE) != -1;
+    }
+
+    /**
+     * @return entries whose next attempt is due, oldest first
+     */
+    public List<OutboundEntry> due(long now, int limit) {
+        List<OutboundEntry> out = new ArrayList<>();
+        try (Cursor c = getReadableDatabase().query(TABLE, null,
+                "next_attempt_at <= ?", new String[]{ String.valueOf(now) },
+                null, null, "created_at ASC", String.valueOf(limit))) {
+            while (c.moveToNext()) {
+                out.add(new OutboundEntry(
+                        c.getString(c.getColumnIndexOrThrow("key")),
+                        c.getString(c.getColumnIndexOrThrow("collection")),
+                        c.getString(c.getColumnIndexOrThrow("data")),
+                        c.getString(c.getColumnIndexOrThrow("counter_email")),
+                        c.getLong(c.getColumnIndexOrThrow("created_at")),
+                        c.getInt(c.getColumnIndexOrThrow("attempts")),
+                        c.getLong(c.getColumnIndexOrThrow("next_attempt_at"))));
+            }
+        }
+        return out;
+    }
+
+    /** Removes committed (or dropped) entries. */
+    public void delete(Collection<String> keys) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (String key : keys) db.delete(TABLE, "key = ?", new String[]{ key });
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /** Records a failed attempt and when to try again. */
+    public void reschedule(String key, int attempts, long nextAttemptAt) {
+        ContentValues values = new ContentValues();
+        values.put("attempts", attempts);
+        values.put("next_attempt_at", nextAttemptAt);
+        getWritableDatabase().update(TABLE, values, "key = ?", new String[]{ key });
+    }
+
+    /** @return number of entries still queued */
+    public long size() {
+        return DatabaseUtils.queryNumEntries(getReadableDatabase(), TABLE);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.aurora.data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SharedListeners
+ *
+ * Reference-counted multiplexer: any number of subscribers per key share
+ * one underlying listener, opened for the first subscriber and closed
+ * with the last. The latest value of each open key is remembered, so a
+ * subscriber that joins an open listener gets a value right away. It is
+ * dropped with the listener, so memory follows the open keys, not every
+ * key ever watched.
+ *
+ * Kept free of Android and Firebase so the listener count can be unit
+ * tested; EventStatusRepository plugs Firestore in through Source.
+ *
+ * Not thread-safe; used on the main thread.
+ */
+public class SharedListeners<K, V> {
+
+    /**
+     * Opens the underlying listener for a key.
+     */
+    public interface Source<K, V> {
+        /**
+         * @param sink receives every new value for the key
+         * @return closes the listener
+         */
+        Runnable open(K key, Subscriber<V> sink);
+    }
+
+    /**
+     * Receives values for one key.
+     */
+    public interface Subscriber<V> {
+        void onValue(V value);
+    }
+
+    /**
+     * One subscription; remove() is safe to call more than once.
+     */
+    public interface Handle {
+        void remove();
+    }
+
+    private final Source<K, V> source;
+    private final Map<K, Entry> open = new HashMap<>();
+    private final Map<K, V> latest = new HashMap<>();
+
+    public SharedListeners(Source<K, V> source) {
+        this.source = source;
+    }
+
+    /**
+     * Subscribes to a key, opening its listener if nobody else has.
+     */
+    public Handle subscribe(K key, Subscriber<V> subscriber) {
+        Entry entry = open.get(key);
+        boolean fresh = entry == null;
+        if (fresh) {
+            entry = new Entry();
+            open.put(key, entry);
+        }
+        entry.subscribers.add(subscriber);
+
+        V value = latest.get(key);
+        if (value != null) subscriber.onValue(value);
+
+        if (fresh) {
+            Entry opened = entry;
+            opened.close = source.open(key, v -> publish(key, opened, v));
+        }
+
+        Entry target = entry;
+        boolean[] removed = {false};
+        return () -> {
+            if (removed[0]) return;
+            removed[0] = true;
+            unsubscribe(key, target, subscriber);
+        };
+    }
+
+    /**
+     * Passes a value the caller already knows (e.g. right after a join) to
+     * the key's subscribers. Ignored if nobody watches the key: the next
+     * subscriber gets a fresh value from its listener instead.
+     */
+    public void put(K key, V value) {
+        Entry entry = open.get(key);
+        if (entry != null) publish(key, entry, value);
+    }
+
+    /** @return the last value seen for the key, or null */
+    public V get(K key) {
+        return latest.get(key);
+    }
+
+    /** @return number of underlying listeners currently open */
+    public int getActiveCount() {
+        return open.size();
+    }
+
+    /** @return number of subscribers of one key */
+    public int getSubscriberCount(K key) {
+        Entry entry = open.get(key);
+        return entry == null ? 0 : entry.subscribers.size();
+    }
+
+    private void publish(K key, Entry entry, V value) {
+        // a late callback from a listener that has since closed is dropped
+        if (open.get(key) != entry) return;
+        latest.put(key, value);
+        for (Subscriber<V> s : new ArrayList<>(entry.subscribers)) s.onValue(value);
+    }
+
+    private void unsubscribe(K key, Entry entry, Subscriber<V> subscriber) {
+        entry.subscribers.remove(subscriber);
+        if (!entry.subscribers.isEmpty() || open.get(key) != entry) return;
+
+        open.remove(key);
+        latest.remove(key);
+        if (entry.close != null) entry.close.run();
+    }
+
+    /** Subscribers and closer of one open key. */
+    private class Entry {
+        final List<Subscriber<V>> subscribers = new ArrayList<>();
+        Runnable close;
+    }
+}
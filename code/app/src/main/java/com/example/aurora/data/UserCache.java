@@ -0,0 +1,136 @@
+package com.example.aurora.data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+/**
+ * UserCache
+ *
+ * In-memory cache of UserInfo, the storage part of UserDirectory.
+ *
+ * Rules:
+ *  each user is stored once and can be found by document ID or by email
+ *  entries older than the TTL are treated as missing and dropped on access
+ *  when more than maxEntries users are stored, the least recently used go first
+ *
+ * Not thread-safe by itself; UserDirectory synchronizes around it.
+ */
+public class UserCache {
+
+    private static class Entry {
+        final UserInfo user;
+        final long storedAt;
+
+        Entry(UserInfo user, long storedAt) {
+            this.user = user;
+            this.storedAt = storedAt;
+        }
+    }
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+
+    /** docId -> entry, in access order so the eldest is the least recently used. */
+    private final LinkedHashMap<String, Entry> byId = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, String> idByEmail = new HashMap<>();
+
+    public UserCache(int maxEntries, long ttlMillis) {
+        this(maxEntries, ttlMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock time source in ms, so tests can move time forward
+     */
+    public UserCache(int maxEntries, long ttlMillis, LongSupplier clock) {
+        if (maxEntries <= 0 || ttlMillis <= 0) {
+            throw new IllegalArgumentException("Cache size and TTL must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * @param key email or user document ID
+     * @return the cached user, or null if unknown or expired
+     */
+    public UserInfo get(String key) {
+        if (key == null) return null;
+        String id = idByEmail.containsKey(key) ? idByEmail.get(key) : key;
+
+        Entry entry = byId.get(id);
+        if (entry == null) return null;
+        if (clock.getAsLong() - entry.storedAt >= ttlMillis) {
+            remove(id);
+            return null;
+        }
+        return entry.user;
+    }
+
+    /** Stores (or refreshes) a user under its document ID and email. */
+    public void put(UserInfo user) {
+        if (user == null || user.getDocId() == null) return;
+
+        // drop the old email alias if the user changed their email
+        remove(user.getDocId());
+        byId.put(user.getDocId(), new Entry(user, clock.getAsLong()));
+        if (user.getEmail() != null) idByEmail.put(user.getEmail(), user.getDocId());
+
+        Iterator<Map.Entry<String, Entry>> eldest = byId.entrySet().iterator();
+        while (byId.size() > maxEntries && eldest.hasNext()) {
+            UserInfo evicted = eldest.next().getValue().user;
+            eldest.remove();
+            dropAlias(evicted);
+        }
+    }
+
+    /**
+     * Forgets a user, e.g. after their document changed or was deleted.
+     *
+     * @param key email or user document ID
+     */
+    public void invalidate(String key) {
+        if (key == null) return;
+        remove(idByEmail.containsKey(key) ? idByEmail.get(key) : key);
+    }
+
+    /**
+     * @return the keys that are not cached (or expired), without duplicates,
+     *         in their original order
+     */
+    public List<String> missing(Collection<String> keys) {
+        Set<String> out = new LinkedHashSet<>();
+        for (String key : keys) {
+            if (key != null && !key.isEmpty() && get(key) == null) out.add(key);
+        }
+        return new ArrayList<>(out);
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    public void clear() {
+        byId.clear();
+        idByEmail.clear();
+    }
+
+    private void remove(String id) {
+        Entry entry = byId.remove(id);
+        if (entry != null) dropAlias(entry.user);
+    }
+
+    private void dropAlias(UserInfo user) {
+        String email = user.getEmail();
+        if (email != null && user.getDocId().equals(idByEmail.get(email))) idByEmail.remove(email);
+    }
+}
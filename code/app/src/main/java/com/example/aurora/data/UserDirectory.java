@@ -0,0 +1,180 @@
+/*
+ * source: Firebase docs - "Perform simple and compound queries in Cloud Firestore".
+ * url: https://firebase.google.com/docs/firestore/query-data/queries#in_not-in_and_array-contains-any
+ * note: Users missing from the cache are fetched with whereIn("email", ...) or
+ *       whereIn(FieldPath.documentId(), ...) in slices of 30 values.
+ *
+ * source: Firebase docs - "Get realtime updates with Cloud Firestore" (view changes between snapshots).
+ * url: https://firebase.google.com/docs/firestore/query-data/listen#view_changes_between_snapshots
+ * note: listen() keeps the cached users of an open screen fresh from getDocumentChanges().
+ */
+
+package com.example.aurora.data;
+
+import com.example.aurora.utils.Batching;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * UserDirectory
+ *
+ * Shared, cached lookup of users by email or document ID, used by the
+ * notification helpers and the entrant list screens.
+ *
+ * resolve() answers from memory where it can and fetches the rest with
+ * one whereIn query per 30 unknown users, so notifying n people costs
+ * about n / 30 reads the first time and none while the cache is warm.
+ *
+ * Entries expire after TTL_MILLIS and at most MAX_ENTRIES users are kept
+ * (least recently used first out). Screens that show users call listen()
+ * while visible so edits to those users replace the cached copy right away.
+ */
+public class UserDirectory {
+
+    public static final int MAX_ENTRIES = 2000;
+    public static final long TTL_MILLIS = 10 * 60 * 1000L;
+
+    /** Firestore caps whereIn() at 30 values. */
+    public static final int WHERE_IN_LIMIT = 30;
+
+    private static UserDirectory instance;
+
+    private final FirebaseFirestore db;
+    private final UserCache cache = new UserCache(MAX_ENTRIES, TTL_MILLIS);
+
+    private UserDirectory(FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    /** @return the app-wide directory for the default Firestore instance */
+    public static synchronized UserDirectory getInstance() {
+        return getInstance(FirebaseFirestore.getInstance());
+    }
+
+    /** @return the app-wide directory; the first caller decides the Firestore instance */
+    public static synchronized UserDirectory getInstance(FirebaseFirestore db) {
+        if (instance == null) instance = new UserDirectory(db);
+        return instance;
+    }
+
+    /**
+     * Looks up one user.
+     *
+     * @param key email or user document ID
+     * @return the user, or null if no user document matches
+     */
+    public Task<UserInfo> resolve(String key) {
+        return resolve(Collections.singletonList(key))
+                .continueWith(task -> task.getResult().get(key));
+    }
+
+    /**
+     * Looks up many users at once. Keys containing "@" are treated as
+     * emails, anything else as a document ID.
+     *
+     * @return key -> user for every key that matched a user document
+     */
+    public Task<Map<String, UserInfo>> resolve(Collection<String> keys) {
+        List<String> missing;
+        synchronized (cache) {
+            missing = cache.missing(keys);
+        }
+
+        List<String> emails = new ArrayList<>();
+        List<String> ids = new ArrayList<>();
+        for (String key : missing) {
+            (key.contains("@") ? emails : ids).add(key);
+        }
+
+        List<Task<QuerySnapshot>> lookups = new ArrayList<>();
+        for (List<String> slice : Batching.partition(emails, WHERE_IN_LIMIT)) {
+            lookups.add(db.collection("users").whereIn("email", slice).get());
+        }
+        for (List<String> slice : Batching.partition(ids, WHERE_IN_LIMIT)) {
+            lookups.add(db.collection("users").whereIn(FieldPath.documentId(), slice).get());
+        }
+
+        return Tasks.whenAllSuccess(lookups).continueWith(task -> {
+            Map<String, UserInfo> found = new HashMap<>();
+            for (Object result : task.getResult()) {
+                // first user document per email wins, same as the old limit(1) lookups
+                for (DocumentSnapshot doc : ((QuerySnapshot) result).getDocuments()) {
+                    UserInfo user = UserInfo.fromFields(doc.getId(), doc.getData());
+                    if (user.getEmail() != null && found.containsKey(user.getEmail())) continue;
+                    if (user.getEmail() != null) found.put(user.getEmail(), user);
+                    found.put(user.getDocId(), user);
+                }
+            }
+
+            Map<String, UserInfo> out = new LinkedHashMap<>();
+            synchronized (cache) {
+                for (UserInfo user : found.values()) cache.put(user);
+                for (String key : keys) {
+                    UserInfo user = found.containsKey(key) ? found.get(key) : cache.get(key);
+                    if (user != null) out.put(key, user);
+                }
+            }
+            return out;
+        });
+    }
+
+    /**
+     * Keeps the given users fresh in the cache while the returned
+     * registration is active: changed documents replace the cached copy,
+     * deleted ones are dropped.
+     *
+     * @param emails users to watch
+     * @return registration that removes every underlying listener
+     */
+    public ListenerRegistration listen(Collection<String> emails) {
+        List<ListenerRegistration> registrations = new ArrayList<>();
+
+        for (List<String> slice : Batching.partition(new ArrayList<>(emails), WHERE_IN_LIMIT)) {
+            registrations.add(db.collection("users")
+                    .whereIn("email", slice)
+                    .addSnapshotListener((snapshot, error) -> {
+                        if (error != null || snapshot == null) return;
+
+                        synchronized (cache) {
+                            for (DocumentChange change : snapshot.getDocumentChanges()) {
+                                DocumentSnapshot doc = change.getDocument();
+                                if (change.getType() == DocumentChange.Type.REMOVED) {
+                                    cache.invalidate(doc.getId());
+                                } else {
+                                    cache.put(UserInfo.fromFields(doc.getId(), doc.getData()));
+                                }
+                            }
+                        }
+                    }));
+        }
+
+        return () -> {
+            for (ListenerRegistration registration : registrations) registration.remove();
+        };
+    }
+
+    /**
+     * Drops a cached user, e.g. right after the app edited their document.
+     *
+     * @param key email or user document ID
+     */
+    public void invalidate(String key) {
+        synchronized (cache) {
+            cache.invalidate(key);
+        }
+    }
+}
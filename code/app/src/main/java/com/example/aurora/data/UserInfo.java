@@ -0,0 +1,58 @@
+package com.example.aurora.data;
+
+import java.util.Map;
+
+/**
+ * UserInfo
+ *
+ * The fields of a users/{id} document that other screens need about
+ * someone else: who they are and whether they want notifications.
+ * Immutable; cached by UserDirectory.
+ */
+public class UserInfo {
+
+    private final String docId;
+    private final String email;
+    private final String name;
+    private final String phone;
+    private final boolean notificationsEnabled;
+
+    public UserInfo(String docId, String email, String name, String phone, boolean notificationsEnabled) {
+        this.docId = docId;
+        this.email = email;
+        this.name = name;
+        this.phone = phone;
+        this.notificationsEnabled = notificationsEnabled;
+    }
+
+    /**
+     * Builds a UserInfo from raw user document fields.
+     * entrant_notifications_enabled defaults to true when missing,
+     * same as the notification helpers always assumed.
+     */
+    public static UserInfo fromFields(String docId, Map<String, Object> fields) {
+        Object enabled = fields == null ? null : fields.get("entrant_notifications_enabled");
+        return new UserInfo(
+                docId,
+                stringOrNull(fields, "email"),
+                stringOrNull(fields, "name"),
+                stringOrNull(fields, "phone"),
+                !(enabled instanceof Boolean) || (Boolean) enabled);
+    }
+
+    private static String stringOrNull(Map<String, Object> fields, String key) {
+        Object value = fields == null ? null : fields.get(key);
+        return value instanceof String ? (String) value : null;
+    }
+
+    public String getDocId() { return docId; }
+    public String getEmail() { return email; }
+    public String getName() { return name; }
+    public String getPhone() { return phone; }
+    public boolean isNotificationsEnabled() { return notificationsEnabled; }
+
+    /** @return the name, or the email if the user never set one */
+    public String getDisplayName() {
+        return name != null && !name.isEmpty() ? name : email;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.aurora.lottery;
+
+import com.example.aurora.data.EntrantStatus;
+import com.example.aurora.utils.Batching;
+
+import java.util.List;
+
+/**
+ * DrawOrder
+ *
+ * Pure helpers for the persisted replacement order of a lottery.
+ *
+ * The losers of a draw are stored in seeded order as fixed-size chunks
+ * under events/{eventId}/drawOrder/{chunkIndex}, and the event keeps a
+ * drawCursor pointing at the next entrant in line. Position p lives in
+ * chunk p / chunkSize at offset p % chunkSize, so finding the next
+ * replacement is one chunk read no matter how large the pool is.
+ */
+public class DrawOrder {
+
+    /** Entrants per chunk document; ~1000 emails stays far below the 1 MiB doc limit. */
+    public static final int CHUNK_SIZE = 1000;
+
+    /** @return index of the chunk document holding the given position */
+    public static int chunkIndex(int position, int chunkSize) {
+        return position / chunkSize;
+    }
+
+    /** @return offset of the given position inside its chunk */
+    public static int offsetInChunk(int position, int chunkSize) {
+        return position % chunkSize;
+    }
+
+    /**
+     * Splits a replacement order into consecutive chunks of at most {@code chunkSize}.
+     */
+    public static List<List<String>> chunks(List<String> order, int chunkSize) {
+        return Batching.partition(order, chunkSize);
+    }
+
+    /**
+     * A candidate can only be promoted while they are still waiting
+     * (not left, selected or cancelled since the draw).
+     *
+     * @param status the candidate's current entrant status
+     */
+    public static boolean isEligible(String status) {
+        return EntrantStatus.WAITING.equals(status);
+    }
+}
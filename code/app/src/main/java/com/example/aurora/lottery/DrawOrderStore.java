@@ -0,0 +1,254 @@
+/*
+ * source: Firebase docs - "Transactions and batched writes".
+ * url: https://firebase.google.com/docs/firestore/manage-data/transactions
+ * note: runTransaction() makes "decline + promote next entrant + delete the notification" a single atomic write,
+ *       and WriteBatch is used to store the draw-order chunks (max 500 writes per batch).
+ *
+ * source: Google Play services - "Tasks API".
+ * url: https://developers.google.com/android/reference/com/google/android/gms/tasks/Tasks
+ * note: Tasks.whenAll() waits for every chunk batch before the cursor is published.
+ */
+
+package com.example.aurora.lottery;
+
+import androidx.annotation.Nullable;
+
+import com.example.aurora.data.EntrantRepository;
+import com.example.aurora.data.EntrantStatus;
+import com.example.aurora.notifications.UnreadCounter;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * DrawOrderStore
+ *
+ * Persists the winners and the replacement order of a lottery, reads them
+ * back for persisting and notifying, and promotes the next entrant in line
+ * when a winner declines.
+ *
+ * Layout:
+ *  events/{eventId}/drawOrder/{chunkIndex}   : { seed, entrants[] }
+ *  events/{eventId}/drawWinners/{chunkIndex} : { seed, entrants[] }
+ *  events/{eventId}.drawCursor             : next position to promote
+ *  events/{eventId}.drawOrderSize          : total entrants in the order
+ *  events/{eventId}.drawChunkSize          : entrants per chunk
+ *
+ * Chunks carry the lottery seed so a decline never promotes from the
+ * order of an older draw (e.g. while a re-roll is still being written).
+ */
+public class DrawOrderStore {
+
+    public static final String COLLECTION = "drawOrder";
+    public static final String WINNERS_COLLECTION = "drawWinners";
+
+    /** Firestore caps a WriteBatch at 500 operations. */
+    private static final int MAX_BATCH_WRITES = 500;
+
+    /**
+     * Writes the replacement order as chunk documents.
+     * The caller publishes the cursor fields on the event once this completes.
+     *
+     * @param order losers in promotion order (LotteryResult.getReplacementOrder())
+     * @param seed  seed of the draw the order belongs to
+     */
+    public static Task<Void> save(FirebaseFirestore db, String eventId, List<String> order, long seed) {
+        return saveChunks(db, eventId, COLLECTION, order, seed);
+    }
+
+    /**
+     * Writes the winners of a draw as chunk documents, so the event document
+     * stays small however many winners there are.
+     */
+    public static Task<Void> saveWinners(FirebaseFirestore db, String eventId, List<String> winners, long seed) {
+        return saveChunks(db, eventId, WINNERS_COLLECTION, winners, seed);
+    }
+
+    private static Task<Void> saveChunks(FirebaseFirestore db, String eventId, String collection,
+                                         List<String> entrants, long seed) {
+        DocumentReference eventRef = db.collection("events").document(eventId);
+        List<List<String>> chunks = DrawOrder.chunks(entrants, DrawOrder.CHUNK_SIZE);
+
+        List<Task<Void>> commits = new ArrayList<>();
+        WriteBatch batch = db.batch();
+        int pending = 0;
+
+        for (int i = 0; i < chunks.size(); i++) {
+            Map<String, Object> chunk = new HashMap<>();
+            chunk.put("seed", seed);
+            chunk.put("entrants", chunks.get(i));
+            batch.set(eventRef.collection(collection).document(String.valueOf(i)), chunk);
+
+            if (++pending == MAX_BATCH_WRITES) {
+                commits.add(batch.commit());
+                batch = db.batch();
+                pending = 0;
+            }
+        }
+        if (pending > 0) commits.add(batch.commit());
+
+        return Tasks.whenAll(commits);
+    }
+
+    /**
+     * Reads the full replacement order of the draw with the given seed back,
+     * one read per chunk. Chunks left over from older draws are ignored.
+     */
+    public static Task<List<String>> load(DocumentReference eventRef, long seed) {
+        return loadChunks(eventRef, COLLECTION, seed);
+    }
+
+    /** Reads the winners of the draw with the given seed back, in draw order. */
+    public static Task<List<String>> loadWinners(DocumentReference eventRef, long seed) {
+        return loadChunks(eventRef, WINNERS_COLLECTION, seed);
+    }
+
+    private static Task<List<String>> loadChunks(DocumentReference eventRef, String collection, long seed) {
+        return eventRef.collection(collection)
+                .whereEqualTo("seed", seed)
+                .get()
+                .continueWith(task -> {
+                    List<DocumentSnapshot> docs = new ArrayList<>(task.getResult().getDocuments());
+                    // ids are chunk indexes; "10" must come after "9"
+                    Collections.sort(docs, (a, b) ->
+                            Integer.compare(Integer.parseInt(a.getId()), Integer.parseInt(b.getId())));
+
+                    List<String> order = new ArrayList<>();
+                    for (DocumentSnapshot doc : docs) {
+                        order.addAll(listOrEmpty(doc.get("entrants")));
+                    }
+                    return order;
+                });
+    }
+
+    /**
+     * Cursor fields to merge into the event update that publishes a draw.
+     */
+    public static Map<String, Object> cursorFields(int orderSize) {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("drawCursor", 0);
+        fields.put("drawOrderSize", orderSize);
+        fields.put("drawChunkSize", DrawOrder.CHUNK_SIZE);
+        return fields;
+    }
+
+    /**
+     * Declines the given winner and, in the same transaction, promotes the
+     * next eligible entrant from the persisted draw order.
+     *
+     * Reads the event, the decliner, (usually) one chunk and one candidate,
+     * and commits once, independent of the size of the waiting list.
+     * Candidates who are no longer waiting are skipped by advancing the cursor.
+     * The notification the decline came from is deleted, and the unread
+     * counter decremented, in the same transaction.
+     *
+     * @param notificationId notification to delete, or null for none
+     * @return who was promoted (promotedEmail is null if nobody was left)
+     */
+    public static Task<Promotion> declineAndPromote(FirebaseFirestore db, String eventId, String email,
+                                                    @Nullable String notificationId) {
+        DocumentReference eventRef = db.collection("events").document(eventId);
+        EntrantRepository entrants = new EntrantRepository(db);
+
+        return db.runTransaction(transaction -> {
+            DocumentSnapshot event = transaction.get(eventRef);
+            String declinerStatus = EntrantRepository.statusOf(
+                    transaction.get(entrants.entrant(eventId, email)));
+            UnreadCounter.Removal notification = UnreadCounter.readForDelete(transaction, db, notificationId);
+
+            Long cursorField = event.getLong("drawCursor");
+            Long sizeField = event.getLong("drawOrderSize");
+            Long chunkField = event.getLong("drawChunkSize");
+            Long seed = event.getLong("lotterySeed");
+
+            String promoted = null;
+            int cursor = cursorField == null ? 0 : cursorField.intValue();
+
+            // only a selected winner frees a spot; a repeated decline must not promote twice
+            boolean hasOrder = cursorField != null && sizeField != null && chunkField != null;
+            if (hasOrder && EntrantStatus.SELECTED.equals(declinerStatus)) {
+                int size = sizeField.intValue();
+                int chunkSize = chunkField.intValue();
+                int loadedIndex = -1;
+                List<String> chunk = null;
+
+                while (cursor < size) {
+                    int index = DrawOrder.chunkIndex(cursor, chunkSize);
+                    if (index != loadedIndex) {
+                        DocumentSnapshot chunkDoc = transaction.get(
+                                eventRef.collection(COLLECTION).document(String.valueOf(index)));
+                        if (!chunkDoc.exists() || !Objects.equals(seed, chunkDoc.getLong("seed"))) {
+                            break;
+                        }
+                        chunk = listOrEmpty(chunkDoc.get("entrants"));
+                        loadedIndex = index;
+                    }
+
+                    int offset = DrawOrder.offsetInChunk(cursor, chunkSize);
+                    if (offset >= chunk.size()) break;
+
+                    String candidate = chunk.get(offset);
+                    cursor++;
+                    String candidateStatus = EntrantRepository.statusOf(
+                            transaction.get(entrants.entrant(eventId, candidate)));
+                    if (DrawOrder.isEligible(candidateStatus)) {
+                        promoted = candidate;
+                        break;
+                    }
+                }
+            }
+
+            Map<String, Long> delta = new HashMap<>();
+
+            if (!EntrantStatus.NONE.equals(declinerStatus)) {
+                entrants.writeEntrant(transaction, eventId, email, declinerStatus, EntrantStatus.CANCELLED);
+                EntrantStatus.accumulate(delta, declinerStatus, EntrantStatus.CANCELLED);
+            }
+            if (promoted != null) {
+                entrants.writeEntrant(transaction, eventId, promoted, EntrantStatus.WAITING, EntrantStatus.SELECTED);
+                EntrantStatus.accumulate(delta, EntrantStatus.WAITING, EntrantStatus.SELECTED);
+            }
+
+            entrants.counters().increment(transaction, eventId, delta);
+            if (hasOrder) transaction.update(eventRef, "drawCursor", cursor);
+            notification.delete(transaction);
+
+            return new Promotion(promoted, event.getString("title"), event.getString("organizerEmail"));
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> listOrEmpty(Object value) {
+        return value instanceof List ? new ArrayList<>((List<String>) value) : new ArrayList<>();
+    }
+
+    /**
+     * Outcome of a decline: who replaced the declining winner, plus the
+     * event details needed to notify them.
+     */
+    public static class Promotion {
+        private final String promotedEmail;
+        private final String eventTitle;
+        private final String organizerEmail;
+
+        Promotion(String promotedEmail, String eventTitle, String organizerEmail) {
+            this.promotedEmail = promotedEmail;
+            this.eventTitle = eventTitle;
+            this.organizerEmail = organizerEmail;
+        }
+
+        public String getPromotedEmail() { return promotedEmail; }
+        public String getEventTitle() { return eventTitle; }
+        public String getOrganizerEmail() { return organizerEmail; }
+    }
+}
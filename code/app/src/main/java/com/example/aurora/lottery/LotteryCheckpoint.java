@@ -0,0 +1,140 @@
+package com.example.aurora.lottery;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * LotteryCheckpoint
+ *
+ * Progress of one background lottery run, stored on the event as the
+ * "lotteryRun" map so LotteryWorker can pick up where it stopped.
+ *
+ * Stages, in order:
+ *  drawn      : seed and sample size chosen, nothing written yet
+ *  persisting : winners and draw order stored (DrawOrderStore, not in this
+ *               map, which would push a large draw towards the 1 MiB document
+ *               limit); entrant documents are being updated in windows,
+ *               persistedUpTo records how far
+ *  persisted  : every winner / loser entrant document is updated
+ *  notified   : every winner and loser has been notified
+ *
+ * While persisted, winnersNotifiedUpTo / losersNotifiedUpTo record how far
+ * each notification fan-out got, so a restart skips recipients already done.
+ */
+public class LotteryCheckpoint {
+
+    public static final String STAGE_DRAWN = "drawn";
+    public static final String STAGE_PERSISTING = "persisting";
+    public static final String STAGE_PERSISTED = "persisted";
+    public static final String STAGE_NOTIFIED = "notified";
+
+    private final String runId;
+    private final long seed;
+    private final int sampleSize;
+    private final boolean secondChance;
+    private String stage;
+    private int winnerCount;
+    private int persistedUpTo;
+    private int winnersNotifiedUpTo;
+    private int losersNotifiedUpTo;
+
+    private LotteryCheckpoint(String runId, long seed, int sampleSize, boolean secondChance, String stage) {
+        this.runId = runId;
+        this.seed = seed;
+        this.sampleSize = sampleSize;
+        this.secondChance = secondChance;
+        this.stage = stage;
+    }
+
+    /** Starts a new run at the "drawn" stage. */
+    public static LotteryCheckpoint start(String runId, long seed, int sampleSize, boolean secondChance) {
+        return new LotteryCheckpoint(runId, seed, sampleSize, secondChance, STAGE_DRAWN);
+    }
+
+    /**
+     * Reads a checkpoint back from the raw Firestore "lotteryRun" value.
+     *
+     * @return the checkpoint, or null if the value is missing or malformed
+     */
+    @SuppressWarnings("unchecked")
+    public static LotteryCheckpoint from(Object raw) {
+        if (!(raw instanceof Map)) return null;
+        Map<String, Object> map = (Map<String, Object>) raw;
+
+        Object runId = map.get("runId");
+        Object seed = map.get("seed");
+        Object sampleSize = map.get("sampleSize");
+        Object stage = map.get("stage");
+        if (!(runId instanceof String) || !(seed instanceof Number)
+                || !(sampleSize instanceof Number) || !(stage instanceof String)) {
+            return null;
+        }
+
+        LotteryCheckpoint cp = new LotteryCheckpoint(
+                (String) runId,
+                ((Number) seed).longValue(),
+                ((Number) sampleSize).intValue(),
+                Boolean.TRUE.equals(map.get("secondChance")),
+                (String) stage);
+
+        cp.winnerCount = intOrZero(map.get("winnerCount"));
+        cp.persistedUpTo = intOrZero(map.get("persistedUpTo"));
+        cp.winnersNotifiedUpTo = intOrZero(map.get("winnersNotifiedUpTo"));
+        cp.losersNotifiedUpTo = intOrZero(map.get("losersNotifiedUpTo"));
+        return cp;
+    }
+
+    private static int intOrZero(Object value) {
+        return value instanceof Number ? ((Number) value).intValue() : 0;
+    }
+
+    /** @return map to store as the event's "lotteryRun" field */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("runId", runId);
+        map.put("seed", seed);
+        map.put("sampleSize", sampleSize);
+        map.put("secondChance", secondChance);
+        map.put("stage", stage);
+        map.put("winnerCount", winnerCount);
+        map.put("persistedUpTo", persistedUpTo);
+        map.put("winnersNotifiedUpTo", winnersNotifiedUpTo);
+        map.put("losersNotifiedUpTo", losersNotifiedUpTo);
+        return map;
+    }
+
+    /** Moves to "persisting" once the winners and the draw order are stored. */
+    public void markPersisting(int winnerCount) {
+        this.winnerCount = winnerCount;
+        this.persistedUpTo = 0;
+        this.stage = STAGE_PERSISTING;
+    }
+
+    /** Moves to "persisted" once every entrant document is updated. */
+    public void markPersisted() {
+        this.stage = STAGE_PERSISTED;
+    }
+
+    public void markNotified() {
+        this.stage = STAGE_NOTIFIED;
+    }
+
+    public void setPersistedUpTo(int index) { persistedUpTo = index; }
+    public void setWinnersNotifiedUpTo(int index) { winnersNotifiedUpTo = index; }
+    public void setLosersNotifiedUpTo(int index) { losersNotifiedUpTo = index; }
+
+    public String getRunId() { return runId; }
+    public long getSeed() { return seed; }
+    public int getSampleSize() { return sampleSize; }
+    public boolean isSecondChance() { return secondChance; }
+    public String getStage() { return stage; }
+    public int getWinnerCount() { return winnerCount; }
+    public int getPersistedUpTo() { return persistedUpTo; }
+    public int getWinnersNotifiedUpTo() { return winnersNotifiedUpTo; }
+    public int getLosersNotifiedUpTo() { return losersNotifiedUpTo; }
+
+    public boolean isDrawn() { return STAGE_DRAWN.equals(stage); }
+    public boolean isPersisting() { return STAGE_PERSISTING.equals(stage); }
+    public boolean isPersisted() { return STAGE_PERSISTED.equals(stage); }
+    public boolean isNotified() { return STAGE_NOTIFIED.equals(stage); }
+}
@@ -0,0 +1,226 @@
+/*
+ * source: Wikipedia - "Reservoir sampling".
+ * url: https://en.wikipedia.org/wiki/Reservoir_sampling#Simple:_Algorithm_R
+ * note: Algorithm R is used in draw() to pick k winners uniformly in one pass
+ *       while only keeping k candidates in memory.
+ *
+ * source: J. S. Vitter - "Random sampling with a reservoir" (ACM TOMS, 1985).
+ * url: https://dl.acm.org/doi/10.1145/3147.3165
+ * note: Background for why every entrant ends up in the reservoir with probability k/n.
+ *
+ * source: P. S. Efraimidis, P. G. Spirakis - "Weighted random sampling with a reservoir" (2006).
+ * url: https://doi.org/10.1016/j.ipl.2005.11.003
+ * note: Algorithm A-Res is used in drawWeighted(): each entrant gets the key u^(1/w)
+ *       and the k largest keys win, kept in a size-k min-heap.
+ *
+ * source: Java Documentation - "SplittableRandom".
+ * url: https://docs.oracle.com/javase/8/docs/api/java/util/SplittableRandom.html
+ * note: A seeded SplittableRandom makes every draw reproducible from its seed. Unlike
+ *       java.util.Random it mixes the seed, so nearby seeds do not give correlated draws.
+ */
+
+package com.example.aurora.lottery;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * LotteryEngine
+ *
+ * Pure-Java lottery used by organizers to draw winners from a waiting list.
+ * Has no Android or Firebase dependencies so it can be unit tested and
+ * benchmarked on the JVM.
+ *
+ * Draws run in a single streaming pass over the pool:
+ *  - the first k distinct entrants fill the reservoir
+ *  - each later entrant replaces a random reservoir slot with probability k/i
+ *  - anything rejected or evicted goes straight into the loser set
+ *
+ * Selecting the winners needs O(min(k, n)) working memory (the reservoir
+ * grows with the pool, so a huge k is harmless); the loser partition is
+ * built during the same pass, so there is no second "winners.contains" scan.
+ * Duplicate and null entries in the pool are ignored.
+ *
+ * Both draws also return a replacement order: the losers continued as the
+ * same seeded draw, so whoever is next in line when a winner declines is
+ * fixed up front and can be persisted (see DrawOrderStore).
+ *
+ * drawWeighted() is the "second chance" variant: entrants with a larger
+ * weight are more likely to win. Picking the winners is still a single
+ * pass costing O(n log k); ordering the losers for replacements adds one
+ * sort over their keys.
+ */
+public class LotteryEngine {
+
+    private final long seed;
+
+    /** Creates an engine with a fresh random seed. */
+    public LotteryEngine() {
+        this(new Random().nextLong());
+    }
+
+    /**
+     * Creates an engine with a fixed seed.
+     *
+     * @param seed seed for the draw; the same pool and seed always produce the same result
+     */
+    public LotteryEngine(long seed) {
+        this.seed = seed;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Draws up to {@code k} winners uniformly at random from the pool.
+     * If the pool holds k or fewer distinct entrants, all of them win.
+     *
+     * @param pool entrants in waiting-list order (may be any Iterable, e.g. a streamed list)
+     * @param k    number of winners to draw
+     * @return winner / loser partition together with the seed used
+     */
+    public LotteryResult draw(Iterable<String> pool, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Number of winners cannot be negative: " + k);
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        // grows with the pool, so an oversized k costs nothing up front
+        List<String> reservoir = new ArrayList<>();
+        // reservoir entrant -> slot, so duplicates and evictions are O(1)
+        Map<String, Integer> slots = new HashMap<>();
+        Set<String> losers = new LinkedHashSet<>();
+        int seen = 0;
+
+        for (String entrant : pool) {
+            if (entrant == null || slots.containsKey(entrant) || losers.contains(entrant)) {
+                continue;
+            }
+
+            if (seen < k) {
+                reservoir.add(entrant);
+                slots.put(entrant, seen);
+            } else {
+                int j = random.nextInt(seen + 1);
+                if (j < k) {
+                    String evicted = reservoir.set(j, entrant);
+                    slots.remove(evicted);
+                    losers.add(evicted);
+                    slots.put(entrant, j);
+                } else {
+                    losers.add(entrant);
+                }
+            }
+            seen++;
+        }
+
+        Set<String> winners = new LinkedHashSet<>(reservoir);
+
+        // Fisher-Yates over the losers, continuing the same random stream
+        String[] order = losers.toArray(new String[0]);
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            String tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        return new LotteryResult(winners, losers, seed, Arrays.asList(order));
+    }
+
+    /**
+     * Draws up to {@code k} winners without replacement, where each entrant's
+     * chance is proportional to its weight (Efraimidis-Spirakis A-Res).
+     * With equal weights this behaves like a uniform draw.
+     *
+     * @param pool   entrants in waiting-list order
+     * @param k      number of winners to draw
+     * @param weight weight for each entrant; must be positive and finite
+     * @return winner / loser partition together with the seed used
+     */
+    public LotteryResult drawWeighted(Iterable<String> pool, int k, ToDoubleFunction<String> weight) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Number of winners cannot be negative: " + k);
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        // min-heap on key: the root is the weakest current winner
+        PriorityQueue<Keyed> heap = new PriorityQueue<>();
+        Set<String> inHeap = new HashSet<>();
+        Set<String> losers = new LinkedHashSet<>();
+        List<Keyed> losingKeys = new ArrayList<>();
+
+        for (String entrant : pool) {
+            if (entrant == null || inHeap.contains(entrant) || losers.contains(entrant)) {
+                continue;
+            }
+
+            double w = weight.applyAsDouble(entrant);
+            if (!(w > 0) || Double.isInfinite(w)) {
+                throw new IllegalArgumentException("Invalid weight " + w + " for " + entrant);
+            }
+
+            // log(u^(1/w)) = log(u) / w keeps the keys in a safe floating-point range
+            double u = 1.0 - random.nextDouble();
+            Keyed keyed = new Keyed(entrant, Math.log(u) / w);
+
+            if (heap.size() < k) {
+                heap.add(keyed);
+                inHeap.add(entrant);
+            } else if (k > 0 && keyed.key > heap.peek().key) {
+                Keyed evicted = heap.poll();
+                inHeap.remove(evicted.entrant);
+                losers.add(evicted.entrant);
+                losingKeys.add(evicted);
+                heap.add(keyed);
+                inHeap.add(entrant);
+            } else {
+                losers.add(entrant);
+                losingKeys.add(keyed);
+            }
+        }
+
+        // strongest key first, so iteration order is the draw order
+        List<Keyed> ordered = new ArrayList<>(heap);
+        Collections.sort(ordered, Collections.reverseOrder());
+        Set<String> winners = new LinkedHashSet<>();
+        for (Keyed keyed : ordered) {
+            winners.add(keyed.entrant);
+        }
+
+        // losers by descending key is exactly how the weighted draw would continue
+        Collections.sort(losingKeys, Collections.reverseOrder());
+        List<String> replacementOrder = new ArrayList<>(losingKeys.size());
+        for (Keyed keyed : losingKeys) {
+            replacementOrder.add(keyed.entrant);
+        }
+        return new LotteryResult(winners, losers, seed, replacementOrder);
+    }
+
+    /** Entrant paired with its random sampling key. */
+    private static class Keyed implements Comparable<Keyed> {
+        final String entrant;
+        final double key;
+
+        Keyed(String entrant, double key) {
+            this.entrant = entrant;
+            this.key = key;
+        }
+
+        @Override
+        public int compareTo(Keyed other) {
+            return Double.compare(key, other.key);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.aurora.lottery;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * LotteryResult
+ *
+ * Immutable outcome of a single lottery draw produced by {@link LotteryEngine}.
+ *
+ * Holds:
+ *  winners : entrants that were drawn (iteration order = draw order)
+ *  losers  : every other entrant in the pool
+ *  seed    : the seed used for the draw, so the same pool + seed
+ *            always reproduces the same winners
+ *  replacementOrder : the losers in the order they should be promoted
+ *            if a winner declines (see DrawOrderStore)
+ *
+ * Both partitions are set-backed, so membership checks such as
+ * "was this entrant selected?" are O(1) instead of a list scan.
+ */
+public class LotteryResult {
+
+    private final Set<String> winners;
+    private final Set<String> losers;
+    private final long seed;
+    private final List<String> replacementOrder;
+
+    public LotteryResult(Set<String> winners, Set<String> losers, long seed) {
+        this(winners, losers, seed, new ArrayList<>(losers));
+    }
+
+    public LotteryResult(Set<String> winners, Set<String> losers, long seed,
+                         List<String> replacementOrder) {
+        this.winners = Collections.unmodifiableSet(winners);
+        this.losers = Collections.unmodifiableSet(losers);
+        this.seed = seed;
+        this.replacementOrder = Collections.unmodifiableList(replacementOrder);
+    }
+
+    public Set<String> getWinners() { return winners; }
+    public Set<String> getLosers() { return losers; }
+    public long getSeed() { return seed; }
+    public List<String> getReplacementOrder() { return replacementOrder; }
+
+    /** @return total number of distinct entrants that took part in the draw */
+    public int getPoolSize() {
+        return winners.size() + losers.size();
+    }
+
+    /** @return true if the given entrant was drawn as a winner */
+    public boolean isWinner(String entrant) {
+        return winners.contains(entrant);
+    }
+}
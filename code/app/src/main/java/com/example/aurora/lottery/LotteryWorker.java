@@ -0,0 +1,436 @@
+/*
+ * source: Android Developers - "Define work requests" / "Support for long-running workers".
+ * url: https://developer.android.com/develop/background-work/background-tasks/persistent/how-to/long-running
+ * note: LotteryWorker runs as a foreground Worker (setForegroundAsync) so large draws keep
+ *       going with the organizer's screen off, and shows progress in its notification.
+ *
+ * source: Android Developers - "Managing work" (unique work).
+ * url: https://developer.android.com/develop/background-work/background-tasks/persistent/how-to/manage-work#unique-work
+ * note: enqueue() uses one unique work name per event, so a second tap cannot start a parallel draw.
+ *
+ * source: Google Play services - "Tasks.await".
+ * url: https://developers.google.com/android/reference/com/google/android/gms/tasks/Tasks#await(com.google.android.gms.tasks.Task%3CTResult%3E)
+ * note: Used to wait for Firestore reads/writes on the worker thread.
+ */
+
+package com.example.aurora.lottery;
+
+import android.app.Notification;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.content.Context;
+import android.content.pm.ServiceInfo;
+import android.os.Build;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.core.app.NotificationCompat;
+import androidx.work.Data;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.ForegroundInfo;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.example.aurora.R;
+import com.example.aurora.data.EntrantRepository;
+import com.example.aurora.data.EntrantStatus;
+import com.example.aurora.data.EventCardStore;
+import com.example.aurora.notifications.BatchNotificationDispatcher;
+import com.example.aurora.notifications.DispatchReport;
+import com.example.aurora.notifications.NotificationTemplates;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * LotteryWorker
+ *
+ * Runs a lottery in the background so it survives rotation, the organizer
+ * leaving OrganizerActivity, and process death.
+ *
+ * Steps, each checkpointed in the event's "lotteryRun" map (LotteryCheckpoint):
+ *  1. draw      : read the waiting pool once, check it, pick a seed and record
+ *                 it (so a restart redraws identically), then draw from that
+ *                 same pool
+ *  2. persist   : store the winners and the draw order as chunk documents
+ *                 (DrawOrderStore), then update the winner / loser entrant
+ *                 documents in windows, each window one transaction together
+ *                 with the counters and persistedUpTo
+ *  3. notify    : fan out winner / loser notifications in batches, saving
+ *                 how far each list got after every batch
+ *
+ * If the process is killed, WorkManager reruns the same work ID and the
+ * worker resumes from the stored stage instead of drawing again.
+ */
+public class LotteryWorker extends Worker {
+
+    private static final String TAG = "LotteryWorker";
+
+    public static final String KEY_EVENT_ID = "eventId";
+    public static final String KEY_SAMPLE_SIZE = "sampleSize";
+    public static final String KEY_SECOND_CHANCE = "secondChance";
+    public static final String KEY_ORGANIZER_EMAIL = "organizerEmail";
+
+    public static final String KEY_ERROR = "error";
+    public static final String KEY_WINNER_COUNT = "winnerCount";
+    public static final String KEY_FAILED_COUNT = "failedCount";
+
+    private static final String CHANNEL_ID = "lottery_progress";
+    private static final int NOTIFICATION_ID = 4201;
+    private static final int MAX_ATTEMPTS = 5;
+
+    /** Entrant documents updated per transaction while persisting. */
+    private static final int PERSIST_WINDOW = 200;
+
+    private final FirebaseFirestore db = FirebaseFirestore.getInstance();
+    private final EntrantRepository entrants = new EntrantRepository(db);
+    private final EventCardStore cards = new EventCardStore(db);
+
+    public LotteryWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Queues a lottery for the event. Only one lottery per event runs at a time.
+     *
+     * @return the request, so the caller can observe its WorkInfo
+     */
+    public static OneTimeWorkRequest enqueue(Context context, String eventId, int sampleSize,
+                                             boolean secondChance, String organizerEmail) {
+        Data input = new Data.Builder()
+                .putString(KEY_EVENT_ID, eventId)
+                .putInt(KEY_SAMPLE_SIZE, sampleSize)
+                .putBoolean(KEY_SECOND_CHANCE, secondChance)
+                .putString(KEY_ORGANIZER_EMAIL, organizerEmail)
+                .build();
+
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(LotteryWorker.class)
+                .setInputData(input)
+                .build();
+
+        WorkManager.getInstance(context)
+                .enqueueUniqueWork("lottery-" + eventId, ExistingWorkPolicy.KEEP, request);
+        return request;
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        String eventId = getInputData().getString(KEY_EVENT_ID);
+        int sampleSize = getInputData().getInt(KEY_SAMPLE_SIZE, 0);
+        boolean secondChance = getInputData().getBoolean(KEY_SECOND_CHANCE, false);
+        String organizerEmail = getInputData().getString(KEY_ORGANIZER_EMAIL);
+        String runId = getId().toString();
+
+        if (eventId == null) return failure("Missing event.");
+
+        DocumentReference eventRef = db.collection("events").document(eventId);
+
+        try {
+            setForegroundAsync(foregroundInfo("Drawing winners…", 0, 0));
+
+            DocumentSnapshot doc = Tasks.await(eventRef.get());
+            LotteryCheckpoint cp = LotteryCheckpoint.from(doc.get("lotteryRun"));
+
+            // read once: the pool that was checked is the pool that is drawn from
+            List<DocumentSnapshot> pool = null;
+            if (cp == null || !runId.equals(cp.getRunId())) {
+                pool = Tasks.await(waitingPool(eventId));
+                String error = validate(pool, sampleSize);
+                if (error != null) return failure(error);
+
+                cp = LotteryCheckpoint.start(runId, new Random().nextLong(), sampleSize, secondChance);
+                Tasks.await(eventRef.update("lotteryRun", cp.toMap()));
+            }
+
+            if (cp.isDrawn()) {
+                // a restart after the checkpoint was written reads the pool here instead
+                if (pool == null) pool = Tasks.await(waitingPool(eventId));
+                draw(eventRef, cp, pool);
+            }
+
+            if (cp.isPersisting()) {
+                persist(eventRef, cp);
+                // the draw moved many entrants at once; refresh the counts on the list cards
+                Tasks.await(cards.publishCounts(eventId, Tasks.await(entrants.counts(eventId))));
+            }
+
+            int failed = 0;
+            if (cp.isPersisted()) {
+                failed = notifyEntrants(eventRef, eventId, organizerEmail, cp);
+                cp.markNotified();
+                Tasks.await(eventRef.update("lotteryRun.stage", LotteryCheckpoint.STAGE_NOTIFIED));
+            }
+
+            return Result.success(new Data.Builder()
+                    .putInt(KEY_WINNER_COUNT, cp.getWinnerCount())
+                    .putInt(KEY_FAILED_COUNT, failed)
+                    .build());
+
+        } catch (ExecutionException e) {
+            Log.e(TAG, "Lottery step failed, attempt " + getRunAttemptCount(), e);
+            return getRunAttemptCount() + 1 < MAX_ATTEMPTS
+                    ? Result.retry()
+                    : failure("Lottery failed. Please try again.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.retry();
+        }
+    }
+
+    /** @return waiting entrant documents whose key is an email */
+    private Task<List<DocumentSnapshot>> waitingPool(String eventId) {
+        return entrants.entrants(eventId)
+                .whereEqualTo("status", EntrantStatus.WAITING)
+                .get()
+                .continueWith(task -> {
+                    List<DocumentSnapshot> emailsOnly = new ArrayList<>();
+                    for (DocumentSnapshot d : task.getResult().getDocuments()) {
+                        if (d.getId().contains("@")) emailsOnly.add(d);
+                    }
+                    return emailsOnly;
+                });
+    }
+
+    /** Same checks runLottery used to do before drawing. */
+    private static String validate(List<DocumentSnapshot> pool, int sampleSize) {
+        if (pool.isEmpty()) return "No valid email entrants on the waiting list.";
+        if (sampleSize > pool.size()) return "Not enough entrants.";
+        return null;
+    }
+
+    /**
+     * Draws from the given waiting pool with the checkpointed seed, stores the
+     * winners and the draw order and moves the checkpoint to "persisting".
+     * Redrawing after a restart gives the same result as long as the waiting
+     * pool is unchanged.
+     */
+    private void draw(DocumentReference eventRef, LotteryCheckpoint cp, List<DocumentSnapshot> docs)
+            throws ExecutionException, InterruptedException {
+
+        List<String> pool = new ArrayList<>();
+        Map<String, Object> lostRounds = new HashMap<>();
+        for (DocumentSnapshot d : docs) {
+            pool.add(d.getId());
+            lostRounds.put(d.getId(), d.get("lostRounds"));
+        }
+        // ids come back in key order; keep the pool order stable for the seed
+        Collections.sort(pool);
+
+        LotteryEngine engine = new LotteryEngine(cp.getSeed());
+        int k = Math.min(cp.getSampleSize(), pool.size());
+        LotteryResult result = cp.isSecondChance()
+                ? engine.drawWeighted(pool, k, new SecondChanceWeights(lostRounds, null))
+                : engine.draw(pool, k);
+
+        // chunks first, so the persisting stage can always read winners and losers back
+        List<String> winners = new ArrayList<>(result.getWinners());
+        Tasks.await(Tasks.whenAll(
+                DrawOrderStore.saveWinners(db, eventRef.getId(), winners, result.getSeed()),
+                DrawOrderStore.save(db, eventRef.getId(), result.getReplacementOrder(), result.getSeed())));
+
+        cp.markPersisting(winners.size());
+        Tasks.await(eventRef.update("lotteryRun", cp.toMap()));
+    }
+
+    /**
+     * Moves winners to "selected" and bumps the losers' lostRounds, one window
+     * per transaction. Each transaction also bumps a counter shard and
+     * persistedUpTo, so a restart continues exactly after the last window.
+     * Entrants who left or changed state since the draw are skipped.
+     */
+    private void persist(DocumentReference eventRef, LotteryCheckpoint cp)
+            throws ExecutionException, InterruptedException {
+
+        String eventId = eventRef.getId();
+        List<String> winners = Tasks.await(DrawOrderStore.loadWinners(eventRef, cp.getSeed()));
+        List<String> losers = Tasks.await(DrawOrderStore.load(eventRef, cp.getSeed()));
+
+        List<String> all = new ArrayList<>(winners.size() + losers.size());
+        all.addAll(winners);
+        all.addAll(losers);
+
+        for (int start = cp.getPersistedUpTo(); start < all.size(); start += PERSIST_WINDOW) {
+            int from = start;
+            int end = Math.min(start + PERSIST_WINDOW, all.size());
+
+            Tasks.await(db.runTransaction(transaction -> {
+                List<String> window = all.subList(from, end);
+                List<DocumentSnapshot> current = new ArrayList<>(window.size());
+                for (String key : window) {
+                    current.add(transaction.get(entrants.entrant(eventId, key)));
+                }
+
+                Map<String, Long> delta = new HashMap<>();
+                for (int i = 0; i < window.size(); i++) {
+                    if (!EntrantStatus.WAITING.equals(EntrantRepository.statusOf(current.get(i)))) continue;
+
+                    String key = window.get(i);
+                    if (from + i < winners.size()) {
+                        entrants.writeEntrant(transaction, eventId, key,
+                                EntrantStatus.WAITING, EntrantStatus.SELECTED);
+                        EntrantStatus.accumulate(delta, EntrantStatus.WAITING, EntrantStatus.SELECTED);
+                    } else {
+                        transaction.update(entrants.entrant(eventId, key),
+                                "lostRounds", FieldValue.increment(1));
+                    }
+                }
+
+                entrants.counters().increment(transaction, eventId, delta);
+                transaction.update(eventRef, "lotteryRun.persistedUpTo", end);
+                return null;
+            }));
+
+            cp.setPersistedUpTo(end);
+            setForegroundAsync(foregroundInfo("Saving results…", end, all.size()));
+        }
+
+        cp.markPersisted();
+
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("lotterySeed", cp.getSeed());
+        updates.put("lotteryMode", cp.isSecondChance() ? "second_chance" : "uniform");
+        updates.put("lotteryRun", cp.toMap());
+        updates.putAll(DrawOrderStore.cursorFields(losers.size()));
+
+        Tasks.await(eventRef.update(updates));
+    }
+
+    /**
+     * Notifies winners, then losers, resuming each list from its checkpoint.
+     *
+     * @return number of recipients that could not be notified
+     */
+    private int notifyEntrants(DocumentReference eventRef, String eventId,
+                               String organizerEmail, LotteryCheckpoint cp)
+            throws ExecutionException, InterruptedException {
+
+        List<String> winners = Tasks.await(DrawOrderStore.loadWinners(eventRef, cp.getSeed()));
+        List<String> losers = Tasks.await(DrawOrderStore.load(eventRef, cp.getSeed()));
+        int total = winners.size() + losers.size();
+
+        int failed = dispatch(eventRef, winners, cp.getWinnersNotifiedUpTo(),
+                winnerPayload(eventId, organizerEmail),
+                "lotteryRun.winnersNotifiedUpTo", 0, total);
+
+        failed += dispatch(eventRef, losers, cp.getLosersNotifiedUpTo(),
+                notSelectedPayload(eventId, organizerEmail),
+                "lotteryRun.losersNotifiedUpTo", winners.size(), total);
+
+        return failed;
+    }
+
+    /**
+     * Runs one fan-out and blocks until it finishes. After each batch the
+     * checkpoint field is written before the next batch starts.
+     */
+    private int dispatch(DocumentReference eventRef, List<String> recipients, int startIndex,
+                         BatchNotificationDispatcher.Payload payload, String checkpointField,
+                         int offset, int total) throws InterruptedException {
+
+        if (startIndex >= recipients.size()) return 0;
+
+        ExecutorService callbacks = Executors.newSingleThreadExecutor();
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<DispatchReport> last = new AtomicReference<>();
+
+        new BatchNotificationDispatcher(db, callbacks).dispatch(recipients, startIndex, payload,
+                new BatchNotificationDispatcher.Listener() {
+                    @Override
+                    public void onProgress(DispatchReport report) {
+                        try {
+                            Tasks.await(eventRef.update(checkpointField, report.getNotifiedUpTo()));
+                        } catch (ExecutionException e) {
+                            // only costs a few re-sent notifications if we restart here
+                            Log.w(TAG, "Checkpoint write failed", e);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        setForegroundAsync(foregroundInfo("Notifying entrants…",
+                                offset + report.getNotifiedUpTo(), total));
+                    }
+
+                    @Override
+                    public void onComplete(DispatchReport report) {
+                        last.set(report);
+                        done.countDown();
+                    }
+                });
+
+        try {
+            done.await();
+        } finally {
+            callbacks.shutdown();
+        }
+        return last.get().getFailed().size();
+    }
+
+    static BatchNotificationDispatcher.Payload winnerPayload(String eventId, String organizerEmail) {
+        return BatchNotificationDispatcher.Payload.templated(
+                "winner_selected",
+                NotificationTemplates.WINNER_SELECTED,
+                null,
+                eventId,
+                "Winner Selected",
+                organizerEmail
+        );
+    }
+
+    static BatchNotificationDispatcher.Payload notSelectedPayload(String eventId, String organizerEmail) {
+        return BatchNotificationDispatcher.Payload.templated(
+                "not_selected",
+                NotificationTemplates.NOT_SELECTED,
+                null,
+                eventId,
+                "Lottery Result",
+                organizerEmail
+        );
+    }
+
+    private Result failure(String message) {
+        return Result.failure(new Data.Builder().putString(KEY_ERROR, message).build());
+    }
+
+    /** Ongoing, low-priority notification showing how far the run got. */
+    private ForegroundInfo foregroundInfo(String text, int progress, int max) {
+        Context context = getApplicationContext();
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            NotificationChannel channel = new NotificationChannel(
+                    CHANNEL_ID, "Lottery Progress", NotificationManager.IMPORTANCE_LOW);
+            context.getSystemService(NotificationManager.class).createNotificationChannel(channel);
+        }
+
+        Notification notification = new NotificationCompat.Builder(context, CHANNEL_ID)
+                .setContentTitle("Running lottery")
+                .setContentText(text)
+                .setSmallIcon(R.drawable.aurora_logo)
+                .setOngoing(true)
+                .setOnlyAlertOnce(true)
+                .setProgress(max, progress, max == 0)
+                .build();
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            return new ForegroundInfo(NOTIFICATION_ID, notification,
+                    ServiceInfo.FOREGROUND_SERVICE_TYPE_DATA_SYNC);
+        }
+        return new ForegroundInfo(NOTIFICATION_ID, notification);
+    }
+}
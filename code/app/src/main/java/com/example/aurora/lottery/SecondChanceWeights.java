@@ -0,0 +1,61 @@
+package com.example.aurora.lottery;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * SecondChanceWeights
+ *
+ * Weight function for the "second chance" lottery mode.
+ * Every entrant starts at weight 1, and each earlier round they lost
+ * adds {@link #BONUS_PER_LOSS}, so someone who lost once is twice as
+ * likely to be drawn as a first-timer.
+ *
+ * Loss history comes from:
+ *  lossCounts     : entrant -> number of rounds lost (the "lostRounds" field of
+ *                   each entrant document, bumped by LotteryWorker)
+ *  legacyLosers   : old "losersEntrants" list; anyone in it with no count is 1 loss
+ *
+ * Lookups are hash based, so weighting a whole pool stays O(n).
+ */
+public class SecondChanceWeights implements ToDoubleFunction<String> {
+
+    /** Extra weight added for every previous round an entrant lost. */
+    public static final double BONUS_PER_LOSS = 1.0;
+
+    private final Map<String, Long> lossCounts = new HashMap<>();
+    private final Set<String> legacyLosers = new HashSet<>();
+
+    /**
+     * @param lossCounts     entrant -> rounds lost (nullable)
+     * @param legacyLosers   raw "losersEntrants" list from Firestore (nullable)
+     */
+    public SecondChanceWeights(Map<String, ?> lossCounts, Collection<String> legacyLosers) {
+        if (lossCounts != null) {
+            for (Map.Entry<String, ?> e : lossCounts.entrySet()) {
+                if (e.getValue() instanceof Number) {
+                    this.lossCounts.put(e.getKey(), ((Number) e.getValue()).longValue());
+                }
+            }
+        }
+        if (legacyLosers != null) {
+            this.legacyLosers.addAll(legacyLosers);
+        }
+    }
+
+    /** @return number of earlier rounds this entrant lost */
+    public long lossesFor(String entrant) {
+        Long count = lossCounts.get(entrant);
+        if (count != null) return count;
+        return legacyLosers.contains(entrant) ? 1 : 0;
+    }
+
+    @Override
+    public double applyAsDouble(String entrant) {
+        return 1.0 + BONUS_PER_LOSS * lossesFor(entrant);
+    }
+}
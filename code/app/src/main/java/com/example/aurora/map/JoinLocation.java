@@ -6,7 +6,10 @@ package com.example.aurora.map;
  * location where an entrant joined an event’s waiting list.
  *
  * Stored under:
- *      events/{eventId}/waitingLocations/{doc}
+ *      events/{eventId}/waitingLocations/{userKey}
+ *
+ * Written by EntrantRepository.join() in the same transaction as the
+ * entrant document; older entries may still have random document IDs.
  *
  * Fields:
  *  userKey : The email or identifier of the joining user.
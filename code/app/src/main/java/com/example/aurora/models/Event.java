@@ -13,7 +13,10 @@
 package com.example.aurora.models;
 
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Unified Event model that:
@@ -44,6 +47,10 @@ public class Event {
     private String registrationStart;
     private String registrationEnd;
 
+    // parsed once when written (see EventTimes); Firestore Timestamps map to Date
+    private Date startAt;
+    private Long availability;
+
     private String posterUrl;
     private String deepLink;
 
@@ -59,6 +66,9 @@ public class Event {
     private List<String> finalEntrants;
     private List<String> cancelledEntrants;
 
+    // status -> number of entrants; not stored on the event, filled from the counter shards
+    private Map<String, Long> counts;
+
     // Required empty constructor for Firestore
     public Event() {}
 
@@ -192,6 +202,25 @@ public class Event {
         this.deepLink = deepLink;
     }
 
+    // Stored times
+
+    public Date getStartAt() {
+        return startAt;
+    }
+
+    public void setStartAt(Date startAt) {
+        this.startAt = startAt;
+    }
+
+    /** @return weekday + time slot bitmask of the start (EventTimes), or null if unknown */
+    public Long getAvailability() {
+        return availability;
+    }
+
+    public void setAvailability(Long availability) {
+        this.availability = availability;
+    }
+
     // Capacity (new)
 
     public Long getMaxSpots() {
@@ -254,4 +283,21 @@ public class Event {
     public void setCancelledEntrants(List<String> cancelledEntrants) {
         this.cancelledEntrants = cancelledEntrants;
     }
+
+    // Counters
+
+    public Map<String, Long> getCounts() {
+        if (counts == null) counts = new HashMap<>();
+        return counts;
+    }
+
+    public void setCounts(Map<String, Long> counts) {
+        this.counts = counts;
+    }
+
+    /** @return number of entrants in the given status, 0 if unknown */
+    public long countOf(String status) {
+        Long value = getCounts().get(status);
+        return value == null ? 0L : value;
+    }
 }
@@ -1,5 +1,8 @@
 package com.example.aurora.models;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public class NotificationModel {
 
     private String type;
@@ -9,6 +12,8 @@ public class NotificationModel {
     private String userId;
     private long createdAt;
     private String status;
+    private String template;
+    private Map<String, String> params;
 
 
     public NotificationModel() {}
@@ -38,6 +43,19 @@ public class NotificationModel {
         this.status = "pending"; // default
     }
 
+    /**
+     * A notification whose title and message are rendered on the device
+     * from a NotificationTemplates entry, so only the template ID and its
+     * params are stored.
+     */
+    public static NotificationModel templated(String type, String template, Map<String, String> params,
+                                              String eventId, String userId, long createdAt) {
+        NotificationModel nm = new NotificationModel(type, null, null, eventId, userId, createdAt);
+        nm.template = template;
+        nm.params = params;
+        return nm;
+    }
+
     public String getType() { return type; }
     public String getTitle() { return title; }
     public String getMessage() { return message; }
@@ -45,6 +63,29 @@ public class NotificationModel {
     public String getUserId() { return userId; }
     public long getCreatedAt() { return createdAt; }
     public String getStatus() { return status; }
+    public String getTemplate() { return template; }
+    public Map<String, String> getParams() { return params; }
 
     public void setStatus(String status) { this.status = status; }
+
+    /**
+     * @return the Firestore fields of this notification; templated
+     *         notifications carry template and params instead of title and message
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("type", type);
+        if (template != null) {
+            map.put("template", template);
+            map.put("params", params);
+        } else {
+            map.put("title", title);
+            map.put("message", message);
+        }
+        map.put("eventId", eventId);
+        map.put("userId", userId);
+        map.put("createdAt", createdAt);
+        map.put("status", status);
+        return map;
+    }
 }
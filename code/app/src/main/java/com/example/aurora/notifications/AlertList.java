@@ -0,0 +1,102 @@
+package com.example.aurora.notifications;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * AlertList
+ *
+ * In-memory state behind the alerts screen: the pages of personal
+ * notifications loaded so far plus the user's broadcasts, kept in one
+ * map so each Firestore change touches a single entry.
+ *
+ * Sources:
+ *  live window  : newest page, followed with a snapshot listener
+ *  older pages  : fetched once when the user scrolls down
+ *  broadcasts   : replaced as a whole by BroadcastStore's feed
+ *
+ * A document leaving a full live window because a newer one pushed it out
+ * is not a deletion; it stays in the list (see removeFromWindow()).
+ *
+ * @param <T> the UI's alert type
+ */
+public class AlertList<T> {
+
+    private static class Entry<T> {
+        final T value;
+        final long time;
+        final boolean broadcast;
+
+        Entry(T value, long time, boolean broadcast) {
+            this.value = value;
+            this.time = time;
+            this.broadcast = broadcast;
+        }
+    }
+
+    private final Map<String, Entry<T>> entries = new HashMap<>();
+
+    /** Adds or replaces a personal notification (live window or older page). */
+    public void upsert(String id, long time, T value) {
+        entries.put(id, new Entry<>(value, time, false));
+    }
+
+    /**
+     * Handles a REMOVED change from the live window.
+     *
+     * @param windowFull        true if the window still holds its full page size
+     * @param oldestInWindow    time of the oldest document left in the window
+     * @return true if the alert was really deleted and has been removed
+     */
+    public boolean removeFromWindow(String id, boolean windowFull, long oldestInWindow) {
+        Entry<T> entry = entries.get(id);
+        if (entry == null) return false;
+
+        // pushed out past the end of a full window by a newer alert: still exists
+        if (windowFull && entry.time <= oldestInWindow) return false;
+
+        entries.remove(id);
+        return true;
+    }
+
+    /** Removes an alert right away, e.g. after the user dismissed it. */
+    public void remove(String id) {
+        entries.remove(id);
+    }
+
+    /** Replaces every broadcast with the given ones (id -> value, with their times). */
+    public void setBroadcasts(Map<String, T> values, Map<String, Long> times) {
+        Iterator<Map.Entry<String, Entry<T>>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().getValue().broadcast) it.remove();
+        }
+        for (Map.Entry<String, T> e : values.entrySet()) {
+            Long time = times.get(e.getKey());
+            entries.put(e.getKey(), new Entry<>(e.getValue(), time == null ? 0L : time, true));
+        }
+    }
+
+    public boolean contains(String id) {
+        return entries.containsKey(id);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /** @return every alert, newest first (ties by id, so the order is stable) */
+    public List<T> sorted() {
+        List<Map.Entry<String, Entry<T>>> list = new ArrayList<>(entries.entrySet());
+        list.sort((a, b) -> {
+            int byTime = Long.compare(b.getValue().time, a.getValue().time);
+            return byTime != 0 ? byTime : a.getKey().compareTo(b.getKey());
+        });
+
+        List<T> out = new ArrayList<>(list.size());
+        for (Map.Entry<String, Entry<T>> e : list) out.add(e.getValue().value);
+        return out;
+    }
+}
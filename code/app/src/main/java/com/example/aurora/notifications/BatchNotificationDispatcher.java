@@ -0,0 +1,281 @@
+/*
+ * source: Firebase docs - "Transactions and batched writes".
+ * url: https://firebase.google.com/docs/firestore/manage-data/transactions
+ * note: Each window of recipients is committed as one transaction of at most 500 writes
+ *       (a notification, its unread counter increment and a notificationLogs entry per recipient);
+ *       it reads each recipient's coalesced notification document first so it can merge into it.
+ *
+ * source: Firebase docs - "Perform simple and compound queries in Cloud Firestore".
+ * url: https://firebase.google.com/docs/firestore/query-data/queries#in_not-in_and_array-contains-any
+ * note: Recipients are resolved through UserDirectory, which runs whereIn("email", ...) in slices
+ *       of 30 values for users it has not cached yet.
+ */
+
+package com.example.aurora.notifications;
+
+import android.util.Log;
+
+import com.example.aurora.data.UserDirectory;
+import com.example.aurora.data.UserInfo;
+import com.example.aurora.models.NotificationModel;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskExecutors;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * BatchNotificationDispatcher
+ *
+ * Bulk version of FirestoreNotificationHelper.sendIfAllowed + logNotification
+ * for large recipient lists such as lottery results.
+ *
+ * Recipients are handled in windows of RECIPIENTS_PER_BATCH:
+ *  - the window's users are resolved through UserDirectory (parallel
+ *    whereIn queries for the ones it has not cached)
+ *  - notifications (for users who allow them) are merged into each
+ *    user's coalesced document (NotificationCoalescer) and written with
+ *    their unread counter increments and log entries in one transaction
+ *  - the listener gets a progress report after every window
+ *
+ * So n recipients cost about n / 166 commits and n / 30 lookups instead
+ * of 3n sequential round trips, and repeat fan-outs to the same people
+ * (e.g. a re-roll) mostly skip the lookups. A failed lookup or commit
+ * only marks that window's recipients as failed; the run carries on with
+ * the next window.
+ */
+public class BatchNotificationDispatcher {
+
+    private static final String TAG = "BatchNotify";
+
+    /** Firestore caps a transaction (or WriteBatch) at 500 writes. */
+    public static final int MAX_BATCH_WRITES = 500;
+
+    /** One notification, one unread counter increment and one log entry per recipient. */
+    public static final int RECIPIENTS_PER_BATCH = MAX_BATCH_WRITES / 3;
+
+    /**
+     * Receives progress while a fan-out runs.
+     */
+    public interface Listener {
+        /** Called after each window is committed (or failed). */
+        void onProgress(DispatchReport report);
+
+        /** Called once every recipient has been handled. */
+        void onComplete(DispatchReport report);
+    }
+
+    /**
+     * Content shared by every recipient of one fan-out: either literal text
+     * or a NotificationTemplates ID plus its params.
+     */
+    public static class Payload {
+        final String type;
+        final String title;
+        final String message;
+        final String template;
+        final Map<String, String> params;
+        final String eventId;
+        final String logLabel;
+        final String organizerEmail;
+
+        /**
+         * @param type           notification type, e.g. "winner_selected"
+         * @param title          notification title shown to the entrant
+         * @param message        notification body
+         * @param eventId        event the notification is about
+         * @param logLabel       "eventName" written to notificationLogs
+         * @param organizerEmail organizer that triggered the fan-out
+         */
+        public Payload(String type, String title, String message,
+                       String eventId, String logLabel, String organizerEmail) {
+            this(type, title, message, null, null, eventId, logLabel, organizerEmail);
+        }
+
+        private Payload(String type, String title, String message,
+                        String template, Map<String, String> params,
+                        String eventId, String logLabel, String organizerEmail) {
+            this.type = type;
+            this.title = title;
+            this.message = message;
+            this.template = template;
+            this.params = params;
+            this.eventId = eventId;
+            this.logLabel = logLabel;
+            this.organizerEmail = organizerEmail;
+        }
+
+        /**
+         * Payload whose text is rendered on each device from a template, so
+         * every recipient's document only stores the template ID and params.
+         *
+         * @param template one of the NotificationTemplates IDs
+         */
+        public static Payload templated(String type, String template, Map<String, String> params,
+                                        String eventId, String logLabel, String organizerEmail) {
+            return new Payload(type, null, null, template, params, eventId, logLabel, organizerEmail);
+        }
+
+        public String getType() { return type; }
+        public String getTemplate() { return template; }
+
+        /** Adds the title and message, or the template and its params, to a document. */
+        void putContent(Map<String, Object> doc) {
+            if (template != null) {
+                doc.put("template", template);
+                doc.put("params", params);
+            } else {
+                doc.put("title", title);
+                doc.put("message", message);
+            }
+        }
+
+        NotificationModel notification(String email, long createdAt) {
+            return template != null
+                    ? NotificationModel.templated(type, template, params, eventId, email, createdAt)
+                    : new NotificationModel(type, title, message, eventId, email, createdAt);
+        }
+
+        /** The notificationLogs entry for one recipient (or audience). */
+        Map<String, Object> log(String recipient) {
+            return template != null
+                    ? FirestoreNotificationHelper.buildTemplatedLog(
+                            organizerEmail, eventId, logLabel, recipient, template, type)
+                    : FirestoreNotificationHelper.buildLog(
+                            organizerEmail, eventId, logLabel, recipient, message, type);
+        }
+    }
+
+    private final FirebaseFirestore db;
+    private final UserDirectory directory;
+    private final Executor callbackExecutor;
+
+    /** Dispatcher whose listener runs on the main thread. */
+    public BatchNotificationDispatcher(FirebaseFirestore db) {
+        this(db, TaskExecutors.MAIN_THREAD);
+    }
+
+    /**
+     * Dispatcher whose listener runs on the given executor, e.g. a background
+     * thread in a Worker that needs to block while it writes a checkpoint.
+     */
+    public BatchNotificationDispatcher(FirebaseFirestore db, Executor callbackExecutor) {
+        this.db = db;
+        this.directory = UserDirectory.getInstance(db);
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * Sends the payload to every recipient.
+     */
+    public void dispatch(List<String> recipients, Payload payload, Listener listener) {
+        dispatch(recipients, 0, payload, listener);
+    }
+
+    /**
+     * Sends the payload to recipients from {@code startIndex} onwards, so an
+     * interrupted run can resume from its last DispatchReport.getNotifiedUpTo().
+     */
+    public void dispatch(List<String> recipients, int startIndex, Payload payload, Listener listener) {
+        List<String> copy = new ArrayList<>(recipients);
+        dispatchWindow(copy, startIndex, payload, new DispatchReport(copy.size(), startIndex), listener);
+    }
+
+    private void dispatchWindow(List<String> recipients, int from, Payload payload,
+                                DispatchReport report, Listener listener) {
+        if (from >= recipients.size()) {
+            listener.onComplete(report);
+            return;
+        }
+
+        int to = Math.min(recipients.size(), from + RECIPIENTS_PER_BATCH);
+        List<String> window = new ArrayList<>(recipients.subList(from, to));
+
+        directory.resolve(window).addOnCompleteListener(callbackExecutor, lookup -> {
+
+            if (!lookup.isSuccessful()) {
+                Log.e(TAG, "User lookup failed", lookup.getException());
+                report.recordFailed(window);
+                report.advanceTo(to);
+                listener.onProgress(report);
+                dispatchWindow(recipients, to, payload, report, listener);
+                return;
+            }
+
+            Map<String, UserInfo> users = lookup.getResult();
+            List<String> addresses = new ArrayList<>();
+            List<Map<String, Object>> notifications = new ArrayList<>();
+            List<Map<String, Object>> logs = new ArrayList<>();
+            List<String> written = new ArrayList<>();
+            int allowedCount = 0;
+            int skippedCount = 0;
+
+            Set<String> seen = new HashSet<>();
+            for (String email : window) {
+                if (!seen.add(email)) continue;
+
+                UserInfo user = users.get(email);
+                if (user == null) {
+                    skippedCount++;
+                    continue;
+                }
+                String address = user.getEmail() != null ? user.getEmail() : email;
+
+                if (user.isNotificationsEnabled()) {
+                    NotificationModel nm = payload.notification(address, System.currentTimeMillis());
+                    addresses.add(address);
+                    notifications.add(nm.toMap());
+                    allowedCount++;
+                } else {
+                    skippedCount++;
+                }
+
+                logs.add(payload.log(address));
+                written.add(email);
+            }
+
+            // built outside the transaction so a retried attempt writes the same documents
+            List<DocumentReference> targets = new ArrayList<>();
+            for (int i = 0; i < addresses.size(); i++) {
+                targets.add(UnreadCounter.coalescedRef(db, addresses.get(i), notifications.get(i)));
+            }
+            List<DocumentReference> logRefs = new ArrayList<>();
+            for (int i = 0; i < logs.size(); i++) logRefs.add(db.collection("notificationLogs").document());
+
+            Task<Void> commitTask = db.runTransaction(tx -> {
+                List<DocumentSnapshot> current = new ArrayList<>();
+                for (DocumentReference target : targets) current.add(tx.get(target));
+
+                for (int i = 0; i < targets.size(); i++) {
+                    DocumentSnapshot doc = current.get(i);
+                    UnreadCounter.coalesce(tx, db, addresses.get(i), targets.get(i),
+                            doc.exists() ? doc.getData() : null, notifications.get(i));
+                }
+                for (int i = 0; i < logs.size(); i++) tx.set(logRefs.get(i), logs.get(i));
+                return null;
+            });
+
+            int delivered = allowedCount;
+            int skipped = skippedCount;
+            commitTask.addOnCompleteListener(callbackExecutor, commit -> {
+                if (commit.isSuccessful()) {
+                    report.recordDelivered(delivered);
+                    report.recordSkipped(skipped);
+                } else {
+                    Log.e(TAG, "Window commit failed", commit.getException());
+                    report.recordFailed(written);
+                }
+                report.advanceTo(to);
+                listener.onProgress(report);
+                dispatchWindow(recipients, to, payload, report, listener);
+            });
+        });
+    }
+}
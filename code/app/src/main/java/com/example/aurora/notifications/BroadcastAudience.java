@@ -0,0 +1,40 @@
+package com.example.aurora.notifications;
+
+import com.example.aurora.data.EntrantStatus;
+
+/**
+ * BroadcastAudience
+ *
+ * Decides on the client whether a broadcasts/{id} document belongs in a
+ * user's alert feed, given the user's membership in the broadcast's event.
+ *
+ * A broadcast is shown when:
+ *  the user's current status in the event equals the broadcast's audience
+ *  the user joined the event before the broadcast was sent
+ *    (people who join later do not get older messages)
+ *  the user has not dismissed it
+ */
+public class BroadcastAudience {
+
+    /** Audiences an organizer can address; same values as the entrant statuses. */
+    public static boolean isValid(String audience) {
+        return EntrantStatus.WAITING.equals(audience)
+                || EntrantStatus.SELECTED.equals(audience)
+                || EntrantStatus.CANCELLED.equals(audience)
+                || EntrantStatus.FINAL.equals(audience);
+    }
+
+    /**
+     * @param audience   broadcast's target status
+     * @param status     user's status in the event (EntrantStatus.NONE if not a member)
+     * @param joinedAt   when the user joined the event, ms (0 if unknown)
+     * @param sentAt     when the broadcast was written, ms
+     * @param dismissed  true if the user dismissed this broadcast
+     */
+    public static boolean matches(String audience, String status, long joinedAt,
+                                  long sentAt, boolean dismissed) {
+        if (dismissed || !isValid(audience)) return false;
+        if (!audience.equals(status)) return false;
+        return joinedAt <= sentAt;
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * source: Firebase docs - "Fan-out" discussion in "Choose a data structure".
+ * url: https://firebase.google.com/docs/firestore/manage-data/structure-data
+ * note: Instead of fanning out one notification per entrant on write, the organizer writes one
+ *       broadcasts/{id} document and each client expands it through its own memberships on read.
+ *
+ * source: Firebase docs - "Update fields in nested objects".
+ * url: https://firebase.google.com/docs/firestore/manage-data/add-data#update_fields_in_nested_objects
+ * note: Read / dismiss state is merged into one broadcastReceipts/{userKey} document per user,
+ *       created the first time the user touches a broadcast.
+ */
+
+package com.example.aurora.notifications;
+
+import com.example.aurora.data.EntrantRepository;
+import com.example.aurora.data.OutboundQueue;
+import com.example.aurora.utils.Batching;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * BroadcastStore
+ *
+ * Audience notifications: one document per message instead of one per
+ * recipient, so notifying a 10k waiting list costs two writes (the
+ * broadcast and its notificationLogs entry).
+ *
+ * Layout:
+ *  broadcasts/{id}              : { eventId, eventName, audience, type, title, message
+ *                                   (or template, params), createdAt, sentByOrganizerEmail }
+ *  broadcastReceipts/{userKey}  : { read: { broadcastId: ms }, dismissed: { broadcastId: ms } }
+ *
+ * Clients find their broadcasts through their entrant documents and keep
+ * only those whose audience matches their status (BroadcastAudience).
+ */
+public class BroadcastStore {
+
+    public static final String COLLECTION = "broadcasts";
+    public static final String RECEIPTS = "broadcastReceipts";
+
+    /** Firestore caps whereIn() at 30 values. */
+    private static final int WHERE_IN_LIMIT = 30;
+
+    /**
+     * Receives a user's current broadcast feed.
+     */
+    public interface Listener {
+        /**
+         * @param broadcasts broadcasts addressed to the user, newest first
+         * @param readIds    ids of broadcasts the user has already seen
+         */
+        void onBroadcasts(List<DocumentSnapshot> broadcasts, Set<String> readIds);
+    }
+
+    /**
+     * Sends the payload to everyone in the given audience of the payload's event.
+     * Goes through OutboundQueue when it is running, so the task completes
+     * as soon as the broadcast is stored on the device.
+     *
+     * @param audience one of waiting, selected, cancelled, final
+     */
+    public static Task<Void> send(FirebaseFirestore db, String audience,
+                                  BatchNotificationDispatcher.Payload payload) {
+        if (!BroadcastAudience.isValid(audience)) {
+            throw new IllegalArgumentException("Unknown audience: " + audience);
+        }
+
+        Map<String, Object> broadcast = new HashMap<>();
+        broadcast.put("eventId", payload.eventId);
+        broadcast.put("eventName", payload.logLabel);
+        broadcast.put("audience", audience);
+        broadcast.put("type", payload.type);
+        payload.putContent(broadcast);
+        broadcast.put("createdAt", System.currentTimeMillis());
+        broadcast.put("sentByOrganizerEmail", payload.organizerEmail);
+
+        Map<String, Object> log = payload.log("All " + audience + " entrants");
+
+        // offline: queue both and report success right away; they go out once online
+        OutboundQueue queue = OutboundQueue.getInstance();
+        if (queue != null) {
+            queue.enqueue(COLLECTION, broadcast);
+            queue.enqueue("notificationLogs", log);
+            return Tasks.forResult(null);
+        }
+
+        WriteBatch batch = db.batch();
+        batch.set(db.collection(COLLECTION).document(), broadcast);
+        batch.set(db.collection("notificationLogs").document(), log);
+        return batch.commit();
+    }
+
+    /**
+     * Hides a broadcast from the user's feed.
+     */
+    public static Task<Void> dismiss(FirebaseFirestore db, String userKey, String broadcastId) {
+        return touch(db, userKey, "dismissed", Collections.singletonList(broadcastId));
+    }
+
+    /**
+     * Records that the user has seen the given broadcasts.
+     */
+    public static Task<Void> markRead(FirebaseFirestore db, String userKey, Collection<String> broadcastIds) {
+        return touch(db, userKey, "read", broadcastIds);
+    }
+
+    private static Task<Void> touch(FirebaseFirestore db, String userKey, String field,
+                                    Collection<String> broadcastIds) {
+        Map<String, Object> stamps = new HashMap<>();
+        long now = System.currentTimeMillis();
+        for (String id : broadcastIds) stamps.put(id, now);
+
+        Map<String, Object> update = new HashMap<>();
+        update.put(field, stamps);
+        return db.collection(RECEIPTS).document(userKey).set(update, SetOptions.merge());
+    }
+
+    /**
+     * Listens to the broadcasts addressed to a user. Memberships are read
+     * once; broadcasts and the user's receipts are followed live.
+     *
+     * @return registration that stops every underlying listener
+     */
+    public static ListenerRegistration listenForUser(FirebaseFirestore db, String userKey, Listener listener) {
+        Feed feed = new Feed(listener);
+
+        feed.add(db.collection(RECEIPTS).document(userKey).addSnapshotListener((doc, error) -> {
+            if (error != null) return;
+            feed.setReceipts(keysOf(doc, "read"), keysOf(doc, "dismissed"));
+        }));
+
+        new EntrantRepository(db).forUser(userKey).addOnSuccessListener(snap -> {
+            if (feed.removed) return;
+
+            for (DocumentSnapshot entrant : snap.getDocuments()) {
+                String eventId = EntrantRepository.eventIdOf(entrant);
+                Timestamp joinedAt = entrant.getTimestamp("joinedAt");
+                feed.memberships.put(eventId, new Membership(
+                        EntrantRepository.statusOf(entrant),
+                        joinedAt == null ? 0L : joinedAt.toDate().getTime()));
+            }
+
+            List<List<String>> slices = Batching.partition(
+                    new ArrayList<>(feed.memberships.keySet()), WHERE_IN_LIMIT);
+            for (int i = 0; i < slices.size(); i++) {
+                int slice = i;
+                feed.add(db.collection(COLLECTION)
+                        .whereIn("eventId", slices.get(i))
+                        .addSnapshotListener((result, error) -> {
+                            if (error != null || result == null) return;
+                            feed.setSlice(slice, result.getDocuments());
+                        }));
+            }
+        });
+
+        return feed;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<String> keysOf(DocumentSnapshot doc, String field) {
+        Object value = doc == null ? null : doc.get(field);
+        return value instanceof Map ? new HashSet<>(((Map<String, Object>) value).keySet()) : new HashSet<>();
+    }
+
+    /** A user's status and join time in one event. */
+    private static class Membership {
+        final String status;
+        final long joinedAt;
+
+        Membership(String status, long joinedAt) {
+            this.status = status;
+            this.joinedAt = joinedAt;
+        }
+    }
+
+    /**
+     * Combines the receipt listener and the broadcast listeners of one user
+     * and emits the filtered feed whenever any of them changes.
+     */
+    private static class Feed implements ListenerRegistration {
+        private final Listener listener;
+        private final List<ListenerRegistration> registrations = new ArrayList<>();
+        private final Map<String, Membership> memberships = new HashMap<>();
+        private final Map<Integer, List<DocumentSnapshot>> slices = new HashMap<>();
+        private Set<String> read = new HashSet<>();
+        private Set<String> dismissed = new HashSet<>();
+        private boolean removed;
+
+        Feed(Listener listener) {
+            this.listener = listener;
+        }
+
+        void add(ListenerRegistration registration) {
+            if (removed) registration.remove();
+            else registrations.add(registration);
+        }
+
+        void setReceipts(Set<String> read, Set<String> dismissed) {
+            this.read = read;
+            this.dismissed = dismissed;
+            emit();
+        }
+
+        void setSlice(int index, List<DocumentSnapshot> docs) {
+            slices.put(index, docs);
+            emit();
+        }
+
+        private void emit() {
+            if (removed) return;
+
+            List<DocumentSnapshot> visible = new ArrayList<>();
+            for (List<DocumentSnapshot> docs : slices.values()) {
+                for (DocumentSnapshot doc : docs) {
+                    Membership member = memberships.get(doc.getString("eventId"));
+                    Long sentAt = doc.getLong("createdAt");
+                    if (member == null || sentAt == null) continue;
+
+                    if (BroadcastAudience.matches(doc.getString("audience"), member.status,
+                            member.joinedAt, sentAt, dismissed.contains(doc.getId()))) {
+                        visible.add(doc);
+                    }
+                }
+            }
+            visible.sort((a, b) -> Long.compare(
+                    b.getLong("createdAt"), a.getLong("createdAt")));
+            listener.onBroadcasts(visible, new HashSet<>(read));
+        }
+
+        @Override
+        public void remove() {
+            removed = true;
+            for (ListenerRegistration registration : registrations) registration.remove();
+            registrations.clear();
+        }
+    }
+}
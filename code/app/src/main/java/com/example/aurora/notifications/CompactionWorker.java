@@ -0,0 +1,346 @@
+/*
+ * source: Android Developers - "Schedule periodic work".
+ * url: https://developer.android.com/develop/background-work/background-tasks/persistent/getting-started/define-work#schedule_periodic_work
+ * note: schedule() keeps one unique daily job per device; KEEP leaves an already scheduled job alone.
+ *
+ * source: Firebase docs - "Delete data from Cloud Firestore" (delete collections).
+ * url: https://firebase.google.com/docs/firestore/manage-data/delete-data#collections
+ * note: Old documents are read in small pages and deleted in batches, so memory stays bounded
+ *       however large the backlog is.
+ *
+ * source: Firebase docs - "Transactions and batched writes".
+ * url: https://firebase.google.com/docs/firestore/manage-data/transactions
+ * note: Each page's rollup increments and its deletes are one batch, so a retried page cannot be
+ *       counted twice. A lease document taken in a transaction keeps two devices from compacting at once.
+ */
+
+package com.example.aurora.notifications;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CompactionWorker
+ *
+ * Daily retention job that keeps the hot collections small:
+ *  notifications     older than notificationDays are moved into
+ *                    notificationArchive/{email}/months/{yyyy-MM}
+ *                    (items[] + count) and their unread counters decremented
+ *  notificationLogs  older than logDays are folded into
+ *                    notificationLogDaily/{yyyy-MM-dd} (total, types, events)
+ *  logs              older than logDays are folded into logDaily/{yyyy-MM-dd}
+ *
+ * Raw documents are deleted in the same batch as their rollup, page by
+ * page. Running totals of everything compacted are kept in
+ * maintenance/compaction next to the lease, so the admin dashboard can
+ * still show all-time counts.
+ *
+ * Scheduled from AdminActivity, so only admin devices do this work.
+ */
+public class CompactionWorker extends Worker {
+
+    private static final String TAG = "Compaction";
+    private static final String UNIQUE_NAME = "notification-compaction";
+
+    public static final String KEY_NOTIFICATION_DAYS = "notificationDays";
+    public static final String KEY_LOG_DAYS = "logDays";
+
+    public static final int DEFAULT_NOTIFICATION_DAYS = 30;
+    public static final int DEFAULT_LOG_DAYS = 14;
+
+    public static final String ARCHIVE = "notificationArchive";
+    public static final String LOG_DAILY = "notificationLogDaily";
+    public static final String ACTIVITY_DAILY = "logDaily";
+
+    /** maintenance/compaction: lease + all-time totals. */
+    public static final String STATE_COLLECTION = "maintenance";
+    public static final String STATE_DOC = "compaction";
+
+    /** Per notification: delete + archive write + counter decrement, plus the state doc. */
+    private static final int NOTIFICATION_PAGE = 160;
+
+    /** Per log: delete + at most one daily doc, plus the state doc. */
+    private static final int LOG_PAGE = 240;
+
+    private static final long LEASE_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+    private final FirebaseFirestore db = FirebaseFirestore.getInstance();
+
+    public CompactionWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Schedules the daily job with the default retention.
+     */
+    public static void schedule(Context context) {
+        schedule(context, DEFAULT_NOTIFICATION_DAYS, DEFAULT_LOG_DAYS);
+    }
+
+    /**
+     * Schedules the daily job.
+     *
+     * @param notificationDays days personal notifications stay in "notifications"
+     * @param logDays          days raw entries stay in "notificationLogs" and "logs"
+     */
+    public static void schedule(Context context, int notificationDays, int logDays) {
+        Data input = new Data.Builder()
+                .putInt(KEY_NOTIFICATION_DAYS, notificationDays)
+                .putInt(KEY_LOG_DAYS, logDays)
+                .build();
+
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(
+                CompactionWorker.class, 1, TimeUnit.DAYS)
+                .setInputData(input)
+                .setConstraints(new Constraints.Builder()
+                        .setRequiredNetworkType(NetworkType.UNMETERED)
+                        .setRequiresBatteryNotLow(true)
+                        .build())
+                .build();
+
+        WorkManager.getInstance(context)
+                .enqueueUniquePeriodicWork(UNIQUE_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        long now = System.currentTimeMillis();
+        int notificationDays = getInputData().getInt(KEY_NOTIFICATION_DAYS, DEFAULT_NOTIFICATION_DAYS);
+        int logDays = getInputData().getInt(KEY_LOG_DAYS, DEFAULT_LOG_DAYS);
+
+        try {
+            if (!acquireLease(now)) {
+                Log.d(TAG, "Another device holds the compaction lease");
+                return Result.success();
+            }
+
+            long notificationCutoff = Rollups.cutoff(now, notificationDays);
+            long logCutoff = Rollups.cutoff(now, logDays);
+
+            // legacy organizer notifications only carry "timestamp"
+            int archived = archiveNotifications("createdAt", notificationCutoff)
+                    + archiveNotifications("timestamp", notificationCutoff);
+            int logs = rollUp("notificationLogs", LOG_DAILY, "archivedNotificationLogs",
+                    logCutoff, logCutoff);
+            int activity = rollUp("logs", ACTIVITY_DAILY, "archivedActivityLogs",
+                    new Timestamp(new Date(logCutoff)), logCutoff);
+
+            releaseLease(now);
+            Log.d(TAG, "Archived " + archived + " notifications, " + logs
+                    + " notification logs, " + activity + " activity logs");
+            return isStopped() ? Result.retry() : Result.success();
+
+        } catch (ExecutionException e) {
+            Log.e(TAG, "Compaction failed, will retry", e);
+            return Result.retry();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.retry();
+        }
+    }
+
+    private DocumentReference state() {
+        return db.collection(STATE_COLLECTION).document(STATE_DOC);
+    }
+
+    /**
+     * Takes the lease unless another device holds an unexpired one.
+     */
+    private boolean acquireLease(long now) throws ExecutionException, InterruptedException {
+        return Tasks.await(db.runTransaction(tx -> {
+            DocumentSnapshot current = tx.get(state());
+            Long until = current.getLong("leaseUntil");
+            if (until != null && until > now) return false;
+
+            Map<String, Object> lease = new HashMap<>();
+            lease.put("leaseUntil", now + LEASE_MILLIS);
+            tx.set(state(), lease, SetOptions.merge());
+            return true;
+        }));
+    }
+
+    private void releaseLease(long now) throws ExecutionException, InterruptedException {
+        Map<String, Object> done = new HashMap<>();
+        done.put("leaseUntil", 0L);
+        done.put("lastRunAt", now);
+        Tasks.await(state().set(done, SetOptions.merge()));
+    }
+
+    /**
+     * Moves notifications whose timeField is before the cutoff into the
+     * per-user monthly archive, one page per batch.
+     *
+     * @return number of notifications archived
+     */
+    private int archiveNotifications(String timeField, long cutoff)
+            throws ExecutionException, InterruptedException {
+        int total = 0;
+
+        while (!isStopped()) {
+            List<DocumentSnapshot> page = Tasks.await(db.collection("notifications")
+                    .whereLessThan(timeField, cutoff)
+                    .orderBy(timeField, Query.Direction.ASCENDING)
+                    .limit(NOTIFICATION_PAGE)
+                    .get()).getDocuments();
+            if (page.isEmpty()) break;
+
+            Map<String, List<Map<String, Object>>> archives = new HashMap<>();
+            Map<String, Long> perUser = new HashMap<>();
+            WriteBatch batch = db.batch();
+
+            for (DocumentSnapshot doc : page) {
+                batch.delete(doc.getReference());
+
+                String email = doc.getString("userId");
+                Long time = doc.getLong(timeField);
+                if (email == null || time == null) continue;
+
+                archives.computeIfAbsent(email + "\n" + Rollups.month(time), k -> new ArrayList<>())
+                        .add(archiveItem(doc, time));
+                perUser.merge(email, 1L, Long::sum);
+            }
+
+            for (Map.Entry<String, List<Map<String, Object>>> e : archives.entrySet()) {
+                String[] key = e.getKey().split("\n", 2);
+                Map<String, Object> month = new HashMap<>();
+                month.put("userId", key[0]);
+                month.put("month", key[1]);
+                month.put("count", FieldValue.increment(e.getValue().size()));
+                month.put("items", FieldValue.arrayUnion(e.getValue().toArray()));
+                batch.set(db.collection(ARCHIVE).document(key[0])
+                        .collection("months").document(key[1]), month, SetOptions.merge());
+            }
+            for (Map.Entry<String, Long> e : perUser.entrySet()) {
+                UnreadCounter.removed(batch, db, e.getKey(), e.getValue());
+            }
+            batch.set(state(), total("archivedNotifications", page.size()), SetOptions.merge());
+
+            Tasks.await(batch.commit());
+            total += page.size();
+            if (page.size() < NOTIFICATION_PAGE) break;
+        }
+        return total;
+    }
+
+    private static Map<String, Object> archiveItem(DocumentSnapshot doc, long time) {
+        Map<String, Object> item = new HashMap<>();
+        item.put("id", doc.getId());
+        item.put("type", doc.getString("type"));
+        // templated notifications stay templated in the archive
+        if (doc.getString("template") != null) {
+            item.put("template", doc.getString("template"));
+            item.put("params", doc.get("params"));
+        } else {
+            item.put("title", doc.getString("title"));
+            item.put("message", doc.getString("message"));
+        }
+        if (doc.get("items") != null) {
+            item.put("count", doc.get("count"));
+            item.put("items", doc.get("items"));
+        }
+        item.put("eventId", doc.getString("eventId"));
+        item.put("createdAt", time);
+        return item;
+    }
+
+    /**
+     * Folds entries of a log collection older than the cutoff into daily
+     * aggregate documents and deletes them, one page per batch.
+     *
+     * @param cutoff       value compared against "timestamp" (ms or Timestamp, as stored)
+     * @param cutoffMillis the same cutoff in milliseconds
+     * @return number of entries rolled up
+     */
+    private int rollUp(String collection, String dailyCollection, String totalField,
+                       Object cutoff, long cutoffMillis)
+            throws ExecutionException, InterruptedException {
+        int total = 0;
+
+        while (!isStopped()) {
+            List<DocumentSnapshot> page = Tasks.await(db.collection(collection)
+                    .whereLessThan("timestamp", cutoff)
+                    .orderBy("timestamp", Query.Direction.ASCENDING)
+                    .limit(LOG_PAGE)
+                    .get()).getDocuments();
+            if (page.isEmpty()) break;
+
+            Rollups.DailyTally tally = new Rollups.DailyTally();
+            WriteBatch batch = db.batch();
+
+            for (DocumentSnapshot doc : page) {
+                batch.delete(doc.getReference());
+
+                String type = doc.getString("notificationType");
+                if (type == null) type = doc.getString("type");
+                long time = millisOf(doc.get("timestamp"), cutoffMillis);
+                tally.add(time, type, doc.getString("eventId"));
+            }
+
+            for (Map.Entry<String, Rollups.Day> e : tally.getDays().entrySet()) {
+                Rollups.Day day = e.getValue();
+                Map<String, Object> daily = new HashMap<>();
+                daily.put("day", e.getKey());
+                daily.put("total", FieldValue.increment(day.getTotal()));
+                daily.put("types", increments(day.getTypes()));
+                daily.put("events", increments(day.getEvents()));
+                batch.set(db.collection(dailyCollection).document(e.getKey()), daily, SetOptions.merge());
+            }
+            batch.set(state(), total(totalField, page.size()), SetOptions.merge());
+
+            Tasks.await(batch.commit());
+            total += page.size();
+            if (page.size() < LOG_PAGE) break;
+        }
+        return total;
+    }
+
+    private static Map<String, Object> increments(Map<String, Long> counts) {
+        Map<String, Object> out = new HashMap<>();
+        for (Map.Entry<String, Long> e : counts.entrySet()) {
+            out.put(e.getKey(), FieldValue.increment(e.getValue()));
+        }
+        return out;
+    }
+
+    private static Map<String, Object> total(String field, long delta) {
+        Map<String, Object> out = new HashMap<>();
+        out.put(field, FieldValue.increment(delta));
+        return out;
+    }
+
+    /** "timestamp" is a Long in notificationLogs and a server Timestamp in logs. */
+    private static long millisOf(Object raw, long fallback) {
+        if (raw instanceof Long) return (Long) raw;
+        if (raw instanceof Timestamp) return ((Timestamp) raw).toDate().getTime();
+        return fallback;
+    }
+}
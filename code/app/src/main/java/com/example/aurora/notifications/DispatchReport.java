@@ -0,0 +1,58 @@
+package com.example.aurora.notifications;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * DispatchReport
+ *
+ * Running totals for a bulk notification fan-out (see BatchNotificationDispatcher).
+ *
+ * Tracks:
+ *  total        : recipients in the run
+ *  delivered    : notifications written (user exists and has notifications enabled)
+ *  skipped      : recipients with no user document or notifications turned off
+ *  failed       : recipients whose lookup or batch commit failed
+ *  notifiedUpTo : every recipient before this index has been handled,
+ *                 so a resumed run can start from here
+ */
+public class DispatchReport {
+
+    private final int total;
+    private int delivered;
+    private int skipped;
+    private int notifiedUpTo;
+    private final List<String> failed = new ArrayList<>();
+
+    public DispatchReport(int total, int startIndex) {
+        this.total = total;
+        this.notifiedUpTo = startIndex;
+    }
+
+    public void recordDelivered(int count) { delivered += count; }
+    public void recordSkipped(int count) { skipped += count; }
+    public void recordFailed(Collection<String> recipients) { failed.addAll(recipients); }
+    public void advanceTo(int index) { notifiedUpTo = Math.max(notifiedUpTo, index); }
+
+    public int getTotal() { return total; }
+    public int getDelivered() { return delivered; }
+    public int getSkipped() { return skipped; }
+    public int getNotifiedUpTo() { return notifiedUpTo; }
+    public List<String> getFailed() { return Collections.unmodifiableList(failed); }
+
+    public boolean isComplete() { return notifiedUpTo >= total; }
+    public boolean hasFailures() { return !failed.isEmpty(); }
+
+    /** @return fraction of recipients handled so far, from 0 to 1 */
+    public double getProgress() {
+        return total == 0 ? 1.0 : (double) notifiedUpTo / total;
+    }
+
+    /** Short summary for a Toast, e.g. "Notified 480 of 500 (20 failed)". */
+    public String summary() {
+        String text = "Notified " + delivered + " of " + total;
+        return hasFailures() ? text + " (" + failed.size() + " failed)" : text;
+    }
+}
@@ -5,7 +5,8 @@
  *
  * source: Firebase docs — "Add data to Cloud Firestore".
  * url: https://firebase.google.com/docs/firestore/manage-data/add-data
- * note: Used for db.collection("notifications").add(nm) to write new alerts to the database.
+ * note: New alerts and logs are queued in OutboundQueue, which writes each notification together
+ *       with the recipient's unread counter increment once the device is online.
  *
  * source: Android Developers — "Log".
  * url: https://developer.android.com/reference/android/util/Log
@@ -14,6 +15,7 @@
  * source: Firebase docs — "Get data with Cloud Firestore".
  * url: https://firebase.google.com/docs/firestore/query-data/get-data
  * note: Used for checking if a user exists and if their notifications are enabled before sending.
+ *       Users are resolved through the shared UserDirectory cache, so a recipient costs at most one lookup.
  */
 
 
@@ -21,12 +23,10 @@ package com.example.aurora.notifications;
 
 import android.util.Log;
 
+import com.example.aurora.data.OutboundQueue;
+import com.example.aurora.data.UserDirectory;
 import com.example.aurora.models.NotificationModel;
-import com.google.firebase.firestore.CollectionReference;
-import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FieldPath;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.Query;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -36,22 +36,15 @@ import java.util.Map;
  */
 public class FirestoreNotificationHelper {
 
+    /**
+     * Writes the notification if the recipient exists and has notifications enabled.
+     */
     public static void sendIfAllowed(FirebaseFirestore db, String email, NotificationModel nm) {
 
-        db.collection("users")
-                .whereEqualTo("email", email)
-                .limit(1)
-                .get()
-                .addOnSuccessListener(snapshot -> {
-
-                    if (snapshot.isEmpty()) return;
-
-                    DocumentSnapshot userDoc = snapshot.getDocuments().get(0);
-
-                    Boolean enabled = userDoc.getBoolean("entrant_notifications_enabled");
-
-                    if (enabled == null || enabled) {
-                        db.collection("notifications").add(nm);
+        UserDirectory.getInstance(db).resolve(email)
+                .addOnSuccessListener(user -> {
+                    if (user != null && user.isNotificationsEnabled()) {
+                        write(db, nm.getUserId(), nm.toMap());
                     }
                 });
     }
@@ -72,40 +65,8 @@ public class FirestoreNotificationHelper {
                                                    String eventId,
                                                    String organizerEmail) {
 
-        CollectionReference users = db.collection("users");
-
-        Query query = userIdentifier.contains("@")
-                ? users.whereEqualTo("email", userIdentifier)
-                : users.whereEqualTo(FieldPath.documentId(), userIdentifier);
-
-        query.get().addOnSuccessListener(snapshot -> {
-
-            if (snapshot.isEmpty()) return;
-
-            String email = snapshot.getDocuments().get(0).getString("email");
-
-            NotificationModel nm = new NotificationModel(
-                    "waiting_list_info",
-                    "Waiting List Update",
-                    "You are currently on the waiting list for " + eventName,
-                    eventId,
-                    email,
-                    System.currentTimeMillis()
-            );
-
-            sendIfAllowed(db, email, nm);
-
-            logNotification(
-                    db,
-                    organizerEmail,
-                    eventId,
-                    eventName,
-                    email,
-                    "Waiting list update sent",
-                    "waiting_list_info"
-            );
-
-        });
+        sendTemplateToUser(db, userIdentifier, eventId, eventName, organizerEmail,
+                "waiting_list_info", NotificationTemplates.WAITING_LIST);
     }
 
     /**
@@ -123,39 +84,8 @@ public class FirestoreNotificationHelper {
                                                     String eventId,
                                                     String organizerEmail) {
 
-        CollectionReference users = db.collection("users");
-
-        Query query = userIdentifier.contains("@")
-                ? users.whereEqualTo("email", userIdentifier)
-                : users.whereEqualTo(FieldPath.documentId(), userIdentifier);
-
-        query.get().addOnSuccessListener(snapshot -> {
-
-            if (snapshot.isEmpty()) return;
-
-            String email = snapshot.getDocuments().get(0).getString("email");
-
-            NotificationModel nm = new NotificationModel(
-                    "selected_list_info",
-                    "Selected Entrant Update",
-                    "You have been selected for " + eventName,
-                    eventId,
-                    email,
-                    System.currentTimeMillis()
-            );
-
-            sendIfAllowed(db, email, nm);
-
-            logNotification(
-                    db,
-                    organizerEmail,
-                    eventId,
-                    eventName,
-                    email,
-                    "Selected entrant notification sent",
-                    "selected_list_info"
-            );
-        });
+        sendTemplateToUser(db, userIdentifier, eventId, eventName, organizerEmail,
+                "selected_list_info", NotificationTemplates.SELECTED_LIST);
     }
 
     /**
@@ -173,39 +103,8 @@ public class FirestoreNotificationHelper {
                                                  String eventId,
                                                  String organizerEmail) {
 
-        CollectionReference users = db.collection("users");
-
-        Query query = userIdentifier.contains("@")
-                ? users.whereEqualTo("email", userIdentifier)
-                : users.whereEqualTo(FieldPath.documentId(), userIdentifier);
-
-        query.get().addOnSuccessListener(snapshot -> {
-
-            if (snapshot.isEmpty()) return;
-
-            String email = snapshot.getDocuments().get(0).getString("email");
-
-            NotificationModel nm = new NotificationModel(
-                    "cancelled_list_info",
-                    "Cancelled Entrant Update",
-                    "Your waiting list status for " + eventName + " has changed.",
-                    eventId,
-                    email,
-                    System.currentTimeMillis()
-            );
-
-            sendIfAllowed(db, email, nm);
-
-            logNotification(
-                    db,
-                    organizerEmail,
-                    eventId,
-                    eventName,
-                    email,
-                    "Cancelled notification sent",
-                    "cancelled_list_info"
-            );
-        });
+        sendTemplateToUser(db, userIdentifier, eventId, eventName, organizerEmail,
+                "cancelled_list_info", NotificationTemplates.CANCELLED_LIST);
     }
 
     /**
@@ -225,28 +124,78 @@ public class FirestoreNotificationHelper {
                                               String message,
                                               String organizerEmail) {
 
-        CollectionReference users = db.collection("users");
-
-        Query query = userIdentifier.contains("@")
-                ? users.whereEqualTo("email", userIdentifier)
-                : users.whereEqualTo(FieldPath.documentId(), userIdentifier);
-
-        query.get().addOnSuccessListener(snapshot -> {
-
-            if (snapshot.isEmpty()) return;
+        sendToUser(db, userIdentifier, eventId, eventName, organizerEmail,
+                "custom_message",
+                eventName,
+                message,
+                message);
+    }
 
-            String email = snapshot.getDocuments().get(0).getString("email");
+    /**
+     * Shared body of the fixed-text helpers: the notification stores only
+     * the template ID and the event name, and its log only the template ID.
+     */
+    private static void sendTemplateToUser(FirebaseFirestore db,
+                                           String userIdentifier,
+                                           String eventId,
+                                           String eventName,
+                                           String organizerEmail,
+                                           String type,
+                                           String template) {
+
+        UserDirectory.getInstance(db).resolve(userIdentifier).addOnSuccessListener(user -> {
+
+            if (user == null) return;
+
+            String email = user.getEmail();
+
+            if (user.isNotificationsEnabled()) {
+                NotificationModel nm = NotificationModel.templated(
+                        type,
+                        template,
+                        NotificationTemplates.event(eventName),
+                        eventId,
+                        email,
+                        System.currentTimeMillis()
+                );
+                write(db, email, nm.toMap());
+            }
 
-            NotificationModel nm = new NotificationModel(
-                    "custom_message",
-                    eventName,
-                    message,
-                    eventId,
-                    email,
-                    System.currentTimeMillis()
-            );
+            logTemplated(db, organizerEmail, eventId, eventName, email, template, type);
+        });
+    }
 
-            sendIfAllowed(db, email, nm);
+    /**
+     * Shared body of the free-text helpers: resolves the user once,
+     * writes the notification if they allow it, and always logs the send.
+     */
+    private static void sendToUser(FirebaseFirestore db,
+                                   String userIdentifier,
+                                   String eventId,
+                                   String eventName,
+                                   String organizerEmail,
+                                   String type,
+                                   String title,
+                                   String message,
+                                   String logMessage) {
+
+        UserDirectory.getInstance(db).resolve(userIdentifier).addOnSuccessListener(user -> {
+
+            if (user == null) return;
+
+            String email = user.getEmail();
+
+            if (user.isNotificationsEnabled()) {
+                NotificationModel nm = new NotificationModel(
+                        type,
+                        title,
+                        message,
+                        eventId,
+                        email,
+                        System.currentTimeMillis()
+                );
+                write(db, email, nm.toMap());
+            }
 
             logNotification(
                     db,
@@ -254,8 +203,8 @@ public class FirestoreNotificationHelper {
                     eventId,
                     eventName,
                     email,
-                    message,
-                    "custom_message"
+                    logMessage,
+                    type
             );
         });
     }
@@ -281,6 +230,72 @@ public class FirestoreNotificationHelper {
             String type
     ) {
 
+        writeLog(db, buildLog(organizerEmail, eventId, eventName,
+                recipientEmail, message, type));
+    }
+
+    /**
+     * logNotification() for a templated send; the log line comes from the
+     * template instead of being stored.
+     */
+    public static void logTemplated(
+            FirebaseFirestore db,
+            String organizerEmail,
+            String eventId,
+            String eventName,
+            String recipientEmail,
+            String template,
+            String type
+    ) {
+
+        writeLog(db, buildTemplatedLog(organizerEmail, eventId, eventName,
+                recipientEmail, template, type));
+    }
+
+    /**
+     * Writes a notification and bumps the recipient's unread counter,
+     * through the offline outbound queue when it is running.
+     */
+    static void write(FirebaseFirestore db, String email, Map<String, Object> notification) {
+        OutboundQueue queue = OutboundQueue.getInstance();
+        if (queue != null) {
+            queue.enqueueNotification(email, notification);
+        } else {
+            UnreadCounter.send(db, email, notification);
+        }
+    }
+
+    /**
+     * Writes a "notificationLogs" entry, through the offline outbound queue
+     * when it is running.
+     */
+    static void writeLog(FirebaseFirestore db, Map<String, Object> log) {
+        OutboundQueue queue = OutboundQueue.getInstance();
+        if (queue != null) {
+            queue.enqueue("notificationLogs", log);
+        } else {
+            db.collection("notificationLogs")
+                    .add(log)
+                    .addOnSuccessListener(doc ->
+                            Log.d("LOGS", "Notification log saved")
+                    )
+                    .addOnFailureListener(e ->
+                            Log.e("LOGS", "Failed to save log", e)
+                    );
+        }
+    }
+    /**
+     * Builds the "notificationLogs" document written by logNotification(),
+     * so bulk senders can add the same record to a WriteBatch.
+     */
+    public static Map<String, Object> buildLog(
+            String organizerEmail,
+            String eventId,
+            String eventName,
+            String recipientEmail,
+            String message,
+            String type
+    ) {
         Map<String, Object> log = new HashMap<>();
         log.put("timestamp", System.currentTimeMillis());
         log.put("sentByOrganizerEmail", organizerEmail);
@@ -289,17 +304,28 @@ public class FirestoreNotificationHelper {
         log.put("toUserEmail", recipientEmail);
         log.put("message", message);
         log.put("notificationType", type);
+        return log;
+    }
 
-        db.collection("notificationLogs")
-                .add(log)
-                .addOnSuccessListener(doc ->
-                        Log.d("LOGS", "Notification log saved")
-                )
-                .addOnFailureListener(e ->
-                        Log.e("LOGS", "Failed to save log", e)
-                );
-
+    /**
+     * Same as buildLog(), but the line is rendered from the template's log
+     * text (NotificationTemplates.renderLog) instead of being stored.
+     */
+    public static Map<String, Object> buildTemplatedLog(
+            String organizerEmail,
+            String eventId,
+            String eventName,
+            String recipientEmail,
+            String template,
+            String type
+    ) {
+        Map<String, Object> log = buildLog(organizerEmail, eventId, eventName,
+                recipientEmail, null, type);
+        log.remove("message");
+        log.put("template", template);
+        return log;
     }
+
     /**
      * Sends a user-facing notification + admin log when organizer access is revoked.
      */
@@ -308,24 +334,17 @@ public class FirestoreNotificationHelper {
 
         Map<String, Object> notif = new HashMap<>();
         notif.put("type", "organizer_revoked");
-        notif.put("title", "Organizer Access Revoked");
-        notif.put("message", "An admin has removed your organizer privileges.");
+        notif.put("template", NotificationTemplates.ORGANIZER_REVOKED);
         notif.put("eventId", null);
         notif.put("userId", email);
+        notif.put("createdAt", System.currentTimeMillis());
         notif.put("timestamp", System.currentTimeMillis());
         notif.put("status", "unread");
-        db.collection("notifications").add(notif);
+        write(db, email, notif);
 
 
-        Map<String, Object> log = new HashMap<>();
-        log.put("timestamp", System.currentTimeMillis());
-        log.put("sentByOrganizerEmail", "admin");
-        log.put("eventId", null);
-        log.put("eventName", "Admin Action");
-        log.put("toUserEmail", email);
-        log.put("message", "Organizer privileges revoked");
-        log.put("notificationType", "organizer_revoked");
-        db.collection("notificationLogs").add(log);
+        writeLog(db, buildTemplatedLog("admin", null, "Admin Action", email,
+                NotificationTemplates.ORGANIZER_REVOKED, "organizer_revoked"));
     }
 
     /**
@@ -335,23 +354,16 @@ public class FirestoreNotificationHelper {
 
         Map<String, Object> notif = new HashMap<>();
         notif.put("type", "organizer_enabled");
-        notif.put("title", "Organizer Access Restored");
-        notif.put("message", "Your organizer privileges have been restored by an admin.");
+        notif.put("template", NotificationTemplates.ORGANIZER_ENABLED);
         notif.put("eventId", null);
         notif.put("userId", email);
+        notif.put("createdAt", System.currentTimeMillis());
         notif.put("timestamp", System.currentTimeMillis());
         notif.put("status", "unread");
-        db.collection("notifications").add(notif);
+        write(db, email, notif);
 
-        Map<String, Object> log = new HashMap<>();
-        log.put("timestamp", System.currentTimeMillis());
-        log.put("sentByOrganizerEmail", "admin");
-        log.put("eventId", null);
-        log.put("eventName", "Admin Action");
-        log.put("toUserEmail", email);
-        log.put("message", "Organizer privileges restored");
-        log.put("notificationType", "organizer_enabled");
-        db.collection("notificationLogs").add(log);
+        writeLog(db, buildTemplatedLog("admin", null, "Admin Action", email,
+                NotificationTemplates.ORGANIZER_ENABLED, "organizer_enabled"));
     }
 
 
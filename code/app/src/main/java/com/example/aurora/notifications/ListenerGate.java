@@ -0,0 +1,79 @@
+package com.example.aurora.notifications;
+
+/**
+ * ListenerGate
+ *
+ * Decides when NotificationRepository's single Firestore listener should
+ * run. It runs only while all of these hold:
+ *  at least one screen is subscribed (reference counted)
+ *  the app is in the foreground
+ *  a user is signed in
+ *
+ * Whenever that changes, the target is started or stopped; switching
+ * users stops the old listener before starting the new one.
+ */
+public class ListenerGate {
+
+    /**
+     * What the gate switches on and off.
+     */
+    public interface Target {
+        void start(String user);
+        void stop();
+    }
+
+    private final Target target;
+
+    private int subscribers;
+    private boolean foreground;
+    private String user;
+    private String listeningUser;
+
+    public ListenerGate(Target target) {
+        this.target = target;
+    }
+
+    /** A screen started observing. */
+    public void acquire() {
+        subscribers++;
+        reconcile();
+    }
+
+    /** A screen stopped observing. Extra releases are ignored. */
+    public void release() {
+        if (subscribers > 0) subscribers--;
+        reconcile();
+    }
+
+    public void setForeground(boolean foreground) {
+        this.foreground = foreground;
+        reconcile();
+    }
+
+    /** @param user signed-in user's email, or null / empty when signed out */
+    public void setUser(String user) {
+        this.user = user == null || user.isEmpty() ? null : user;
+        reconcile();
+    }
+
+    public int getSubscribers() {
+        return subscribers;
+    }
+
+    public boolean isListening() {
+        return listeningUser != null;
+    }
+
+    private void reconcile() {
+        String wanted = subscribers > 0 && foreground ? user : null;
+
+        if (listeningUser != null && !listeningUser.equals(wanted)) {
+            listeningUser = null;
+            target.stop();
+        }
+        if (wanted != null && listeningUser == null) {
+            listeningUser = wanted;
+            target.start(wanted);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.aurora.notifications;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * NotificationCoalescer
+ *
+ * Merges notifications for the same user and event that arrive within
+ * WINDOW_MILLIS of each other into one document, so a waiting-list
+ * update, a custom message and a lottery result sent seconds apart cost
+ * one notification document, one unread count and one system tray entry.
+ *
+ * The document ID is derived from (user, event, window), so every writer
+ * lands on the same document without a lookup. A document that merged
+ * more than one notification looks like
+ *  type, title / message (or template / params), createdAt : newest item
+ *  count : notifications merged so far
+ *  items : [ { type, title, message, template, params, createdAt } ], oldest first
+ * while a lone notification is stored exactly as before (no count / items).
+ *
+ * Windows are fixed (createdAt / WINDOW_MILLIS), not sliding: a burst that
+ * straddles a boundary becomes two documents, which keeps IDs computable
+ * on any device with no coordination.
+ *
+ * Actionable notifications (winner_selected) are never merged: accepting or
+ * declining deletes their document, which must not take other messages
+ * with it. They get an ID of their own, still derived from the
+ * notification so a retried write lands on the same document. Merging
+ * keeps the stored document's status.
+ */
+public class NotificationCoalescer {
+
+    public static final long WINDOW_MILLIS = 2 * 60 * 1000L;
+
+    /** Items kept on one document; older ones only survive in count. */
+    public static final int MAX_ITEMS = 20;
+
+    /** Types that carry accept / decline actions and get a document of their own. */
+    private static final List<String> ACTIONABLE = Collections.singletonList("winner_selected");
+
+    private static final List<String> ITEM_FIELDS =
+            Arrays.asList("type", "title", "message", "template", "params", "createdAt");
+
+    /**
+     * @return the notifications document ID for this user, event and window
+     */
+    public static String docId(String email, String eventId, long createdAt) {
+        return docId(email, eventId, null, createdAt);
+    }
+
+    /**
+     * @return the notifications document ID for this user, event and window,
+     *         or for this one notification if its type is actionable
+     */
+    public static String docId(String email, String eventId, String type, long createdAt) {
+        String prefix = safe(email) + "_" + (eventId == null ? "none" : safe(eventId));
+        if (isActionable(type)) return prefix + "_" + safe(type) + "_" + createdAt;
+        return prefix + "_" + Math.floorDiv(createdAt, WINDOW_MILLIS);
+    }
+
+    /**
+     * @return true if notifications of this type carry accept / decline actions
+     */
+    public static boolean isActionable(Object type) {
+        return ACTIONABLE.contains(type);
+    }
+
+    /**
+     * Adds a notification to the document currently stored under its ID.
+     *
+     * @param existing fields of the stored document, or null if there is none
+     * @param incoming fields of the new notification
+     * @return the fields to store, or null if the notification is already
+     *         part of the document (e.g. a retried write)
+     */
+    public static Map<String, Object> merge(Map<String, Object> existing, Map<String, Object> incoming) {
+        if (existing == null) return new HashMap<>(incoming);
+
+        List<Map<String, Object>> items = items(existing);
+        Map<String, Object> item = item(incoming);
+        if (items.contains(item)) return null;
+
+        items.add(item);
+        items.sort((a, b) -> Long.compare(timeOf(a), timeOf(b)));
+        while (items.size() > MAX_ITEMS) items.remove(0);
+
+        Map<String, Object> newest = items.get(items.size() - 1);
+        Map<String, Object> merged = new HashMap<>(existing);
+        for (String field : ITEM_FIELDS) merged.remove(field);
+        merged.putAll(newest);
+        merged.put("count", count(existing) + 1);
+        merged.put("items", items);
+        return merged;
+    }
+
+    /**
+     * @return the notifications merged into the document, oldest first
+     */
+    @SuppressWarnings("unchecked")
+    public static List<Map<String, Object>> items(Map<String, Object> doc) {
+        List<Map<String, Object>> out = new ArrayList<>();
+        Object stored = doc.get("items");
+        if (stored instanceof List) {
+            for (Object item : (List<Object>) stored) {
+                if (item instanceof Map) out.add(new HashMap<>((Map<String, Object>) item));
+            }
+        }
+        if (out.isEmpty()) out.add(item(doc));
+        return out;
+    }
+
+    /**
+     * @return how many notifications the document stands for
+     */
+    public static long count(Map<String, Object> doc) {
+        Object count = doc.get("count");
+        return count instanceof Number ? Math.max(1L, ((Number) count).longValue()) : 1L;
+    }
+
+    /**
+     * @return each merged notification's rendered message, newest first
+     */
+    public static List<String> lines(Map<String, Object> doc) {
+        List<String> lines = new ArrayList<>();
+        for (Map<String, Object> item : items(doc)) {
+            lines.add(0, NotificationTemplates.render(
+                    (String) item.get("title"), (String) item.get("message"),
+                    (String) item.get("template"), NotificationTemplates.params(item.get("params")))
+                    .getMessage());
+        }
+        return lines;
+    }
+
+    private static Map<String, Object> item(Map<String, Object> doc) {
+        Map<String, Object> item = new HashMap<>();
+        for (String field : ITEM_FIELDS) {
+            Object value = doc.get(field);
+            if (value != null) item.put(field, value);
+        }
+        return item;
+    }
+
+    private static long timeOf(Map<String, Object> item) {
+        Object time = item.get("createdAt");
+        return time instanceof Number ? ((Number) time).longValue() : 0L;
+    }
+
+    /** Document IDs may not contain '/'. */
+    private static String safe(String part) {
+        return part == null ? "" : part.replace('/', '_');
+    }
+}
@@ -11,6 +11,8 @@ import androidx.core.app.NotificationCompat;
 
 import com.example.aurora.R;
 
+import java.util.List;
+
 /**
  * Helper class for creating and managing notification channels and
  * building notifications for the Aurora app.
@@ -18,11 +20,22 @@ import com.example.aurora.R;
  * <p>This wrapper ensures that a notification channel exists (Android O+),
  * and provides a clean API for building notifications with a title,
  * message, and optional tap intent.</p>
+ *
+ * <p>Alerts are posted in one group (GROUP_KEY): a coalesced notification
+ * shows its merged messages as an InboxStyle list, and a group summary
+ * (SUMMARY_ID) keeps several alerts under one entry in the shade.</p>
  */
 public class NotificationHelper extends ContextWrapper {
 
     public static final String CHANNEL_ID = "aurora_notifications";
     public static final String CHANNEL_NAME = "Aurora Lottery Notifications";
+    public static final String GROUP_KEY = "com.example.aurora.ALERTS";
+
+    /** Fixed ID of the group summary; alert IDs come from their document IDs. */
+    public static final int SUMMARY_ID = 1;
+
+    /** Lines shown in one InboxStyle. */
+    private static final int MAX_LINES = 5;
 
     private NotificationManager manager;
 
@@ -59,6 +72,53 @@ public class NotificationHelper extends ContextWrapper {
                 .setPriority(NotificationCompat.PRIORITY_HIGH);
     }
 
+    /**
+     * An alert in the app's group. With more than one line (a coalesced
+     * notification) it expands to an InboxStyle list, newest first.
+     *
+     * @param lines rendered messages, newest first (at least one)
+     * @param count notifications the alert stands for
+     */
+    public NotificationCompat.Builder getGroupedNotification(String title, List<String> lines, long count,
+                                                             PendingIntent intent) {
+        NotificationCompat.Builder builder = getNotification(title, lines.get(0), intent)
+                .setGroup(GROUP_KEY);
+        if (count > 1) {
+            builder.setNumber((int) Math.min(count, Integer.MAX_VALUE))
+                    .setStyle(inbox(title, lines, count));
+        }
+        return builder;
+    }
+
+    /**
+     * Summary shown in place of the group once it holds several alerts.
+     *
+     * @param lines latest messages across the group, newest first
+     * @param count alerts in the group
+     */
+    public NotificationCompat.Builder getGroupSummary(List<String> lines, int count, PendingIntent intent) {
+        String title = count + " new alerts";
+        return new NotificationCompat.Builder(getApplicationContext(), CHANNEL_ID)
+                .setContentTitle(title)
+                .setContentText(lines.isEmpty() ? "" : lines.get(0))
+                .setSmallIcon(R.drawable.aurora_logo)
+                .setContentIntent(intent)
+                .setStyle(inbox(title, lines, count))
+                .setGroup(GROUP_KEY)
+                .setGroupSummary(true)
+                .setAutoCancel(true)
+                .setPriority(NotificationCompat.PRIORITY_HIGH);
+    }
+
+    private static NotificationCompat.InboxStyle inbox(String title, List<String> lines, long count) {
+        NotificationCompat.InboxStyle style = new NotificationCompat.InboxStyle()
+                .setBigContentTitle(title);
+        int shown = Math.min(lines.size(), MAX_LINES);
+        for (int i = 0; i < shown; i++) style.addLine(lines.get(i));
+        if (count > shown) style.setSummaryText("+" + (count - shown) + " more");
+        return style;
+    }
+
     public class NotificationUtils {
         public static boolean shouldSendToUser(boolean notificationsEnabledFlag) {
             return notificationsEnabledFlag; // basic example
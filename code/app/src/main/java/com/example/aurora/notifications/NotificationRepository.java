@@ -0,0 +1,326 @@
+/*
+ * source: Android Developers - "Application.ActivityLifecycleCallbacks".
+ * url: https://developer.android.com/reference/android/app/Application.ActivityLifecycleCallbacks
+ * note: Started / stopped activities are counted to tell whether the app is in the foreground,
+ *       without pulling in the lifecycle-process artifact.
+ *
+ * source: Firebase docs - "Get realtime updates with Cloud Firestore" (view changes between snapshots).
+ * url: https://firebase.google.com/docs/firestore/query-data/listen#view_changes_between_snapshots
+ * note: One listener per signed-in user; its document changes are fanned out to every subscribed screen.
+ *
+ * source: Android Developers - "Create a Notification".
+ * url: https://developer.android.com/develop/ui/views/notifications/build-notification
+ * note: New pending notifications are posted to the system tray from here instead of from EventsActivity.
+ *
+ * source: Android Developers - "Create a group of notifications".
+ * url: https://developer.android.com/develop/ui/views/notifications/group
+ * note: Alerts share one group key plus an InboxStyle summary notification, so a burst shows as
+ *       one entry in the shade.
+ */
+
+package com.example.aurora.notifications;
+
+import android.app.Activity;
+import android.app.Application;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.service.notification.StatusBarNotification;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.aurora.activities.AlertsActivity;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * NotificationRepository
+ *
+ * App-scoped owner of the signed-in user's notifications listener.
+ * Screens subscribe with observe() instead of opening their own
+ * listener, so moving between EventsActivity and AlertsActivity reuses
+ * the same query and its already-downloaded results.
+ *
+ * The listener follows the newest WINDOW_SIZE notifications
+ * (userId + createdAt DESC) and runs only while ListenerGate allows it:
+ * someone is subscribed, the app is in the foreground (with a short
+ * grace period so rotations and quick app switches don't restart it),
+ * and a user is stored in aurora_prefs.
+ *
+ * New "pending" notifications are also posted as system notifications,
+ * once per document per process and again whenever a coalesced document
+ * (NotificationCoalescer) gains items. They share one group with an
+ * InboxStyle summary, and each uses its document ID's hash as a stable
+ * notification ID.
+ *
+ * All methods are called on the main thread.
+ */
+public class NotificationRepository {
+
+    /** Size of the live window; AlertsActivity pages older ones itself. */
+    public static final int WINDOW_SIZE = 20;
+
+    /** How long the app may sit in the background before the listener is paused. */
+    static final long BACKGROUND_GRACE_MILLIS = 10_000L;
+
+    private static final String PREFS = "aurora_prefs";
+    private static final String KEY_EMAIL = "user_email";
+
+    /**
+     * Receives the live window.
+     */
+    public interface Observer {
+        /**
+         * @param window  current window, newest first
+         * @param changes what changed since the previous call, or null when
+         *                the whole window is being replayed to a new observer
+         */
+        void onNotifications(List<DocumentSnapshot> window, @Nullable List<DocumentChange> changes);
+    }
+
+    private static NotificationRepository instance;
+
+    private final Context context;
+    private final FirebaseFirestore db;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final ListenerGate gate;
+    private final List<Observer> observers = new ArrayList<>();
+
+    /** Ids already posted to the system tray, with the item count they were posted at. */
+    private final Map<String, Long> posted = new HashMap<>();
+
+    /** Latest line per posted alert, oldest first, for the group summary. */
+    private final Map<String, String> recentLines = new LinkedHashMap<String, String>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > 5;
+        }
+    };
+
+    private ListenerRegistration registration;
+    private List<DocumentSnapshot> window;
+    private int startedActivities;
+
+    private final Runnable pause = () -> getGate().setForeground(false);
+
+    // kept in a field: SharedPreferences only holds listeners weakly
+    private final SharedPreferences.OnSharedPreferenceChangeListener prefsListener =
+            (prefs, key) -> {
+                if (key == null || KEY_EMAIL.equals(key)) {
+                    getGate().setUser(prefs.getString(KEY_EMAIL, null));
+                }
+            };
+
+    private NotificationRepository(Application app, FirebaseFirestore db) {
+        this.context = app.getApplicationContext();
+        this.db = db;
+        this.gate = new ListenerGate(new ListenerGate.Target() {
+            @Override
+            public void start(String user) {
+                attach(user);
+            }
+
+            @Override
+            public void stop() {
+                detach();
+            }
+        });
+
+        SharedPreferences prefs = context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        prefs.registerOnSharedPreferenceChangeListener(prefsListener);
+        gate.setUser(prefs.getString(KEY_EMAIL, null));
+
+        app.registerActivityLifecycleCallbacks(new ForegroundTracker());
+    }
+
+    /**
+     * Creates the repository. Called once from AuroraApp.onCreate().
+     */
+    public static synchronized void start(Application app) {
+        if (instance == null) instance = new NotificationRepository(app, FirebaseFirestore.getInstance());
+    }
+
+    /**
+     * @return the app-wide repository
+     * @throws IllegalStateException if AuroraApp has not started it
+     */
+    public static synchronized NotificationRepository getInstance() {
+        if (instance == null) {
+            throw new IllegalStateException("NotificationRepository not started; is AuroraApp registered?");
+        }
+        return instance;
+    }
+
+    private ListenerGate getGate() {
+        return gate;
+    }
+
+    /**
+     * Subscribes to the live window. If the window is already loaded it is
+     * replayed right away without another read.
+     *
+     * @return registration to remove in onDestroy()
+     */
+    public ListenerRegistration observe(Observer observer) {
+        observers.add(observer);
+        gate.acquire();
+        if (window != null) observer.onNotifications(window, null);
+
+        boolean[] removed = {false};
+        return () -> {
+            if (removed[0]) return;
+            removed[0] = true;
+            observers.remove(observer);
+            gate.release();
+        };
+    }
+
+    /** Number of screens currently subscribed. */
+    public int getSubscriberCount() {
+        return gate.getSubscribers();
+    }
+
+    /**
+     * The query behind the live window. Needs the (userId ASC, createdAt DESC)
+     * index from firestore.indexes.json.
+     */
+    public static Query query(FirebaseFirestore db, String email) {
+        return db.collection("notifications")
+                .whereEqualTo("userId", email)
+                .orderBy("createdAt", Query.Direction.DESCENDING);
+    }
+
+    private void attach(String email) {
+        registration = query(db, email)
+                .limit(WINDOW_SIZE)
+                .addSnapshotListener((snapshot, error) -> {
+                    if (error != null || snapshot == null) return;
+
+                    window = snapshot.getDocuments();
+                    List<DocumentChange> changes = snapshot.getDocumentChanges();
+                    postSystemNotifications(changes);
+
+                    for (Observer observer : new ArrayList<>(observers)) {
+                        observer.onNotifications(window, changes);
+                    }
+                });
+    }
+
+    private void detach() {
+        if (registration != null) registration.remove();
+        registration = null;
+        window = null;
+    }
+
+    /**
+     * Posts new pending notifications to the system tray, opening AlertsActivity
+     * on tap. A coalesced document that gained items is re-posted under the
+     * same ID, so it updates in place instead of adding another entry.
+     */
+    private void postSystemNotifications(List<DocumentChange> changes) {
+        NotificationHelper helper = null;
+
+        for (DocumentChange change : changes) {
+            if (change.getType() == DocumentChange.Type.REMOVED) continue;
+
+            DocumentSnapshot doc = change.getDocument();
+            Map<String, Object> data = doc.getData();
+            long count = NotificationCoalescer.count(data);
+            Long shown = posted.get(doc.getId());
+            if (!"pending".equals(doc.getString("status")) || (shown != null && shown >= count)) continue;
+            // only new documents on ADDED; MODIFIED ones only after they were posted once
+            if (shown == null && change.getType() != DocumentChange.Type.ADDED) continue;
+            posted.put(doc.getId(), count);
+
+            if (helper == null) helper = new NotificationHelper(context);
+
+            NotificationTemplates.Rendered text = NotificationTemplates.render(
+                    doc.getString("title"), doc.getString("message"),
+                    doc.getString("template"), NotificationTemplates.params(doc.get("params")));
+            List<String> lines = NotificationCoalescer.lines(data);
+
+            int id = doc.getId().hashCode();
+            helper.getManager().notify(
+                    id,
+                    helper.getGroupedNotification(text.getTitle(), lines, count,
+                            openAlerts(id, doc.getString("eventId"))).build()
+            );
+
+            recentLines.remove(doc.getId());
+            recentLines.put(doc.getId(), text.getTitle() + ": " + lines.get(0));
+        }
+
+        if (helper != null) postGroupSummary(helper);
+    }
+
+    /** Adds (or refreshes) the group summary once two or more alerts are showing. */
+    private void postGroupSummary(NotificationHelper helper) {
+        int active = 0;
+        for (StatusBarNotification sbn : helper.getManager().getActiveNotifications()) {
+            if (sbn.getId() != NotificationHelper.SUMMARY_ID
+                    && NotificationHelper.GROUP_KEY.equals(sbn.getNotification().getGroup())) {
+                active++;
+            }
+        }
+        if (active < 2) return;
+
+        List<String> lines = new ArrayList<>(recentLines.values());
+        Collections.reverse(lines);
+        helper.getManager().notify(
+                NotificationHelper.SUMMARY_ID,
+                helper.getGroupSummary(lines, active, openAlerts(NotificationHelper.SUMMARY_ID, null)).build()
+        );
+    }
+
+    private PendingIntent openAlerts(int requestCode, @Nullable String eventId) {
+        Intent intent = new Intent(context, AlertsActivity.class);
+        if (eventId != null) intent.putExtra("eventId", eventId);
+        intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
+        return PendingIntent.getActivity(
+                context,
+                requestCode,
+                intent,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
+        );
+    }
+
+    /**
+     * Counts started activities; zero means the app went to the background.
+     */
+    private class ForegroundTracker implements Application.ActivityLifecycleCallbacks {
+
+        @Override
+        public void onActivityStarted(@NonNull Activity activity) {
+            startedActivities++;
+            handler.removeCallbacks(pause);
+            gate.setForeground(true);
+        }
+
+        @Override
+        public void onActivityStopped(@NonNull Activity activity) {
+            startedActivities = Math.max(0, startedActivities - 1);
+            if (startedActivities == 0) handler.postDelayed(pause, BACKGROUND_GRACE_MILLIS);
+        }
+
+        @Override public void onActivityCreated(@NonNull Activity activity, @Nullable Bundle state) {}
+        @Override public void onActivityResumed(@NonNull Activity activity) {}
+        @Override public void onActivityPaused(@NonNull Activity activity) {}
+        @Override public void onActivitySaveInstanceState(@NonNull Activity activity, @NonNull Bundle state) {}
+        @Override public void onActivityDestroyed(@NonNull Activity activity) {}
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.aurora.notifications;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * NotificationTemplates
+ *
+ * Template table for the app's fixed notification texts. Instead of the
+ * rendered title and message, notifications, broadcasts and
+ * notificationLogs store
+ *  template : template ID (one of the constants below)
+ *  params   : the few values the text needs, e.g. { eventName }
+ * and every screen renders them here. A lottery fan-out to thousands of
+ * entrants then repeats a short ID instead of the full sentence.
+ *
+ * render() prefers stored text, so documents written before templates
+ * (and free-text custom messages, which are never templated) read as before.
+ * Placeholders look like {eventName}; missing params render as "".
+ */
+public class NotificationTemplates {
+
+    public static final String WAITING_LIST = "waiting_list_info";
+    public static final String SELECTED_LIST = "selected_list_info";
+    public static final String CANCELLED_LIST = "cancelled_list_info";
+    public static final String WINNER_SELECTED = "winner_selected";
+    public static final String WINNER_PROMOTED = "winner_promoted";
+    public static final String NOT_SELECTED = "not_selected";
+    public static final String ORGANIZER_REVOKED = "organizer_revoked";
+    public static final String ORGANIZER_ENABLED = "organizer_enabled";
+
+    /** Param holding the event title. */
+    public static final String EVENT_NAME = "eventName";
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{(\\w+)\\}");
+
+    /**
+     * Title, message and notificationLogs line of one template.
+     */
+    public static class Template {
+        final String title;
+        final String message;
+        final String log;
+
+        Template(String title, String message, String log) {
+            this.title = title;
+            this.message = message;
+            this.log = log;
+        }
+    }
+
+    /**
+     * Text ready to show.
+     */
+    public static class Rendered {
+        private final String title;
+        private final String message;
+
+        Rendered(String title, String message) {
+            this.title = title;
+            this.message = message;
+        }
+
+        public String getTitle() { return title; }
+        public String getMessage() { return message; }
+    }
+
+    private static final Map<String, Template> TABLE = new HashMap<>();
+
+    static {
+        TABLE.put(WAITING_LIST, new Template(
+                "Waiting List Update",
+                "You are currently on the waiting list for {eventName}",
+                "Waiting list update sent"));
+        TABLE.put(SELECTED_LIST, new Template(
+                "Selected Entrant Update",
+                "You have been selected for {eventName}",
+                "Selected entrant notification sent"));
+        TABLE.put(CANCELLED_LIST, new Template(
+                "Cancelled Entrant Update",
+                "Your waiting list status for {eventName} has changed.",
+                "Cancelled notification sent"));
+        TABLE.put(WINNER_SELECTED, new Template(
+                "You've Been Selected!",
+                "You won the lottery! Accept or decline your spot.",
+                "You won the lottery! Accept or decline your spot."));
+        TABLE.put(WINNER_PROMOTED, new Template(
+                "You've Been Selected!",
+                "A spot opened up and you were drawn! Accept or decline your spot.",
+                "Replacement drawn after a decline"));
+        TABLE.put(NOT_SELECTED, new Template(
+                "Lottery Result",
+                "Unfortunately, you were not selected for this event.",
+                "Unfortunately, you were not selected for this event."));
+        TABLE.put(ORGANIZER_REVOKED, new Template(
+                "Organizer Access Revoked",
+                "An admin has removed your organizer privileges.",
+                "Organizer privileges revoked"));
+        TABLE.put(ORGANIZER_ENABLED, new Template(
+                "Organizer Access Restored",
+                "Your organizer privileges have been restored by an admin.",
+                "Organizer privileges restored"));
+    }
+
+    public static boolean has(String templateId) {
+        return templateId != null && TABLE.containsKey(templateId);
+    }
+
+    /** @return params holding just the event name */
+    public static Map<String, String> event(String eventName) {
+        return Collections.singletonMap(EVENT_NAME, eventName == null ? "" : eventName);
+    }
+
+    /** @return a stored "params" field as a map, or null if it is missing */
+    @SuppressWarnings("unchecked")
+    public static Map<String, ?> params(Object field) {
+        return field instanceof Map ? (Map<String, ?>) field : null;
+    }
+
+    /**
+     * Renders a notification or broadcast document's fields.
+     *
+     * @param title    stored "title" (old documents, custom messages), or null
+     * @param message  stored "message", or null
+     * @param template stored "template", or null
+     * @param params   stored "params", or null
+     */
+    public static Rendered render(String title, String message, String template, Map<String, ?> params) {
+        Template t = template == null ? null : TABLE.get(template);
+        return new Rendered(
+                title != null ? title : t == null ? "" : fill(t.title, params),
+                message != null ? message : t == null ? "" : fill(t.message, params));
+    }
+
+    /**
+     * Renders a notificationLogs entry's line.
+     *
+     * @param message  stored "message" (old entries), or null
+     */
+    public static String renderLog(String message, String template, Map<String, ?> params) {
+        if (message != null) return message;
+        Template t = template == null ? null : TABLE.get(template);
+        return t == null ? "" : fill(t.log, params);
+    }
+
+    /** Replaces each {name} with params.get(name), or "" if it is missing. */
+    static String fill(String pattern, Map<String, ?> params) {
+        Matcher m = PLACEHOLDER.matcher(pattern);
+        StringBuffer out = new StringBuffer();
+        while (m.find()) {
+            Object value = params == null ? null : params.get(m.group(1));
+            m.appendReplacement(out, Matcher.quoteReplacement(value == null ? "" : value.toString()));
+        }
+        m.appendTail(out);
+        return out.toString();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.aurora.notifications;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Rollups
+ *
+ * Bucketing used by CompactionWorker when it folds old documents into
+ * summary documents. Buckets are UTC so every device agrees on them:
+ *  day()    : "2025-11-03"  (daily notificationLogs / logs aggregates)
+ *  month()  : "2025-11"     (per-user notification archives)
+ *
+ * DailyTally counts one page of raw documents per day, by type and by
+ * event, before the page is written as increments and deleted.
+ */
+public class Rollups {
+
+    public static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    private static final DateTimeFormatter DAY =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter MONTH =
+            DateTimeFormatter.ofPattern("yyyy-MM").withZone(ZoneOffset.UTC);
+
+    /** @return the time before which documents are compacted */
+    public static long cutoff(long now, int retentionDays) {
+        return now - Math.max(0, retentionDays) * DAY_MILLIS;
+    }
+
+    public static String day(long millis) {
+        return DAY.format(Instant.ofEpochMilli(millis));
+    }
+
+    public static String month(long millis) {
+        return MONTH.format(Instant.ofEpochMilli(millis));
+    }
+
+    /**
+     * Counts for one day.
+     */
+    public static class Day {
+        long total;
+        final Map<String, Long> types = new HashMap<>();
+        final Map<String, Long> events = new HashMap<>();
+
+        public long getTotal() { return total; }
+        public Map<String, Long> getTypes() { return types; }
+        public Map<String, Long> getEvents() { return events; }
+    }
+
+    /**
+     * Per-day counts of a batch of raw documents.
+     */
+    public static class DailyTally {
+        private final Map<String, Day> days = new TreeMap<>();
+
+        /**
+         * @param type    document type, or null
+         * @param eventId event the document belongs to, or null
+         */
+        public void add(long millis, String type, String eventId) {
+            Day day = days.computeIfAbsent(day(millis), k -> new Day());
+            day.total++;
+            day.types.merge(type == null || type.isEmpty() ? "unknown" : type, 1L, Long::sum);
+            if (eventId != null && !eventId.isEmpty()) day.events.merge(eventId, 1L, Long::sum);
+        }
+
+        /** @return day key -> counts, oldest day first */
+        public Map<String, Day> getDays() {
+            return days;
+        }
+    }
+}
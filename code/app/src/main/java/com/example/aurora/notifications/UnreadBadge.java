@@ -0,0 +1,20 @@
+package com.example.aurora.notifications;
+
+/**
+ * UnreadBadge
+ *
+ * Text for the alerts badge in the bottom navigation.
+ *  0 or less  : no badge
+ *  1 - 99     : the number
+ *  100+       : "99+"
+ */
+public class UnreadBadge {
+
+    public static final int MAX_SHOWN = 99;
+
+    /** @return badge text, or null if the badge should be hidden */
+    public static String label(long count) {
+        if (count <= 0) return null;
+        return count > MAX_SHOWN ? MAX_SHOWN + "+" : Long.toString(count);
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * source: Firebase docs - "Transactions and batched writes".
+ * url: https://firebase.google.com/docs/firestore/manage-data/transactions
+ * note: A notification is merged into its coalesced document in a transaction that reads it first,
+ *       so the counter is bumped once per document; deletes run in a transaction so a second delete
+ *       of the same notification does not decrement twice.
+ *
+ * source: Firebase docs - "Increment a numeric value".
+ * url: https://firebase.google.com/docs/firestore/manage-data/add-data#increment_a_numeric_value
+ * note: FieldValue.increment() lets many senders bump the same counter without reading it.
+ *
+ * source: Firebase docs - "Count documents with aggregation queries".
+ * url: https://firebase.google.com/docs/firestore/query-data/aggregation-queries
+ * note: recount() seeds a missing counter with count(), billed as one read per 1000 documents.
+ */
+
+package com.example.aurora.notifications;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.AggregateSource;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Transaction;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * UnreadCounter
+ *
+ * Keeps unreadCounters/{email} = { count } equal to the number of
+ * notifications documents addressed to that user (a coalesced document
+ * counts once), so the alerts badge is one document read instead of a
+ * query over every notification.
+ *
+ * Every write path goes through here:
+ *  coalesce() / send() : notification merged into its NotificationCoalescer
+ *                        document, + increment(1) only if that document is new
+ *  delete()            : notification delete + decrement in one transaction
+ *  readForDelete()     : the same, inside a caller's transaction (accept / decline)
+ *  deleteAll()         : bulk deletes, one decrement per user per batch
+ *  removed()           : decrement for callers batching their own deletes
+ *
+ * Users whose notifications predate the counter have no counter
+ * document yet; listen() seeds it once with recount().
+ */
+public class UnreadCounter {
+
+    public static final String COLLECTION = "unreadCounters";
+    public static final String FIELD = "count";
+
+    /** Stay under Firestore's 500 writes per batch (one delete per doc plus one per user). */
+    private static final int DELETE_CHUNK = 200;
+
+    /**
+     * Receives the badge count.
+     */
+    public interface Listener {
+        void onCount(long count);
+    }
+
+    public static DocumentReference ref(FirebaseFirestore db, String email) {
+        return db.collection(COLLECTION).document(email);
+    }
+
+    /**
+     * @return the coalesced notifications document this notification belongs to
+     *         (NotificationCoalescer.docId), its own one if it is actionable
+     */
+    public static DocumentReference coalescedRef(FirebaseFirestore db, String email,
+                                                 Map<String, Object> notification) {
+        Object createdAt = notification.get("createdAt");
+        long time = createdAt instanceof Number ? ((Number) createdAt).longValue() : System.currentTimeMillis();
+        Object eventId = notification.get("eventId");
+        Object type = notification.get("type");
+        return db.collection("notifications").document(NotificationCoalescer.docId(
+                email, eventId == null ? null : eventId.toString(), type == null ? null : type.toString(), time));
+    }
+
+    /**
+     * Merges a notification into its coalesced document inside a transaction
+     * that has already read that document. The counter is only incremented
+     * when the document is new, so it keeps counting documents.
+     *
+     * @param existing the document's fields as read (or as left by an earlier
+     *                 write in the same transaction), or null if it is missing
+     * @return the document's fields after this write
+     */
+    public static Map<String, Object> coalesce(Transaction tx, FirebaseFirestore db, String email,
+                                               DocumentReference doc, Map<String, Object> existing,
+                                               Map<String, Object> notification) {
+        Map<String, Object> merged = NotificationCoalescer.merge(existing, notification);
+        if (merged == null) return existing;
+
+        tx.set(doc, merged);
+        if (existing == null) tx.set(ref(db, email), increment(1), SetOptions.merge());
+        return merged;
+    }
+
+    /**
+     * Adds a decrement for notifications the caller deletes in the same batch.
+     */
+    public static void removed(WriteBatch batch, FirebaseFirestore db, String email, long count) {
+        batch.set(ref(db, email), increment(-count), SetOptions.merge());
+    }
+
+    /**
+     * Writes one notification, merged into its coalesced document, and the
+     * counter increment if that document is new.
+     */
+    public static Task<Void> send(FirebaseFirestore db, String email, Map<String, Object> notification) {
+        DocumentReference doc = coalescedRef(db, email, notification);
+        return db.runTransaction(tx -> {
+            DocumentSnapshot current = tx.get(doc);
+            coalesce(tx, db, email, doc, current.exists() ? current.getData() : null, notification);
+            return null;
+        });
+    }
+
+    /**
+     * Deletes a notification and decrements its recipient's counter, never
+     * below zero. Deleting a notification that is already gone changes nothing.
+     *
+     * @return true if the notification existed
+     */
+    public static Task<Boolean> delete(FirebaseFirestore db, String notificationId) {
+        return db.runTransaction(tx -> readForDelete(tx, db, notificationId).delete(tx));
+    }
+
+    /**
+     * Reads what deleting a notification inside a caller's transaction needs
+     * (the notification and its recipient's counter), so the delete can be
+     * written after the caller's own reads, e.g. together with an accept or
+     * decline.
+     *
+     * @param notificationId the notification, or null for none
+     */
+    public static Removal readForDelete(Transaction tx, FirebaseFirestore db, @Nullable String notificationId)
+            throws FirebaseFirestoreException {
+        if (notificationId == null) return new Removal(null, null, 0L);
+
+        DocumentReference notif = db.collection("notifications").document(notificationId);
+        DocumentSnapshot doc = tx.get(notif);
+        if (!doc.exists()) return new Removal(null, null, 0L);
+
+        String email = doc.getString("userId");
+        DocumentReference counter = email == null ? null : ref(db, email);
+        Long count = counter == null ? null : tx.get(counter).getLong(FIELD);
+        return new Removal(notif, counter, count == null ? 0L : count);
+    }
+
+    /**
+     * A notification read by readForDelete(), deleted by delete().
+     */
+    public static final class Removal {
+        private final DocumentReference notification;
+        private final DocumentReference counter;
+        private final long count;
+
+        private Removal(DocumentReference notification, DocumentReference counter, long count) {
+            this.notification = notification;
+            this.counter = counter;
+            this.count = count;
+        }
+
+        /**
+         * Writes the delete and the decrement into the transaction that read them.
+         *
+         * @return true if the notification existed
+         */
+        public boolean delete(Transaction tx) {
+            if (notification == null) return false;
+
+            tx.delete(notification);
+            if (counter != null) {
+                tx.set(counter, Collections.singletonMap(FIELD, Math.max(0L, count - 1)), SetOptions.merge());
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Deletes notifications that were just read (e.g. all of a deleted
+     * event's notifications) and decrements each recipient once per batch.
+     */
+    public static Task<Void> deleteAll(FirebaseFirestore db, List<DocumentSnapshot> notifications) {
+        List<Task<Void>> commits = new ArrayList<>();
+
+        for (int from = 0; from < notifications.size(); from += DELETE_CHUNK) {
+            List<DocumentSnapshot> chunk = notifications.subList(
+                    from, Math.min(from + DELETE_CHUNK, notifications.size()));
+
+            WriteBatch batch = db.batch();
+            Map<String, Integer> perUser = new HashMap<>();
+            for (DocumentSnapshot doc : chunk) {
+                batch.delete(doc.getReference());
+                String email = doc.getString("userId");
+                if (email != null) perUser.merge(email, 1, Integer::sum);
+            }
+            for (Map.Entry<String, Integer> e : perUser.entrySet()) {
+                removed(batch, db, e.getKey(), e.getValue());
+            }
+            commits.add(batch.commit());
+        }
+        return Tasks.whenAll(commits);
+    }
+
+    /**
+     * Recomputes a user's counter from their notifications with a count() query.
+     *
+     * @return the new count
+     */
+    public static Task<Long> recount(FirebaseFirestore db, String email) {
+        return db.collection("notifications")
+                .whereEqualTo("userId", email)
+                .count()
+                .get(AggregateSource.SERVER)
+                .onSuccessTask(result -> {
+                    long count = result.getCount();
+                    return ref(db, email)
+                            .set(Collections.singletonMap(FIELD, count), SetOptions.merge())
+                            .continueWith(task -> count);
+                });
+    }
+
+    /**
+     * Follows a user's counter; seeds it with recount() the first time it is missing.
+     *
+     * @return registration to remove when the badge is no longer shown
+     */
+    public static ListenerRegistration listen(FirebaseFirestore db, String email, Listener listener) {
+        boolean[] recounted = {false};
+
+        return ref(db, email).addSnapshotListener((doc, error) -> {
+            if (error != null || doc == null) return;
+
+            if (!doc.exists()) {
+                listener.onCount(0);
+                if (!doc.getMetadata().isFromCache() && !recounted[0]) {
+                    recounted[0] = true;
+                    recount(db, email);
+                }
+                return;
+            }
+
+            Long count = doc.getLong(FIELD);
+            listener.onCount(count == null ? 0L : count);
+        });
+    }
+
+    private static Map<String, Object> increment(long delta) {
+        return Collections.singletonMap(FIELD, FieldValue.increment(delta));
+    }
+}
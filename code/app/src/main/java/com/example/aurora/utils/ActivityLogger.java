@@ -27,6 +27,8 @@
 
 package com.example.aurora.utils;
 
+import com.example.aurora.data.OutboundQueue;
+import com.google.firebase.Timestamp;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.FieldValue;
@@ -71,7 +73,19 @@ public class ActivityLogger {
     private static final FirebaseFirestore db = FirebaseFirestore.getInstance();
 
 
+    /**
+     * Queues the entry in OutboundQueue when it is running (stamped with the
+     * time of the action, since it may be flushed much later); otherwise
+     * writes it directly with a server timestamp.
+     */
     private static void addLog(Map<String, Object> data) {
+        OutboundQueue queue = OutboundQueue.getInstance();
+        if (queue != null) {
+            if (!data.containsKey("timestamp")) data.put("timestamp", Timestamp.now());
+            queue.enqueue("logs", data);
+            return;
+        }
+
         if (!data.containsKey("timestamp")) {
             data.put("timestamp", FieldValue.serverTimestamp());
         }
@@ -0,0 +1,55 @@
+/*
+ * source: AWS Architecture Blog - "Exponential Backoff And Jitter".
+ * url: https://aws.amazon.com/blogs/architecture/exponential-backoff-and-jitter/
+ * note: delayMillis() uses "full jitter" so clients that collided once do not retry in lockstep.
+ */
+
+package com.example.aurora.utils;
+
+import java.util.Random;
+
+/**
+ * Exponential backoff with full jitter for retrying contended writes.
+ *
+ * Attempt n (0-based) waits a random time in [0, min(cap, base * 2^n)).
+ */
+public class Backoff {
+
+    private final long baseMillis;
+    private final long capMillis;
+    private final int maxAttempts;
+
+    /**
+     * @param baseMillis  upper bound of the first delay
+     * @param capMillis   largest delay ever returned
+     * @param maxAttempts total tries, including the first one
+     */
+    public Backoff(long baseMillis, long capMillis, int maxAttempts) {
+        if (baseMillis <= 0 || capMillis < baseMillis || maxAttempts <= 0) {
+            throw new IllegalArgumentException("Invalid backoff settings");
+        }
+        this.baseMillis = baseMillis;
+        this.capMillis = capMillis;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /** @return true if a try that just failed (0-based) may be followed by another */
+    public boolean canRetry(int attempt) {
+        return attempt + 1 < maxAttempts;
+    }
+
+    /** @return the largest delay allowed after the given failed attempt */
+    public long ceilingMillis(int attempt) {
+        // shifting past ~62 bits would overflow; the cap is reached long before that
+        int shift = Math.min(attempt, 30);
+        return Math.min(capMillis, baseMillis << shift);
+    }
+
+    /** @return how long to wait before retrying after the given failed attempt */
+    public long delayMillis(int attempt, Random random) {
+        long ceiling = ceilingMillis(attempt);
+        return (long) (random.nextDouble() * ceiling);
+    }
+
+    public int getMaxAttempts() { return maxAttempts; }
+}
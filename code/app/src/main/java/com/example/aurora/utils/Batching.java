@@ -0,0 +1,30 @@
+package com.example.aurora.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Small helper for splitting work into Firestore-sized pieces.
+ *
+ * Firestore caps a WriteBatch at 500 writes and a whereIn() filter at 30
+ * values, so bulk operations (lottery notifications, draw-order chunks)
+ * cut their input into consecutive slices with partition().
+ */
+public class Batching {
+
+    /**
+     * Splits a list into consecutive slices of at most {@code size} items,
+     * keeping the original order.
+     */
+    public static <T> List<List<T>> partition(List<T> items, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + size);
+        }
+        List<List<T>> out = new ArrayList<>();
+        for (int start = 0; start < items.size(); start += size) {
+            int end = Math.min(items.size(), start + size);
+            out.add(new ArrayList<>(items.subList(start, end)));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.aurora.utils;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Event times stored in a form that needs no parsing when read.
+ *
+ * Events used to carry only display strings (startDate, endDate, ...), which
+ * the feed parsed with up to six date patterns on every filter pass. Now each
+ * event also stores:
+ *  startAt, endAt, registrationStartAt, registrationEndAt : Firestore Timestamps
+ *  availability : bitmask of the start's weekday (bits 0-6, Monday first) and
+ *                 time slot (bit 7 morning 6-12h, 8 afternoon 12-18h, 9 evening)
+ *  availabilityKeys : the same bits as strings ("d2", "s7", "d2s7"), which a
+ *                 Firestore query can match with whereArrayContainsAny()
+ *
+ * Firestore cannot test bits, so the feed filters on availabilityKeys
+ * (filterKeys()); matches() is the same test on the bitmask.
+ * Parsing is only needed when an event is created and when legacy events are
+ * backfilled (EventTimesBackfillWorker).
+ *
+ * Dates go into the map as java.util.Date, which Firestore stores as a Timestamp.
+ */
+public final class EventTimes {
+
+    /** Formats event dates have been written in, most specific first. */
+    public static final String[] PATTERNS = {
+            "MMMM d, yyyy • h:mm a",
+            "MMMM d, yyyy h:mm a",
+            "MMMM d, yyyy",
+            "yyyy-MM-dd HH:mm",
+            "yyyy-MM-dd'T'HH:mm",
+            "yyyy-MM-dd"
+    };
+
+    public static final int MORNING_BIT = 7;
+    public static final int AFTERNOON_BIT = 8;
+    public static final int EVENING_BIT = 9;
+
+    /** All seven weekday bits. */
+    public static final long DAY_BITS = 0x7FL;
+    public static final long SLOT_BITS = (1L << MORNING_BIT) | (1L << AFTERNOON_BIT) | (1L << EVENING_BIT);
+
+    private EventTimes() { }
+
+    /**
+     * @return the date as epoch millis, or null if it matches none of PATTERNS
+     */
+    public static Long parse(String text, TimeZone zone, Locale locale) {
+        if (text == null || text.trim().isEmpty()) return null;
+        for (String pattern : PATTERNS) {
+            try {
+                SimpleDateFormat format = new SimpleDateFormat(pattern, locale);
+                format.setLenient(true);
+                format.setTimeZone(zone);
+                Date date = format.parse(text.trim());
+                if (date != null) return date.getTime();
+            } catch (ParseException ignored) {
+            }
+        }
+        return null;
+    }
+
+    /** @return weekday bit | time slot bit of the moment, in the given zone */
+    public static long availability(long millis, TimeZone zone) {
+        Calendar cal = Calendar.getInstance(zone);
+        cal.setTimeInMillis(millis);
+
+        // Calendar.SUNDAY = 1 ... SATURDAY = 7; Monday gets bit 0
+        int day = (cal.get(Calendar.DAY_OF_WEEK) + 5) % 7;
+
+        int hour = cal.get(Calendar.HOUR_OF_DAY);
+        int slot;
+        if (hour >= 6 && hour < 12) slot = MORNING_BIT;
+        else if (hour >= 12 && hour < 18) slot = AFTERNOON_BIT;
+        else slot = EVENING_BIT;
+
+        return (1L << day) | (1L << slot);
+    }
+
+    /**
+     * @return the stored time fields for an event's date strings; strings
+     *         that cannot be parsed are left out (availability too, for the start)
+     */
+    public static Map<String, Object> fields(String start, String end, String registrationStart,
+                                             String registrationEnd, TimeZone zone, Locale locale) {
+        Map<String, Object> fields = new HashMap<>();
+        Long startAt = parse(start, zone, locale);
+        if (startAt != null) {
+            fields.put("startAt", new Date(startAt));
+            long availability = availability(startAt, zone);
+            fields.put("availability", availability);
+            fields.put("availabilityKeys", availabilityKeys(availability));
+        }
+        putDate(fields, "endAt", parse(end, zone, locale));
+        putDate(fields, "registrationStartAt", parse(registrationStart, zone, locale));
+        putDate(fields, "registrationEndAt", parse(registrationEnd, zone, locale));
+        return fields;
+    }
+
+    /**
+     * @return the stored keys of an availability mask: one per weekday bit
+     *         ("d" + bit), one per slot bit ("s" + bit) and one per pair ("d2s7")
+     */
+    public static List<String> availabilityKeys(long availability) {
+        List<String> keys = new ArrayList<>();
+        for (int day : bits(availability & DAY_BITS)) keys.add("d" + day);
+        for (int slot : bits(availability & SLOT_BITS)) keys.add("s" + slot);
+        for (int day : bits(availability & DAY_BITS)) {
+            for (int slot : bits(availability & SLOT_BITS)) keys.add("d" + day + "s" + slot);
+        }
+        return keys;
+    }
+
+    /**
+     * The availabilityKeys an event needs one of to pass the filter, i.e.
+     * matches() as a single whereArrayContainsAny(). With days and slots
+     * both selected these are the pairs (at most 7 x 3 = 21, under
+     * Firestore's limit of 30 values).
+     *
+     * @param filter dayFilter() | slotFilter()
+     * @return the keys, or an empty list if the filter selects nothing
+     */
+    public static List<String> filterKeys(long filter) {
+        List<Integer> days = bits(filter & DAY_BITS);
+        List<Integer> slots = bits(filter & SLOT_BITS);
+        List<String> keys = new ArrayList<>();
+        if (slots.isEmpty()) {
+            for (int day : days) keys.add("d" + day);
+        } else if (days.isEmpty()) {
+            for (int slot : slots) keys.add("s" + slot);
+        } else {
+            for (int day : days) {
+                for (int slot : slots) keys.add("d" + day + "s" + slot);
+            }
+        }
+        return keys;
+    }
+
+    /** @param days selected weekdays, Monday first */
+    public static long dayFilter(boolean[] days) {
+        long bits = 0;
+        for (int i = 0; i < days.length && i < 7; i++) {
+            if (days[i]) bits |= 1L << i;
+        }
+        return bits;
+    }
+
+    public static long slotFilter(boolean morning, boolean afternoon, boolean evening) {
+        long bits = 0;
+        if (morning) bits |= 1L << MORNING_BIT;
+        if (afternoon) bits |= 1L << AFTERNOON_BIT;
+        if (evening) bits |= 1L << EVENING_BIT;
+        return bits;
+    }
+
+    /**
+     * @param availability the event's bitmask, or null if its time is unknown
+     * @param filter       dayFilter() | slotFilter(); an empty half does not filter
+     * @return true if the event fits; events without a known time always fit
+     */
+    public static boolean matches(Long availability, long filter) {
+        if (availability == null) return true;
+        long days = filter & DAY_BITS;
+        long slots = filter & SLOT_BITS;
+        boolean dayOk = days == 0 || (availability & days) != 0;
+        boolean slotOk = slots == 0 || (availability & slots) != 0;
+        return dayOk && slotOk;
+    }
+
+    private static List<Integer> bits(long mask) {
+        List<Integer> bits = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            if ((mask & (1L << i)) != 0) bits.add(i);
+        }
+        return bits;
+    }
+
+    private static void putDate(Map<String, Object> fields, String key, Long millis) {
+        if (millis != null) fields.put(key, new Date(millis));
+    }
+}
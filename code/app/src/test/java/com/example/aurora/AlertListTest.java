@@ -0,0 +1,106 @@
+package com.example.aurora;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.aurora.notifications.AlertList;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Unit tests for AlertList (state behind the paged alerts screen).
+ *
+ * Verifies:
+ *  alerts come out newest first, with a stable order for equal times
+ *  upserts replace in place instead of duplicating
+ *  alerts pushed out of a full live window are kept; real deletions are not
+ *  setBroadcasts replaces only broadcasts
+ */
+public class AlertListTest {
+
+    /**
+     * Test: sorted() orders by time descending and by id on ties.
+     */
+    @Test
+    public void sorted_NewestFirstThenById() {
+        AlertList<String> list = new AlertList<>();
+        list.upsert("b", 100, "b");
+        list.upsert("c", 300, "c");
+        list.upsert("a", 100, "a");
+
+        assertEquals(Arrays.asList("c", "a", "b"), list.sorted());
+    }
+
+    /**
+     * Test: Upserting an existing id replaces its value and time.
+     */
+    @Test
+    public void upsert_ReplacesExisting() {
+        AlertList<String> list = new AlertList<>();
+        list.upsert("a", 100, "old");
+        list.upsert("b", 200, "b");
+        list.upsert("a", 300, "new");
+
+        assertEquals(2, list.size());
+        assertEquals(Arrays.asList("new", "b"), list.sorted());
+    }
+
+    /**
+     * Test: A document that drops off the end of a full window is kept.
+     */
+    @Test
+    public void removeFromWindow_PushedOutOfFullWindowIsKept() {
+        AlertList<String> list = new AlertList<>();
+        list.upsert("old", 100, "old");
+        list.upsert("newer", 200, "newer");
+
+        assertFalse(list.removeFromWindow("old", true, 200));
+        assertTrue(list.contains("old"));
+    }
+
+    /**
+     * Test: Removals inside the window, or from a window that is no longer full, are deletions.
+     */
+    @Test
+    public void removeFromWindow_DeletionIsRemoved() {
+        AlertList<String> list = new AlertList<>();
+        list.upsert("a", 300, "a");
+        list.upsert("b", 100, "b");
+
+        assertTrue(list.removeFromWindow("a", true, 200));
+        assertTrue(list.removeFromWindow("b", false, 0));
+        assertEquals(0, list.size());
+        assertFalse(list.removeFromWindow("missing", false, 0));
+    }
+
+    /**
+     * Test: setBroadcasts drops old broadcasts but keeps personal notifications.
+     */
+    @Test
+    public void setBroadcasts_ReplacesOnlyBroadcasts() {
+        AlertList<String> list = new AlertList<>();
+        list.upsert("n1", 150, "n1");
+
+        Map<String, String> values = new HashMap<>();
+        Map<String, Long> times = new HashMap<>();
+        values.put("b1", "b1");
+        times.put("b1", 200L);
+        list.setBroadcasts(values, times);
+        assertEquals(Arrays.asList("b1", "n1"), list.sorted());
+
+        values.clear();
+        values.put("b2", "b2");
+        times.put("b2", 100L);
+        list.setBroadcasts(values, times);
+        assertEquals(Arrays.asList("n1", "b2"), list.sorted());
+
+        list.setBroadcasts(Collections.emptyMap(), Collections.emptyMap());
+        assertEquals(Collections.singletonList("n1"), list.sorted());
+    }
+}
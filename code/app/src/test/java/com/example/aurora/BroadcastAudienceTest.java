@@ -0,0 +1,58 @@
+package com.example.aurora;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.aurora.data.EntrantStatus;
+import com.example.aurora.notifications.BroadcastAudience;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for BroadcastAudience (client-side expansion of broadcasts).
+ *
+ * Verifies:
+ *  a broadcast reaches entrants whose status equals its audience
+ *  entrants who joined after the broadcast, or dismissed it, do not see it
+ *  unknown audiences and non-members never match
+ */
+public class BroadcastAudienceTest {
+
+    /**
+     * Test: Waiting entrants see a waiting broadcast; selected ones do not.
+     */
+    @Test
+    public void matches_StatusMustEqualAudience() {
+        assertTrue(BroadcastAudience.matches(EntrantStatus.WAITING, EntrantStatus.WAITING, 100, 200, false));
+        assertFalse(BroadcastAudience.matches(EntrantStatus.WAITING, EntrantStatus.SELECTED, 100, 200, false));
+        assertFalse(BroadcastAudience.matches(EntrantStatus.WAITING, EntrantStatus.NONE, 0, 200, false));
+    }
+
+    /**
+     * Test: Joining after the broadcast was sent hides it.
+     */
+    @Test
+    public void matches_LateJoinerDoesNotSeeOlderBroadcast() {
+        assertFalse(BroadcastAudience.matches(EntrantStatus.WAITING, EntrantStatus.WAITING, 300, 200, false));
+        assertTrue(BroadcastAudience.matches(EntrantStatus.WAITING, EntrantStatus.WAITING, 200, 200, false));
+    }
+
+    /**
+     * Test: A dismissed broadcast is hidden.
+     */
+    @Test
+    public void matches_DismissedIsHidden() {
+        assertFalse(BroadcastAudience.matches(EntrantStatus.FINAL, EntrantStatus.FINAL, 100, 200, true));
+    }
+
+    /**
+     * Test: Only waiting, selected, cancelled and final are audiences.
+     */
+    @Test
+    public void isValid_KnownAudiencesOnly() {
+        assertTrue(BroadcastAudience.isValid(EntrantStatus.CANCELLED));
+        assertFalse(BroadcastAudience.isValid(EntrantStatus.ACCEPTED));
+        assertFalse(BroadcastAudience.isValid(null));
+        assertFalse(BroadcastAudience.matches("everyone", "everyone", 0, 1, false));
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.aurora;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.aurora.data.EntrantStatus;
+import com.example.aurora.lottery.DrawOrder;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit tests for DrawOrder (persisted replacement order for declines).
+ *
+ * Verifies:
+ *  chunking keeps every entrant exactly once and in order
+ *  position -> chunk / offset math lines up with the chunks
+ *  eligibility skips entrants who left or were already picked
+ */
+public class DrawOrderTest {
+
+    private static List<String> order(int size) {
+        List<String> list = new ArrayList<>();
+        for (int i = 0; i < size; i++) list.add("user" + i + "@test.com");
+        return list;
+    }
+
+    /**
+     * Test: Chunks have the requested size except for the last one.
+     */
+    @Test
+    public void chunks_SplitsIntoFixedSizePieces() {
+        List<List<String>> chunks = DrawOrder.chunks(order(25), 10);
+
+        assertEquals(3, chunks.size());
+        assertEquals(10, chunks.get(0).size());
+        assertEquals(10, chunks.get(1).size());
+        assertEquals(5, chunks.get(2).size());
+    }
+
+    /**
+     * Test: Every position maps back to the same entrant through its chunk and offset.
+     */
+    @Test
+    public void chunkIndexAndOffset_MatchChunks() {
+        List<String> entrants = order(2500);
+        List<List<String>> chunks = DrawOrder.chunks(entrants, DrawOrder.CHUNK_SIZE);
+
+        for (int p = 0; p < entrants.size(); p++) {
+            int index = DrawOrder.chunkIndex(p, DrawOrder.CHUNK_SIZE);
+            int offset = DrawOrder.offsetInChunk(p, DrawOrder.CHUNK_SIZE);
+            assertEquals(entrants.get(p), chunks.get(index).get(offset));
+        }
+    }
+
+    /**
+     * Test: An empty order produces no chunk documents.
+     */
+    @Test
+    public void chunks_EmptyOrder() {
+        assertTrue(DrawOrder.chunks(Collections.emptyList(), 10).isEmpty());
+    }
+
+    /**
+     * Test: Only entrants still waiting are eligible for promotion.
+     */
+    @Test
+    public void isEligible_OnlyWaitingEntrants() {
+        assertTrue(DrawOrder.isEligible(EntrantStatus.WAITING));
+        assertFalse(DrawOrder.isEligible(EntrantStatus.SELECTED));
+        assertFalse(DrawOrder.isEligible(EntrantStatus.CANCELLED));
+        assertFalse(DrawOrder.isEligible(EntrantStatus.NONE));
+        assertFalse(DrawOrder.isEligible(null));
+    }
+
+    /**
+     * Test: Non-positive chunk sizes are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void chunks_ZeroSizeThrows() {
+        DrawOrder.chunks(order(3), 0);
+    }
+}
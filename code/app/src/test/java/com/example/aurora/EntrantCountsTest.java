@@ -0,0 +1,116 @@
+package com.example.aurora;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.aurora.data.EntrantCounts;
+import com.example.aurora.data.EntrantStatus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Unit tests for EntrantCounts (sharded entrant counters).
+ *
+ * Verifies:
+ *  shard documents add up per status
+ *  missing shards, unknown fields and negative totals are harmless
+ *  random shard picks stay in range and use every shard
+ *  toMap() round-trips through sum(), as event cards store it
+ */
+public class EntrantCountsTest {
+
+    private static Map<String, Object> shard(long waiting, long selected) {
+        Map<String, Object> map = new HashMap<>();
+        map.put(EntrantStatus.WAITING, waiting);
+        map.put(EntrantStatus.SELECTED, selected);
+        return map;
+    }
+
+    /**
+     * Test: Totals are the sum over all shards.
+     */
+    @Test
+    public void sum_AddsUpShards() {
+        EntrantCounts counts = EntrantCounts.sum(Arrays.asList(shard(3, 1), shard(2, 0), shard(-1, 1)));
+
+        assertEquals(4, counts.getWaiting());
+        assertEquals(2, counts.getSelected());
+        assertEquals(0, counts.getFinal());
+    }
+
+    /**
+     * Test: Null shards and fields that are not states are ignored.
+     */
+    @Test
+    public void sum_IgnoresNullsAndUnknownFields() {
+        Map<String, Object> odd = new HashMap<>();
+        odd.put("lotteryRun", 12L);
+        odd.put(EntrantStatus.CANCELLED, "3");
+
+        List<Map<String, Object>> shards = new ArrayList<>();
+        shards.add(null);
+        shards.add(odd);
+        shards.add(shard(1, 0));
+
+        EntrantCounts counts = EntrantCounts.sum(shards);
+        assertEquals(1, counts.getWaiting());
+        assertEquals(0, counts.getCancelled());
+    }
+
+    /**
+     * Test: A total that dips below zero (e.g. a hand-edited shard) reads as zero.
+     */
+    @Test
+    public void get_NeverNegative() {
+        EntrantCounts counts = EntrantCounts.sum(Arrays.asList(shard(-2, 0)));
+
+        assertEquals(0, counts.getWaiting());
+        assertEquals(0, counts.get("unknown"));
+        assertEquals(0, EntrantCounts.empty().getAccepted());
+    }
+
+    /**
+     * Test: Shard picks cover every shard and never leave the range.
+     */
+    @Test
+    public void shardFor_StaysInRangeAndSpreads() {
+        Random random = new Random(7);
+        Set<Integer> seen = new HashSet<>();
+
+        for (int i = 0; i < 1000; i++) {
+            int index = EntrantCounts.shardFor(random.nextInt());
+            assertTrue(index >= 0 && index < EntrantCounts.NUM_SHARDS);
+            seen.add(index);
+        }
+
+        assertEquals(EntrantCounts.NUM_SHARDS, seen.size());
+        assertEquals(EntrantCounts.shardFor(Integer.MIN_VALUE),
+                Math.floorMod(Integer.MIN_VALUE, EntrantCounts.NUM_SHARDS));
+    }
+
+    /**
+     * Test: toMap() lists every status and sums back to the same counts.
+     */
+    @Test
+    public void toMap_RoundTripsThroughSum() {
+        EntrantCounts counts = EntrantCounts.sum(Arrays.asList(shard(4, 1), shard(2, 0)));
+
+        Map<String, Long> map = counts.toMap();
+        assertEquals(EntrantStatus.ALL.size(), map.size());
+        assertEquals(Long.valueOf(6), map.get(EntrantStatus.WAITING));
+
+        EntrantCounts back = EntrantCounts.sum(Arrays.asList(new HashMap<String, Object>(map)));
+        assertEquals(6, back.getWaiting());
+        assertEquals(1, back.getSelected());
+        assertEquals(0, back.getFinal());
+    }
+}
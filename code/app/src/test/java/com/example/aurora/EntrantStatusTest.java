@@ -0,0 +1,101 @@
+package com.example.aurora;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.aurora.data.EntrantStatus;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for EntrantStatus (entrant states and their counters).
+ *
+ * Verifies:
+ *  every state change moves exactly the two counters involved
+ *  several changes accumulate into one delta per counter
+ *  legacy array membership maps to the furthest state
+ */
+public class EntrantStatusTest {
+
+    /**
+     * Test: Joining only increments the new state's counter.
+     */
+    @Test
+    public void counterDelta_JoinIncrementsWaiting() {
+        Map<String, Long> delta = EntrantStatus.counterDelta(null, EntrantStatus.WAITING);
+
+        assertEquals(1, delta.size());
+        assertEquals(Long.valueOf(1), delta.get(EntrantStatus.WAITING));
+    }
+
+    /**
+     * Test: Moving between states decrements the old counter and increments the new one.
+     */
+    @Test
+    public void counterDelta_MoveAdjustsBothCounters() {
+        Map<String, Long> delta = EntrantStatus.counterDelta(EntrantStatus.SELECTED, EntrantStatus.ACCEPTED);
+
+        assertEquals(Long.valueOf(-1), delta.get(EntrantStatus.SELECTED));
+        assertEquals(Long.valueOf(1), delta.get(EntrantStatus.ACCEPTED));
+    }
+
+    /**
+     * Test: Leaving decrements, and a no-op change touches nothing.
+     */
+    @Test
+    public void counterDelta_LeaveAndNoOp() {
+        Map<String, Long> leave = EntrantStatus.counterDelta(EntrantStatus.WAITING, null);
+        assertEquals(Long.valueOf(-1), leave.get(EntrantStatus.WAITING));
+
+        assertTrue(EntrantStatus.counterDelta(EntrantStatus.FINAL, EntrantStatus.FINAL).isEmpty());
+    }
+
+    /**
+     * Test: A decline plus a promotion nets out the selected counter.
+     */
+    @Test
+    public void accumulate_DeclineAndPromoteNetsSelected() {
+        Map<String, Long> delta = new HashMap<>();
+        EntrantStatus.accumulate(delta, EntrantStatus.SELECTED, EntrantStatus.CANCELLED);
+        EntrantStatus.accumulate(delta, EntrantStatus.WAITING, EntrantStatus.SELECTED);
+
+        assertEquals(Long.valueOf(0), delta.get(EntrantStatus.SELECTED));
+        assertEquals(Long.valueOf(1), delta.get(EntrantStatus.CANCELLED));
+        assertEquals(Long.valueOf(-1), delta.get(EntrantStatus.WAITING));
+    }
+
+    /**
+     * Test: Someone in several old arrays gets the furthest state.
+     */
+    @Test
+    public void fromLegacyLists_FurthestStateWins() {
+        List<String> both = Collections.singletonList("a@test.com");
+        List<String> none = Collections.emptyList();
+
+        assertEquals(EntrantStatus.FINAL,
+                EntrantStatus.fromLegacyLists("a@test.com", none, both, both, both, none));
+        assertEquals(EntrantStatus.ACCEPTED,
+                EntrantStatus.fromLegacyLists("a@test.com", none, both, both, none, none));
+        assertEquals(EntrantStatus.CANCELLED,
+                EntrantStatus.fromLegacyLists("a@test.com", none, both, none, none, both));
+        assertEquals(EntrantStatus.WAITING,
+                EntrantStatus.fromLegacyLists("a@test.com", both, null, null, null, null));
+    }
+
+    /**
+     * Test: Users in none of the arrays have no state.
+     */
+    @Test
+    public void fromLegacyLists_UnknownUserIsNull() {
+        List<String> waiting = Arrays.asList("a@test.com", "b@test.com");
+
+        assertNull(EntrantStatus.fromLegacyLists("c@test.com", waiting, null, null, null, null));
+    }
+}
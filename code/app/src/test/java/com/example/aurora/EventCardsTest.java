@@ -0,0 +1,118 @@
+package com.example.aurora;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.aurora.data.EventCards;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Unit tests for EventCards (the eventCards projection).
+ *
+ * Verifies:
+ *  a card keeps only list fields, never entrant arrays or other large fields
+ *  old events fall back to name / startDate for title and date
+ *  long descriptions are cut, updates without card fields change nothing
+ *  counts go stale after COUNTS_MAX_AGE_MILLIS
+ */
+public class EventCardsTest {
+
+    private static Map<String, Object> event() {
+        Map<String, Object> event = new HashMap<>();
+        event.put("title", "Swim lessons");
+        event.put("date", "2025-12-01");
+        event.put("location", "Pool");
+        event.put("posterUrl", "https://example.com/p.jpg");
+        event.put("maxSpots", 30L);
+        event.put("organizerEmail", "org@example.com");
+        event.put("waitingList", Arrays.asList("a@example.com", "b@example.com"));
+        event.put("lotteryRun", new HashMap<String, Object>());
+        event.put("eventLat", 53.5);
+        return event;
+    }
+
+    /**
+     * Test: Card fields are copied; entrant arrays, lottery state and coordinates are not.
+     */
+    @Test
+    public void project_KeepsOnlyCardFields() {
+        Map<String, Object> card = EventCards.project(event());
+
+        assertEquals("Swim lessons", card.get("title"));
+        assertEquals(30L, card.get("maxSpots"));
+        assertEquals("org@example.com", card.get("organizerEmail"));
+        assertFalse(card.containsKey("waitingList"));
+        assertFalse(card.containsKey("lotteryRun"));
+        assertFalse(card.containsKey("eventLat"));
+        for (String field : card.keySet()) {
+            assertTrue(field, EventCards.FIELDS.contains(field));
+        }
+    }
+
+    /**
+     * Test: Legacy events get a title from name and a date from startDate.
+     */
+    @Test
+    public void project_FallsBackForLegacyEvents() {
+        Map<String, Object> event = new HashMap<>();
+        event.put("name", "Old event");
+        event.put("startDate", "2024-01-05");
+
+        Map<String, Object> card = EventCards.project(event);
+
+        assertEquals("Old event", card.get("title"));
+        assertEquals("2024-01-05", card.get("date"));
+    }
+
+    /**
+     * Test: Descriptions are cut to DESCRIPTION_MAX; short ones are kept whole.
+     */
+    @Test
+    public void changes_TruncatesDescription() {
+        StringBuilder longText = new StringBuilder();
+        for (int i = 0; i < 1000; i++) longText.append('x');
+
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("description", longText.toString());
+        assertEquals(EventCards.DESCRIPTION_MAX,
+                ((String) EventCards.changes(updates).get("description")).length());
+
+        updates.put("description", "Bring goggles");
+        assertEquals("Bring goggles", EventCards.changes(updates).get("description"));
+    }
+
+    /**
+     * Test: Only card fields of an update reach the card; nulls (removed poster) are kept.
+     */
+    @Test
+    public void changes_SkipsNonCardUpdates() {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("lotteryRun.stage", "notified");
+        updates.put("lotterySeed", 42L);
+        assertTrue(EventCards.changes(updates).isEmpty());
+
+        updates.put("posterUrl", null);
+        Map<String, Object> card = EventCards.changes(updates);
+        assertEquals(1, card.size());
+        assertTrue(card.containsKey("posterUrl"));
+        assertNull(card.get("posterUrl"));
+    }
+
+    /**
+     * Test: Counts are stale when missing or older than the limit.
+     */
+    @Test
+    public void isStale_UsesMaxAge() {
+        long now = 10_000_000L;
+        assertTrue(EventCards.isStale(null, now));
+        assertFalse(EventCards.isStale(now - EventCards.COUNTS_MAX_AGE_MILLIS, now));
+        assertTrue(EventCards.isStale(now - EventCards.COUNTS_MAX_AGE_MILLIS - 1, now));
+    }
+}
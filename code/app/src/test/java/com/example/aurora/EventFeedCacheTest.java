@@ -0,0 +1,118 @@
+package com.example.aurora;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.example.aurora.data.EventFeedCache;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit tests for EventFeedCache (paged event feed).
+ *
+ * Verifies:
+ *  one request per feed at a time, and none after the last page
+ *  pages append in order and move the cursor
+ *  categories are cached separately and expire after the TTL
+ *  prefetch starts within PREFETCH_DISTANCE of the end
+ */
+public class EventFeedCacheTest {
+
+    private static List<String> page(String prefix, int n) {
+        List<String> out = new ArrayList<>();
+        for (int i = 0; i < n; i++) out.add(prefix + i);
+        return out;
+    }
+
+    /**
+     * Test: A second request while one is in flight is refused; a failure allows a retry.
+     */
+    @Test
+    public void beginLoad_OneAtATime() {
+        EventFeedCache<String, String> cache = new EventFeedCache<>();
+        EventFeedCache.Feed<String, String> feed = cache.open(null, 0L);
+
+        assertTrue(cache.beginLoad(feed));
+        assertFalse(cache.beginLoad(feed));
+        cache.failLoad(feed);
+        assertTrue(cache.beginLoad(feed));
+    }
+
+    /**
+     * Test: Full pages append and move the cursor; a short page ends the feed.
+     */
+    @Test
+    public void addPage_AppendsUntilShortPage() {
+        EventFeedCache<String, String> cache = new EventFeedCache<>();
+        EventFeedCache.Feed<String, String> feed = cache.open("Music", 0L);
+        assertNull(feed.getCursor());
+
+        cache.beginLoad(feed);
+        cache.addPage(feed, page("a", EventFeedCache.PAGE_SIZE), "cursorA");
+        assertEquals("cursorA", feed.getCursor());
+        assertFalse(feed.isExhausted());
+
+        cache.beginLoad(feed);
+        cache.addPage(feed, page("b", 3), "cursorB");
+        assertEquals(EventFeedCache.PAGE_SIZE + 3, feed.getItems().size());
+        assertEquals("a0", feed.getItems().get(0));
+        assertEquals("b2", feed.getItems().get(EventFeedCache.PAGE_SIZE + 2));
+        assertTrue(feed.isExhausted());
+        assertFalse(cache.beginLoad(feed));
+    }
+
+    /**
+     * Test: An empty last page keeps the previous cursor and ends the feed.
+     */
+    @Test
+    public void addPage_EmptyPageKeepsCursor() {
+        EventFeedCache<String, String> cache = new EventFeedCache<>();
+        EventFeedCache.Feed<String, String> feed = cache.open(null, 0L);
+        cache.addPage(feed, page("a", EventFeedCache.PAGE_SIZE), "cursorA");
+        cache.addPage(feed, Collections.emptyList(), null);
+
+        assertEquals("cursorA", feed.getCursor());
+        assertTrue(feed.isExhausted());
+    }
+
+    /**
+     * Test: Reopening a category within the TTL returns the same pages; after it, a fresh feed.
+     */
+    @Test
+    public void open_CachesPerCategoryUntilTtl() {
+        EventFeedCache<String, String> cache = new EventFeedCache<>(1000L);
+        EventFeedCache.Feed<String, String> music = cache.open("Music", 0L);
+        cache.addPage(music, page("m", 2), "m1");
+
+        assertSame(music, cache.open("Music", 900L));
+        assertNotSame(music, cache.open("Sports", 900L));
+        assertNotSame(music, cache.open(null, 900L));
+
+        EventFeedCache.Feed<String, String> reopened = cache.open("Music", 1500L);
+        assertNotSame(music, reopened);
+        assertTrue(reopened.getItems().isEmpty());
+
+        cache.clear();
+        assertTrue(cache.open("Sports", 1600L).getItems().isEmpty());
+    }
+
+    /**
+     * Test: Prefetch triggers near the end, and at once for an empty list.
+     */
+    @Test
+    public void shouldPrefetch_NearEnd() {
+        int d = EventFeedCache.PREFETCH_DISTANCE;
+        assertFalse(EventFeedCache.shouldPrefetch(5, 40, d));
+        assertTrue(EventFeedCache.shouldPrefetch(40 - 1 - d, 40, d));
+        assertTrue(EventFeedCache.shouldPrefetch(39, 40, d));
+        assertTrue(EventFeedCache.shouldPrefetch(-1, 0, d));
+    }
+}
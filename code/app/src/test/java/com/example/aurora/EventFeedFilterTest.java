@@ -0,0 +1,82 @@
+package com.example.aurora;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.aurora.data.EventFeedFilter;
+import com.example.aurora.utils.EventTimes;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Unit tests for EventFeedFilter (the entrant feed's query filters).
+ *
+ * Verifies:
+ *  the with*() copies change one filter and keep the others
+ *  every distinct filter gets its own feed cache key; equal filters share one
+ *  availabilityKeys() are the EventTimes query keys; a date range is detected from either end
+ */
+public class EventFeedFilterTest {
+
+    private static final long MONDAY = 1L;
+
+    /**
+     * Test: Each with*() replaces only its own filter.
+     */
+    @Test
+    public void with_KeepsOtherFilters() {
+        EventFeedFilter filter = EventFeedFilter.ALL
+                .withCategory("Music")
+                .withAvailability(MONDAY)
+                .withDateRange(100L, 200L)
+                .withCategory("Arts");
+
+        assertEquals("Arts", filter.getCategory());
+        assertEquals(MONDAY, filter.getAvailability());
+        assertEquals(Long.valueOf(100L), filter.getFromMillis());
+        assertEquals(Long.valueOf(200L), filter.getToMillis());
+        assertEquals(null, EventFeedFilter.ALL.getCategory());
+    }
+
+    /**
+     * Test: Distinct filters have distinct keys; equal filters are equal and share a key.
+     */
+    @Test
+    public void key_SeparatesFeeds() {
+        Set<String> keys = new HashSet<>(Arrays.asList(
+                EventFeedFilter.ALL.key(),
+                EventFeedFilter.ALL.withCategory("Music").key(),
+                EventFeedFilter.ALL.withAvailability(MONDAY).key(),
+                EventFeedFilter.ALL.withDateRange(100L, null).key(),
+                EventFeedFilter.ALL.withDateRange(null, 100L).key(),
+                EventFeedFilter.ALL.withCategory("Music").withAvailability(MONDAY).key()));
+        assertEquals(6, keys.size());
+
+        EventFeedFilter a = EventFeedFilter.ALL.withCategory("Music").withDateRange(1L, 2L);
+        EventFeedFilter b = new EventFeedFilter("Music", 0L, 1L, 2L);
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertEquals(a.key(), b.key());
+        assertNotEquals(a, b.withAvailability(MONDAY));
+    }
+
+    /**
+     * Test: availabilityKeys() delegates to EventTimes; either end of the range counts as a range.
+     */
+    @Test
+    public void queryParts_FollowFilters() {
+        long filter = MONDAY | EventTimes.slotFilter(false, false, true);
+        assertEquals(EventTimes.filterKeys(filter), EventFeedFilter.ALL.withAvailability(filter).availabilityKeys());
+        assertTrue(EventFeedFilter.ALL.availabilityKeys().isEmpty());
+
+        assertFalse(EventFeedFilter.ALL.hasDateRange());
+        assertTrue(EventFeedFilter.ALL.withDateRange(5L, null).hasDateRange());
+        assertTrue(EventFeedFilter.ALL.withDateRange(null, 5L).hasDateRange());
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.aurora;
+
+import static org.junit.Assert.assertEquals;
+
+import com.example.aurora.data.EventSearchIndex;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * EventSearchIndexBenchmark
+ *
+ * Rough JVM timing of one search-box keystroke over 1k to 10k loaded
+ * events, comparing EventSearchIndex with the old loop that lowercased
+ * title, location and description of every event on every keystroke.
+ * The query is typed one character at a time and the average per
+ * keystroke is printed, along with the time to index the events.
+ *
+ * Run with: ./gradlew :app:testDebugUnitTest --tests "*EventSearchIndexBenchmark*" -i
+ */
+public class EventSearchIndexBenchmark {
+
+    private static final int[] SIZES = {1_000, 5_000, 10_000};
+    private static final String QUERY = "swimming lessons downtown";
+    private static final int ROUNDS = 5;
+
+    private static final String[] WORDS = {
+            "swimming", "lessons", "yoga", "piano", "downtown", "community", "hall", "kids",
+            "beginner", "advanced", "music", "art", "painting", "chess", "club", "night",
+            "morning", "weekly", "outdoor", "library", "science", "coding", "workshop", "dance"
+    };
+
+    /** Distinct made-up words next to the common ones, like names and places in real events. */
+    private static final int VOCABULARY = 5_000;
+
+    private static String word(Random random) {
+        // one word in five is a common one; the rest come from a larger vocabulary
+        if (random.nextInt(5) == 0) return WORDS[random.nextInt(WORDS.length)];
+        Random seeded = new Random(random.nextInt(VOCABULARY));
+        StringBuilder sb = new StringBuilder();
+        int length = 4 + seeded.nextInt(6);
+        for (int i = 0; i < length; i++) sb.append((char) ('a' + seeded.nextInt(26)));
+        return sb.toString();
+    }
+
+    private static String text(Random random, int words) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(word(random));
+        }
+        return sb.toString();
+    }
+
+    private static List<String[]> events(int size) {
+        Random random = new Random(size);
+        List<String[]> events = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            // title, location, description (cards keep up to 300 characters)
+            events.add(new String[]{text(random, 3), text(random, 2), text(random, 40)});
+        }
+        return events;
+    }
+
+    /** Copy of the original matchesSearch loop, kept only as a baseline. */
+    private static int legacySearch(List<String[]> events, String query) {
+        String q = query.trim().toLowerCase(Locale.getDefault());
+        int hits = 0;
+        for (String[] e : events) {
+            if (q.isEmpty()
+                    || e[0].toLowerCase(Locale.getDefault()).contains(q)
+                    || e[1].toLowerCase(Locale.getDefault()).contains(q)
+                    || e[2].toLowerCase(Locale.getDefault()).contains(q)) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    @Test
+    public void benchmarkKeystroke() {
+        System.out.println("events    build(ms)  postings   index/key(ms) legacy/key(ms)");
+
+        for (int size : SIZES) {
+            List<String[]> events = events(size);
+
+            long start = System.nanoTime();
+            EventSearchIndex<Integer> index = new EventSearchIndex<>();
+            for (int i = 0; i < size; i++) index.add(i, events.get(i));
+            double buildMs = (System.nanoTime() - start) / 1e6;
+            assertEquals(size, index.size());
+
+            // warm up both paths
+            for (int i = 1; i <= QUERY.length(); i++) {
+                index.search(QUERY.substring(0, i));
+                legacySearch(events, QUERY.substring(0, i));
+            }
+
+            int keystrokes = ROUNDS * QUERY.length();
+            start = System.nanoTime();
+            for (int r = 0; r < ROUNDS; r++) {
+                for (int i = 1; i <= QUERY.length(); i++) index.search(QUERY.substring(0, i));
+            }
+            double indexMs = (System.nanoTime() - start) / 1e6 / keystrokes;
+
+            start = System.nanoTime();
+            for (int r = 0; r < ROUNDS; r++) {
+                for (int i = 1; i <= QUERY.length(); i++) legacySearch(events, QUERY.substring(0, i));
+            }
+            double legacyMs = (System.nanoTime() - start) / 1e6 / keystrokes;
+
+            System.out.println(String.format("%-9d %-10.1f %-10d %-13.3f %.3f",
+                    size, buildMs, index.getPostingCount(), indexMs, legacyMs));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.aurora;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.aurora.data.EventSearchIndex;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for EventSearchIndex (the feed's search box index).
+ *
+ * Verifies:
+ *  a blank query returns everything in load order
+ *  terms match inside words, across fields, case- and accent-insensitively
+ *  every term must match, and trigram false positives are filtered out
+ *  title hits outrank location and description hits; ties keep load order
+ *  items added later (a new page) are found without rebuilding
+ */
+public class EventSearchIndexTest {
+
+    private EventSearchIndex<String> index;
+
+    @Before
+    public void setUp() {
+        index = new EventSearchIndex<>();
+        index.add("swim", "Swimming Lessons", "Kinsmen Pool", "Learn to swim");
+        index.add("yoga", "Morning Yoga", "Café Central", "Stretch before swimming");
+        index.add("piano", "Piano for Beginners", "Music Hall", "No experience needed");
+        index.add("chess", "Chess Club", null, "Weekly games");
+    }
+
+    /**
+     * Test: Blank or punctuation-only queries return every item in add() order.
+     */
+    @Test
+    public void search_BlankReturnsAllInOrder() {
+        assertEquals(Arrays.asList("swim", "yoga", "piano", "chess"), index.search(""));
+        assertEquals(4, index.search("  -- ").size());
+    }
+
+    /**
+     * Test: Substrings, other case and missing accents all match.
+     */
+    @Test
+    public void search_MatchesInsideWordsCaseAndAccents() {
+        assertEquals(Arrays.asList("piano"), index.search("GINNER"));
+        assertEquals(Arrays.asList("yoga"), index.search("cafe"));
+        assertEquals(Arrays.asList("yoga"), index.search("CAFÉ"));
+        assertEquals(Arrays.asList("chess"), index.search("weekly"));
+    }
+
+    /**
+     * Test: All terms must match; trigrams present in different words do not count.
+     */
+    @Test
+    public void search_RequiresEveryTerm() {
+        assertEquals(Arrays.asList("swim"), index.search("swim pool"));
+        assertTrue(index.search("swim hall").isEmpty());
+        // "nin" and "ing" both occur in "Swimming" and "Learn", but not "ninging"
+        assertTrue(index.search("ninging").isEmpty());
+    }
+
+    /**
+     * Test: Short terms match word starts only.
+     */
+    @Test
+    public void search_ShortTermsMatchPrefixes() {
+        assertEquals(Arrays.asList("piano"), index.search("pi"));
+        assertTrue(index.search("ia").isEmpty());
+    }
+
+    /**
+     * Test: A title hit ranks above a description hit; equal scores keep add() order.
+     */
+    @Test
+    public void search_RanksByFieldThenOrder() {
+        List<String> hits = index.search("swimming");
+        assertEquals(Arrays.asList("swim", "yoga"), hits);
+
+        EventSearchIndex<String> ties = new EventSearchIndex<>();
+        ties.add("b", "Book club");
+        ties.add("a", "Book fair");
+        ties.add("c", "Comic books");
+        assertEquals(Arrays.asList("b", "a", "c"), ties.search("book"));
+    }
+
+    /**
+     * Test: Items added after earlier searches are found; clear() empties the index.
+     */
+    @Test
+    public void add_IsIncremental() {
+        assertTrue(index.search("pottery").isEmpty());
+
+        index.add("pottery", "Pottery Night", "Studio 5", "Clay provided");
+        assertEquals(Arrays.asList("pottery"), index.search("potter"));
+        assertEquals(5, index.size());
+
+        index.clear();
+        assertEquals(0, index.size());
+        assertTrue(index.search("pottery").isEmpty());
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.aurora;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.aurora.utils.EventTimes;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Unit tests for EventTimes (stored event times and availability bitmask).
+ *
+ * Verifies:
+ *  every legacy date format parses; blanks and junk give null
+ *  the availability mask has the right weekday and time slot bits
+ *  fields() stores Dates and the mask, leaving out what cannot be parsed
+ *  the bitmask filter behaves like the old day/slot checks
+ *  the stored availabilityKeys and the query's filterKeys agree with the bitmask filter
+ */
+public class EventTimesTest {
+
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    // Wednesday 2025-01-01 09:30 UTC
+    private static final long WED_MORNING = 1735723800000L;
+
+    /**
+     * Test: Each stored date format parses to the same moment.
+     */
+    @Test
+    public void parse_AcceptsLegacyFormats() {
+        assertEquals(Long.valueOf(WED_MORNING), EventTimes.parse("2025-01-01 09:30", UTC, Locale.US));
+        assertEquals(Long.valueOf(WED_MORNING), EventTimes.parse("2025-01-01T09:30", UTC, Locale.US));
+        assertEquals(Long.valueOf(WED_MORNING), EventTimes.parse("January 1, 2025 • 9:30 AM", UTC, Locale.US));
+        assertEquals(Long.valueOf(WED_MORNING), EventTimes.parse("January 1, 2025 9:30 AM", UTC, Locale.US));
+        assertEquals(Long.valueOf(1735689600000L), EventTimes.parse("2025-01-01", UTC, Locale.US));
+
+        assertNull(EventTimes.parse(null, UTC, Locale.US));
+        assertNull(EventTimes.parse("  ", UTC, Locale.US));
+        assertNull(EventTimes.parse("next tuesday", UTC, Locale.US));
+    }
+
+    /**
+     * Test: Wednesday morning sets bit 2 (Monday = 0) and the morning bit; slots follow the hour.
+     */
+    @Test
+    public void availability_SetsDayAndSlot() {
+        long mask = EventTimes.availability(WED_MORNING, UTC);
+        assertEquals((1L << 2) | (1L << EventTimes.MORNING_BIT), mask);
+
+        long hour = 60 * 60 * 1000L;
+        assertEquals(1L << EventTimes.AFTERNOON_BIT,
+                EventTimes.availability(WED_MORNING + 4 * hour, UTC) & EventTimes.SLOT_BITS);
+        assertEquals(1L << EventTimes.EVENING_BIT,
+                EventTimes.availability(WED_MORNING + 10 * hour, UTC) & EventTimes.SLOT_BITS);
+        // 01:30 Thursday is still "evening", on Thursday
+        long late = EventTimes.availability(WED_MORNING + 16 * hour, UTC);
+        assertEquals((1L << 3) | (1L << EventTimes.EVENING_BIT), late);
+        // Sunday is the last day bit
+        assertEquals(1L << 6, EventTimes.availability(WED_MORNING + 4 * 24 * hour, UTC) & EventTimes.DAY_BITS);
+    }
+
+    /**
+     * Test: fields() stores Dates and the mask; unparseable strings are left out.
+     */
+    @Test
+    public void fields_StoresParsedTimesOnly() {
+        Map<String, Object> fields = EventTimes.fields("2025-01-01 09:30", null,
+                "bad date", "2024-12-31 23:00", UTC, Locale.US);
+
+        assertEquals(new Date(WED_MORNING), fields.get("startAt"));
+        assertEquals(EventTimes.availability(WED_MORNING, UTC), fields.get("availability"));
+        assertEquals(Arrays.asList("d2", "s7", "d2s7"), fields.get("availabilityKeys"));
+        assertTrue(fields.get("registrationEndAt") instanceof Date);
+        assertFalse(fields.containsKey("endAt"));
+        assertFalse(fields.containsKey("registrationStartAt"));
+
+        assertTrue(EventTimes.fields(null, null, null, null, UTC, Locale.US).isEmpty());
+    }
+
+    /**
+     * Test: Empty halves do not filter; a selected half needs an overlapping bit; unknown times always pass.
+     */
+    @Test
+    public void matches_TestsDayAndSlotHalves() {
+        long wedMorning = EventTimes.availability(WED_MORNING, UTC);
+        boolean[] wed = {false, false, true, false, false, false, false};
+        boolean[] fri = {false, false, false, false, true, false, false};
+
+        assertTrue(EventTimes.matches(wedMorning, 0));
+        assertTrue(EventTimes.matches(wedMorning, EventTimes.dayFilter(wed)));
+        assertFalse(EventTimes.matches(wedMorning, EventTimes.dayFilter(fri)));
+        assertTrue(EventTimes.matches(wedMorning, EventTimes.slotFilter(true, false, true)));
+        assertFalse(EventTimes.matches(wedMorning, EventTimes.slotFilter(false, true, false)));
+        assertFalse(EventTimes.matches(wedMorning,
+                EventTimes.dayFilter(wed) | EventTimes.slotFilter(false, false, true)));
+        assertTrue(EventTimes.matches(null, EventTimes.dayFilter(fri)));
+    }
+
+    /**
+     * Test: filterKeys() picks pairs when both halves are selected, else the selected half; nothing for 0.
+     */
+    @Test
+    public void filterKeys_UsesPairsOnlyWhenBothHalvesSelected() {
+        boolean[] monWed = {true, false, true, false, false, false, false};
+
+        assertTrue(EventTimes.filterKeys(0).isEmpty());
+        assertEquals(Arrays.asList("d0", "d2"), EventTimes.filterKeys(EventTimes.dayFilter(monWed)));
+        assertEquals(Arrays.asList("s8", "s9"),
+                EventTimes.filterKeys(EventTimes.slotFilter(false, true, true)));
+        assertEquals(Arrays.asList("d0s7", "d2s7"),
+                EventTimes.filterKeys(EventTimes.dayFilter(monWed) | EventTimes.slotFilter(true, false, false)));
+
+        // every day and slot: 21 values, within Firestore's 30 for array-contains-any
+        assertEquals(21, EventTimes.filterKeys(EventTimes.DAY_BITS | EventTimes.SLOT_BITS).size());
+    }
+
+    /**
+     * Test: For every event time and every filter, sharing a key is the same as matches().
+     */
+    @Test
+    public void filterKeys_AgreeWithMatches() {
+        List<Long> events = new ArrayList<>();
+        for (int day = 0; day < 7; day++) {
+            for (int slot = EventTimes.MORNING_BIT; slot <= EventTimes.EVENING_BIT; slot++) {
+                events.add((1L << day) | (1L << slot));
+            }
+        }
+
+        for (long days = 0; days <= EventTimes.DAY_BITS; days++) {
+            for (long slots = 0; slots < 8; slots++) {
+                long filter = days | (slots << EventTimes.MORNING_BIT);
+                if (filter == 0) continue;
+                List<String> wanted = EventTimes.filterKeys(filter);
+                for (long event : events) {
+                    boolean shared = false;
+                    for (String key : EventTimes.availabilityKeys(event)) {
+                        if (wanted.contains(key)) shared = true;
+                    }
+                    assertEquals(EventTimes.matches(event, filter), shared);
+                }
+            }
+        }
+    }
+}
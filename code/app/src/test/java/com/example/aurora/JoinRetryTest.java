@@ -0,0 +1,145 @@
+package com.example.aurora;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.aurora.data.JoinMetrics;
+import com.example.aurora.utils.Backoff;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Unit tests for the retry pieces of the transactional join
+ * (Backoff and JoinMetrics).
+ *
+ * Verifies:
+ *  backoff ceilings double per attempt and stop at the cap
+ *  jittered delays stay within [0, ceiling)
+ *  the attempt budget includes the first try
+ *  metrics count retries, contention and outcomes, and report percentiles
+ *  latencies are kept in a fixed-size ring buffer
+ */
+public class JoinRetryTest {
+
+    /**
+     * Test: Ceilings double each attempt until they reach the cap.
+     */
+    @Test
+    public void ceiling_DoublesUntilCap() {
+        Backoff backoff = new Backoff(50, 300, 10);
+
+        assertEquals(50, backoff.ceilingMillis(0));
+        assertEquals(100, backoff.ceilingMillis(1));
+        assertEquals(200, backoff.ceilingMillis(2));
+        assertEquals(300, backoff.ceilingMillis(3));
+        assertEquals(300, backoff.ceilingMillis(100));
+    }
+
+    /**
+     * Test: Jittered delays never exceed the ceiling of their attempt.
+     */
+    @Test
+    public void delay_StaysWithinCeiling() {
+        Backoff backoff = new Backoff(50, 2000, 6);
+        Random random = new Random(42);
+
+        for (int attempt = 0; attempt < 6; attempt++) {
+            for (int i = 0; i < 1000; i++) {
+                long delay = backoff.delayMillis(attempt, random);
+                assertTrue(delay >= 0);
+                assertTrue(delay < backoff.ceilingMillis(attempt));
+            }
+        }
+    }
+
+    /**
+     * Test: maxAttempts counts the first try, so 3 attempts allow 2 retries.
+     */
+    @Test
+    public void canRetry_RespectsAttemptBudget() {
+        Backoff backoff = new Backoff(10, 100, 3);
+
+        assertTrue(backoff.canRetry(0));
+        assertTrue(backoff.canRetry(1));
+        assertFalse(backoff.canRetry(2));
+    }
+
+    /**
+     * Test: Invalid settings are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void backoff_RejectsCapBelowBase() {
+        new Backoff(100, 50, 3);
+    }
+
+    /**
+     * Test: Metrics split retries into contention and other transient errors
+     * and count each outcome once.
+     */
+    @Test
+    public void metrics_CountOutcomes() {
+        JoinMetrics metrics = new JoinMetrics();
+
+        metrics.onAttempt();
+        metrics.onRetry(true);
+        metrics.onAttempt();
+        metrics.onRetry(false);
+        metrics.onAttempt();
+        metrics.onJoined(30);
+
+        metrics.onAttempt();
+        metrics.onFull(10);
+        metrics.onAttempt();
+        metrics.onDuplicate(5);
+        metrics.onAttempt();
+        metrics.onFailed(900, true);
+
+        assertEquals(6, metrics.getAttempts());
+        assertEquals(2, metrics.getRetries());
+        assertEquals(2, metrics.getContention());
+        assertEquals(1, metrics.getJoined());
+        assertEquals(1, metrics.getFull());
+        assertEquals(1, metrics.getDuplicate());
+        assertEquals(1, metrics.getFailed());
+    }
+
+    /**
+     * Test: Percentiles use nearest rank over all finished joins.
+     */
+    @Test
+    public void metrics_Percentiles() {
+        JoinMetrics metrics = new JoinMetrics();
+        assertEquals(0, metrics.percentileMillis(50));
+
+        for (long ms = 1; ms <= 100; ms++) metrics.onJoined(ms);
+
+        assertEquals(50, metrics.percentileMillis(50));
+        assertEquals(99, metrics.percentileMillis(99));
+        assertEquals(100, metrics.percentileMillis(100));
+
+        metrics.reset();
+        assertEquals(0, metrics.getJoined());
+        assertEquals(0, metrics.percentileMillis(99));
+    }
+
+    /**
+     * Test: Latencies are kept in a ring buffer; percentiles cover only the last MAX_LATENCIES joins.
+     */
+    @Test
+    public void metrics_KeepsRecentLatenciesOnly() {
+        JoinMetrics metrics = new JoinMetrics();
+
+        for (int i = 0; i < JoinMetrics.MAX_LATENCIES; i++) metrics.onJoined(1000);
+        for (int i = 0; i < JoinMetrics.MAX_LATENCIES; i++) metrics.onJoined(5);
+
+        assertEquals(2L * JoinMetrics.MAX_LATENCIES, metrics.getJoined());
+        assertEquals(5, metrics.percentileMillis(100));
+
+        metrics.onJoined(70);
+        assertEquals(70, metrics.percentileMillis(100));
+        assertEquals(70, metrics.copy().percentileMillis(100));
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.aurora;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.aurora.notifications.ListenerGate;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for ListenerGate (when the shared notifications listener runs).
+ *
+ * Verifies:
+ *  the listener starts only with a subscriber, a user and the app in the foreground
+ *  many subscribers share one listener, which stops after the last release
+ *  going to the background pauses it and coming back resumes it
+ *  switching users restarts it for the new user
+ */
+public class ListenerGateTest {
+
+    private final List<String> calls = new ArrayList<>();
+
+    private final ListenerGate gate = new ListenerGate(new ListenerGate.Target() {
+        @Override
+        public void start(String user) {
+            calls.add("start " + user);
+        }
+
+        @Override
+        public void stop() {
+            calls.add("stop");
+        }
+    });
+
+    /**
+     * Test: Nothing starts until all three conditions hold.
+     */
+    @Test
+    public void start_NeedsSubscriberUserAndForeground() {
+        gate.acquire();
+        gate.setForeground(true);
+        assertFalse(gate.isListening());
+
+        gate.setUser("a@x.com");
+        assertTrue(gate.isListening());
+        assertEquals(Arrays.asList("start a@x.com"), calls);
+    }
+
+    /**
+     * Test: Two screens share one listener; it stops when both have released.
+     */
+    @Test
+    public void refCount_OneListenerForManySubscribers() {
+        gate.setUser("a@x.com");
+        gate.setForeground(true);
+
+        gate.acquire();
+        gate.acquire();
+        assertEquals(2, gate.getSubscribers());
+
+        gate.release();
+        assertTrue(gate.isListening());
+        gate.release();
+        gate.release();
+
+        assertEquals(0, gate.getSubscribers());
+        assertFalse(gate.isListening());
+        assertEquals(Arrays.asList("start a@x.com", "stop"), calls);
+    }
+
+    /**
+     * Test: Background pauses the listener, foreground resumes it.
+     */
+    @Test
+    public void background_PausesAndResumes() {
+        gate.setUser("a@x.com");
+        gate.acquire();
+        gate.setForeground(true);
+        gate.setForeground(false);
+        gate.setForeground(true);
+        gate.setForeground(true);
+
+        assertEquals(Arrays.asList("start a@x.com", "stop", "start a@x.com"), calls);
+    }
+
+    /**
+     * Test: Switching or clearing the user restarts or stops the listener.
+     */
+    @Test
+    public void setUser_SwitchRestarts() {
+        gate.setForeground(true);
+        gate.acquire();
+        gate.setUser("a@x.com");
+        gate.setUser("a@x.com");
+        gate.setUser("b@x.com");
+        gate.setUser("");
+
+        assertEquals(Arrays.asList("start a@x.com", "stop", "start b@x.com", "stop"), calls);
+    }
+}
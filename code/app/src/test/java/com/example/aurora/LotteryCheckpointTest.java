@@ -0,0 +1,103 @@
+package com.example.aurora;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.aurora.lottery.LotteryCheckpoint;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Unit tests for LotteryCheckpoint (resumable background lottery runs).
+ *
+ * Verifies:
+ *  a checkpoint survives a round trip through its Firestore map
+ *  stages advance drawn -> persisting -> persisted -> notified
+ *  missing or malformed "lotteryRun" values are ignored
+ *  the winners themselves are not stored in the map (only their count)
+ */
+public class LotteryCheckpointTest {
+
+    /**
+     * Test: Every field written by toMap() is read back by from().
+     */
+    @Test
+    public void roundTrip_KeepsAllFields() {
+        LotteryCheckpoint cp = LotteryCheckpoint.start("run-1", 99L, 3, true);
+        cp.markPersisting(3);
+        cp.setPersistedUpTo(400);
+        cp.markPersisted();
+        cp.setWinnersNotifiedUpTo(3);
+        cp.setLosersNotifiedUpTo(250);
+
+        assertFalse(cp.toMap().containsKey("winners"));
+        LotteryCheckpoint back = LotteryCheckpoint.from(cp.toMap());
+
+        assertEquals("run-1", back.getRunId());
+        assertEquals(99L, back.getSeed());
+        assertEquals(3, back.getSampleSize());
+        assertTrue(back.isSecondChance());
+        assertTrue(back.isPersisted());
+        assertEquals(3, back.getWinnerCount());
+        assertEquals(400, back.getPersistedUpTo());
+        assertEquals(3, back.getWinnersNotifiedUpTo());
+        assertEquals(250, back.getLosersNotifiedUpTo());
+    }
+
+    /**
+     * Test: Firestore returns numbers as Long; they are still accepted.
+     */
+    @Test
+    public void from_AcceptsFirestoreLongs() {
+        Map<String, Object> raw = new HashMap<>();
+        raw.put("runId", "run-2");
+        raw.put("seed", 5L);
+        raw.put("sampleSize", 10L);
+        raw.put("stage", LotteryCheckpoint.STAGE_DRAWN);
+        raw.put("losersNotifiedUpTo", 500L);
+
+        LotteryCheckpoint cp = LotteryCheckpoint.from(raw);
+
+        assertTrue(cp.isDrawn());
+        assertEquals(10, cp.getSampleSize());
+        assertEquals(500, cp.getLosersNotifiedUpTo());
+        assertEquals(0, cp.getWinnerCount());
+    }
+
+    /**
+     * Test: Stages move forward in order.
+     */
+    @Test
+    public void stages_AdvanceInOrder() {
+        LotteryCheckpoint cp = LotteryCheckpoint.start("run-3", 1L, 1, false);
+        assertTrue(cp.isDrawn());
+
+        cp.markPersisting(1);
+        assertTrue(cp.isPersisting());
+        assertEquals(0, cp.getPersistedUpTo());
+
+        cp.markPersisted();
+        assertTrue(cp.isPersisted());
+
+        cp.markNotified();
+        assertTrue(cp.isNotified());
+    }
+
+    /**
+     * Test: Missing or incomplete checkpoints are treated as "no run".
+     */
+    @Test
+    public void from_RejectsMissingOrMalformed() {
+        assertNull(LotteryCheckpoint.from(null));
+        assertNull(LotteryCheckpoint.from("not a map"));
+
+        Map<String, Object> raw = new HashMap<>();
+        raw.put("runId", "run-4");
+        assertNull(LotteryCheckpoint.from(raw));
+    }
+}
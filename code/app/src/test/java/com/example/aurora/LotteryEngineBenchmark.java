@@ -0,0 +1,121 @@
+package com.example.aurora;
+
+import static org.junit.Assert.assertEquals;
+
+import com.example.aurora.lottery.LotteryEngine;
+import com.example.aurora.lottery.LotteryResult;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * LotteryEngineBenchmark
+ *
+ * Rough JVM timing of LotteryEngine for waiting lists from 1k to 1M entrants,
+ * compared with the old "shuffle + winners.contains" approach where it is
+ * still feasible to run, and of the weighted "second chance" draw against
+ * the uniform one. Results are printed to the test output; the only
+ * assertions are sanity checks on partition sizes.
+ *
+ * Run with: ./gradlew :app:testDebugUnitTest --tests "*LotteryEngineBenchmark*" -i
+ */
+public class LotteryEngineBenchmark {
+
+    private static final int[] POOL_SIZES = {1_000, 10_000, 100_000, 1_000_000};
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    /** Largest pool the legacy O(n·k) path is timed on, to keep the suite fast. */
+    private static final int LEGACY_LIMIT = 10_000;
+
+    private static List<String> pool(int size) {
+        List<String> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) list.add("user" + i + "@test.com");
+        return list;
+    }
+
+    /** Copy of the original runLottery logic, kept only as a baseline. */
+    private static List<String> legacyDraw(List<String> entrants, int k, Random random) {
+        List<String> copy = new ArrayList<>(entrants);
+        Collections.shuffle(copy, random);
+        List<String> winners = copy.subList(0, k);
+        List<String> losers = new ArrayList<>();
+        for (String email : copy)
+            if (!winners.contains(email))
+                losers.add(email);
+        return losers;
+    }
+
+    @Test
+    public void benchmarkUniformDraw() {
+        System.out.println("pool      k       engine(ms)  legacy(ms)");
+
+        for (int size : POOL_SIZES) {
+            List<String> entrants = pool(size);
+            int k = size / 10;
+
+            for (int i = 0; i < WARMUP_ROUNDS; i++) new LotteryEngine(i).draw(entrants, k);
+
+            long start = System.nanoTime();
+            LotteryResult last = null;
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                last = new LotteryEngine(i).draw(entrants, k);
+            }
+            double engineMs = (System.nanoTime() - start) / 1e6 / MEASURED_ROUNDS;
+
+            assertEquals(k, last.getWinners().size());
+            assertEquals(size - k, last.getLosers().size());
+
+            String legacy = "-";
+            if (size <= LEGACY_LIMIT) {
+                start = System.nanoTime();
+                for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                    legacyDraw(entrants, k, new Random(i));
+                }
+                legacy = String.format("%.2f", (System.nanoTime() - start) / 1e6 / MEASURED_ROUNDS);
+            }
+
+            System.out.println(String.format("%-9d %-7d %-11.2f %s", size, k, engineMs, legacy));
+        }
+    }
+
+    @Test
+    public void benchmarkWeightedVsUniform() {
+        System.out.println("pool      k       uniform(ms) weighted(ms)");
+
+        for (int size : POOL_SIZES) {
+            List<String> entrants = pool(size);
+            int k = size / 10;
+            // every third entrant lost one earlier round
+            ToDoubleFunction<String> weight = e -> (e.hashCode() % 3 == 0) ? 2.0 : 1.0;
+
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                new LotteryEngine(i).draw(entrants, k);
+                new LotteryEngine(i).drawWeighted(entrants, k, weight);
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                new LotteryEngine(i).draw(entrants, k);
+            }
+            double uniformMs = (System.nanoTime() - start) / 1e6 / MEASURED_ROUNDS;
+
+            start = System.nanoTime();
+            LotteryResult last = null;
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                last = new LotteryEngine(i).drawWeighted(entrants, k, weight);
+            }
+            double weightedMs = (System.nanoTime() - start) / 1e6 / MEASURED_ROUNDS;
+
+            assertEquals(k, last.getWinners().size());
+            assertEquals(size - k, last.getLosers().size());
+
+            System.out.println(String.format("%-9d %-7d %-11.2f %.2f", size, k, uniformMs, weightedMs));
+        }
+    }
+}
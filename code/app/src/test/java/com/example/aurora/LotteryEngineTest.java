@@ -0,0 +1,297 @@
+package com.example.aurora;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.aurora.lottery.LotteryEngine;
+import com.example.aurora.lottery.LotteryResult;
+import com.example.aurora.lottery.SecondChanceWeights;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Unit tests for LotteryEngine (US 02.05.02 Sampling System).
+ *
+ * Verifies:
+ *  correct partition sizes
+ *  winners and losers never overlap and together cover the pool
+ *  same seed reproduces the same draw
+ *  edge cases (k = 0, k >= pool, huge k, duplicates)
+ *  weighted "second chance" draws favour entrants with more losses
+ *  the replacement order is a seeded permutation of the losers
+ */
+public class LotteryEngineTest {
+
+    private static List<String> pool(int size) {
+        List<String> list = new ArrayList<>();
+        for (int i = 0; i < size; i++) list.add("user" + i + "@test.com");
+        return list;
+    }
+
+    /**
+     * Test: Draw picks exactly k winners and the rest become losers.
+     */
+    @Test
+    public void draw_SplitsPoolIntoWinnersAndLosers() {
+        List<String> entrants = pool(50);
+        LotteryResult result = new LotteryEngine(42L).draw(entrants, 10);
+
+        assertEquals(10, result.getWinners().size());
+        assertEquals(40, result.getLosers().size());
+        assertEquals(50, result.getPoolSize());
+
+        Set<String> union = new HashSet<>(result.getWinners());
+        union.addAll(result.getLosers());
+        assertEquals(new HashSet<>(entrants), union);
+
+        for (String w : result.getWinners()) {
+            assertFalse(result.getLosers().contains(w));
+        }
+    }
+
+    /**
+     * Test: The same seed reproduces the exact same winners.
+     */
+    @Test
+    public void draw_SameSeedIsReproducible() {
+        List<String> entrants = pool(1000);
+
+        LotteryResult first = new LotteryEngine(7L).draw(entrants, 25);
+        LotteryResult second = new LotteryEngine(7L).draw(entrants, 25);
+
+        assertEquals(new ArrayList<>(first.getWinners()), new ArrayList<>(second.getWinners()));
+        assertEquals(7L, first.getSeed());
+    }
+
+    /**
+     * Test: Different seeds should (almost always) give different winners.
+     */
+    @Test
+    public void draw_DifferentSeedsDiffer() {
+        List<String> entrants = pool(1000);
+
+        Set<String> a = new LotteryEngine(1L).draw(entrants, 25).getWinners();
+        Set<String> b = new LotteryEngine(2L).draw(entrants, 25).getWinners();
+
+        assertFalse(a.equals(b));
+    }
+
+    /**
+     * Test: Asking for more winners than entrants selects everyone.
+     */
+    @Test
+    public void draw_KLargerThanPoolSelectsEveryone() {
+        LotteryResult result = new LotteryEngine(3L).draw(Arrays.asList("A", "B", "C"), 10);
+
+        assertEquals(3, result.getWinners().size());
+        assertTrue(result.getLosers().isEmpty());
+    }
+
+    /**
+     * Test: A huge sample size (e.g. mistyped by an organizer) is not allocated up front.
+     */
+    @Test
+    public void draw_HugeKDoesNotAllocateForIt() {
+        List<String> entrants = Arrays.asList("A", "B", "C");
+
+        assertEquals(3, new LotteryEngine(3L).draw(entrants, Integer.MAX_VALUE).getWinners().size());
+        assertEquals(3, new LotteryEngine(3L)
+                .drawWeighted(entrants, Integer.MAX_VALUE, e -> 1.0).getWinners().size());
+    }
+
+    /**
+     * Test: Drawing zero winners puts everybody in the loser set.
+     */
+    @Test
+    public void draw_ZeroWinners() {
+        LotteryResult result = new LotteryEngine(3L).draw(Arrays.asList("A", "B", "C"), 0);
+
+        assertTrue(result.getWinners().isEmpty());
+        assertEquals(3, result.getLosers().size());
+    }
+
+    /**
+     * Test: Duplicate and null entries in the pool are ignored.
+     */
+    @Test
+    public void draw_IgnoresDuplicatesAndNulls() {
+        List<String> entrants = Arrays.asList("A", "B", null, "A", "C", "B", "D");
+        LotteryResult result = new LotteryEngine(5L).draw(entrants, 2);
+
+        assertEquals(2, result.getWinners().size());
+        assertEquals(2, result.getLosers().size());
+        assertEquals(4, result.getPoolSize());
+    }
+
+    /**
+     * Test: Each entrant should win roughly k/n of the time over many draws.
+     */
+    @Test
+    public void draw_IsRoughlyUniform() {
+        List<String> entrants = pool(10);
+        int[] wins = new int[10];
+        int rounds = 20000;
+
+        for (int r = 0; r < rounds; r++) {
+            for (String w : new LotteryEngine(r).draw(entrants, 3).getWinners()) {
+                wins[Integer.parseInt(w.substring(4, w.indexOf('@')))]++;
+            }
+        }
+
+        double expected = rounds * 3 / 10.0;
+        for (int count : wins) {
+            assertTrue("Win count " + count + " too far from " + expected,
+                    Math.abs(count - expected) < expected * 0.1);
+        }
+    }
+
+    /**
+     * Test: Negative winner counts are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void draw_NegativeKThrows() {
+        new LotteryEngine(1L).draw(pool(5), -1);
+    }
+
+    /**
+     * Test: Weighted draw still produces a clean winner / loser partition.
+     */
+    @Test
+    public void drawWeighted_SplitsPoolIntoWinnersAndLosers() {
+        List<String> entrants = pool(50);
+        LotteryResult result = new LotteryEngine(42L).drawWeighted(entrants, 10, e -> 1.0);
+
+        assertEquals(10, result.getWinners().size());
+        assertEquals(40, result.getLosers().size());
+
+        Set<String> union = new HashSet<>(result.getWinners());
+        union.addAll(result.getLosers());
+        assertEquals(new HashSet<>(entrants), union);
+    }
+
+    /**
+     * Test: The same seed reproduces the same weighted draw.
+     */
+    @Test
+    public void drawWeighted_SameSeedIsReproducible() {
+        List<String> entrants = pool(500);
+
+        LotteryResult first = new LotteryEngine(9L).drawWeighted(entrants, 20, e -> 2.0);
+        LotteryResult second = new LotteryEngine(9L).drawWeighted(entrants, 20, e -> 2.0);
+
+        assertEquals(new ArrayList<>(first.getWinners()), new ArrayList<>(second.getWinners()));
+    }
+
+    /**
+     * Test: An entrant with weight 3 wins a single slot about three times as
+     * often as an entrant with weight 1.
+     */
+    @Test
+    public void drawWeighted_HeavierEntrantWinsMoreOften() {
+        List<String> entrants = Arrays.asList("light", "heavy");
+        int heavyWins = 0;
+        int rounds = 20000;
+
+        for (int r = 0; r < rounds; r++) {
+            LotteryResult result = new LotteryEngine(r)
+                    .drawWeighted(entrants, 1, e -> e.equals("heavy") ? 3.0 : 1.0);
+            if (result.isWinner("heavy")) heavyWins++;
+        }
+
+        double expected = rounds * 0.75;
+        assertTrue("Heavy wins " + heavyWins + " too far from " + expected,
+                Math.abs(heavyWins - expected) < expected * 0.05);
+    }
+
+    /**
+     * Test: With equal weights every entrant wins roughly k/n of the time.
+     */
+    @Test
+    public void drawWeighted_EqualWeightsAreRoughlyUniform() {
+        List<String> entrants = pool(10);
+        int[] wins = new int[10];
+        int rounds = 20000;
+
+        for (int r = 0; r < rounds; r++) {
+            for (String w : new LotteryEngine(r).drawWeighted(entrants, 3, e -> 1.0).getWinners()) {
+                wins[Integer.parseInt(w.substring(4, w.indexOf('@')))]++;
+            }
+        }
+
+        double expected = rounds * 3 / 10.0;
+        for (int count : wins) {
+            assertTrue("Win count " + count + " too far from " + expected,
+                    Math.abs(count - expected) < expected * 0.1);
+        }
+    }
+
+    /**
+     * Test: Zero or negative weights are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void drawWeighted_NonPositiveWeightThrows() {
+        new LotteryEngine(1L).drawWeighted(pool(5), 2, e -> 0.0);
+    }
+
+    /**
+     * Test: SecondChanceWeights counts legacy losers once and explicit loss
+     * counts as given.
+     */
+    @Test
+    public void secondChanceWeights_TracksLosses() {
+        Map<String, Object> lossCounts = new HashMap<>();
+        lossCounts.put("A", 2L);
+        SecondChanceWeights weights = new SecondChanceWeights(
+                lossCounts, Arrays.asList("A", "B"));
+
+        assertEquals(3.0, weights.applyAsDouble("A"), 1e-9);
+        assertEquals(2.0, weights.applyAsDouble("B"), 1e-9);
+        assertEquals(1.0, weights.applyAsDouble("C"), 1e-9);
+    }
+
+    /**
+     * Test: The replacement order holds every loser exactly once and is
+     * reproducible from the seed.
+     */
+    @Test
+    public void draw_ReplacementOrderIsSeededPermutationOfLosers() {
+        List<String> entrants = pool(200);
+        LotteryResult first = new LotteryEngine(11L).draw(entrants, 20);
+        LotteryResult second = new LotteryEngine(11L).draw(entrants, 20);
+
+        List<String> order = first.getReplacementOrder();
+        assertEquals(first.getLosers().size(), order.size());
+        assertEquals(first.getLosers(), new HashSet<>(order));
+        assertEquals(order, second.getReplacementOrder());
+        // shuffled, not just waiting-list order
+        assertFalse(order.equals(new ArrayList<>(first.getLosers())));
+    }
+
+    /**
+     * Test: In a weighted draw the heavier loser is usually first in line.
+     */
+    @Test
+    public void drawWeighted_ReplacementOrderFollowsWeights() {
+        List<String> entrants = Arrays.asList("winner", "light", "heavy");
+        int heavyFirst = 0;
+        int rounds = 5000;
+
+        for (int r = 0; r < rounds; r++) {
+            LotteryResult result = new LotteryEngine(r).drawWeighted(entrants, 1,
+                    e -> e.equals("winner") ? 1e9 : e.equals("heavy") ? 3.0 : 1.0);
+            assertEquals(2, result.getReplacementOrder().size());
+            if (result.getReplacementOrder().get(0).equals("heavy")) heavyFirst++;
+        }
+
+        assertTrue("Heavy first " + heavyFirst, Math.abs(heavyFirst - rounds * 0.75) < rounds * 0.05);
+    }
+}
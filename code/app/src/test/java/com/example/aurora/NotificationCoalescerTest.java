@@ -0,0 +1,182 @@
+package com.example.aurora;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.aurora.notifications.NotificationCoalescer;
+import com.example.aurora.notifications.NotificationTemplates;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for NotificationCoalescer (merging rapid-fire notifications).
+ *
+ * Verifies:
+ *  notifications for one user and event in one window share a document ID
+ *  a lone notification is stored unchanged; later ones are merged as items
+ *  a retried write of the same notification changes nothing
+ *  actionable notifications get a document of their own
+ *  the newest item wins and the stored status is kept
+ *  items are capped while count keeps growing
+ *  lines are rendered newest first
+ */
+public class NotificationCoalescerTest {
+
+    private static final long T0 = 1_700_000_040_000L;
+
+    private static Map<String, Object> notif(String type, String message, long createdAt) {
+        Map<String, Object> n = new HashMap<>();
+        n.put("type", type);
+        n.put("title", "Gala");
+        n.put("message", message);
+        n.put("eventId", "e1");
+        n.put("userId", "a@x.com");
+        n.put("createdAt", createdAt);
+        n.put("status", "pending");
+        return n;
+    }
+
+    /**
+     * Test: Same user, event and window share an ID; other events, users and windows do not.
+     */
+    @Test
+    public void docId_SameWindowSameDocument() {
+        long start = Math.floorDiv(T0, NotificationCoalescer.WINDOW_MILLIS) * NotificationCoalescer.WINDOW_MILLIS;
+        String id = NotificationCoalescer.docId("a@x.com", "e1", start);
+
+        assertEquals(id, NotificationCoalescer.docId("a@x.com", "e1", start + NotificationCoalescer.WINDOW_MILLIS - 1));
+        assertNotEquals(id, NotificationCoalescer.docId("a@x.com", "e1", start + NotificationCoalescer.WINDOW_MILLIS));
+        assertNotEquals(id, NotificationCoalescer.docId("a@x.com", "e2", start));
+        assertNotEquals(id, NotificationCoalescer.docId("b@x.com", "e1", start));
+        assertFalse(NotificationCoalescer.docId("a/b@x.com", null, start).contains("/"));
+    }
+
+    /**
+     * Test: The first notification is stored as-is, without count or items.
+     */
+    @Test
+    public void merge_FirstNotificationUnchanged() {
+        Map<String, Object> first = notif("waiting_list_info", "On the list", T0);
+        Map<String, Object> stored = NotificationCoalescer.merge(null, first);
+
+        assertEquals(first, stored);
+        assertEquals(1L, NotificationCoalescer.count(stored));
+    }
+
+    /**
+     * Test: A second notification becomes an item and the newest text is shown.
+     */
+    @Test
+    public void merge_SecondNotificationAddsItem() {
+        Map<String, Object> stored = NotificationCoalescer.merge(null, notif("waiting_list_info", "On the list", T0));
+        stored = NotificationCoalescer.merge(stored, notif("custom_message", "Bring a towel", T0 + 5_000));
+
+        assertEquals(2L, NotificationCoalescer.count(stored));
+        assertEquals(2, NotificationCoalescer.items(stored).size());
+        assertEquals("Bring a towel", stored.get("message"));
+        assertEquals("custom_message", stored.get("type"));
+        assertEquals(T0 + 5_000, stored.get("createdAt"));
+        assertEquals("a@x.com", stored.get("userId"));
+    }
+
+    /**
+     * Test: Merging the same notification twice (a retried write) returns null.
+     */
+    @Test
+    public void merge_RetryIsIgnored() {
+        Map<String, Object> second = notif("custom_message", "Bring a towel", T0 + 5_000);
+        Map<String, Object> stored = NotificationCoalescer.merge(null, notif("waiting_list_info", "On the list", T0));
+        stored = NotificationCoalescer.merge(stored, second);
+
+        assertNull(NotificationCoalescer.merge(stored, second));
+        assertNull(NotificationCoalescer.merge(
+                NotificationCoalescer.merge(null, second), second));
+    }
+
+    /**
+     * Test: A winner notification never shares a document with other messages,
+     * but a retry of it lands on the same document.
+     */
+    @Test
+    public void docId_ActionableGetsOwnDocument() {
+        String winner = NotificationCoalescer.docId("a@x.com", "e1", "winner_selected", T0);
+
+        assertNotEquals(NotificationCoalescer.docId("a@x.com", "e1", T0), winner);
+        assertNotEquals(NotificationCoalescer.docId("a@x.com", "e1", "winner_selected", T0 + 1_000), winner);
+        assertEquals(winner, NotificationCoalescer.docId("a@x.com", "e1", "winner_selected", T0));
+        assertEquals(NotificationCoalescer.docId("a@x.com", "e1", T0),
+                NotificationCoalescer.docId("a@x.com", "e1", "custom_message", T0 + 1_000));
+    }
+
+    /**
+     * Test: Merging does not reset the stored document's status.
+     */
+    @Test
+    public void merge_KeepsStatus() {
+        Map<String, Object> stored = NotificationCoalescer.merge(null, notif("waiting_list_info", "On the list", T0));
+        stored.put("status", "read");
+        stored = NotificationCoalescer.merge(stored, notif("custom_message", "See you there", T0 + 1_000));
+
+        assertEquals("read", stored.get("status"));
+        assertEquals("custom_message", stored.get("type"));
+        assertEquals("See you there", stored.get("message"));
+    }
+
+    /**
+     * Test: Items arriving out of order are sorted; the newest sets the top-level text.
+     */
+    @Test
+    public void merge_OutOfOrderItemsSorted() {
+        Map<String, Object> stored = NotificationCoalescer.merge(null, notif("custom_message", "second", T0 + 2_000));
+        stored = NotificationCoalescer.merge(stored, notif("custom_message", "first", T0));
+
+        assertEquals("second", stored.get("message"));
+        assertEquals(Arrays.asList("second", "first"), NotificationCoalescer.lines(stored));
+    }
+
+    /**
+     * Test: Only MAX_ITEMS items are kept but count covers all of them.
+     */
+    @Test
+    public void merge_CapsItems() {
+        Map<String, Object> stored = null;
+        int total = NotificationCoalescer.MAX_ITEMS + 5;
+        for (int i = 0; i < total; i++) {
+            stored = NotificationCoalescer.merge(stored, notif("custom_message", "m" + i, T0 + i));
+        }
+
+        assertEquals(total, NotificationCoalescer.count(stored));
+        assertEquals(NotificationCoalescer.MAX_ITEMS, NotificationCoalescer.items(stored).size());
+        assertEquals("m" + (total - 1), NotificationCoalescer.lines(stored).get(0));
+    }
+
+    /**
+     * Test: Templated items are rendered into lines.
+     */
+    @Test
+    public void lines_RendersTemplates() {
+        Map<String, Object> templated = new HashMap<>();
+        templated.put("type", "waiting_list_info");
+        templated.put("template", NotificationTemplates.WAITING_LIST);
+        templated.put("params", NotificationTemplates.event("Gala"));
+        templated.put("eventId", "e1");
+        templated.put("createdAt", T0);
+
+        Map<String, Object> stored = NotificationCoalescer.merge(null, templated);
+        stored = NotificationCoalescer.merge(stored, notif("custom_message", "Bring a towel", T0 + 1_000));
+
+        List<String> lines = NotificationCoalescer.lines(stored);
+        assertEquals("Bring a towel", lines.get(0));
+        assertEquals("You are currently on the waiting list for Gala", lines.get(1));
+        assertTrue(stored.get("items") instanceof List);
+        assertFalse(stored.containsKey("template"));
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.aurora;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.aurora.notifications.DispatchReport;
+import com.example.aurora.utils.Batching;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for the pure parts of the bulk notification fan-out.
+ *
+ * Verifies:
+ *  recipients are sliced into Firestore-sized windows without loss
+ *  DispatchReport totals, progress and resume index
+ *  partial failures are reported in the summary
+ */
+public class NotificationDispatchTest {
+
+    /**
+     * Test: 5,000 recipients split into 20 windows of 250 (500 writes each).
+     */
+    @Test
+    public void partition_LotteryRecipientsIntoBatchWindows() {
+        List<String> recipients = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) recipients.add("user" + i + "@test.com");
+
+        List<List<String>> windows = Batching.partition(recipients, 250);
+
+        assertEquals(20, windows.size());
+        int total = 0;
+        for (List<String> w : windows) {
+            assertTrue(w.size() * 2 <= 500);
+            total += w.size();
+        }
+        assertEquals(5000, total);
+        assertEquals("user250@test.com", windows.get(1).get(0));
+    }
+
+    /**
+     * Test: Report tracks delivered / skipped counts and progress.
+     */
+    @Test
+    public void report_TracksProgress() {
+        DispatchReport report = new DispatchReport(500, 0);
+
+        report.recordDelivered(240);
+        report.recordSkipped(10);
+        report.advanceTo(250);
+
+        assertEquals(0.5, report.getProgress(), 1e-9);
+        assertFalse(report.isComplete());
+
+        report.recordDelivered(250);
+        report.advanceTo(500);
+
+        assertTrue(report.isComplete());
+        assertEquals(490, report.getDelivered());
+        assertEquals("Notified 490 of 500", report.summary());
+    }
+
+    /**
+     * Test: A resumed run starts counting from its start index.
+     */
+    @Test
+    public void report_ResumesFromStartIndex() {
+        DispatchReport report = new DispatchReport(1000, 750);
+
+        assertEquals(750, report.getNotifiedUpTo());
+        report.advanceTo(500);
+        assertEquals(750, report.getNotifiedUpTo());
+    }
+
+    /**
+     * Test: Failed recipients are kept and mentioned in the summary.
+     */
+    @Test
+    public void report_ListsPartialFailures() {
+        DispatchReport report = new DispatchReport(3, 0);
+        report.recordDelivered(1);
+        report.recordFailed(Arrays.asList("a@test.com", "b@test.com"));
+        report.advanceTo(3);
+
+        assertTrue(report.hasFailures());
+        assertEquals(2, report.getFailed().size());
+        assertEquals("Notified 1 of 3 (2 failed)", report.summary());
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.aurora;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.aurora.notifications.NotificationTemplates;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Unit tests for NotificationTemplates (templated notification text).
+ *
+ * Verifies:
+ *  templates render with their params substituted
+ *  documents that store title / message (old or custom) are shown as stored
+ *  missing params and unknown templates render as empty text
+ *  notificationLogs lines render from the template's log text
+ */
+public class NotificationTemplatesTest {
+
+    /**
+     * Test: The event name is substituted into the message; the title is fixed.
+     */
+    @Test
+    public void render_SubstitutesParams() {
+        NotificationTemplates.Rendered text = NotificationTemplates.render(null, null,
+                NotificationTemplates.WAITING_LIST, NotificationTemplates.event("Swim Lessons"));
+
+        assertEquals("Waiting List Update", text.getTitle());
+        assertEquals("You are currently on the waiting list for Swim Lessons", text.getMessage());
+    }
+
+    /**
+     * Test: Stored text wins over the template, so pre-template documents read as before.
+     */
+    @Test
+    public void render_PrefersStoredText() {
+        NotificationTemplates.Rendered text = NotificationTemplates.render("Old title", "Old message",
+                NotificationTemplates.WINNER_SELECTED, null);
+
+        assertEquals("Old title", text.getTitle());
+        assertEquals("Old message", text.getMessage());
+    }
+
+    /**
+     * Test: Params are inserted literally, even when they contain regex characters.
+     */
+    @Test
+    public void render_ParamsAreLiteral() {
+        NotificationTemplates.Rendered text = NotificationTemplates.render(null, null,
+                NotificationTemplates.SELECTED_LIST, NotificationTemplates.event("$5 \\ Pizza {night}"));
+
+        assertEquals("You have been selected for $5 \\ Pizza {night}", text.getMessage());
+    }
+
+    /**
+     * Test: Missing params leave an empty gap; unknown templates render empty.
+     */
+    @Test
+    public void render_MissingParamsAndUnknownTemplates() {
+        assertEquals("Your waiting list status for  has changed.",
+                NotificationTemplates.render(null, null, NotificationTemplates.CANCELLED_LIST,
+                        Collections.emptyMap()).getMessage());
+
+        NotificationTemplates.Rendered unknown = NotificationTemplates.render(null, null, "no_such", null);
+        assertEquals("", unknown.getTitle());
+        assertEquals("", unknown.getMessage());
+        assertFalse(NotificationTemplates.has("no_such"));
+        assertTrue(NotificationTemplates.has(NotificationTemplates.NOT_SELECTED));
+    }
+
+    /**
+     * Test: Log lines come from the template unless a message was stored.
+     */
+    @Test
+    public void renderLog_UsesTemplateLogLine() {
+        assertEquals("Replacement drawn after a decline",
+                NotificationTemplates.renderLog(null, NotificationTemplates.WINNER_PROMOTED, null));
+        assertEquals("Custom text",
+                NotificationTemplates.renderLog("Custom text", NotificationTemplates.WINNER_PROMOTED, null));
+        assertEquals("", NotificationTemplates.renderLog(null, null, null));
+    }
+
+    /**
+     * Test: A stored params field is only used when it is a map.
+     */
+    @Test
+    public void params_AcceptsOnlyMaps() {
+        Map<String, Object> stored = new HashMap<>();
+        stored.put("eventName", "Gala");
+
+        assertEquals(stored, NotificationTemplates.params(stored));
+        assertNull(NotificationTemplates.params("Gala"));
+        assertNull(NotificationTemplates.params(null));
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.aurora;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.aurora.data.OutboundEntry;
+import com.example.aurora.data.OutboundPolicy;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Unit tests for OutboundPolicy (flush rules of the offline outbound queue).
+ *
+ * Verifies:
+ *  chunks keep queue order and never exceed the write limit, counting
+ *  notifications as two writes (document + unread counter)
+ *  retries are spaced by the backoff ceiling
+ *  only permanent failures are dropped, and only after every attempt
+ */
+public class OutboundPolicyTest {
+
+    private static OutboundEntry log(String key) {
+        return new OutboundEntry(key, "logs", "{}", null, 0L, 0, 0L);
+    }
+
+    private static OutboundEntry notification(String key) {
+        return new OutboundEntry(key, "notifications", "{}", "a@x.com", 0L, 0, 0L);
+    }
+
+    /**
+     * Test: 300 notifications (600 writes) split at the limit, in order.
+     */
+    @Test
+    public void chunks_RespectWriteLimitAndOrder() {
+        List<OutboundEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 300; i++) entries.add(notification("n" + i));
+
+        List<List<OutboundEntry>> chunks = OutboundPolicy.chunks(entries, OutboundPolicy.MAX_CHUNK_WRITES);
+
+        assertEquals(2, chunks.size());
+        assertEquals(200, chunks.get(0).size());
+        assertEquals(100, chunks.get(1).size());
+        assertEquals("n200", chunks.get(1).get(0).getKey());
+    }
+
+    /**
+     * Test: A notification that would overflow a chunk starts the next one.
+     */
+    @Test
+    public void chunks_MixedCostsDoNotOverflow() {
+        List<OutboundEntry> entries = new ArrayList<>();
+        entries.add(log("l0"));
+        entries.add(log("l1"));
+        entries.add(notification("n0"));
+        entries.add(log("l2"));
+
+        List<List<OutboundEntry>> chunks = OutboundPolicy.chunks(entries, 3);
+
+        assertEquals(2, chunks.size());
+        assertEquals(2, chunks.get(0).size());
+        assertEquals("n0", chunks.get(1).get(0).getKey());
+        assertEquals(0, OutboundPolicy.chunks(new ArrayList<>(), 3).size());
+    }
+
+    /**
+     * Test: The next attempt falls within the backoff ceiling after now.
+     */
+    @Test
+    public void nextAttemptAt_WithinBackoffCeiling() {
+        Random random = new Random(7);
+        for (int attempt = 0; attempt < 10; attempt++) {
+            long at = OutboundPolicy.nextAttemptAt(1_000L, attempt, random);
+            assertTrue(at >= 1_000L);
+            assertTrue(at < 1_000L + OutboundPolicy.BACKOFF.ceilingMillis(attempt));
+        }
+    }
+
+    /**
+     * Test: Transient failures are never dropped; rejected writes are after the last attempt.
+     */
+    @Test
+    public void shouldDrop_OnlyPermanentAfterLastAttempt() {
+        int last = OutboundPolicy.BACKOFF.getMaxAttempts() - 1;
+
+        assertFalse(OutboundPolicy.shouldDrop(0, true));
+        assertTrue(OutboundPolicy.shouldDrop(last, true));
+        assertFalse(OutboundPolicy.shouldDrop(last, false));
+        assertFalse(OutboundPolicy.shouldDrop(1_000, false));
+    }
+}
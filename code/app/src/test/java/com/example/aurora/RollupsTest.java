@@ -0,0 +1,72 @@
+package com.example.aurora;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.example.aurora.notifications.Rollups;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Unit tests for Rollups (bucketing used by CompactionWorker).
+ *
+ * Verifies:
+ *  day and month keys are UTC and split exactly at midnight
+ *  the retention cutoff is "now minus N days" and never in the future
+ *  DailyTally counts per day, type and event
+ */
+public class RollupsTest {
+
+    /** 2025-11-03T00:00:00Z */
+    private static final long NOV_3 = 1762128000000L;
+
+    /**
+     * Test: Keys change exactly at UTC midnight and month boundaries.
+     */
+    @Test
+    public void dayAndMonth_UtcBoundaries() {
+        assertEquals("2025-11-03", Rollups.day(NOV_3));
+        assertEquals("2025-11-02", Rollups.day(NOV_3 - 1));
+        assertEquals("2025-11", Rollups.month(NOV_3));
+        assertEquals("2025-10", Rollups.month(NOV_3 - 3 * Rollups.DAY_MILLIS));
+    }
+
+    /**
+     * Test: Cutoff subtracts whole days; negative retention keeps nothing back.
+     */
+    @Test
+    public void cutoff_SubtractsDays() {
+        assertEquals(NOV_3 - 30 * Rollups.DAY_MILLIS, Rollups.cutoff(NOV_3, 30));
+        assertEquals(NOV_3, Rollups.cutoff(NOV_3, -5));
+    }
+
+    /**
+     * Test: Entries are counted per day, per type and per event, oldest day first.
+     */
+    @Test
+    public void dailyTally_CountsPerDayTypeAndEvent() {
+        Rollups.DailyTally tally = new Rollups.DailyTally();
+        tally.add(NOV_3 + 10, "winner_selected", "e1");
+        tally.add(NOV_3 + 20, "winner_selected", "e2");
+        tally.add(NOV_3 + 30, null, "e1");
+        tally.add(NOV_3 - 10, "custom_message", null);
+
+        Map<String, Rollups.Day> days = tally.getDays();
+        assertEquals(Arrays.asList("2025-11-02", "2025-11-03"), new ArrayList<>(days.keySet()));
+
+        Rollups.Day nov3 = days.get("2025-11-03");
+        assertEquals(3, nov3.getTotal());
+        assertEquals(Long.valueOf(2), nov3.getTypes().get("winner_selected"));
+        assertEquals(Long.valueOf(1), nov3.getTypes().get("unknown"));
+        assertEquals(Long.valueOf(2), nov3.getEvents().get("e1"));
+
+        Rollups.Day nov2 = days.get("2025-11-02");
+        assertEquals(1, nov2.getTotal());
+        assertNull(nov2.getEvents().get("e1"));
+        assertEquals(0, nov2.getEvents().size());
+    }
+}
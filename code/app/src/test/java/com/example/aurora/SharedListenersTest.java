@@ -0,0 +1,171 @@
+package com.example.aurora;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.aurora.data.SharedListeners;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for SharedListeners (the multiplexer behind EventStatusRepository).
+ *
+ * Verifies:
+ *  subscribers of one key share a single underlying listener
+ *  the listener closes with its last subscriber, and removing twice is harmless
+ *  the latest value is replayed to new subscribers, and dropped when the listener closes
+ *  put() reaches open subscribers, is not kept for unwatched keys, and late
+ *  callbacks of closed listeners are dropped
+ *  scrolling many rows keeps the open count at the number of visible rows
+ */
+public class SharedListenersTest {
+
+    /** Fake source that records open listeners and lets the test push values. */
+    private final Map<String, SharedListeners.Subscriber<String>> sinks = new HashMap<>();
+    private int opened;
+    private int closed;
+
+    private SharedListeners<String, String> listeners;
+
+    @Before
+    public void setUp() {
+        listeners = new SharedListeners<>((key, sink) -> {
+            opened++;
+            sinks.put(key, sink);
+            return () -> closed++;
+        });
+    }
+
+    /**
+     * Test: Two subscribers of one key open one listener and both receive values.
+     */
+    @Test
+    public void subscribe_SharesOneListenerPerKey() {
+        List<String> a = new ArrayList<>();
+        List<String> b = new ArrayList<>();
+
+        listeners.subscribe("e1", a::add);
+        listeners.subscribe("e1", b::add);
+        sinks.get("e1").onValue("waiting");
+
+        assertEquals(1, opened);
+        assertEquals(1, listeners.getActiveCount());
+        assertEquals(2, listeners.getSubscriberCount("e1"));
+        assertEquals("waiting", a.get(0));
+        assertEquals("waiting", b.get(0));
+    }
+
+    /**
+     * Test: The listener closes only when the last subscriber leaves; double remove is ignored.
+     */
+    @Test
+    public void remove_ClosesWithLastSubscriber() {
+        SharedListeners.Handle first = listeners.subscribe("e1", v -> { });
+        SharedListeners.Handle second = listeners.subscribe("e1", v -> { });
+
+        first.remove();
+        first.remove();
+        assertEquals(0, closed);
+        assertEquals(1, listeners.getActiveCount());
+
+        second.remove();
+        assertEquals(1, closed);
+        assertEquals(0, listeners.getActiveCount());
+    }
+
+    /**
+     * Test: A subscriber joining an open listener gets the last value at once.
+     */
+    @Test
+    public void subscribe_ReplaysLatestValue() {
+        listeners.subscribe("e1", v -> { });
+        sinks.get("e1").onValue("selected");
+
+        List<String> later = new ArrayList<>();
+        listeners.subscribe("e1", later::add);
+
+        assertEquals("selected", later.get(0));
+        assertEquals("selected", listeners.get("e1"));
+        assertEquals(1, opened);
+    }
+
+    /**
+     * Test: The cached value goes with the last subscriber, so a later subscriber waits for the listener.
+     */
+    @Test
+    public void remove_EvictsLatestValue() {
+        SharedListeners.Handle h = listeners.subscribe("e1", v -> { });
+        sinks.get("e1").onValue("selected");
+        h.remove();
+
+        assertNull(listeners.get("e1"));
+
+        List<String> later = new ArrayList<>();
+        listeners.subscribe("e1", later::add);
+        assertTrue(later.isEmpty());
+        sinks.get("e1").onValue("accepted");
+        assertEquals("accepted", later.get(0));
+        assertEquals(2, opened);
+    }
+
+    /**
+     * Test: put() updates open subscribers and is not kept for unwatched keys;
+     * a closed listener's late callback changes nothing.
+     */
+    @Test
+    public void put_AndLateCallbacks() {
+        List<String> seen = new ArrayList<>();
+        SharedListeners.Handle h = listeners.subscribe("e1", seen::add);
+        SharedListeners.Subscriber<String> oldSink = sinks.get("e1");
+
+        listeners.put("e1", "waiting");
+        assertEquals("waiting", seen.get(0));
+
+        h.remove();
+        oldSink.onValue("cancelled");
+        assertNull(listeners.get("e1"));
+        assertEquals(1, seen.size());
+
+        listeners.put("e2", "final");
+        assertNull(listeners.get("e2"));
+        assertEquals(0, listeners.getActiveCount());
+
+        List<String> later = new ArrayList<>();
+        listeners.subscribe("e2", later::add);
+        assertTrue(later.isEmpty());
+    }
+
+    /**
+     * Test: Scrolling 200 rows with 8 on screen never holds more than 8 listeners.
+     */
+    @Test
+    public void scrolling_KeepsListenersToVisibleRows() {
+        int visible = 8;
+        SharedListeners.Handle[] rows = new SharedListeners.Handle[visible];
+        int max = 0;
+
+        for (int position = 0; position < 200; position++) {
+            int slot = position % visible;
+            if (rows[slot] != null) rows[slot].remove(); // recycled
+            rows[slot] = listeners.subscribe("event" + position, v -> { }); // attached
+            sinks.get("event" + position).onValue("waiting");
+            max = Math.max(max, listeners.getActiveCount());
+        }
+
+        assertEquals(visible, max);
+        assertEquals(200, opened);
+        assertEquals(200 - visible, closed);
+        // rows that scrolled away leave no cached status behind
+        assertNull(listeners.get("event0"));
+        assertEquals("waiting", listeners.get("event199"));
+        for (SharedListeners.Handle row : rows) row.remove();
+        assertEquals(0, listeners.getActiveCount());
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.aurora;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.example.aurora.notifications.UnreadBadge;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for UnreadBadge (alerts tab badge text).
+ *
+ * Verifies:
+ *  no badge for zero or a counter that drifted below zero
+ *  exact numbers up to 99, "99+" above
+ */
+public class UnreadBadgeTest {
+
+    /**
+     * Test: Zero and negative counts hide the badge.
+     */
+    @Test
+    public void label_HiddenWhenNothingUnread() {
+        assertNull(UnreadBadge.label(0));
+        assertNull(UnreadBadge.label(-3));
+    }
+
+    /**
+     * Test: Counts are shown as-is up to 99 and capped after.
+     */
+    @Test
+    public void label_CapsAtNinetyNine() {
+        assertEquals("1", UnreadBadge.label(1));
+        assertEquals("99", UnreadBadge.label(99));
+        assertEquals("99+", UnreadBadge.label(100));
+        assertEquals("99+", UnreadBadge.label(12_000));
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.aurora;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.aurora.data.UserCache;
+import com.example.aurora.data.UserInfo;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for UserCache and UserInfo (the storage behind UserDirectory).
+ *
+ * Verifies:
+ *  users are found by document ID and by email
+ *  entries expire after the TTL
+ *  the least recently used user is evicted when the cache is full
+ *  invalidation and email changes leave no stale aliases
+ *  missing() lists only unknown keys, once each
+ *  notifications default to enabled when the field is absent
+ */
+public class UserCacheTest {
+
+    private long now = 0L;
+
+    private UserCache cache(int size, long ttl) {
+        return new UserCache(size, ttl, () -> now);
+    }
+
+    private static UserInfo user(String id, String email) {
+        return new UserInfo(id, email, "Name " + id, "555", true);
+    }
+
+    /**
+     * Test: A stored user can be looked up by document ID or email.
+     */
+    @Test
+    public void get_ByIdOrEmail() {
+        UserCache cache = cache(10, 1000);
+        cache.put(user("u1", "a@test.com"));
+
+        assertEquals("u1", cache.get("u1").getDocId());
+        assertEquals("u1", cache.get("a@test.com").getDocId());
+        assertNull(cache.get("b@test.com"));
+    }
+
+    /**
+     * Test: Entries are dropped once they are older than the TTL.
+     */
+    @Test
+    public void get_ExpiresAfterTtl() {
+        UserCache cache = cache(10, 1000);
+        cache.put(user("u1", "a@test.com"));
+
+        now = 999;
+        assertNotNull(cache.get("a@test.com"));
+
+        now = 1000;
+        assertNull(cache.get("a@test.com"));
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * Test: The least recently used entry is evicted, together with its email alias.
+     */
+    @Test
+    public void put_EvictsLeastRecentlyUsed() {
+        UserCache cache = cache(2, 1000);
+        cache.put(user("u1", "a@test.com"));
+        cache.put(user("u2", "b@test.com"));
+
+        cache.get("u1");                       // u2 is now the eldest
+        cache.put(user("u3", "c@test.com"));
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("a@test.com"));
+        assertNull(cache.get("b@test.com"));
+        assertNull(cache.get("u2"));
+    }
+
+    /**
+     * Test: Invalidating by email removes the user; changing email drops the old alias.
+     */
+    @Test
+    public void invalidateAndEmailChange() {
+        UserCache cache = cache(10, 1000);
+        cache.put(user("u1", "a@test.com"));
+        cache.invalidate("a@test.com");
+        assertNull(cache.get("u1"));
+
+        cache.put(user("u2", "old@test.com"));
+        cache.put(user("u2", "new@test.com"));
+        assertNull(cache.get("old@test.com"));
+        assertEquals("u2", cache.get("new@test.com").getDocId());
+        assertEquals(1, cache.size());
+    }
+
+    /**
+     * Test: missing() keeps order, skips cached, empty and duplicate keys.
+     */
+    @Test
+    public void missing_OnlyUnknownKeysOnce() {
+        UserCache cache = cache(10, 1000);
+        cache.put(user("u1", "a@test.com"));
+
+        List<String> missing = cache.missing(
+                Arrays.asList("b@test.com", "a@test.com", "", "b@test.com", "u9"));
+
+        assertEquals(Arrays.asList("b@test.com", "u9"), missing);
+    }
+
+    /**
+     * Test: Users without the preference field get notifications; an explicit false is kept.
+     */
+    @Test
+    public void fromFields_NotificationDefault() {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("email", "a@test.com");
+        fields.put("name", "");
+        assertTrue(UserInfo.fromFields("u1", fields).isNotificationsEnabled());
+        assertEquals("a@test.com", UserInfo.fromFields("u1", fields).getDisplayName());
+
+        fields.put("entrant_notifications_enabled", false);
+        assertFalse(UserInfo.fromFields("u1", fields).isNotificationsEnabled());
+    }
+}